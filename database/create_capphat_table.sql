@@ -12,10 +12,13 @@ CREATE TABLE IF NOT EXISTS CapPhat (
     
     -- Indexes để tối ưu hóa truy vấn
     INDEX idx_capphat_yeucau (yeuCauId),
-    INDEX idx_capphat_ngaycap (ngayCap),
+    INDEX idx_capphat_ngaycap (ngayCap, id), -- Phân trang keyset lịch sử theo (ngayCap, id)
     INDEX idx_capphat_ngaytra (ngayTra),
     INDEX idx_capphat_active (ngayTra) -- Để tìm nhanh cấp phát đang hoạt động
 );
 
+-- Với database đã tạo trước đây (idx_capphat_ngaycap chỉ có ngayCap), đổi index phân trang bằng:
+-- ALTER TABLE CapPhat DROP INDEX idx_capphat_ngaycap, ADD INDEX idx_capphat_ngaycap (ngayCap, id);
+
 -- Comment cho bảng
 ALTER TABLE CapPhat COMMENT = 'Bảng lưu trữ lịch sử cấp phát thiết bị cho nhân viên';
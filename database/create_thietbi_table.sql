@@ -17,11 +17,20 @@ CREATE TABLE IF NOT EXISTS ThietBi (
     createdAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updatedAt TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     
+    INDEX idx_thietbi_trangthai (trangThai),
+    -- Tìm kiếm chuỗi con trên serial/ghi chú bằng MATCH ... AGAINST thay vì LIKE '%x%'
+    -- (ngram_token_size mặc định = 2, từ khoá 1 ký tự sẽ tìm theo tiền tố serial)
+    FULLTEXT INDEX ft_thietbi_search (soSerial, ghiChu) WITH PARSER ngram,
+    
     FOREIGN KEY (loaiId) REFERENCES LoaiThietBi(id) ON DELETE CASCADE
 ) 
 CHARACTER SET = utf8mb4 
 COLLATE = utf8mb4_0900_ai_ci;
 
+-- Với database đã tạo trước đây, thêm index tìm kiếm bằng:
+-- ALTER TABLE ThietBi ADD INDEX idx_thietbi_trangthai (trangThai);
+-- ALTER TABLE ThietBi ADD FULLTEXT INDEX ft_thietbi_search (soSerial, ghiChu) WITH PARSER ngram;
+
 -- Thêm dữ liệu mẫu
 INSERT INTO ThietBi (soSerial, loaiId, trangThai, ngayMua, giaMua, ghiChu) VALUES
 ('TB001-LAPTOP-001', 1, 'TON_KHO', '2024-01-15', 15000000.00, 'Laptop Dell Inspiron 15'),
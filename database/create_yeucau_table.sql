@@ -15,12 +15,20 @@ CREATE TABLE IF NOT EXISTS YeuCau (
     ngayTao TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     ngayCapNhat TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     
+    -- Danh sách yêu cầu mới nhất trước (màn hình duyệt) và phân trang keyset yêu cầu theo nhân viên
+    INDEX idx_yeucau_ngaytao (ngayTao, id),
+    INDEX idx_yeucau_nhanvien_ngaytao (nhanVienId, ngayTao, id),
+    
     FOREIGN KEY (thietBiId) REFERENCES ThietBi(id) ON DELETE CASCADE,
     FOREIGN KEY (nhanVienId) REFERENCES NhanVien(maNhanVien) ON DELETE CASCADE
 ) 
 CHARACTER SET = utf8mb4 
 COLLATE = utf8mb4_0900_ai_ci;
 
+-- Với database đã tạo trước đây, thêm index phân trang bằng:
+-- ALTER TABLE YeuCau ADD INDEX idx_yeucau_ngaytao (ngayTao, id);
+-- ALTER TABLE YeuCau ADD INDEX idx_yeucau_nhanvien_ngaytao (nhanVienId, ngayTao, id);
+
 -- Thêm dữ liệu mẫu
 INSERT INTO YeuCau (thietBiId, nhanVienId, trangThai, lyDo) VALUES
 (1, 'NV002', 'CHO_DUYET', 'Cần laptop để làm việc từ xa'),
@@ -0,0 +1,45 @@
+package com.mycompany.device.benchmark;
+
+import com.mycompany.device.util.DatabaseConnection;
+
+import java.sql.SQLException;
+
+/**
+ * Trỏ ứng dụng tới database H2 nhúng (chế độ MySQL) cho benchmark.
+ * Bảng được tạo từ database/*.sql và dữ liệu giả lập được sinh ở lần kết nối đầu tiên
+ * (xem EmbeddedDatabase, SyntheticDataGenerator), các *DAOMySQLImpl chạy không đổi.
+ * Phải gọi trước lần đầu dùng DatabaseConnection vì cấu hình được đọc qua system property.
+ * @author Kim Ngan - Benchmark
+ */
+public final class BenchmarkDatabase {
+
+    private static int soThietBiDaTao = -1;
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Khởi tạo database (một lần cho mỗi JVM fork) với số thiết bị cho trước.
+     * Thiết bị id chẵn có lịch sử cấp phát, một phần tư trong số đó đã trả.
+     */
+    public static synchronized void khoiTao(int soThietBi) throws SQLException {
+        if (soThietBiDaTao == soThietBi) {
+            return;
+        }
+        if (soThietBiDaTao >= 0) {
+            throw new IllegalStateException("Database benchmark đã được tạo với " + soThietBiDaTao + " thiết bị");
+        }
+        System.setProperty("DB_URL", "jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        System.setProperty("DB_DRIVER", "org.h2.Driver");
+        System.setProperty("DB_USERNAME", "sa");
+        System.setProperty("DB_PASSWORD", "");
+        System.setProperty("DB_SEED_THIETBI", String.valueOf(soThietBi));
+        System.setProperty("DB_SEED_NHANVIEN", "200");
+        System.setProperty("DB_SEED_LICH_SU", "true");
+        System.setProperty("EVENT_BUS_ASYNC", "false");
+
+        // Kết nối đầu tiên tạo bảng và sinh dữ liệu
+        DatabaseConnection.getInstance().getConnection().close();
+        soThietBiDaTao = soThietBi;
+    }
+}
@@ -0,0 +1,104 @@
+package com.mycompany.device.benchmark;
+
+import com.mycompany.device.dao.CapPhatDAO;
+import com.mycompany.device.dao.impl.CapPhatDAOMySQLImpl;
+import com.mycompany.device.dao.impl.NhanVienDAOMySQLImpl;
+import com.mycompany.device.dao.impl.PhongBanDAOMySQLImpl;
+import com.mycompany.device.dao.impl.ThietBiDAOMySQLImpl;
+import com.mycompany.device.dao.impl.YeuCauDAOMySQLImpl;
+import com.mycompany.device.model.CapPhat;
+import com.mycompany.device.model.LichSuCapPhat;
+import com.mycompany.device.model.NhanVien;
+import com.mycompany.device.model.PhongBan;
+import com.mycompany.device.model.ThietBi;
+import com.mycompany.device.model.YeuCau;
+import com.mycompany.device.util.LichSuCapPhatIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Join lịch sử cấp phát theo hai cách:
+ * - Trong bộ nhớ bằng LichSuCapPhatIndex (cách cũ của màn hình lịch sử; nay TraCuuService dùng
+ *   để dựng map thiết bị -> cấp phát hiện tại), làm mốc so sánh
+ * - Truy vấn join keyset trên database (findLichSuCapPhatPage), đúng như LichSuCapPhatPanel đang tải:
+ *   trang đầu của cả bảng và của một thiết bị
+ * @author Kim Ngan - Benchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LichSuCapPhatBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"1000", "10000"})
+    public int soThietBi;
+
+    private List<CapPhat> capPhatList;
+    private List<YeuCau> yeuCauList;
+    private List<ThietBi> thietBiList;
+    private List<NhanVien> nhanVienList;
+    private List<PhongBan> phongBanList;
+    private LichSuCapPhatIndex index;
+    private CapPhatDAO capPhatDAO;
+    private Long thietBiId;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        BenchmarkDatabase.khoiTao(soThietBi);
+        capPhatDAO = new CapPhatDAOMySQLImpl();
+        capPhatList = capPhatDAO.getAllCapPhat();
+        yeuCauList = new YeuCauDAOMySQLImpl().getAllYeuCau();
+        thietBiList = new ThietBiDAOMySQLImpl().findAll();
+        nhanVienList = new NhanVienDAOMySQLImpl().getAllNhanVien();
+        phongBanList = new PhongBanDAOMySQLImpl().getAllPhongBan();
+        index = taoIndex();
+        // Thiết bị ở giữa danh sách có cấp phát (id chẵn)
+        thietBiId = (long) (soThietBi / 2 & ~1);
+    }
+
+    private LichSuCapPhatIndex taoIndex() {
+        return new LichSuCapPhatIndex(capPhatList, yeuCauList, thietBiList, nhanVienList, phongBanList);
+    }
+
+    @Benchmark
+    public LichSuCapPhatIndex buildIndex() {
+        return taoIndex();
+    }
+
+    @Benchmark
+    public List<LichSuCapPhat> joinAllRows() {
+        return index.buildRows(null);
+    }
+
+    @Benchmark
+    public List<LichSuCapPhat> joinRowsOfThietBi() {
+        return index.buildRows(thietBiId);
+    }
+
+    @Benchmark
+    public List<LichSuCapPhat> firstPageFromDatabase() {
+        return capPhatDAO.findLichSuCapPhatPage(null, null, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<LichSuCapPhat> firstPageOfThietBiFromDatabase() {
+        return capPhatDAO.findLichSuCapPhatPage(thietBiId, null, null, PAGE_SIZE);
+    }
+}
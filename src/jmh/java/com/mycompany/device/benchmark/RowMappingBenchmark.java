@@ -0,0 +1,61 @@
+package com.mycompany.device.benchmark;
+
+import com.mycompany.device.dao.CapPhatDAO;
+import com.mycompany.device.dao.ThietBiDAO;
+import com.mycompany.device.dao.impl.CapPhatDAOMySQLImpl;
+import com.mycompany.device.dao.impl.ThietBiDAOMySQLImpl;
+import com.mycompany.device.model.CapPhat;
+import com.mycompany.device.model.ThietBi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đọc toàn bộ bảng ThietBi/CapPhat qua DAO.
+ * mapResultSetToThietBi/mapResultSetToCapPhat là private nên được đo qua findAll/getAllCapPhat;
+ * trên H2 in-memory không có round-trip mạng nên thời gian chủ yếu là đọc cột và dựng đối tượng.
+ * @author Kim Ngan - Benchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMappingBenchmark {
+
+    @Param({"1000", "10000"})
+    public int soThietBi;
+
+    private ThietBiDAO thietBiDAO;
+    private CapPhatDAO capPhatDAO;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        BenchmarkDatabase.khoiTao(soThietBi);
+        thietBiDAO = new ThietBiDAOMySQLImpl();
+        capPhatDAO = new CapPhatDAOMySQLImpl();
+    }
+
+    @Benchmark
+    public List<ThietBi> mapThietBi() {
+        return thietBiDAO.findAll();
+    }
+
+    @Benchmark
+    public List<CapPhat> mapCapPhat() {
+        return capPhatDAO.getAllCapPhat();
+    }
+}
@@ -0,0 +1,56 @@
+package com.mycompany.device.benchmark;
+
+import com.mycompany.device.dao.ThietBiDAO;
+import com.mycompany.device.dao.impl.ThietBiDAOMySQLImpl;
+import com.mycompany.device.model.ThietBi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ThietBiDAOMySQLImpl.search với các kiểu tìm của màn hình thiết bị.
+ * H2 không hỗ trợ MATCH ... AGAINST nên đo nhánh LIKE; nhánh FULLTEXT chỉ đo được trên MySQL.
+ * @author Kim Ngan - Benchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThietBiSearchBenchmark {
+
+    @Param({"10000"})
+    public int soThietBi;
+
+    @Param({"Tất cả", "Số Serial", "Ghi chú", "Trạng thái"})
+    public String searchType;
+
+    @Param({"LAPTOP", "Logitech lô 4"})
+    public String keyword;
+
+    private ThietBiDAO thietBiDAO;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        BenchmarkDatabase.khoiTao(soThietBi);
+        thietBiDAO = new ThietBiDAOMySQLImpl();
+    }
+
+    @Benchmark
+    public List<ThietBi> search() {
+        return thietBiDAO.search(keyword, searchType);
+    }
+}
@@ -1,6 +1,10 @@
 package com.mycompany.device;
 
+import com.mycompany.device.metrics.Metrics;
+import com.mycompany.device.observer.EventBus;
 import com.mycompany.device.ui.swing.frame.LoginFrame;
+import com.mycompany.device.util.DatabaseConnection;
+import com.mycompany.device.util.EntityCache;
 import com.mycompany.device.util.LogoUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,6 +21,7 @@ import java.awt.event.ActionListener;
 public class DeviceManagementApp {
     
     private static final Logger logger = LoggerFactory.getLogger(DeviceManagementApp.class);
+    private static final long EVENT_BUS_SHUTDOWN_TIMEOUT_MS = 2000;
     
     public static void main(String[] args) {
         logger.info("Khởi động ứng dụng Swing Device Management");
@@ -44,6 +49,24 @@ public class DeviceManagementApp {
         // Thiết lập System Tray nếu được hỗ trợ
         setupSystemTray();
         
+        // Ghi số liệu hiệu năng định kỳ (chỉ khi METRICS_ENABLED=true)
+        Metrics.start();
+        
+        // Đóng connection pool khi JVM tắt (mọi đường System.exit đều đi qua đây)
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            // Ghi lại hiệu quả của cache thực thể trước khi tắt
+            for (EntityCache.CacheStats stats : EntityCache.getAllStats()) {
+                logger.info("{}", stats);
+            }
+            // Cho observer xử lý nốt các sự kiện đang chờ rồi ghi lại độ trễ/độ sâu hàng đợi
+            for (EventBus.SubscriberStats stats : EventBus.getInstance().shutdown(EVENT_BUS_SHUTDOWN_TIMEOUT_MS)) {
+                logger.info("{}", stats);
+            }
+            // Báo cáo metrics của kỳ cuối cùng
+            Metrics.shutdown();
+            DatabaseConnection.getInstance().shutdown();
+        }, "db-pool-shutdown"));
+        
         // Khởi động ứng dụng trong Event Dispatch Thread
         SwingUtilities.invokeLater(() -> {
             try {
@@ -3,6 +3,7 @@ package com.mycompany.device.controller;
 import com.mycompany.device.model.NhanVien;
 import com.mycompany.device.service.NhanVienService;
 import com.mycompany.device.service.impl.NhanVienServiceImpl;
+import com.mycompany.device.metrics.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,7 +26,7 @@ public class AuthController {
      * Constructor - khởi tạo Controller với NhanVienService
      */
     public AuthController() {
-        this.nhanVienService = new NhanVienServiceImpl();
+        this.nhanVienService = Metrics.instrument(NhanVienService.class, new NhanVienServiceImpl());
         logger.info("AuthController đã được khởi tạo thành công");
     }
     
@@ -87,10 +88,7 @@ public class AuthController {
         if (currentUser != null) {
             logger.info("Nhân viên đăng xuất: {} - {}", currentUser.getEmail(), currentUser.getTenNhanVien());
             
-            // Nếu service có method dangXuat
-            if (nhanVienService instanceof NhanVienServiceImpl) {
-                ((NhanVienServiceImpl) nhanVienService).dangXuat(currentUser);
-            }
+            nhanVienService.dangXuat(currentUser);
             
             // Clear session
             this.currentUser = null;
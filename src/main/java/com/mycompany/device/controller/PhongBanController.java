@@ -3,6 +3,7 @@ package com.mycompany.device.controller;
 import com.mycompany.device.model.PhongBan;
 import com.mycompany.device.service.PhongBanService;
 import com.mycompany.device.ui.swing.panel.PhongBanPanel;
+import com.mycompany.device.ui.swing.service.BackgroundLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,6 +23,9 @@ public class PhongBanController {
     
     private static final Logger logger = LoggerFactory.getLogger(PhongBanController.class);
     
+    // Khoá cho BackgroundLoader: lượt làm mới sau sẽ huỷ lượt trước
+    private static final String LOAD_KEY = "PhongBanController.phongBan";
+    
     private final PhongBanPanel view;
     private final PhongBanService service;
     
@@ -65,14 +69,13 @@ public class PhongBanController {
      * Load dữ liệu ban đầu khi khởi tạo
      */
     private void loadInitialData() {
-        try {
-            List<PhongBan> phongBanList = service.xemDanhSachPhongBan();
-            view.updateTableData(phongBanList);
-            logger.info("Đã load {} phòng ban", phongBanList.size());
-        } catch (Exception e) {
-            logger.error("Lỗi khi load dữ liệu ban đầu", e);
-            view.showErrorMessage("Không thể tải dữ liệu: " + e.getMessage());
-        }
+        BackgroundLoader.getInstance().load(LOAD_KEY, "phòng ban",
+            service::xemDanhSachPhongBan,
+            phongBanList -> {
+                view.updateTableData(phongBanList);
+                logger.info("Đã load {} phòng ban", phongBanList.size());
+            },
+            e -> view.showErrorMessage("Không thể tải dữ liệu: " + e.getMessage()));
     }
     
     /**
@@ -282,13 +285,11 @@ public class PhongBanController {
      * Refresh dữ liệu từ service
      */
     private void refreshData() {
-        try {
-            List<PhongBan> phongBanList = service.xemDanhSachPhongBan();
-            view.updateTableData(phongBanList);
-        } catch (Exception e) {
-            logger.error("Lỗi khi refresh dữ liệu", e);
-            view.showErrorMessage("Lỗi khi tải dữ liệu: " + e.getMessage());
-        }
+        // Truy vấn chạy nền, kết quả được đẩy về EDT
+        BackgroundLoader.getInstance().load(LOAD_KEY, "phòng ban",
+            service::xemDanhSachPhongBan,
+            view::updateTableData,
+            e -> view.showErrorMessage("Lỗi khi tải dữ liệu: " + e.getMessage()));
     }
     
     /**
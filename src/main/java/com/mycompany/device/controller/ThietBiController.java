@@ -1,9 +1,18 @@
 package com.mycompany.device.controller;
 
+import com.mycompany.device.model.BaoCaoNhapThietBi;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
 import com.mycompany.device.model.ThietBi;
+import com.mycompany.device.service.ThietBiImportService;
 import com.mycompany.device.service.ThietBiService;
+import com.mycompany.device.service.impl.ThietBiImportServiceImpl;
 import com.mycompany.device.service.impl.ThietBiServiceImpl;
+import com.mycompany.device.metrics.Metrics;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.function.BooleanSupplier;
 
 /**
  * Lớp điều khiển (Controller) trung gian giữa Panel và Service Layer.
@@ -11,16 +20,22 @@ import java.util.List;
 public class ThietBiController {
 
     private final ThietBiService thietBiService;
+    private final ThietBiImportService thietBiImportService;
     
     public ThietBiController() {
         // Sử dụng Service đã được sửa lỗi
-        this.thietBiService = new ThietBiServiceImpl();
+        this.thietBiService = Metrics.instrument(ThietBiService.class, new ThietBiServiceImpl());
+        this.thietBiImportService = Metrics.instrument(ThietBiImportService.class, new ThietBiImportServiceImpl());
     }
     
     public List<ThietBi> getAllThietBi() {
         return thietBiService.findAll();
     }
     
+    public Page<ThietBi> getThietBiPage(PageRequest pageRequest) {
+        return thietBiService.findPage(pageRequest);
+    }
+    
     public boolean createThietBi(ThietBi thietBi) {
         return thietBiService.save(thietBi);
     }
@@ -33,6 +48,14 @@ public class ThietBiController {
         return thietBiService.delete(id);
     }
     
+    /**
+     * Nhập thiết bị hàng loạt từ file CSV (gọi từ luồng nền, không gọi trên EDT)
+     */
+    public BaoCaoNhapThietBi nhapTuCsv(Path file, ThietBiImportService.TienDoListener listener,
+                                       BooleanSupplier daHuy) throws IOException, InterruptedException {
+        return thietBiImportService.nhapTuCsv(file, listener, daHuy);
+    }
+    
     public List<ThietBi> searchThietBi(String keyword, String searchType) {
         // Gọi Service (Service sẽ gọi DAO đã được sửa lỗi SQL)
         return thietBiService.search(keyword, searchType);
@@ -1,8 +1,18 @@
 package com.mycompany.device.dao;
 
 import com.mycompany.device.model.CapPhat;
+import com.mycompany.device.model.CapPhatTongHop;
+import com.mycompany.device.model.KetQuaCapPhat;
+import com.mycompany.device.model.KetQuaHangLoat;
+import com.mycompany.device.model.LichSuCapPhat;
+import com.mycompany.device.model.YeuCau;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * DAO interface cho CapPhat (Cấp phát thiết bị)
@@ -35,6 +45,13 @@ public interface CapPhatDAO {
      */
     List<CapPhat> getAllCapPhat();
     
+    /**
+     * Lấy một trang cấp phát, phân trang keyset.
+     * Khoá sắp xếp: "ngayCap" (mặc định, mới nhất trước), "id"
+     * @throws RuntimeException khi lỗi database (không trả về trang rỗng để tránh hiểu nhầm là hết dữ liệu)
+     */
+    Page<CapPhat> getCapPhatPage(PageRequest pageRequest);
+    
     /**
      * Tìm cấp phát theo yêu cầu
      */
@@ -75,8 +92,71 @@ public interface CapPhatDAO {
      */
     int countReturnedCapPhat();
     
+    /**
+     * Lấy số liệu tổng hợp (tổng/đang hoạt động/đã trả, theo tình trạng trả, theo tháng)
+     * trong một lần quét bảng bằng conditional aggregation
+     * @param soThang số tháng gần nhất cần thống kê theo tháng
+     * @throws RuntimeException khi lỗi database (không trả về số liệu rỗng để service không cache nhầm)
+     */
+    CapPhatTongHop getThongKeTongHop(int soThang);
+    
+    /**
+     * Lấy một trang lịch sử cấp phát đã join sẵn (thiết bị, nhân viên, phòng ban),
+     * sắp xếp mới nhất trước, phân trang keyset theo (ngayCap, id)
+     * @param thietBiId lọc theo thiết bị, null = tất cả
+     * @param afterNgayCap ngayCap của dòng cuối trang trước, null = trang đầu
+     * @param afterId id của dòng cuối trang trước, null = trang đầu
+     * @param limit số dòng tối đa của trang
+     * @throws RuntimeException khi lỗi DB (không trả trang rỗng, để nơi gọi không hiểu nhầm là đã hết dữ liệu)
+     */
+    List<LichSuCapPhat> findLichSuCapPhatPage(Long thietBiId, LocalDateTime afterNgayCap, Long afterId, int limit);
+    
+    /**
+     * Thống kê tổng/đang hoạt động/đã trả cho lịch sử cấp phát, lọc theo thiết bị (null = tất cả)
+     * @throws RuntimeException khi lỗi DB
+     */
+    CapPhatTongHop getThongKeLichSu(Long thietBiId);
+    
+    /**
+     * Cấp phát chưa trả mới nhất của mỗi thiết bị, join sẵn với YeuCau để lấy thiết bị
+     * (không cần tải danh sách yêu cầu để nối trong bộ nhớ)
+     * @return map thietBiId -> cấp phát đang hoạt động
+     * @throws RuntimeException khi lỗi DB
+     */
+    Map<Long, CapPhat> findActiveCapPhatByThietBi();
+    
+    /**
+     * Tìm các thiết bị có nhiều hơn một cấp phát chưa trả (vi phạm nghiệp vụ)
+     * @return map thietBiId -> số cấp phát đang hoạt động
+     */
+    Map<Long, Integer> findThietBiCoNhieuCapPhatDangHoatDong();
+    
     /**
      * Cập nhật thông tin trả thiết bị
      */
     boolean updateReturnInfo(Long capPhatId, CapPhat.TinhTrangTra tinhTrangTra, String ghiChu);
+    
+    /**
+     * Cấp phát thiết bị cho yêu cầu trong một transaction trên một kết nối:
+     * khoá dòng yêu cầu rồi dòng thiết bị (SELECT ... FOR UPDATE), kiểm tra trạng thái yêu cầu và
+     * cấp phát đang hoạt động của thiết bị, tạo CapPhat, cập nhật yêu cầu và thiết bị, commit một lần.
+     * Deadlock/hết thời gian chờ khoá sẽ được thử lại (DB_DEADLOCK_RETRIES lần).
+     * @param yeuCauId yêu cầu cần cấp phát
+     * @param trangThaiChoPhep các trạng thái yêu cầu được phép cấp phát
+     * @param trangThaiMoi trạng thái yêu cầu sau khi cấp phát
+     * @param ghiChu ghi chú của record cấp phát
+     */
+    KetQuaCapPhat capPhatTrongGiaoDich(Long yeuCauId, Set<YeuCau.TrangThaiYeuCau> trangThaiChoPhep,
+                                       YeuCau.TrangThaiYeuCau trangThaiMoi, String ghiChu);
+    
+    /**
+     * Cấp phát cho nhiều yêu cầu trong một transaction, theo từng lượt DB_BATCH_SIZE yêu cầu:
+     * khoá các yêu cầu rồi các thiết bị bằng một SELECT ... FOR UPDATE mỗi bảng, INSERT CapPhat theo batch,
+     * cập nhật trạng thái yêu cầu và thiết bị bằng UPDATE ... WHERE id IN (...).
+     * Yêu cầu không hợp lệ (sai trạng thái, thiết bị đang cấp phát hoặc trùng thiết bị trong cùng lô)
+     * được báo lỗi riêng, các yêu cầu khác vẫn được cấp phát.
+     * @return kết quả theo vị trí đầu vào, id là id CapPhat mới tạo
+     */
+    KetQuaHangLoat capPhatHangLoat(List<Long> yeuCauIds, Set<YeuCau.TrangThaiYeuCau> trangThaiChoPhep,
+                                   YeuCau.TrangThaiYeuCau trangThaiMoi, String ghiChu);
 }
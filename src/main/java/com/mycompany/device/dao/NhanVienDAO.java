@@ -1,6 +1,8 @@
 package com.mycompany.device.dao;
 
 import com.mycompany.device.model.NhanVien;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
 import java.util.List;
 import java.util.Optional;
 
@@ -51,6 +53,24 @@ public interface NhanVienDAO {
      */
     List<NhanVien> getAllNhanVien();
     
+    /**
+     * Lấy một trang nhân viên, phân trang keyset
+     * Khoá sắp xếp: "maNhanVien" (mặc định), "tenNhanVien", "email"
+     * @param pageRequest Kích thước trang, sắp xếp và con trỏ trang trước
+     * @return Trang nhân viên
+     * @throws RuntimeException khi lỗi database (không trả về trang rỗng để tránh hiểu nhầm là hết dữ liệu)
+     */
+    Page<NhanVien> getNhanVienPage(PageRequest pageRequest);
+    
+    /**
+     * Tìm một trang nhân viên trên database, cùng khoá sắp xếp với getNhanVienPage
+     * @param tieuChi "Tất cả", "Mã nhân viên", "Tên nhân viên", "Email", "Số điện thoại", "Vai trò" hoặc "Mã phòng ban"
+     * @param tuKhoa chuỗi con cần tìm; null/rỗng = không lọc (như getNhanVienPage)
+     * @return Trang nhân viên khớp
+     * @throws RuntimeException khi lỗi database
+     */
+    Page<NhanVien> searchNhanVienPage(String tieuChi, String tuKhoa, PageRequest pageRequest);
+    
     /**
      * Tìm nhân viên theo tên (tìm kiếm gần đúng)
      * @param tenNhanVien Tên nhân viên cần tìm
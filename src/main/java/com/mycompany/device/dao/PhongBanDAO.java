@@ -1,6 +1,8 @@
 package com.mycompany.device.dao;
 
 import com.mycompany.device.model.PhongBan;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
 import java.util.List;
 import java.util.Optional;
 
@@ -44,6 +46,15 @@ public interface PhongBanDAO {
      */
     List<PhongBan> getAllPhongBan();
     
+    /**
+     * Lấy một trang phòng ban, phân trang keyset
+     * Khoá sắp xếp: "maPhongBan" (mặc định), "tenPhongBan"
+     * @param pageRequest Kích thước trang, sắp xếp và con trỏ trang trước
+     * @return Trang phòng ban
+     * @throws RuntimeException khi lỗi database (không trả về trang rỗng để tránh hiểu nhầm là hết dữ liệu)
+     */
+    Page<PhongBan> getPhongBanPage(PageRequest pageRequest);
+    
     /**
      * Tìm phòng ban theo tên (tìm kiếm gần đúng)
      * @param tenPhongBan Tên phòng ban cần tìm
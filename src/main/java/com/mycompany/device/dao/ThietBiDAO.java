@@ -1,6 +1,9 @@
 package com.mycompany.device.dao;
 
+import com.mycompany.device.model.KetQuaHangLoat;
 import com.mycompany.device.model.ThietBi;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
 import java.util.List;
 
 /**
@@ -11,6 +14,11 @@ public interface ThietBiDAO {
     // Lấy tất cả thiết bị
     List<ThietBi> findAll();
 
+    // Lấy một trang thiết bị, phân trang keyset
+    // Khoá sắp xếp: "id" (mặc định, mới nhất trước), "soSerial", "loaiId"
+    // Lỗi database ném RuntimeException thay vì trả về trang rỗng (trang rỗng = đã hết dữ liệu)
+    Page<ThietBi> findPage(PageRequest pageRequest);
+
     // Tìm thiết bị theo ID
     ThietBi findById(Long id);
 
@@ -33,4 +41,30 @@ public interface ThietBiDAO {
      * @return Danh sách thiết bị khớp
      */
     List<ThietBi> search(String keyword, String searchType);
-}
\ No newline at end of file
+
+    /**
+     * Tìm kiếm có xếp hạng theo độ liên quan và giới hạn số dòng trả về.
+     * @param keyword Từ khóa tìm kiếm
+     * @param searchType Loại trường tìm kiếm ("Số Serial", "Loại ID", "Trạng thái", "Ghi chú", "Tất cả")
+     * @param limit Số dòng tối đa (không dương thì dùng THIETBI_SEARCH_LIMIT)
+     * @return Danh sách thiết bị khớp, phù hợp nhất trước; từ khoá rỗng = trang đầu (tối đa limit dòng)
+     */
+    List<ThietBi> search(String keyword, String searchType, int limit);
+
+    /**
+     * Thêm nhiều thiết bị trong một transaction, ghi theo từng batch (DB_BATCH_SIZE dòng).
+     * Dòng trùng số serial (trong danh sách hoặc đã có trong DB) được báo lỗi riêng, các dòng khác vẫn được lưu.
+     * Id sinh ra được gán lại vào từng đối tượng ThietBi.
+     * @param thietBiList Danh sách thiết bị cần thêm
+     * @return Kết quả theo từng vị trí: id nếu thành công, lý do nếu thất bại
+     */
+    KetQuaHangLoat saveAll(List<ThietBi> thietBiList);
+
+    /**
+     * Cập nhật nhiều thiết bị trong một transaction, ghi theo từng batch.
+     * Dòng không tồn tại hoặc trùng số serial với thiết bị khác được báo lỗi riêng.
+     * @param thietBiList Danh sách thiết bị cần cập nhật (phải có id)
+     * @return Kết quả theo từng vị trí
+     */
+    KetQuaHangLoat updateAll(List<ThietBi> thietBiList);
+}
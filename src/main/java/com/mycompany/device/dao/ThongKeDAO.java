@@ -0,0 +1,18 @@
+package com.mycompany.device.dao;
+
+import com.mycompany.device.model.ThongKeTongQuan;
+
+/**
+ * Data Access Object interface cho số liệu tổng quan của dashboard
+ * @author Kim Ngan - DAO Layer
+ */
+public interface ThongKeDAO {
+    
+    /**
+     * Lấy toàn bộ số liệu dashboard (phòng ban, nhân viên, thiết bị theo trạng thái,
+     * cấp phát, yêu cầu chờ duyệt) trong một câu lệnh SQL
+     * @return số liệu tổng quan
+     * @throws RuntimeException khi lỗi database (không trả về số liệu rỗng để service không cache nhầm)
+     */
+    ThongKeTongQuan getThongKeTongQuan();
+}
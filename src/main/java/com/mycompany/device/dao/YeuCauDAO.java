@@ -1,8 +1,13 @@
 package com.mycompany.device.dao;
 
+import com.mycompany.device.model.KetQuaHangLoat;
 import com.mycompany.device.model.YeuCau;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * DAO interface cho YeuCau
@@ -35,6 +40,44 @@ public interface YeuCauDAO {
      */
     List<YeuCau> getAllYeuCau();
     
+    /**
+     * Lấy một trang yêu cầu, phân trang keyset.
+     * Khoá sắp xếp: "ngayTao" (mặc định, mới nhất trước), "id"
+     * @throws RuntimeException khi lỗi database (không trả về trang rỗng để tránh hiểu nhầm là hết dữ liệu)
+     */
+    Page<YeuCau> getYeuCauPage(PageRequest pageRequest);
+    
+    /**
+     * Lấy một trang yêu cầu đã lọc trên database (màn hình admin), cùng khoá sắp xếp với getYeuCauPage
+     * @param trangThai null = mọi trạng thái
+     * @param tuKhoa chuỗi con của tên thiết bị (ghi chú, hoặc "TB-id" khi không có ghi chú),
+     *               tên nhân viên hoặc tên phòng ban; null/rỗng = không lọc
+     * @throws RuntimeException khi lỗi database
+     */
+    Page<YeuCau> findYeuCauPage(YeuCau.TrangThaiYeuCau trangThai, String tuKhoa, PageRequest pageRequest);
+    
+    /**
+     * Đếm yêu cầu theo trạng thái bằng một truy vấn GROUP BY trangThai, cùng điều kiện từ khoá với findYeuCauPage
+     * @return số yêu cầu theo trạng thái, trạng thái không có yêu cầu nào thì không có trong map
+     * @throws RuntimeException khi lỗi database
+     */
+    Map<YeuCau.TrangThaiYeuCau, Integer> countYeuCauTheoTrangThai(String tuKhoa);
+    
+    /**
+     * Lấy một trang yêu cầu của một nhân viên, phân trang keyset.
+     * Khoá sắp xếp: "ngayTao" (mặc định, mới nhất trước), "id"
+     * @throws RuntimeException khi lỗi database (không trả về trang rỗng để tránh hiểu nhầm là hết dữ liệu)
+     */
+    Page<YeuCau> findYeuCauPageByNhanVien(String nhanVienId, PageRequest pageRequest);
+    
+    /**
+     * Tìm một trang yêu cầu của một nhân viên trên database
+     * @param tieuChi "Tất cả", "Thiết bị" (số serial), "Trạng thái" hoặc "Lý do"
+     * @param tuKhoa null/rỗng = không lọc (như findYeuCauPageByNhanVien)
+     * @throws RuntimeException khi lỗi database
+     */
+    Page<YeuCau> searchYeuCauPageByNhanVien(String nhanVienId, String tieuChi, String tuKhoa, PageRequest pageRequest);
+    
     /**
      * Tìm yêu cầu theo thiết bị
      */
@@ -74,4 +117,14 @@ public interface YeuCauDAO {
      * Đếm số yêu cầu của nhân viên
      */
     int countYeuCauByNhanVien(String nhanVienId);
+    
+    /**
+     * Đổi trạng thái nhiều yêu cầu trong một transaction: khoá các dòng bằng một SELECT ... FOR UPDATE
+     * rồi cập nhật bằng một UPDATE ... WHERE id IN (...) cho mỗi lượt DB_BATCH_SIZE yêu cầu.
+     * Yêu cầu không tồn tại hoặc không ở trạng thái cho phép được báo lỗi riêng.
+     * @param lyDo lý do mới (ví dụ lý do từ chối), null = giữ nguyên
+     * @return kết quả theo vị trí đầu vào, id là id yêu cầu đã cập nhật
+     */
+    KetQuaHangLoat updateTrangThaiHangLoat(List<Long> yeuCauIds, Set<YeuCau.TrangThaiYeuCau> trangThaiChoPhep,
+                                           YeuCau.TrangThaiYeuCau trangThaiMoi, String lyDo);
 } 
\ No newline at end of file
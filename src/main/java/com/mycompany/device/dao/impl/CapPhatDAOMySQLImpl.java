@@ -2,16 +2,32 @@ package com.mycompany.device.dao.impl;
 
 import com.mycompany.device.dao.CapPhatDAO;
 import com.mycompany.device.model.CapPhat;
+import com.mycompany.device.model.CapPhatTongHop;
+import com.mycompany.device.model.KetQuaCapPhat;
+import com.mycompany.device.model.KetQuaHangLoat;
+import com.mycompany.device.model.LichSuCapPhat;
 import com.mycompany.device.model.YeuCau;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
+import com.mycompany.device.util.ConfigLoader;
 import com.mycompany.device.util.DatabaseConnection;
+import com.mycompany.device.util.TransactionRunner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * MySQL implementation của CapPhatDAO
@@ -21,6 +37,40 @@ public class CapPhatDAOMySQLImpl implements CapPhatDAO {
     
     private static final Logger logger = LoggerFactory.getLogger(CapPhatDAOMySQLImpl.class);
     
+    // Cấp phát trong transaction (capPhatTrongGiaoDich)
+    private static final String LOCK_YEU_CAU_SQL = "SELECT thietBiId, trangThai FROM YeuCau WHERE id = ? FOR UPDATE";
+    private static final String LOCK_THIET_BI_SQL = "SELECT id FROM ThietBi WHERE id = ? FOR UPDATE";
+    private static final String ACTIVE_CAP_PHAT_SQL =
+        "SELECT cp.id FROM CapPhat cp JOIN YeuCau yc ON cp.yeuCauId = yc.id " +
+        "WHERE yc.thietBiId = ? AND cp.ngayTra IS NULL LIMIT 1";
+    private static final String INSERT_CAP_PHAT_SQL =
+        "INSERT INTO CapPhat (yeuCauId, ngayCap, ngayTra, tinhTrangTra, ghiChu) VALUES (?, ?, NULL, NULL, ?)";
+    private static final String UPDATE_YEU_CAU_SQL = "UPDATE YeuCau SET trangThai = ?, ngayCapNhat = ? WHERE id = ?";
+    private static final String UPDATE_THIET_BI_SQL =
+        "UPDATE ThietBi SET trangThai = 'DANG_CAP_PHAT', updatedAt = CURRENT_TIMESTAMP WHERE id = ?";
+    
+    // Số yêu cầu mỗi lượt IN (...)/batch INSERT trong capPhatHangLoat
+    private static final int BATCH_SIZE = Math.max(1, ConfigLoader.getIntProperty("DB_BATCH_SIZE", 500));
+    
+    // Truy vấn lịch sử đã join sẵn, dùng cho phân trang keyset theo (ngayCap, id)
+    private static final String SELECT_LICH_SU =
+        "SELECT cp.id, cp.yeuCauId, cp.ngayCap, cp.ngayTra, cp.tinhTrangTra, cp.ghiChu, " +
+        "yc.thietBiId, yc.nhanVienId, yc.ngayTao AS ngayYeuCau, " +
+        "tb.soSerial, tb.ghiChu AS thietBiGhiChu, nv.tenNhanVien, pb.tenPhongBan " +
+        "FROM CapPhat cp " +
+        "JOIN YeuCau yc ON yc.id = cp.yeuCauId " +
+        "LEFT JOIN ThietBi tb ON tb.id = yc.thietBiId " +
+        "LEFT JOIN NhanVien nv ON nv.maNhanVien = yc.nhanVienId " +
+        "LEFT JOIN PhongBan pb ON pb.maPhongBan = nv.maPhongBan ";
+    private static final String ORDER_LICH_SU = "ORDER BY cp.ngayCap DESC, cp.id DESC LIMIT ?";
+    private static final String KEYSET_LICH_SU = "(cp.ngayCap < ? OR (cp.ngayCap = ? AND cp.id < ?))";
+    
+    // Phân trang danh sách cấp phát theo index (ngayCap, id)
+    private final KeysetPaging<CapPhat> paging = new KeysetPaging<CapPhat>(
+            "SELECT * FROM CapPhat", "id", "id", CapPhat::getId,
+            "ngayCap", PageRequest.Direction.DESC, this::mapResultSetToCapPhat)
+            .sortKey("ngayCap", "ngayCap", CapPhat::getNgayCap);
+    
     @Override
     public boolean createCapPhat(CapPhat capPhat) {
         String sql = "INSERT INTO CapPhat (yeuCauId, ngayCap, ngayTra, tinhTrangTra, ghiChu) VALUES (?, ?, ?, ?, ?)";
@@ -126,6 +176,16 @@ public class CapPhatDAOMySQLImpl implements CapPhatDAO {
         return Optional.empty();
     }
     
+    @Override
+    public Page<CapPhat> getCapPhatPage(PageRequest pageRequest) {
+        try {
+            return paging.fetch(pageRequest);
+        } catch (SQLException e) {
+            logger.error("Lỗi khi lấy trang cấp phát: {}", pageRequest, e);
+            throw new RuntimeException("Lỗi DB khi lấy trang cấp phát.", e);
+        }
+    }
+    
     @Override
     public List<CapPhat> getAllCapPhat() {
         String sql = "SELECT * FROM CapPhat ORDER BY ngayCap DESC";
@@ -319,6 +379,184 @@ public class CapPhatDAOMySQLImpl implements CapPhatDAO {
         return 0;
     }
     
+    @Override
+    public CapPhatTongHop getThongKeTongHop(int soThang) {
+        String sqlTongHop = "SELECT COUNT(*) AS tongSo, " +
+                            "SUM(CASE WHEN ngayTra IS NULL THEN 1 ELSE 0 END) AS dangHoatDong, " +
+                            "SUM(CASE WHEN ngayTra IS NOT NULL THEN 1 ELSE 0 END) AS daTra, " +
+                            "SUM(CASE WHEN tinhTrangTra = 'TOT' THEN 1 ELSE 0 END) AS TOT, " +
+                            "SUM(CASE WHEN tinhTrangTra = 'TRAY_XUOC' THEN 1 ELSE 0 END) AS TRAY_XUOC, " +
+                            "SUM(CASE WHEN tinhTrangTra = 'HU_HONG' THEN 1 ELSE 0 END) AS HU_HONG, " +
+                            "SUM(CASE WHEN tinhTrangTra = 'MAT' THEN 1 ELSE 0 END) AS MAT " +
+                            "FROM CapPhat";
+        String sqlTheoThang = "SELECT YEAR(ngayCap) AS nam, MONTH(ngayCap) AS thang, COUNT(*) AS soLuong " +
+                              "FROM CapPhat WHERE ngayCap >= ? " +
+                              "GROUP BY YEAR(ngayCap), MONTH(ngayCap) ORDER BY nam, thang";
+        
+        // Dùng chung một connection cho cả hai truy vấn
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            int tongSo = 0;
+            int dangHoatDong = 0;
+            int daTra = 0;
+            Map<CapPhat.TinhTrangTra, Integer> theoTinhTrangTra = new EnumMap<>(CapPhat.TinhTrangTra.class);
+            
+            try (PreparedStatement stmt = conn.prepareStatement(sqlTongHop);
+                 ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    tongSo = rs.getInt("tongSo");
+                    dangHoatDong = rs.getInt("dangHoatDong");
+                    daTra = rs.getInt("daTra");
+                    for (CapPhat.TinhTrangTra tinhTrang : CapPhat.TinhTrangTra.values()) {
+                        theoTinhTrangTra.put(tinhTrang, rs.getInt(tinhTrang.name()));
+                    }
+                }
+            }
+            
+            Map<YearMonth, Integer> theoThang = new LinkedHashMap<>();
+            if (soThang > 0) {
+                YearMonth thangBatDau = YearMonth.now().minusMonths(soThang - 1L);
+                try (PreparedStatement stmt = conn.prepareStatement(sqlTheoThang)) {
+                    stmt.setTimestamp(1, Timestamp.valueOf(thangBatDau.atDay(1).atStartOfDay()));
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            theoThang.put(YearMonth.of(rs.getInt("nam"), rs.getInt("thang")), rs.getInt("soLuong"));
+                        }
+                    }
+                }
+            }
+            
+            return new CapPhatTongHop(tongSo, dangHoatDong, daTra, theoTinhTrangTra, theoThang);
+            
+        } catch (SQLException e) {
+            logger.error("Lỗi khi lấy thống kê tổng hợp cấp phát", e);
+            throw new RuntimeException("Lỗi DB khi lấy thống kê tổng hợp cấp phát.", e);
+        }
+    }
+    
+    @Override
+    public List<LichSuCapPhat> findLichSuCapPhatPage(Long thietBiId, LocalDateTime afterNgayCap, Long afterId, int limit) {
+        boolean coCursor = afterNgayCap != null && afterId != null;
+        
+        // Chỉ có 4 biến thể SQL cố định nên statement cache vẫn dùng lại được
+        StringBuilder sql = new StringBuilder(SELECT_LICH_SU);
+        if (thietBiId != null && coCursor) {
+            sql.append("WHERE yc.thietBiId = ? AND ").append(KEYSET_LICH_SU).append(' ');
+        } else if (thietBiId != null) {
+            sql.append("WHERE yc.thietBiId = ? ");
+        } else if (coCursor) {
+            sql.append("WHERE ").append(KEYSET_LICH_SU).append(' ');
+        }
+        sql.append(ORDER_LICH_SU);
+        
+        List<LichSuCapPhat> result = new ArrayList<>();
+        
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            
+            int index = 1;
+            if (thietBiId != null) {
+                stmt.setLong(index++, thietBiId);
+            }
+            if (coCursor) {
+                Timestamp cursor = Timestamp.valueOf(afterNgayCap);
+                stmt.setTimestamp(index++, cursor);
+                stmt.setTimestamp(index++, cursor);
+                stmt.setLong(index++, afterId);
+            }
+            stmt.setInt(index, limit);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    result.add(mapResultSetToLichSuCapPhat(rs));
+                }
+            }
+            
+        } catch (SQLException e) {
+            logger.error("Lỗi khi lấy trang lịch sử cấp phát: thietBiId={}", thietBiId, e);
+            throw new RuntimeException("Lỗi DB khi lấy trang lịch sử cấp phát.", e);
+        }
+        
+        return result;
+    }
+    
+    @Override
+    public CapPhatTongHop getThongKeLichSu(Long thietBiId) {
+        String sql = "SELECT COUNT(*) AS tongSo, " +
+                     "SUM(CASE WHEN cp.ngayTra IS NULL THEN 1 ELSE 0 END) AS dangHoatDong, " +
+                     "SUM(CASE WHEN cp.ngayTra IS NOT NULL THEN 1 ELSE 0 END) AS daTra " +
+                     "FROM CapPhat cp JOIN YeuCau yc ON yc.id = cp.yeuCauId" +
+                     (thietBiId != null ? " WHERE yc.thietBiId = ?" : "");
+        
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            if (thietBiId != null) {
+                stmt.setLong(1, thietBiId);
+            }
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return new CapPhatTongHop(rs.getInt("tongSo"), rs.getInt("dangHoatDong"),
+                                              rs.getInt("daTra"), null, null);
+                }
+            }
+            
+        } catch (SQLException e) {
+            logger.error("Lỗi khi thống kê lịch sử cấp phát: thietBiId={}", thietBiId, e);
+            throw new RuntimeException("Lỗi DB khi thống kê lịch sử cấp phát.", e);
+        }
+        
+        return CapPhatTongHop.empty();
+    }
+    
+    @Override
+    public Map<Long, CapPhat> findActiveCapPhatByThietBi() {
+        String sql = "SELECT cp.*, yc.thietBiId " +
+                     "FROM CapPhat cp JOIN YeuCau yc ON yc.id = cp.yeuCauId " +
+                     "WHERE cp.ngayTra IS NULL " +
+                     "ORDER BY cp.ngayCap DESC, cp.id DESC";
+        Map<Long, CapPhat> result = new LinkedHashMap<>();
+        
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            while (rs.next()) {
+                // Mới nhất trước: giữ cấp phát đầu tiên của mỗi thiết bị
+                result.putIfAbsent(rs.getLong("thietBiId"), mapResultSetToCapPhat(rs));
+            }
+            
+        } catch (SQLException e) {
+            logger.error("Lỗi khi lấy cấp phát đang hoạt động theo thiết bị", e);
+            throw new RuntimeException("Lỗi DB khi lấy cấp phát đang hoạt động theo thiết bị.", e);
+        }
+        
+        return result;
+    }
+    
+    @Override
+    public Map<Long, Integer> findThietBiCoNhieuCapPhatDangHoatDong() {
+        String sql = "SELECT yc.thietBiId, COUNT(*) AS soLuong " +
+                     "FROM CapPhat cp JOIN YeuCau yc ON yc.id = cp.yeuCauId " +
+                     "WHERE cp.ngayTra IS NULL " +
+                     "GROUP BY yc.thietBiId HAVING COUNT(*) > 1";
+        Map<Long, Integer> result = new LinkedHashMap<>();
+        
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            while (rs.next()) {
+                result.put(rs.getLong("thietBiId"), rs.getInt("soLuong"));
+            }
+            
+        } catch (SQLException e) {
+            logger.error("Lỗi khi kiểm tra thiết bị có nhiều cấp phát đang hoạt động", e);
+        }
+        
+        return result;
+    }
+    
     @Override
     public boolean updateReturnInfo(Long capPhatId, CapPhat.TinhTrangTra tinhTrangTra, String ghiChu) {
         String sql = "UPDATE CapPhat SET ngayTra=?, tinhTrangTra=?, ghiChu=? WHERE id=?";
@@ -345,6 +583,282 @@ public class CapPhatDAOMySQLImpl implements CapPhatDAO {
         return false;
     }
     
+    @Override
+    public KetQuaCapPhat capPhatTrongGiaoDich(Long yeuCauId, Set<YeuCau.TrangThaiYeuCau> trangThaiChoPhep,
+                                              YeuCau.TrangThaiYeuCau trangThaiMoi, String ghiChu) {
+        try {
+            // Khi thất bại nghiệp vụ chưa có gì được ghi, commit chỉ để nhả khoá
+            KetQuaCapPhat ketQua = TransactionRunner.execute("cấp phát yêu cầu " + yeuCauId,
+                conn -> capPhat(conn, yeuCauId, trangThaiChoPhep, trangThaiMoi, ghiChu));
+            if (ketQua.isThanhCong()) {
+                logger.info("Tạo cấp phát thành công: ID={}, YeuCau ID={}, ThietBi ID={}",
+                           ketQua.getCapPhat().getId(), yeuCauId, ketQua.getThietBiId());
+            } else {
+                logger.warn("Không thể cấp phát cho yêu cầu {}: {}", yeuCauId, ketQua.getThongBao());
+            }
+            return ketQua;
+        } catch (SQLException e) {
+            logger.error("Lỗi khi cấp phát cho yêu cầu: ID={}, đã rollback", yeuCauId, e);
+            return KetQuaCapPhat.thatBai(KetQuaCapPhat.MaKetQua.LOI_DATABASE, null, e.getMessage());
+        }
+    }
+    
+    @Override
+    public KetQuaHangLoat capPhatHangLoat(List<Long> yeuCauIds, Set<YeuCau.TrangThaiYeuCau> trangThaiChoPhep,
+                                          YeuCau.TrangThaiYeuCau trangThaiMoi, String ghiChu) {
+        List<Long> input = yeuCauIds != null ? yeuCauIds : Collections.<Long>emptyList();
+        if (input.isEmpty()) {
+            return new KetQuaHangLoat(0);
+        }
+        
+        long start = System.nanoTime();
+        try {
+            KetQuaHangLoat ketQua = TransactionRunner.execute("cấp phát " + input.size() + " yêu cầu", conn -> {
+                // Tạo mới ở mỗi lần chạy vì transaction có thể bị chạy lại sau deadlock
+                KetQuaHangLoat kq = new KetQuaHangLoat(input.size());
+                Map<Long, Integer> viTriTheoId = viTriDuyNhat(input, kq);
+                List<Long> ids = new ArrayList<>(viTriTheoId.keySet());
+                Set<Long> thietBiDaCap = new HashSet<>();
+                LocalDateTime now = LocalDateTime.now();
+                for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+                    List<Long> lo = ids.subList(from, Math.min(ids.size(), from + BATCH_SIZE));
+                    capPhatLo(conn, lo, viTriTheoId, thietBiDaCap, trangThaiChoPhep, trangThaiMoi, ghiChu, now, kq);
+                }
+                return kq;
+            });
+            logger.info("Cấp phát hàng loạt {} yêu cầu: {} thành công, {} lỗi ({} ms)",
+                       input.size(), ketQua.getSoThanhCong(), ketQua.getSoThatBai(),
+                       (System.nanoTime() - start) / 1_000_000);
+            return ketQua;
+        } catch (SQLException e) {
+            logger.error("Lỗi khi cấp phát hàng loạt {} yêu cầu, đã rollback", input.size(), e);
+            KetQuaHangLoat ketQua = new KetQuaHangLoat(input.size());
+            ketQua.huyTatCa("Lỗi database, toàn bộ lô đã được hoàn tác: " + e.getMessage());
+            return ketQua;
+        }
+    }
+    
+    /**
+     * Cấp phát một lượt yêu cầu (đã loại trùng) trên kết nối đang mở transaction
+     */
+    private void capPhatLo(Connection conn, List<Long> lo, Map<Long, Integer> viTriTheoId, Set<Long> thietBiDaCap,
+                           Set<YeuCau.TrangThaiYeuCau> trangThaiChoPhep, YeuCau.TrangThaiYeuCau trangThaiMoi,
+                           String ghiChu, LocalDateTime now, KetQuaHangLoat ketQua) throws SQLException {
+        // 1. Khoá các yêu cầu (luôn trước thiết bị, cùng thứ tự với capPhatTrongGiaoDich)
+        Map<Long, Long> thietBiTheoYeuCau = new HashMap<>();
+        Map<Long, YeuCau.TrangThaiYeuCau> trangThaiTheoYeuCau = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT id, thietBiId, trangThai FROM YeuCau WHERE id IN (" + placeholders(lo.size()) + ") ORDER BY id FOR UPDATE")) {
+            bindIds(stmt, lo, 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    thietBiTheoYeuCau.put(rs.getLong("id"), rs.getLong("thietBiId"));
+                    trangThaiTheoYeuCau.put(rs.getLong("id"), YeuCau.TrangThaiYeuCau.valueOf(rs.getString("trangThai")));
+                }
+            }
+        }
+        
+        List<Long> hopLe = new ArrayList<>(lo.size());
+        Set<Long> thietBiTrongLo = new HashSet<>();
+        for (Long yeuCauId : lo) {
+            int viTri = viTriTheoId.get(yeuCauId);
+            YeuCau.TrangThaiYeuCau trangThai = trangThaiTheoYeuCau.get(yeuCauId);
+            Long thietBiId = thietBiTheoYeuCau.get(yeuCauId);
+            if (trangThai == null) {
+                ketQua.ghiNhanLoi(viTri, String.valueOf(yeuCauId), KetQuaCapPhat.MaKetQua.KHONG_TIM_THAY_YEU_CAU.getMoTa());
+            } else if (!trangThaiChoPhep.contains(trangThai)) {
+                ketQua.ghiNhanLoi(viTri, String.valueOf(yeuCauId),
+                        KetQuaCapPhat.MaKetQua.SAI_TRANG_THAI_YEU_CAU.getMoTa() + ": " + trangThai.getDisplayName());
+            } else if (thietBiDaCap.contains(thietBiId) || !thietBiTrongLo.add(thietBiId)) {
+                ketQua.ghiNhanLoi(viTri, String.valueOf(yeuCauId),
+                        "Thiết bị " + thietBiId + " đã được cấp phát cho yêu cầu khác trong cùng lô");
+            } else {
+                hopLe.add(yeuCauId);
+            }
+        }
+        if (hopLe.isEmpty()) {
+            return;
+        }
+        
+        // 2. Khoá các thiết bị, loại thiết bị không tồn tại hoặc còn cấp phát chưa trả
+        List<Long> thietBiIds = new ArrayList<>(thietBiTrongLo);
+        Set<Long> thietBiTonTai = new HashSet<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT id FROM ThietBi WHERE id IN (" + placeholders(thietBiIds.size()) + ") ORDER BY id FOR UPDATE")) {
+            bindIds(stmt, thietBiIds, 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    thietBiTonTai.add(rs.getLong(1));
+                }
+            }
+        }
+        Set<Long> thietBiDangCap = new HashSet<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT DISTINCT yc.thietBiId FROM CapPhat cp JOIN YeuCau yc ON cp.yeuCauId = yc.id " +
+                "WHERE yc.thietBiId IN (" + placeholders(thietBiIds.size()) + ") AND cp.ngayTra IS NULL")) {
+            bindIds(stmt, thietBiIds, 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    thietBiDangCap.add(rs.getLong(1));
+                }
+            }
+        }
+        
+        List<Long> capPhatDuoc = new ArrayList<>(hopLe.size());
+        List<Long> thietBiCapPhat = new ArrayList<>(hopLe.size());
+        for (Long yeuCauId : hopLe) {
+            int viTri = viTriTheoId.get(yeuCauId);
+            Long thietBiId = thietBiTheoYeuCau.get(yeuCauId);
+            if (!thietBiTonTai.contains(thietBiId)) {
+                ketQua.ghiNhanLoi(viTri, String.valueOf(yeuCauId), KetQuaCapPhat.MaKetQua.KHONG_TIM_THAY_THIET_BI.getMoTa());
+            } else if (thietBiDangCap.contains(thietBiId)) {
+                ketQua.ghiNhanLoi(viTri, String.valueOf(yeuCauId), KetQuaCapPhat.MaKetQua.THIET_BI_DANG_CAP_PHAT.getMoTa());
+            } else {
+                capPhatDuoc.add(yeuCauId);
+                thietBiCapPhat.add(thietBiId);
+            }
+        }
+        if (capPhatDuoc.isEmpty()) {
+            return;
+        }
+        
+        // 3. Ghi: batch INSERT CapPhat, UPDATE theo tập cho yêu cầu và thiết bị
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_CAP_PHAT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (Long yeuCauId : capPhatDuoc) {
+                stmt.setLong(1, yeuCauId);
+                stmt.setTimestamp(2, Timestamp.valueOf(now));
+                stmt.setString(3, ghiChu);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            // Khoá sinh ra trả về theo đúng thứ tự các dòng đã addBatch()
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                for (Long yeuCauId : capPhatDuoc) {
+                    if (!keys.next()) {
+                        throw new SQLException("Driver không trả về đủ id sinh ra cho batch INSERT");
+                    }
+                    ketQua.ghiNhanThanhCong(viTriTheoId.get(yeuCauId), keys.getLong(1));
+                }
+            }
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "UPDATE YeuCau SET trangThai = ?, ngayCapNhat = ? WHERE id IN (" + placeholders(capPhatDuoc.size()) + ")")) {
+            stmt.setString(1, trangThaiMoi.name());
+            stmt.setTimestamp(2, Timestamp.valueOf(now));
+            bindIds(stmt, capPhatDuoc, 3);
+            stmt.executeUpdate();
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "UPDATE ThietBi SET trangThai = 'DANG_CAP_PHAT', updatedAt = CURRENT_TIMESTAMP WHERE id IN (" +
+                placeholders(thietBiCapPhat.size()) + ")")) {
+            bindIds(stmt, thietBiCapPhat, 1);
+            stmt.executeUpdate();
+        }
+        thietBiDaCap.addAll(thietBiCapPhat);
+    }
+    
+    /**
+     * Vị trí đầu tiên của mỗi id; id null hoặc lặp lại được ghi lỗi ngay
+     */
+    private static Map<Long, Integer> viTriDuyNhat(List<Long> ids, KetQuaHangLoat ketQua) {
+        Map<Long, Integer> viTriTheoId = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (id == null) {
+                ketQua.ghiNhanLoi(i, null, "Thiếu ID yêu cầu");
+            } else if (viTriTheoId.putIfAbsent(id, i) != null) {
+                ketQua.ghiNhanLoi(i, String.valueOf(id), "Yêu cầu bị lặp trong danh sách");
+            }
+        }
+        return viTriTheoId;
+    }
+    
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+    
+    private static void bindIds(PreparedStatement stmt, List<Long> ids, int startIndex) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            stmt.setLong(startIndex + i, ids.get(i));
+        }
+    }
+    
+    /**
+     * Các bước cấp phát trên kết nối đang mở transaction.
+     * Luôn khoá yêu cầu trước rồi mới khoá thiết bị để hai transaction không khoá ngược thứ tự nhau;
+     * khoá dòng thiết bị làm cho việc kiểm tra cấp phát đang hoạt động và INSERT là nguyên tử.
+     */
+    private KetQuaCapPhat capPhat(Connection conn, Long yeuCauId, Set<YeuCau.TrangThaiYeuCau> trangThaiChoPhep,
+                                  YeuCau.TrangThaiYeuCau trangThaiMoi, String ghiChu) throws SQLException {
+        Long thietBiId;
+        YeuCau.TrangThaiYeuCau trangThaiYeuCau;
+        try (PreparedStatement stmt = conn.prepareStatement(LOCK_YEU_CAU_SQL)) {
+            stmt.setLong(1, yeuCauId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return KetQuaCapPhat.thatBai(KetQuaCapPhat.MaKetQua.KHONG_TIM_THAY_YEU_CAU, null, "ID=" + yeuCauId);
+                }
+                thietBiId = rs.getLong("thietBiId");
+                trangThaiYeuCau = YeuCau.TrangThaiYeuCau.valueOf(rs.getString("trangThai"));
+            }
+        }
+        if (!trangThaiChoPhep.contains(trangThaiYeuCau)) {
+            return KetQuaCapPhat.thatBai(KetQuaCapPhat.MaKetQua.SAI_TRANG_THAI_YEU_CAU, thietBiId,
+                                         trangThaiYeuCau.getDisplayName());
+        }
+        
+        try (PreparedStatement stmt = conn.prepareStatement(LOCK_THIET_BI_SQL)) {
+            stmt.setLong(1, thietBiId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return KetQuaCapPhat.thatBai(KetQuaCapPhat.MaKetQua.KHONG_TIM_THAY_THIET_BI, thietBiId,
+                                                 "ID=" + thietBiId);
+                }
+            }
+        }
+        
+        try (PreparedStatement stmt = conn.prepareStatement(ACTIVE_CAP_PHAT_SQL)) {
+            stmt.setLong(1, thietBiId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return KetQuaCapPhat.thatBai(KetQuaCapPhat.MaKetQua.THIET_BI_DANG_CAP_PHAT, thietBiId,
+                                                 "cấp phát ID=" + rs.getLong(1));
+                }
+            }
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        CapPhat capPhat = new CapPhat();
+        capPhat.setYeuCauId(yeuCauId);
+        capPhat.setNgayCap(now);
+        capPhat.setGhiChu(ghiChu);
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_CAP_PHAT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setLong(1, yeuCauId);
+            stmt.setTimestamp(2, Timestamp.valueOf(now));
+            stmt.setString(3, ghiChu);
+            stmt.executeUpdate();
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    capPhat.setId(generatedKeys.getLong(1));
+                }
+            }
+        }
+        
+        try (PreparedStatement stmt = conn.prepareStatement(UPDATE_YEU_CAU_SQL)) {
+            stmt.setString(1, trangThaiMoi.name());
+            stmt.setTimestamp(2, Timestamp.valueOf(now));
+            stmt.setLong(3, yeuCauId);
+            stmt.executeUpdate();
+        }
+        
+        try (PreparedStatement stmt = conn.prepareStatement(UPDATE_THIET_BI_SQL)) {
+            stmt.setLong(1, thietBiId);
+            stmt.executeUpdate();
+        }
+        
+        return KetQuaCapPhat.thanhCong(capPhat, thietBiId);
+    }
+    
     /**
      * Map ResultSet thành CapPhat object
      */
@@ -372,4 +886,43 @@ public class CapPhatDAOMySQLImpl implements CapPhatDAO {
         
         return capPhat;
     }
+    
+    /**
+     * Map ResultSet (truy vấn lịch sử đã join) thành LichSuCapPhat
+     */
+    private LichSuCapPhat mapResultSetToLichSuCapPhat(ResultSet rs) throws SQLException {
+        LichSuCapPhat lichSu = new LichSuCapPhat();
+        lichSu.setCapPhatId(rs.getLong("id"));
+        lichSu.setYeuCauId(rs.getLong("yeuCauId"));
+        lichSu.setThietBiId(rs.getLong("thietBiId"));
+        lichSu.setSoSerial(rs.getString("soSerial"));
+        lichSu.setThietBiGhiChu(rs.getString("thietBiGhiChu"));
+        lichSu.setMaNhanVien(rs.getString("nhanVienId"));
+        lichSu.setTenNhanVien(rs.getString("tenNhanVien"));
+        lichSu.setTenPhongBan(rs.getString("tenPhongBan"));
+        
+        Timestamp ngayYeuCau = rs.getTimestamp("ngayYeuCau");
+        if (ngayYeuCau != null) {
+            lichSu.setNgayYeuCau(ngayYeuCau.toLocalDateTime());
+        }
+        
+        Timestamp ngayCap = rs.getTimestamp("ngayCap");
+        if (ngayCap != null) {
+            lichSu.setNgayCap(ngayCap.toLocalDateTime());
+        }
+        
+        Timestamp ngayTra = rs.getTimestamp("ngayTra");
+        if (ngayTra != null) {
+            lichSu.setNgayTra(ngayTra.toLocalDateTime());
+        }
+        
+        String tinhTrangTraStr = rs.getString("tinhTrangTra");
+        if (tinhTrangTraStr != null) {
+            lichSu.setTinhTrangTra(CapPhat.TinhTrangTra.valueOf(tinhTrangTraStr));
+        }
+        
+        lichSu.setGhiChu(rs.getString("ghiChu"));
+        
+        return lichSu;
+    }
 }
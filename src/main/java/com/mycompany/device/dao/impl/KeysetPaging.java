@@ -0,0 +1,163 @@
+package com.mycompany.device.dao.impl;
+
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
+import com.mycompany.device.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Truy vấn phân trang keyset dùng chung cho các *DAOMySQLImpl.
+ * Mỗi khoá sắp xếp ánh xạ tới một cột NOT NULL; id (khoá chính) luôn được thêm vào ORDER BY
+ * để thứ tự ổn định khi giá trị trùng nhau. Trang sau bắt đầu bằng điều kiện
+ * (cot &gt; ? OR (cot = ? AND id &gt; ?)) nên đi thẳng vào index (cot, id), không OFFSET.
+ * Lấy size + 1 dòng để biết còn trang sau hay không.
+ * @param <T> kiểu thực thể
+ * @author Kim Ngan - DAO Implementation Layer
+ */
+final class KeysetPaging<T> {
+
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    private static final class SortKey<T> {
+        private final String column;
+        private final Function<T, Object> value;
+
+        private SortKey(String column, Function<T, Object> value) {
+            this.column = column;
+            this.value = value;
+        }
+    }
+
+    private final String select;
+    private final String idColumn;
+    private final Function<T, Object> idValue;
+    private final String defaultSort;
+    private final PageRequest.Direction defaultDirection;
+    private final RowMapper<T> mapper;
+    private final Map<String, SortKey<T>> sortKeys = new LinkedHashMap<>();
+
+    /**
+     * @param select phần SELECT ... FROM ... (có thể gồm JOIN), chưa có WHERE
+     * @param idColumn cột khoá chính dùng làm khoá phụ, ví dụ "id" hoặc "cp.id"
+     * @param idSort tên khoá sắp xếp của cột id
+     */
+    KeysetPaging(String select, String idColumn, String idSort, Function<T, Object> idValue,
+                 String defaultSort, PageRequest.Direction defaultDirection, RowMapper<T> mapper) {
+        this.select = select;
+        this.idColumn = idColumn;
+        this.idValue = idValue;
+        this.defaultSort = defaultSort;
+        this.defaultDirection = defaultDirection;
+        this.mapper = mapper;
+        sortKeys.put(idSort, new SortKey<>(idColumn, idValue));
+    }
+
+    /**
+     * Thêm khoá sắp xếp; cột phải NOT NULL thì con trỏ keyset mới đúng
+     */
+    KeysetPaging<T> sortKey(String name, String column, Function<T, Object> value) {
+        sortKeys.put(name, new SortKey<>(column, value));
+        return this;
+    }
+
+    Page<T> fetch(PageRequest request) throws SQLException {
+        return fetch(request, null);
+    }
+
+    /**
+     * @param filter điều kiện lọc thêm (không có WHERE), null = không lọc
+     * @param filterParams tham số của điều kiện lọc
+     * @throws IllegalArgumentException khoá sắp xếp không được hỗ trợ
+     */
+    Page<T> fetch(PageRequest request, String filter, Object... filterParams) throws SQLException {
+        String sortName = request.getSort() != null ? request.getSort() : defaultSort;
+        SortKey<T> key = sortKeys.get(sortName);
+        if (key == null) {
+            throw new IllegalArgumentException("Không hỗ trợ sắp xếp theo '" + sortName
+                    + "', chỉ hỗ trợ " + sortKeys.keySet());
+        }
+        PageRequest.Direction direction = request.getDirection() != null ? request.getDirection()
+                : (request.getSort() == null ? defaultDirection : PageRequest.Direction.ASC);
+        String op = direction == PageRequest.Direction.DESC ? "<" : ">";
+        boolean theoId = key.column.equals(idColumn);
+
+        StringBuilder sql = new StringBuilder(select);
+        List<Object> params = new ArrayList<>();
+        List<String> where = new ArrayList<>();
+        if (filter != null) {
+            where.add("(" + filter + ")");
+            for (Object param : filterParams) {
+                params.add(param);
+            }
+        }
+        if (!request.isFirstPage()) {
+            Object afterId = toJdbc(request.getAfterId());
+            if (theoId) {
+                where.add(idColumn + " " + op + " ?");
+                params.add(afterId);
+            } else {
+                Object afterValue = toJdbc(request.getAfterSortValue());
+                where.add("(" + key.column + " " + op + " ? OR (" + key.column + " = ? AND "
+                        + idColumn + " " + op + " ?))");
+                params.add(afterValue);
+                params.add(afterValue);
+                params.add(afterId);
+            }
+        }
+        if (!where.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", where));
+        }
+        sql.append(" ORDER BY ");
+        if (!theoId) {
+            sql.append(key.column).append(' ').append(direction).append(", ");
+        }
+        sql.append(idColumn).append(' ').append(direction).append(" LIMIT ?");
+        params.add(request.getSize() + 1);
+
+        List<T> rows = new ArrayList<>(Math.min(request.getSize() + 1, 256));
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(mapper.map(rs));
+                }
+            }
+        }
+
+        PageRequest next = null;
+        if (rows.size() > request.getSize()) {
+            rows.remove(rows.size() - 1);
+            T last = rows.get(rows.size() - 1);
+            next = request.after(key.value.apply(last), idValue.apply(last));
+        }
+        return new Page<>(rows, request, next);
+    }
+
+    private static Object toJdbc(Object value) {
+        if (value instanceof LocalDateTime) {
+            return Timestamp.valueOf((LocalDateTime) value);
+        }
+        if (value instanceof LocalDate) {
+            return Date.valueOf((LocalDate) value);
+        }
+        return value;
+    }
+}
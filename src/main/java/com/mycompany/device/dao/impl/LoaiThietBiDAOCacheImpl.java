@@ -0,0 +1,78 @@
+package com.mycompany.device.dao.impl;
+
+import com.mycompany.device.dao.LoaiThietBiDAO;
+import com.mycompany.device.model.LoaiThietBi;
+import com.mycompany.device.util.EntityCache;
+import com.mycompany.device.metrics.Metrics;
+
+import java.util.List;
+
+/**
+ * Decorator có cache đặt trước LoaiThietBiDAO.
+ * Loại thiết bị gần như không đổi nên findAll/findById hầu như luôn trúng cache;
+ * save/update/delete đi qua decorator sẽ xoá entry tương ứng và snapshot danh sách.
+ * @author Kim Ngan - DAO Cache Implementation
+ */
+public class LoaiThietBiDAOCacheImpl implements LoaiThietBiDAO {
+
+    private static final EntityCache<Long, LoaiThietBi> CACHE = EntityCache.fromConfig("LoaiThietBi", LoaiThietBi::new);
+
+    private final LoaiThietBiDAO delegate;
+
+    public LoaiThietBiDAOCacheImpl() {
+        this(Metrics.instrument(LoaiThietBiDAO.class, new LoaiThietBiDAOMySQLImpl()));
+    }
+
+    public LoaiThietBiDAOCacheImpl(LoaiThietBiDAO delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public List<LoaiThietBi> findAll() {
+        return CACHE.getAll(delegate::findAll, LoaiThietBi::getId);
+    }
+
+    @Override
+    public LoaiThietBi findById(Long id) {
+        return CACHE.get(id, delegate::findById);
+    }
+
+    @Override
+    public boolean save(LoaiThietBi loaiThietBi) {
+        boolean success = delegate.save(loaiThietBi);
+        if (success) {
+            CACHE.invalidateList();
+        }
+        return success;
+    }
+
+    @Override
+    public boolean update(LoaiThietBi loaiThietBi) {
+        try {
+            return delegate.update(loaiThietBi);
+        } finally {
+            CACHE.invalidate(loaiThietBi.getId());
+        }
+    }
+
+    @Override
+    public boolean delete(Long id) {
+        boolean success = delegate.delete(id);
+        if (success) {
+            CACHE.invalidate(id);
+        }
+        return success;
+    }
+
+    @Override
+    public LoaiThietBi findByMaLoai(String maLoai) {
+        return delegate.findByMaLoai(maLoai);
+    }
+
+    /**
+     * Số liệu cache loại thiết bị
+     */
+    public static EntityCache.CacheStats getCacheStats() {
+        return CACHE.getStats();
+    }
+}
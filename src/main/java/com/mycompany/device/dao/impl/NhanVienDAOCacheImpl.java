@@ -0,0 +1,126 @@
+package com.mycompany.device.dao.impl;
+
+import com.mycompany.device.dao.NhanVienDAO;
+import com.mycompany.device.model.NhanVien;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
+import com.mycompany.device.util.EntityCache;
+import com.mycompany.device.metrics.Metrics;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Decorator có cache đặt trước NhanVienDAO.
+ * Cache theo mã nhân viên và snapshot danh sách.
+ * Tìm theo email (dùng khi đăng nhập), kiểm tra tồn tại, tìm kiếm, lọc và đếm luôn đọc thẳng DB.
+ * @author Kim Ngan - DAO Cache Implementation
+ */
+public class NhanVienDAOCacheImpl implements NhanVienDAO {
+
+    private static final EntityCache<String, NhanVien> CACHE = EntityCache.fromConfig("NhanVien", NhanVien::new);
+
+    private final NhanVienDAO delegate;
+
+    public NhanVienDAOCacheImpl() {
+        this(Metrics.instrument(NhanVienDAO.class, new NhanVienDAOMySQLImpl()));
+    }
+
+    public NhanVienDAOCacheImpl(NhanVienDAO delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean createNhanVien(NhanVien nhanVien) {
+        boolean success = delegate.createNhanVien(nhanVien);
+        if (success) {
+            CACHE.invalidate(nhanVien.getMaNhanVien());
+        }
+        return success;
+    }
+
+    @Override
+    public boolean updateNhanVien(NhanVien nhanVien) {
+        try {
+            return delegate.updateNhanVien(nhanVien);
+        } finally {
+            CACHE.invalidate(nhanVien.getMaNhanVien());
+        }
+    }
+
+    @Override
+    public boolean deleteNhanVien(String maNhanVien) {
+        boolean success = delegate.deleteNhanVien(maNhanVien);
+        if (success) {
+            CACHE.invalidate(maNhanVien);
+        }
+        return success;
+    }
+
+    @Override
+    public Optional<NhanVien> findNhanVienByMa(String maNhanVien) {
+        return Optional.ofNullable(CACHE.get(maNhanVien, ma -> delegate.findNhanVienByMa(ma).orElse(null)));
+    }
+
+    @Override
+    public Optional<NhanVien> findNhanVienByEmail(String email) {
+        return delegate.findNhanVienByEmail(email);
+    }
+
+    @Override
+    public List<NhanVien> getAllNhanVien() {
+        return CACHE.getAll(delegate::getAllNhanVien, NhanVien::getMaNhanVien);
+    }
+
+    @Override
+    public Page<NhanVien> getNhanVienPage(PageRequest pageRequest) {
+        return delegate.getNhanVienPage(pageRequest);
+    }
+
+    @Override
+    public Page<NhanVien> searchNhanVienPage(String tieuChi, String tuKhoa, PageRequest pageRequest) {
+        return delegate.searchNhanVienPage(tieuChi, tuKhoa, pageRequest);
+    }
+
+    @Override
+    public List<NhanVien> searchNhanVienByTen(String tenNhanVien) {
+        return delegate.searchNhanVienByTen(tenNhanVien);
+    }
+
+    @Override
+    public List<NhanVien> findNhanVienByPhongBan(String maPhongBan) {
+        return delegate.findNhanVienByPhongBan(maPhongBan);
+    }
+
+    @Override
+    public List<NhanVien> findNhanVienByRole(NhanVien.NhanVienRole role) {
+        return delegate.findNhanVienByRole(role);
+    }
+
+    @Override
+    public boolean existsNhanVien(String maNhanVien) {
+        return delegate.existsNhanVien(maNhanVien);
+    }
+
+    @Override
+    public boolean existsEmail(String email) {
+        return delegate.existsEmail(email);
+    }
+
+    @Override
+    public int countNhanVien() {
+        return delegate.countNhanVien();
+    }
+
+    @Override
+    public int countNhanVienByPhongBan(String maPhongBan) {
+        return delegate.countNhanVienByPhongBan(maPhongBan);
+    }
+
+    /**
+     * Số liệu cache nhân viên
+     */
+    public static EntityCache.CacheStats getCacheStats() {
+        return CACHE.getStats();
+    }
+}
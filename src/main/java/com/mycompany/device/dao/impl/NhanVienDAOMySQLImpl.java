@@ -2,12 +2,15 @@ package com.mycompany.device.dao.impl;
 
 import com.mycompany.device.dao.NhanVienDAO;
 import com.mycompany.device.model.NhanVien;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
 import com.mycompany.device.util.DatabaseConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +24,13 @@ public class NhanVienDAOMySQLImpl implements NhanVienDAO {
     
     private final DatabaseConnection dbConnection;
     
+    private final KeysetPaging<NhanVien> paging = new KeysetPaging<NhanVien>(
+        "SELECT maNhanVien, tenNhanVien, email, password, soDienThoai, role, maPhongBan, ngayTao FROM NhanVien",
+        "maNhanVien", "maNhanVien", NhanVien::getMaNhanVien,
+        "maNhanVien", PageRequest.Direction.ASC, this::mapResultSetToNhanVien)
+        .sortKey("tenNhanVien", "tenNhanVien", NhanVien::getTenNhanVien)
+        .sortKey("email", "email", NhanVien::getEmail);
+    
     // SQL queries
     private static final String INSERT_NHANVIEN = 
         "INSERT INTO NhanVien (maNhanVien, tenNhanVien, email, password, soDienThoai, role, maPhongBan, ngayTao) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
@@ -250,6 +260,88 @@ public class NhanVienDAOMySQLImpl implements NhanVienDAO {
         }
     }
     
+    @Override
+    public Page<NhanVien> getNhanVienPage(PageRequest pageRequest) {
+        try {
+            return paging.fetch(pageRequest);
+        } catch (SQLException e) {
+            logger.error("Lỗi SQL khi lấy trang nhân viên {}", pageRequest, e);
+            throw new RuntimeException("Lỗi DB khi lấy trang nhân viên.", e);
+        }
+    }
+    
+    @Override
+    public Page<NhanVien> searchNhanVienPage(String tieuChi, String tuKhoa, PageRequest pageRequest) {
+        String keyword = tuKhoa != null ? tuKhoa.trim() : "";
+        if (keyword.isEmpty()) {
+            return getNhanVienPage(pageRequest);
+        }
+        String like = "%" + escapeLike(keyword) + "%";
+        List<NhanVien.NhanVienRole> roles = matchRole(keyword);
+        List<String> dieuKien = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        String type = tieuChi != null ? tieuChi : "Tất cả";
+        switch (type) {
+            case "Mã nhân viên":
+                dieuKien.add("maNhanVien LIKE ?");
+                break;
+            case "Tên nhân viên":
+                dieuKien.add("tenNhanVien LIKE ?");
+                break;
+            case "Email":
+                dieuKien.add("email LIKE ?");
+                break;
+            case "Số điện thoại":
+                dieuKien.add("soDienThoai LIKE ?");
+                break;
+            case "Mã phòng ban":
+                dieuKien.add("maPhongBan LIKE ?");
+                break;
+            case "Vai trò":
+                break;
+            case "Tất cả":
+            default:
+                Collections.addAll(dieuKien, "maNhanVien LIKE ?", "tenNhanVien LIKE ?", "email LIKE ?",
+                                   "soDienThoai LIKE ?", "maPhongBan LIKE ?");
+                break;
+        }
+        for (int i = 0; i < dieuKien.size(); i++) {
+            params.add(like);
+        }
+        if ((type.equals("Vai trò") || dieuKien.size() > 1) && !roles.isEmpty()) {
+            dieuKien.add("role IN (" + String.join(", ", Collections.nCopies(roles.size(), "?")) + ")");
+            for (NhanVien.NhanVienRole role : roles) {
+                params.add(role.name());
+            }
+        }
+        if (dieuKien.isEmpty()) {
+            // Tìm theo vai trò nhưng từ khoá không khớp vai trò nào
+            return Page.empty(pageRequest);
+        }
+        try {
+            return paging.fetch(pageRequest, String.join(" OR ", dieuKien), params.toArray());
+        } catch (SQLException e) {
+            logger.error("Lỗi SQL khi tìm trang nhân viên ({}='{}') {}", type, keyword, pageRequest, e);
+            throw new RuntimeException("Lỗi DB khi tìm nhân viên.", e);
+        }
+    }
+    
+    private static List<NhanVien.NhanVienRole> matchRole(String keyword) {
+        String lower = keyword.toLowerCase();
+        String upper = keyword.toUpperCase();
+        List<NhanVien.NhanVienRole> result = new ArrayList<>();
+        for (NhanVien.NhanVienRole role : NhanVien.NhanVienRole.values()) {
+            if (role.name().contains(upper) || role.getDisplayName().toLowerCase().contains(lower)) {
+                result.add(role);
+            }
+        }
+        return result;
+    }
+    
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+    
     @Override
     public List<NhanVien> getAllNhanVien() {
         List<NhanVien> result = new ArrayList<>();
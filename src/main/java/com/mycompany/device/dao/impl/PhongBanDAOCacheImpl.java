@@ -0,0 +1,95 @@
+package com.mycompany.device.dao.impl;
+
+import com.mycompany.device.dao.PhongBanDAO;
+import com.mycompany.device.model.PhongBan;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
+import com.mycompany.device.util.EntityCache;
+import com.mycompany.device.metrics.Metrics;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Decorator có cache đặt trước PhongBanDAO.
+ * Cache theo mã phòng ban và snapshot danh sách; kiểm tra tồn tại, tìm kiếm, đếm vẫn đọc thẳng DB.
+ * @author Kim Ngan - DAO Cache Implementation
+ */
+public class PhongBanDAOCacheImpl implements PhongBanDAO {
+
+    private static final EntityCache<String, PhongBan> CACHE = EntityCache.fromConfig("PhongBan", PhongBan::new);
+
+    private final PhongBanDAO delegate;
+
+    public PhongBanDAOCacheImpl() {
+        this(Metrics.instrument(PhongBanDAO.class, new PhongBanDAOMySQLImpl()));
+    }
+
+    public PhongBanDAOCacheImpl(PhongBanDAO delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean createPhongBan(PhongBan phongBan) {
+        boolean success = delegate.createPhongBan(phongBan);
+        if (success) {
+            CACHE.invalidate(phongBan.getMaPhongBan());
+        }
+        return success;
+    }
+
+    @Override
+    public boolean updatePhongBan(PhongBan phongBan) {
+        try {
+            return delegate.updatePhongBan(phongBan);
+        } finally {
+            CACHE.invalidate(phongBan.getMaPhongBan());
+        }
+    }
+
+    @Override
+    public boolean deletePhongBan(String maPhongBan) {
+        boolean success = delegate.deletePhongBan(maPhongBan);
+        if (success) {
+            CACHE.invalidate(maPhongBan);
+        }
+        return success;
+    }
+
+    @Override
+    public Optional<PhongBan> findPhongBanByMa(String maPhongBan) {
+        return Optional.ofNullable(CACHE.get(maPhongBan, ma -> delegate.findPhongBanByMa(ma).orElse(null)));
+    }
+
+    @Override
+    public List<PhongBan> getAllPhongBan() {
+        return CACHE.getAll(delegate::getAllPhongBan, PhongBan::getMaPhongBan);
+    }
+
+    @Override
+    public Page<PhongBan> getPhongBanPage(PageRequest pageRequest) {
+        return delegate.getPhongBanPage(pageRequest);
+    }
+
+    @Override
+    public List<PhongBan> searchPhongBanByTen(String tenPhongBan) {
+        return delegate.searchPhongBanByTen(tenPhongBan);
+    }
+
+    @Override
+    public boolean existsPhongBan(String maPhongBan) {
+        return delegate.existsPhongBan(maPhongBan);
+    }
+
+    @Override
+    public int countPhongBan() {
+        return delegate.countPhongBan();
+    }
+
+    /**
+     * Số liệu cache phòng ban
+     */
+    public static EntityCache.CacheStats getCacheStats() {
+        return CACHE.getStats();
+    }
+}
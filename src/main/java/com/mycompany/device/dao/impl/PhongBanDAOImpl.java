@@ -2,6 +2,8 @@ package com.mycompany.device.dao.impl;
 
 import com.mycompany.device.dao.PhongBanDAO;
 import com.mycompany.device.model.PhongBan;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -123,6 +125,39 @@ public class PhongBanDAOImpl implements PhongBanDAO {
         return result;
     }
     
+    @Override
+    public Page<PhongBan> getPhongBanPage(PageRequest pageRequest) {
+        boolean theoTen = "tenPhongBan".equals(pageRequest.getSort());
+        if (!theoTen && pageRequest.getSort() != null && !"maPhongBan".equals(pageRequest.getSort())) {
+            throw new IllegalArgumentException("Không hỗ trợ sắp xếp theo '" + pageRequest.getSort() + "'");
+        }
+        Comparator<PhongBan> comparator = Comparator.comparing(
+                (PhongBan pb) -> theoTen ? pb.getTenPhongBan() : pb.getMaPhongBan())
+                .thenComparing(PhongBan::getMaPhongBan);
+        if (pageRequest.getDirection() == PageRequest.Direction.DESC) {
+            comparator = comparator.reversed();
+        }
+        List<PhongBan> sorted = new ArrayList<>(phongBanStorage.values());
+        sorted.sort(comparator);
+        
+        int start = 0;
+        if (!pageRequest.isFirstPage()) {
+            String afterMa = (String) pageRequest.getAfterId();
+            while (start < sorted.size() && !sorted.get(start).getMaPhongBan().equals(afterMa)) {
+                start++;
+            }
+            start++;
+        }
+        int end = Math.min(sorted.size(), start + pageRequest.getSize());
+        List<PhongBan> content = start < end ? new ArrayList<>(sorted.subList(start, end)) : new ArrayList<>();
+        PageRequest next = null;
+        if (end < sorted.size() && !content.isEmpty()) {
+            PhongBan last = content.get(content.size() - 1);
+            next = pageRequest.after(theoTen ? last.getTenPhongBan() : last.getMaPhongBan(), last.getMaPhongBan());
+        }
+        return new Page<>(content, pageRequest, next);
+    }
+    
     @Override
     public List<PhongBan> searchPhongBanByTen(String tenPhongBan) {
         if (tenPhongBan == null || tenPhongBan.trim().isEmpty()) {
@@ -2,6 +2,8 @@ package com.mycompany.device.dao.impl;
 
 import com.mycompany.device.dao.PhongBanDAO;
 import com.mycompany.device.model.PhongBan;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
 import com.mycompany.device.util.DatabaseConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,6 +23,12 @@ public class PhongBanDAOMySQLImpl implements PhongBanDAO {
     
     private final DatabaseConnection dbConnection;
     
+    private final KeysetPaging<PhongBan> paging = new KeysetPaging<PhongBan>(
+        "SELECT maPhongBan, tenPhongBan, moTa FROM PhongBan",
+        "maPhongBan", "maPhongBan", PhongBan::getMaPhongBan,
+        "maPhongBan", PageRequest.Direction.ASC, this::mapResultSetToPhongBan)
+        .sortKey("tenPhongBan", "tenPhongBan", PhongBan::getTenPhongBan);
+    
     // SQL queries
     private static final String INSERT_PHONGBAN = 
         "INSERT INTO PhongBan (maPhongBan, tenPhongBan, moTa) VALUES (?, ?, ?)";
@@ -192,6 +200,16 @@ public class PhongBanDAOMySQLImpl implements PhongBanDAO {
         }
     }
     
+    @Override
+    public Page<PhongBan> getPhongBanPage(PageRequest pageRequest) {
+        try {
+            return paging.fetch(pageRequest);
+        } catch (SQLException e) {
+            logger.error("Lỗi SQL khi lấy trang phòng ban {}", pageRequest, e);
+            throw new RuntimeException("Lỗi DB khi lấy trang phòng ban.", e);
+        }
+    }
+    
     @Override
     public List<PhongBan> getAllPhongBan() {
         List<PhongBan> result = new ArrayList<>();
@@ -0,0 +1,131 @@
+package com.mycompany.device.dao.impl;
+
+import com.mycompany.device.dao.ThietBiDAO;
+import com.mycompany.device.model.KetQuaHangLoat;
+import com.mycompany.device.model.ThietBi;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
+import com.mycompany.device.util.EntityCache;
+import com.mycompany.device.metrics.Metrics;
+
+import java.util.List;
+
+/**
+ * Decorator có cache đặt trước ThietBiDAO.
+ * Cache dùng chung cho mọi instance nên các panel/service đọc lại cùng dữ liệu sẽ không truy vấn lại DB;
+ * save/update/delete đi qua decorator sẽ xoá entry tương ứng và snapshot danh sách.
+ * Tìm theo serial và tìm kiếm luôn đọc thẳng DB (dùng để kiểm tra trùng lặp).
+ * @author Kim Ngan - DAO Cache Implementation
+ */
+public class ThietBiDAOCacheImpl implements ThietBiDAO {
+
+    private static final EntityCache<Long, ThietBi> CACHE = EntityCache.fromConfig("ThietBi", ThietBi::new);
+
+    private final ThietBiDAO delegate;
+
+    public ThietBiDAOCacheImpl() {
+        this(Metrics.instrument(ThietBiDAO.class, new ThietBiDAOMySQLImpl()));
+    }
+
+    public ThietBiDAOCacheImpl(ThietBiDAO delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public List<ThietBi> findAll() {
+        return CACHE.getAll(delegate::findAll, ThietBi::getId);
+    }
+
+    @Override
+    public Page<ThietBi> findPage(PageRequest pageRequest) {
+        return delegate.findPage(pageRequest);
+    }
+
+    @Override
+    public ThietBi findById(Long id) {
+        return CACHE.get(id, delegate::findById);
+    }
+
+    @Override
+    public boolean save(ThietBi thietBi) {
+        boolean success = delegate.save(thietBi);
+        if (success) {
+            CACHE.invalidateList();
+        }
+        return success;
+    }
+
+    @Override
+    public boolean update(ThietBi thietBi) {
+        try {
+            return delegate.update(thietBi);
+        } finally {
+            // Xoá trong finally: khi delegate ném lỗi thì không biết DB đã ghi hay chưa
+            CACHE.invalidate(thietBi.getId());
+        }
+    }
+
+    @Override
+    public boolean delete(Long id) {
+        boolean success = delegate.delete(id);
+        if (success) {
+            CACHE.invalidate(id);
+        }
+        return success;
+    }
+
+    @Override
+    public KetQuaHangLoat saveAll(List<ThietBi> thietBiList) {
+        KetQuaHangLoat ketQua = delegate.saveAll(thietBiList);
+        if (ketQua.getSoThanhCong() > 0) {
+            CACHE.invalidateList();
+        }
+        return ketQua;
+    }
+
+    @Override
+    public KetQuaHangLoat updateAll(List<ThietBi> thietBiList) {
+        try {
+            return delegate.updateAll(thietBiList);
+        } finally {
+            // Nhiều khoá thay đổi cùng lúc: xoá toàn bộ thay vì từng entry
+            CACHE.invalidateAll();
+        }
+    }
+
+    @Override
+    public ThietBi findBySoSerial(String soSerial) {
+        return delegate.findBySoSerial(soSerial);
+    }
+
+    @Override
+    public List<ThietBi> search(String keyword, String searchType) {
+        return delegate.search(keyword, searchType);
+    }
+
+    @Override
+    public List<ThietBi> search(String keyword, String searchType, int limit) {
+        return delegate.search(keyword, searchType, limit);
+    }
+
+    /**
+     * Xoá thiết bị khỏi cache khi dòng ThietBi được ghi ngoài decorator (ví dụ transaction cấp phát)
+     */
+    public static void invalidateCache(Long id) {
+        CACHE.invalidate(id);
+    }
+
+    /**
+     * Xoá toàn bộ cache thiết bị khi nhiều dòng ThietBi được ghi ngoài decorator (cấp phát hàng loạt)
+     */
+    public static void invalidateAllCache() {
+        CACHE.invalidateAll();
+    }
+
+    /**
+     * Số liệu cache thiết bị
+     */
+    public static EntityCache.CacheStats getCacheStats() {
+        return CACHE.getStats();
+    }
+}
@@ -1,22 +1,56 @@
 package com.mycompany.device.dao.impl;
 
 import com.mycompany.device.dao.ThietBiDAO;
+import com.mycompany.device.model.KetQuaHangLoat;
 import com.mycompany.device.model.ThietBi;
 import com.mycompany.device.model.ThietBi.TrangThaiThietBi;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
+import com.mycompany.device.util.ConfigLoader;
+import com.mycompany.device.util.EmbeddedDatabase;
 import com.mycompany.device.util.DatabaseConnection;
+import com.mycompany.device.util.TransactionRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
 
 public class ThietBiDAOMySQLImpl implements ThietBiDAO {
 
+    private static final Logger logger = LoggerFactory.getLogger(ThietBiDAOMySQLImpl.class);
+
+    // Số dòng mỗi lần executeBatch() trong saveAll/updateAll
+    private static final int BATCH_SIZE = Math.max(1, ConfigLoader.getIntProperty("DB_BATCH_SIZE", 500));
+    // MySQL: ER_DUP_ENTRY
+    private static final int MYSQL_DUPLICATE_KEY = 1062;
+    // MySQL: ER_FT_MATCHING_KEY_NOT_FOUND (chưa tạo index FULLTEXT)
+    private static final int MYSQL_FT_MATCHING_KEY_NOT_FOUND = 1191;
+    // Số dòng tối đa mỗi lần tìm kiếm
+    private static final int SEARCH_LIMIT = Math.max(1, ConfigLoader.getIntProperty("THIETBI_SEARCH_LIMIT", 200));
+    // ngram_token_size mặc định của MySQL; từ khoá ngắn hơn không tạo được token nào
+    private static final int NGRAM_TOKEN_SIZE = 2;
+
+    // Tắt sau lần đầu gặp lỗi 1191 để không phải thử lại ở mỗi lần tìm.
+    // THIETBI_SEARCH_FULLTEXT=false để luôn dùng LIKE; database nhúng không hỗ trợ MATCH ... AGAINST
+    private static volatile boolean fullTextAvailable = ConfigLoader.getBooleanProperty("THIETBI_SEARCH_FULLTEXT",
+            !EmbeddedDatabase.isEmbedded(ConfigLoader.getDatabaseUrl()));
+
     // (LƯU Ý: Bạn cần đảm bảo đã tạo class DatabaseConnection và các phương thức DB cơ bản)
 
-    private static final String SELECT_ALL_SQL = 
-        "SELECT id, soSerial, loaiId, trangThai, ngayMua, giaMua, ghiChu, createdAt, updatedAt FROM ThietBi";
+    private static final String SEARCH_COLUMNS =
+        "SELECT id, soSerial, loaiId, trangThai, ngayMua, giaMua, ghiChu, createdAt, updatedAt";
+    private static final String SELECT_ALL_SQL = SEARCH_COLUMNS + " FROM ThietBi";
     private static final String SELECT_BY_ID_SQL = SELECT_ALL_SQL + " WHERE id = ?";
     private static final String SELECT_BY_SERIAL_SQL = SELECT_ALL_SQL + " WHERE soSerial = ?";
     private static final String INSERT_SQL = 
@@ -25,6 +59,12 @@ public class ThietBiDAOMySQLImpl implements ThietBiDAO {
         "UPDATE ThietBi SET soSerial = ?, loaiId = ?, trangThai = ?, ngayMua = ?, giaMua = ?, ghiChu = ?, updatedAt = CURRENT_TIMESTAMP WHERE id = ?";
     private static final String DELETE_SQL = "DELETE FROM ThietBi WHERE id = ?";
 
+    private final KeysetPaging<ThietBi> paging = new KeysetPaging<ThietBi>(
+        SELECT_ALL_SQL, "id", "id", ThietBi::getId,
+        "id", PageRequest.Direction.DESC, this::mapResultSetToThietBi)
+        .sortKey("soSerial", "soSerial", ThietBi::getSoSerial)
+        .sortKey("loaiId", "loaiId", ThietBi::getLoaiId);
+
     private ThietBi mapResultSetToThietBi(ResultSet rs) throws SQLException {
         Long id = rs.getLong("id");
         String soSerial = rs.getString("soSerial");
@@ -79,6 +119,16 @@ public class ThietBiDAOMySQLImpl implements ThietBiDAO {
     public List<ThietBi> findAll() {
         try { return executeQuery(SELECT_ALL_SQL); } catch (SQLException e) { e.printStackTrace(); return new ArrayList<>(); }
     }
+
+    @Override
+    public Page<ThietBi> findPage(PageRequest pageRequest) {
+        try {
+            return paging.fetch(pageRequest);
+        } catch (SQLException e) {
+            logger.error("Lỗi khi lấy trang thiết bị {}", pageRequest, e);
+            throw new RuntimeException("Lỗi DB khi lấy trang thiết bị.", e);
+        }
+    }
     @Override
     public ThietBi findById(Long id) {
         try { List<ThietBi> result = executeQuery(SELECT_BY_ID_SQL, id); return result.isEmpty() ? null : result.get(0); } catch (SQLException e) { e.printStackTrace(); return null; }
@@ -92,12 +142,7 @@ public class ThietBiDAOMySQLImpl implements ThietBiDAO {
     public boolean save(ThietBi thietBi) {
         try (Connection conn = DatabaseConnection.getInstance().getConnection();
              PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
-            pstmt.setString(1, thietBi.getSoSerial());
-            pstmt.setLong(2, thietBi.getLoaiId());
-            pstmt.setString(3, thietBi.getTrangThai().name());
-            pstmt.setDate(4, thietBi.getNgayMua() != null ? Date.valueOf(thietBi.getNgayMua()) : null);
-            pstmt.setBigDecimal(5, thietBi.getGiaMua());
-            pstmt.setString(6, thietBi.getGhiChu());
+            bindInsertParams(pstmt, thietBi);
             return pstmt.executeUpdate() > 0;
         } catch (SQLException e) { e.printStackTrace(); return false; }
     }
@@ -105,13 +150,7 @@ public class ThietBiDAOMySQLImpl implements ThietBiDAO {
     public boolean update(ThietBi thietBi) {
         try (Connection conn = DatabaseConnection.getInstance().getConnection();
              PreparedStatement pstmt = conn.prepareStatement(UPDATE_SQL)) {
-            pstmt.setString(1, thietBi.getSoSerial());
-            pstmt.setLong(2, thietBi.getLoaiId());
-            pstmt.setString(3, thietBi.getTrangThai().name());
-            pstmt.setDate(4, thietBi.getNgayMua() != null ? Date.valueOf(thietBi.getNgayMua()) : null);
-            pstmt.setBigDecimal(5, thietBi.getGiaMua());
-            pstmt.setString(6, thietBi.getGhiChu());
-            pstmt.setLong(7, thietBi.getId());
+            bindUpdateParams(pstmt, thietBi);
             return pstmt.executeUpdate() > 0;
         } catch (SQLException e) { e.printStackTrace(); return false; }
     }
@@ -125,64 +164,422 @@ public class ThietBiDAOMySQLImpl implements ThietBiDAO {
     }
 
     // =======================================================
-    //          LOGIC TÌM KIẾM MỚI (SQL fix)
+    //          TÌM KIẾM (FULLTEXT ngram, xếp hạng, giới hạn số dòng)
     // =======================================================
     @Override
     public List<ThietBi> search(String keyword, String searchType) {
-        // Bảo vệ keyword: trim() và kiểm tra rỗng
-        String trimmedKeyword = keyword.trim();
-        if (trimmedKeyword.isEmpty() || "Tất cả".equals(searchType)) {
-             // Nếu là Tất cả (và có keyword), logic sẽ chạy xuống dưới
-             if (trimmedKeyword.isEmpty()) return findAll(); 
+        return search(keyword, searchType, SEARCH_LIMIT);
+    }
+
+    /**
+     * Serial/ghi chú được tìm qua index FULLTEXT (parser ngram) thay vì LIKE '%x%' quét toàn bảng.
+     * Kết quả xếp hạng: trùng khớp serial, rồi tiền tố serial, rồi độ liên quan của MATCH.
+     * Từ khoá ngắn hơn kích thước ngram hoặc database chưa có index sẽ dùng LIKE như trước (vẫn có LIMIT).
+     * Từ khoá rỗng trả về trang đầu (cùng giới hạn) thay vì cả bảng.
+     */
+    @Override
+    public List<ThietBi> search(String keyword, String searchType, int limit) {
+        String trimmedKeyword = keyword != null ? keyword.trim() : "";
+        int maxRows = limit > 0 ? limit : SEARCH_LIMIT;
+        if (trimmedKeyword.isEmpty()) {
+            return findPage(PageRequest.of(maxRows)).getContent();
         }
-        
-        StringBuilder sql = new StringBuilder(SELECT_ALL_SQL).append(" WHERE 1=1 ");
+        String type = searchType != null ? searchType : "Tất cả";
+
+        try {
+            switch (type) {
+                case "Loại ID":
+                    try {
+                        Long loaiId = Long.valueOf(trimmedKeyword);
+                        return executeQuery(SELECT_ALL_SQL + " WHERE loaiId = ? ORDER BY id DESC LIMIT ?", loaiId, maxRows);
+                    } catch (NumberFormatException e) {
+                        // Nếu nhập chữ cho Loai ID, trả về list rỗng
+                        return new ArrayList<>();
+                    }
+                case "Trạng thái":
+                    return findByTrangThaiIn(matchTrangThai(trimmedKeyword), maxRows);
+                case "Số Serial":
+                    return searchText(trimmedKeyword, "soSerial", maxRows);
+                case "Ghi chú":
+                    return searchText(trimmedKeyword, "ghiChu", maxRows);
+                case "Tất cả":
+                default:
+                    List<ThietBi> result = searchText(trimmedKeyword, null, maxRows);
+                    List<TrangThaiThietBi> trangThaiList = matchTrangThai(trimmedKeyword);
+                    if (trangThaiList.isEmpty() || result.size() >= maxRows) {
+                        return result;
+                    }
+                    // Thiết bị khớp theo trạng thái xếp sau các kết quả khớp văn bản
+                    Map<Long, ThietBi> merged = new LinkedHashMap<>();
+                    for (ThietBi tb : result) {
+                        merged.put(tb.getId(), tb);
+                    }
+                    for (ThietBi tb : findByTrangThaiIn(trangThaiList, maxRows)) {
+                        if (merged.size() >= maxRows) {
+                            break;
+                        }
+                        merged.putIfAbsent(tb.getId(), tb);
+                    }
+                    return new ArrayList<>(merged.values());
+            }
+        } catch (SQLException e) {
+            logger.error("Lỗi khi tìm kiếm thiết bị: keyword={}, searchType={}", trimmedKeyword, type, e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Tìm theo serial/ghi chú.
+     * @param column Chỉ giữ kết quả khớp trên cột này, null = cả hai cột
+     */
+    private List<ThietBi> searchText(String keyword, String column, int limit) throws SQLException {
+        String phrase = keyword.replace("\"", " ").trim();
+        if (fullTextAvailable && phrase.length() >= NGRAM_TOKEN_SIZE) {
+            try {
+                return searchFullText(phrase, column, limit);
+            } catch (SQLException e) {
+                if (e.getErrorCode() != MYSQL_FT_MATCHING_KEY_NOT_FOUND) {
+                    throw e;
+                }
+                fullTextAvailable = false;
+                logger.warn("Bảng ThietBi chưa có index FULLTEXT ft_thietbi_search, tìm kiếm dùng LIKE "
+                        + "(xem database/create_thietbi_table.sql)");
+            }
+        }
+        return searchLike(keyword, column, limit);
+    }
+
+    private List<ThietBi> searchFullText(String phrase, String column, int limit) throws SQLException {
+        // Cụm từ trong ngoặc kép: với parser ngram tương đương tìm chuỗi con
+        String against = "\"" + phrase + "\"";
+        String likeContains = "%" + escapeLike(phrase) + "%";
+        StringBuilder sql = new StringBuilder(SEARCH_COLUMNS)
+            .append(", (soSerial = ?) * 3 + (soSerial LIKE ?) * 2")
+            .append(" + MATCH(soSerial, ghiChu) AGAINST(? IN BOOLEAN MODE) AS diem")
+            .append(" FROM ThietBi WHERE MATCH(soSerial, ghiChu) AGAINST(? IN BOOLEAN MODE)");
         List<Object> params = new ArrayList<>();
-        
-        // Từ khóa dùng cho LIKE
-        String likeKeyword = "%" + trimmedKeyword + "%";
-        
-        switch (searchType) {
-            case "Số Serial":
-                sql.append(" AND soSerial LIKE ?");
-                params.add(likeKeyword);
-                break;
-            case "Loại ID":
-                 try {
-                    // Dùng Long.valueOf() để chuyển đổi SỐ. 
-                    Long loaiId = Long.valueOf(trimmedKeyword);
-                    // TÌM KIẾM CHÍNH XÁC ID DƯỚI DẠNG SỐ
-                    sql.append(" AND loaiId = ?");
-                    params.add(loaiId);
-                } catch (NumberFormatException e) {
-                    // Nếu nhập chữ cho Loai ID, trả về list rỗng
-                    return new ArrayList<>();
+        params.add(phrase);
+        params.add(escapeLike(phrase) + "%");
+        params.add(against);
+        params.add(against);
+        if (column != null) {
+            // Index gồm cả hai cột, lọc lại trên tập ứng viên nhỏ để chỉ giữ cột được chọn
+            sql.append(" AND ").append(column).append(" LIKE ?");
+            params.add(likeContains);
+        }
+        sql.append(" ORDER BY diem DESC, id DESC LIMIT ?");
+        params.add(limit);
+        return executeQuery(sql.toString(), params.toArray());
+    }
+
+    /**
+     * Cách tìm cũ bằng LIKE '%x%', dùng khi không thể dùng FULLTEXT
+     */
+    private List<ThietBi> searchLike(String keyword, String column, int limit) throws SQLException {
+        String likeKeyword = "%" + escapeLike(keyword) + "%";
+        if (column != null) {
+            return executeQuery(SELECT_ALL_SQL + " WHERE " + column + " LIKE ? ORDER BY id DESC LIMIT ?",
+                    likeKeyword, limit);
+        }
+        return executeQuery(SELECT_ALL_SQL + " WHERE soSerial LIKE ? OR ghiChu LIKE ? ORDER BY id DESC LIMIT ?",
+                likeKeyword, likeKeyword, limit);
+    }
+
+    private List<ThietBi> findByTrangThaiIn(List<TrangThaiThietBi> trangThaiList, int limit) throws SQLException {
+        if (trangThaiList.isEmpty()) {
+            return new ArrayList<>();
+        }
+        StringBuilder sql = new StringBuilder(SELECT_ALL_SQL).append(" WHERE trangThai IN (");
+        List<Object> params = new ArrayList<>();
+        for (int i = 0; i < trangThaiList.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+            params.add(trangThaiList.get(i).name());
+        }
+        sql.append(") ORDER BY id DESC LIMIT ?");
+        params.add(limit);
+        return executeQuery(sql.toString(), params.toArray());
+    }
+
+    /**
+     * Các trạng thái có tên ENUM hoặc tên hiển thị chứa từ khoá (không phân biệt hoa thường)
+     */
+    private static List<TrangThaiThietBi> matchTrangThai(String keyword) {
+        String lower = keyword.toLowerCase();
+        String upper = keyword.toUpperCase();
+        List<TrangThaiThietBi> result = new ArrayList<>();
+        for (TrangThaiThietBi trangThai : TrangThaiThietBi.values()) {
+            if (trangThai.name().contains(upper) || trangThai.getDisplayName().toLowerCase().contains(lower)) {
+                result.add(trangThai);
+            }
+        }
+        return result;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private void bindInsertParams(PreparedStatement pstmt, ThietBi thietBi) throws SQLException {
+        pstmt.setString(1, thietBi.getSoSerial());
+        pstmt.setLong(2, thietBi.getLoaiId());
+        pstmt.setString(3, thietBi.getTrangThai().name());
+        pstmt.setDate(4, thietBi.getNgayMua() != null ? Date.valueOf(thietBi.getNgayMua()) : null);
+        pstmt.setBigDecimal(5, thietBi.getGiaMua());
+        pstmt.setString(6, thietBi.getGhiChu());
+    }
+
+    private void bindUpdateParams(PreparedStatement pstmt, ThietBi thietBi) throws SQLException {
+        bindInsertParams(pstmt, thietBi);
+        pstmt.setLong(7, thietBi.getId());
+    }
+
+    // =======================================================
+    //          GHI HÀNG LOẠT (JDBC batch, một transaction)
+    // =======================================================
+    @Override
+    public KetQuaHangLoat saveAll(List<ThietBi> thietBiList) {
+        return executeBatchWrite(thietBiList, false);
+    }
+
+    @Override
+    public KetQuaHangLoat updateAll(List<ThietBi> thietBiList) {
+        return executeBatchWrite(thietBiList, true);
+    }
+
+    /**
+     * Khung chung cho saveAll/updateAll: kiểm tra từng dòng, chia batch, commit một lần.
+     * Lỗi nghiệp vụ của một dòng (trùng serial, không tồn tại) không làm hỏng cả lô;
+     * lỗi database khác sẽ rollback toàn bộ.
+     */
+    private KetQuaHangLoat executeBatchWrite(List<ThietBi> thietBiList, boolean isUpdate) {
+        List<ThietBi> input = thietBiList != null ? thietBiList : Collections.<ThietBi>emptyList();
+        KetQuaHangLoat ketQua = new KetQuaHangLoat(input.size());
+        if (input.isEmpty()) {
+            return ketQua;
+        }
+
+        long start = System.nanoTime();
+        // Vị trí các dòng đã ghi trong transaction, để trả id về null nếu rollback
+        BitSet daGhi = new BitSet(input.size());
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            SQLException loi = null;
+            try {
+                Set<String> serialDaGap = new HashSet<>();
+                for (int from = 0; from < input.size(); from += BATCH_SIZE) {
+                    int to = Math.min(input.size(), from + BATCH_SIZE);
+                    List<Integer> hopLe = validateChunk(input, from, to, isUpdate, serialDaGap, ketQua);
+                    hopLe = filterExistingSerials(conn, input, hopLe, isUpdate, ketQua);
+                    if (!hopLe.isEmpty()) {
+                        writeChunk(conn, input, hopLe, isUpdate, ketQua, daGhi);
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                // Kết nối hỏng thì rollback/khôi phục auto-commit cũng lỗi: gắn vào lỗi gốc, không thay thế nó
+                loi = e;
+                TransactionRunner.rollback(conn, e);
+                throw e;
+            } finally {
+                TransactionRunner.khoiPhucAutoCommit(conn, autoCommit, loi);
+            }
+        } catch (SQLException e) {
+            logger.error("Lỗi khi ghi hàng loạt {} thiết bị, đã rollback", input.size(), e);
+            if (!isUpdate) {
+                for (int viTri = daGhi.nextSetBit(0); viTri >= 0; viTri = daGhi.nextSetBit(viTri + 1)) {
+                    input.get(viTri).setId(null);
                 }
-                break;
-            case "Trạng thái":
-                sql.append(" AND trangThai LIKE ?");
-                // Tên ENUM được lưu bằng chữ HOA
-                params.add(likeKeyword.toUpperCase()); 
-                break;
-            case "Ghi chú":
-                sql.append(" AND ghiChu LIKE ?");
-                params.add(likeKeyword);
-                break;
-            case "Tất cả":
-            default:
-                // Tìm kiếm tổng hợp theo nhiều cột
-                sql.append(" AND (soSerial LIKE ? OR ghiChu LIKE ? OR trangThai LIKE ?)");
-                params.add(likeKeyword);
-                params.add(likeKeyword);
-                params.add(likeKeyword.toUpperCase()); 
-                break;
+            }
+            ketQua.huyTatCa("Lỗi database, toàn bộ lô đã được hoàn tác: " + e.getMessage());
+            return ketQua;
         }
-        
+
+        logger.info("{} hàng loạt {} thiết bị: {} thành công, {} lỗi ({} ms)",
+            isUpdate ? "Cập nhật" : "Thêm", input.size(), ketQua.getSoThanhCong(), ketQua.getSoThatBai(),
+            (System.nanoTime() - start) / 1_000_000);
+        return ketQua;
+    }
+
+    /**
+     * Kiểm tra dữ liệu bắt buộc và trùng serial trong chính danh sách đầu vào
+     * @return vị trí các dòng hợp lệ
+     */
+    private List<Integer> validateChunk(List<ThietBi> input, int from, int to, boolean isUpdate,
+                                        Set<String> serialDaGap, KetQuaHangLoat ketQua) {
+        List<Integer> hopLe = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            ThietBi tb = input.get(i);
+            String serial = tb != null ? tb.getSoSerial() : null;
+            if (tb == null || serial == null || serial.trim().isEmpty()) {
+                ketQua.ghiNhanLoi(i, serial, "Thiếu số serial");
+            } else if (tb.getLoaiId() == null) {
+                ketQua.ghiNhanLoi(i, serial, "Thiếu loại thiết bị");
+            } else if (tb.getTrangThai() == null) {
+                ketQua.ghiNhanLoi(i, serial, "Thiếu trạng thái");
+            } else if (isUpdate && tb.getId() == null) {
+                ketQua.ghiNhanLoi(i, serial, "Thiếu id thiết bị cần cập nhật");
+            } else if (!serialDaGap.add(serial)) {
+                ketQua.ghiNhanLoi(i, serial, "Số serial bị trùng trong danh sách");
+            } else {
+                hopLe.add(i);
+            }
+        }
+        return hopLe;
+    }
+
+    /**
+     * Loại các dòng có serial đã thuộc về thiết bị khác trong DB (một truy vấn IN cho cả batch)
+     */
+    private List<Integer> filterExistingSerials(Connection conn, List<ThietBi> input, List<Integer> viTriList,
+                                                boolean isUpdate, KetQuaHangLoat ketQua) throws SQLException {
+        if (viTriList.isEmpty()) {
+            return viTriList;
+        }
+        StringBuilder sql = new StringBuilder("SELECT id, soSerial FROM ThietBi WHERE soSerial IN (");
+        for (int i = 0; i < viTriList.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+
+        Map<String, Long> idTheoSerial = new HashMap<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < viTriList.size(); i++) {
+                pstmt.setString(i + 1, input.get(viTriList.get(i)).getSoSerial());
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    idTheoSerial.put(rs.getString("soSerial"), rs.getLong("id"));
+                }
+            }
+        }
+
+        List<Integer> hopLe = new ArrayList<>(viTriList.size());
+        for (int viTri : viTriList) {
+            ThietBi tb = input.get(viTri);
+            Long idHienCo = idTheoSerial.get(tb.getSoSerial());
+            if (idHienCo != null && (!isUpdate || !idHienCo.equals(tb.getId()))) {
+                ketQua.ghiNhanLoi(viTri, tb.getSoSerial(), "Số serial đã tồn tại trong hệ thống");
+            } else {
+                hopLe.add(viTri);
+            }
+        }
+        return hopLe;
+    }
+
+    /**
+     * Ghi một batch. Nếu batch lỗi (ví dụ serial bị chèn đồng thời bởi người khác),
+     * quay về savepoint và ghi lại từng dòng để chỉ báo lỗi đúng dòng vi phạm.
+     */
+    private void writeChunk(Connection conn, List<ThietBi> input, List<Integer> viTriList, boolean isUpdate,
+                            KetQuaHangLoat ketQua, BitSet daGhi) throws SQLException {
+        Savepoint savepoint = conn.setSavepoint();
         try {
-            return executeQuery(sql.toString(), params.toArray());
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return new ArrayList<>();
+            if (isUpdate) {
+                updateBatch(conn, input, viTriList, ketQua, daGhi);
+            } else {
+                insertBatch(conn, input, viTriList, ketQua, daGhi);
+            }
+            conn.releaseSavepoint(savepoint);
+        } catch (BatchUpdateException e) {
+            logger.warn("Batch {} dòng bị lỗi ({}), ghi lại từng dòng", viTriList.size(), e.getMessage());
+            conn.rollback(savepoint);
+            for (int viTri : viTriList) {
+                if (!isUpdate) {
+                    input.get(viTri).setId(null);
+                }
+                daGhi.clear(viTri);
+            }
+            writeOneByOne(conn, input, viTriList, isUpdate, ketQua, daGhi);
+        }
+    }
+
+    private void insertBatch(Connection conn, List<ThietBi> input, List<Integer> viTriList,
+                             KetQuaHangLoat ketQua, BitSet daGhi) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (int viTri : viTriList) {
+                bindInsertParams(pstmt, input.get(viTri));
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            // Khoá sinh ra trả về theo đúng thứ tự các dòng đã addBatch()
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                for (int viTri : viTriList) {
+                    if (!keys.next()) {
+                        throw new SQLException("Driver không trả về đủ id sinh ra cho batch INSERT");
+                    }
+                    long id = keys.getLong(1);
+                    input.get(viTri).setId(id);
+                    ketQua.ghiNhanThanhCong(viTri, id);
+                    daGhi.set(viTri);
+                }
+            }
+        }
+    }
+
+    private void updateBatch(Connection conn, List<ThietBi> input, List<Integer> viTriList,
+                             KetQuaHangLoat ketQua, BitSet daGhi) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(UPDATE_SQL)) {
+            for (int viTri : viTriList) {
+                bindUpdateParams(pstmt, input.get(viTri));
+                pstmt.addBatch();
+            }
+            int[] counts = pstmt.executeBatch();
+            for (int i = 0; i < viTriList.size(); i++) {
+                int viTri = viTriList.get(i);
+                ThietBi tb = input.get(viTri);
+                // SUCCESS_NO_INFO: driver không biết số dòng, coi như thành công
+                if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                    ketQua.ghiNhanThanhCong(viTri, tb.getId());
+                    daGhi.set(viTri);
+                } else {
+                    ketQua.ghiNhanLoi(viTri, tb.getSoSerial(), "Không tìm thấy thiết bị có id " + tb.getId());
+                }
+            }
+        }
+    }
+
+    private void writeOneByOne(Connection conn, List<ThietBi> input, List<Integer> viTriList, boolean isUpdate,
+                               KetQuaHangLoat ketQua, BitSet daGhi) throws SQLException {
+        for (int viTri : viTriList) {
+            ThietBi tb = input.get(viTri);
+            try {
+                if (isUpdate) {
+                    updateBatch(conn, input, Collections.singletonList(viTri), ketQua, daGhi);
+                } else {
+                    insertBatch(conn, input, Collections.singletonList(viTri), ketQua, daGhi);
+                }
+            } catch (SQLException e) {
+                if (!isConstraintViolation(e)) {
+                    throw e;
+                }
+                // InnoDB chỉ hoàn tác câu lệnh lỗi, transaction vẫn tiếp tục
+                ketQua.ghiNhanLoi(viTri, tb.getSoSerial(), isDuplicateKey(e)
+                    ? "Số serial đã tồn tại trong hệ thống"
+                    : "Vi phạm ràng buộc dữ liệu: " + e.getMessage());
+            }
+        }
+    }
+
+    private static boolean isDuplicateKey(SQLException e) {
+        for (SQLException current = e; current != null; current = current.getNextException()) {
+            if (current.getErrorCode() == MYSQL_DUPLICATE_KEY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lỗi ràng buộc (SQLState 23xxx): trùng khoá, khoá ngoại không tồn tại...
+     */
+    private static boolean isConstraintViolation(SQLException e) {
+        for (SQLException current = e; current != null; current = current.getNextException()) {
+            if (current instanceof SQLIntegrityConstraintViolationException
+                    || (current.getSQLState() != null && current.getSQLState().startsWith("23"))) {
+                return true;
+            }
         }
+        return false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,74 @@
+package com.mycompany.device.dao.impl;
+
+import com.mycompany.device.dao.ThongKeDAO;
+import com.mycompany.device.model.ThietBi;
+import com.mycompany.device.model.ThongKeTongQuan;
+import com.mycompany.device.util.DatabaseConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * MySQL implementation của ThongKeDAO
+ * @author Kim Ngan - DAO Implementation Layer
+ */
+public class ThongKeDAOMySQLImpl implements ThongKeDAO {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ThongKeDAOMySQLImpl.class);
+    
+    // Mỗi bảng chỉ quét một lần, các bảng con ghép bằng CROSS JOIN (mỗi bảng con đúng một dòng)
+    private static final String THONG_KE_SQL = buildThongKeSql();
+    
+    private static String buildThongKeSql() {
+        StringBuilder theoTrangThai = new StringBuilder();
+        for (ThietBi.TrangThaiThietBi trangThai : ThietBi.TrangThaiThietBi.values()) {
+            theoTrangThai.append(theoTrangThai.length() == 0 ? "" : ", ")
+                .append("SUM(CASE WHEN trangThai = '").append(trangThai.name())
+                .append("' THEN 1 ELSE 0 END) AS ").append(trangThai.name());
+        }
+        return "SELECT pb.soPhongBan, nv.soNhanVien, cp.soCapPhat, cp.dangHoatDong, yc.choDuyet, tb.* " +
+               "FROM (SELECT COUNT(*) AS soPhongBan FROM PhongBan) pb " +
+               "CROSS JOIN (SELECT COUNT(*) AS soNhanVien FROM NhanVien) nv " +
+               "CROSS JOIN (SELECT COUNT(*) AS soCapPhat, " +
+               "SUM(CASE WHEN ngayTra IS NULL THEN 1 ELSE 0 END) AS dangHoatDong FROM CapPhat) cp " +
+               "CROSS JOIN (SELECT COUNT(*) AS choDuyet FROM YeuCau WHERE trangThai = 'CHO_DUYET') yc " +
+               "CROSS JOIN (SELECT " + theoTrangThai + " FROM ThietBi) tb";
+    }
+    
+    @Override
+    public ThongKeTongQuan getThongKeTongQuan() {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(THONG_KE_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            if (rs.next()) {
+                // SUM trên bảng rỗng trả về NULL, getInt đọc thành 0
+                Map<ThietBi.TrangThaiThietBi, Integer> theoTrangThai = new EnumMap<>(ThietBi.TrangThaiThietBi.class);
+                for (ThietBi.TrangThaiThietBi trangThai : ThietBi.TrangThaiThietBi.values()) {
+                    theoTrangThai.put(trangThai, rs.getInt(trangThai.name()));
+                }
+                return new ThongKeTongQuan(
+                    rs.getInt("soPhongBan"),
+                    rs.getInt("soNhanVien"),
+                    theoTrangThai,
+                    rs.getInt("soCapPhat"),
+                    rs.getInt("dangHoatDong"),
+                    rs.getInt("choDuyet"),
+                    LocalDateTime.now());
+            }
+            
+        } catch (SQLException e) {
+            logger.error("Lỗi khi lấy thống kê tổng quan", e);
+            throw new RuntimeException("Lỗi DB khi lấy thống kê tổng quan.", e);
+        }
+        
+        return ThongKeTongQuan.empty();
+    }
+}
@@ -1,16 +1,27 @@
 package com.mycompany.device.dao.impl;
 
 import com.mycompany.device.dao.YeuCauDAO;
+import com.mycompany.device.model.KetQuaHangLoat;
 import com.mycompany.device.model.YeuCau;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
+import com.mycompany.device.util.ConfigLoader;
 import com.mycompany.device.util.DatabaseConnection;
+import com.mycompany.device.util.TransactionRunner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * MySQL implementation của YeuCauDAO
@@ -20,6 +31,21 @@ public class YeuCauDAOMySQLImpl implements YeuCauDAO {
     
     private static final Logger logger = LoggerFactory.getLogger(YeuCauDAOMySQLImpl.class);
     
+    // Số yêu cầu mỗi lượt IN (...) trong updateTrangThaiHangLoat
+    private static final int BATCH_SIZE = Math.max(1, ConfigLoader.getIntProperty("DB_BATCH_SIZE", 500));
+    
+    // Phân trang danh sách yêu cầu theo index (ngayTao, id)
+    private final KeysetPaging<YeuCau> paging = new KeysetPaging<YeuCau>(
+            "SELECT * FROM YeuCau", "id", "id", YeuCau::getId,
+            "ngayTao", PageRequest.Direction.DESC, this::mapResultSetToYeuCau)
+            .sortKey("ngayTao", "ngayTao", YeuCau::getNgayTao);
+    
+    // Từ khoá màn hình admin: tên thiết bị (như AdminYeuCauPanel hiển thị), tên nhân viên, tên phòng ban
+    private static final String ADMIN_TU_KHOA_FILTER =
+            "thietBiId IN (SELECT id FROM ThietBi WHERE ghiChu LIKE ? OR (ghiChu IS NULL AND CONCAT('TB-', id) LIKE ?))" +
+            " OR nhanVienId IN (SELECT maNhanVien FROM NhanVien WHERE tenNhanVien LIKE ?" +
+            " OR maPhongBan IN (SELECT maPhongBan FROM PhongBan WHERE tenPhongBan LIKE ?))";
+    
     @Override
     public boolean createYeuCau(YeuCau yeuCau) {
         String sql = "INSERT INTO YeuCau (thietBiId, nhanVienId, trangThai, lyDo, ngayTao, ngayCapNhat) VALUES (?, ?, ?, ?, ?, ?)";
@@ -119,6 +145,115 @@ public class YeuCauDAOMySQLImpl implements YeuCauDAO {
         return Optional.empty();
     }
     
+    @Override
+    public Page<YeuCau> getYeuCauPage(PageRequest pageRequest) {
+        try {
+            return paging.fetch(pageRequest);
+        } catch (SQLException e) {
+            logger.error("Lỗi khi lấy trang yêu cầu: {}", pageRequest, e);
+            throw new RuntimeException("Lỗi DB khi lấy trang yêu cầu.", e);
+        }
+    }
+    
+    @Override
+    public Page<YeuCau> findYeuCauPage(YeuCau.TrangThaiYeuCau trangThai, String tuKhoa, PageRequest pageRequest) {
+        List<String> where = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        if (trangThai != null) {
+            where.add("trangThai = ?");
+            params.add(trangThai.name());
+        }
+        addAdminTuKhoa(where, params, tuKhoa);
+        try {
+            return paging.fetch(pageRequest, where.isEmpty() ? null : String.join(" AND ", where), params.toArray());
+        } catch (SQLException e) {
+            logger.error("Lỗi khi lấy trang yêu cầu (trạng thái={}, từ khoá='{}'): {}", trangThai, tuKhoa, pageRequest, e);
+            throw new RuntimeException("Lỗi DB khi lấy trang yêu cầu.", e);
+        }
+    }
+    
+    @Override
+    public Map<YeuCau.TrangThaiYeuCau, Integer> countYeuCauTheoTrangThai(String tuKhoa) {
+        List<String> where = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        addAdminTuKhoa(where, params, tuKhoa);
+        String sql = "SELECT trangThai, COUNT(*) FROM YeuCau" +
+                     (where.isEmpty() ? "" : " WHERE " + String.join(" AND ", where)) +
+                     " GROUP BY trangThai";
+        Map<YeuCau.TrangThaiYeuCau, Integer> result = new EnumMap<>(YeuCau.TrangThaiYeuCau.class);
+        
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    result.put(YeuCau.TrangThaiYeuCau.valueOf(rs.getString(1)), rs.getInt(2));
+                }
+            }
+            return result;
+            
+        } catch (SQLException e) {
+            logger.error("Lỗi khi đếm yêu cầu theo trạng thái (từ khoá='{}')", tuKhoa, e);
+            throw new RuntimeException("Lỗi DB khi đếm yêu cầu theo trạng thái.", e);
+        }
+    }
+    
+    @Override
+    public Page<YeuCau> findYeuCauPageByNhanVien(String nhanVienId, PageRequest pageRequest) {
+        try {
+            return paging.fetch(pageRequest, "nhanVienId = ?", nhanVienId);
+        } catch (SQLException e) {
+            logger.error("Lỗi khi lấy trang yêu cầu của nhân viên {}: {}", nhanVienId, pageRequest, e);
+            throw new RuntimeException("Lỗi DB khi lấy trang yêu cầu.", e);
+        }
+    }
+    
+    @Override
+    public Page<YeuCau> searchYeuCauPageByNhanVien(String nhanVienId, String tieuChi, String tuKhoa,
+                                                   PageRequest pageRequest) {
+        String keyword = tuKhoa != null ? tuKhoa.trim() : "";
+        if (keyword.isEmpty()) {
+            return findYeuCauPageByNhanVien(nhanVienId, pageRequest);
+        }
+        String like = "%" + escapeLike(keyword) + "%";
+        List<YeuCau.TrangThaiYeuCau> trangThaiList = matchTrangThai(keyword);
+        List<String> dieuKien = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        params.add(nhanVienId);
+        String type = tieuChi != null ? tieuChi : "Tất cả";
+        boolean tatCa = !type.equals("Thiết bị") && !type.equals("Trạng thái") && !type.equals("Lý do");
+        if (tatCa || type.equals("Thiết bị")) {
+            dieuKien.add("thietBiId IN (SELECT id FROM ThietBi WHERE soSerial LIKE ?)");
+            params.add(like);
+        }
+        if ((tatCa || type.equals("Trạng thái")) && !trangThaiList.isEmpty()) {
+            dieuKien.add("trangThai IN (" + placeholders(trangThaiList.size()) + ")");
+            for (YeuCau.TrangThaiYeuCau trangThai : trangThaiList) {
+                params.add(trangThai.name());
+            }
+        }
+        if (tatCa || type.equals("Lý do")) {
+            dieuKien.add("lyDo LIKE ?");
+            params.add(like);
+        }
+        if (dieuKien.isEmpty()) {
+            // Tìm theo trạng thái nhưng từ khoá không khớp trạng thái nào
+            return Page.empty(pageRequest);
+        }
+        try {
+            return paging.fetch(pageRequest, "nhanVienId = ? AND (" + String.join(" OR ", dieuKien) + ")",
+                                params.toArray());
+        } catch (SQLException e) {
+            logger.error("Lỗi khi tìm trang yêu cầu của nhân viên {} ({}='{}'): {}", nhanVienId, type, keyword,
+                         pageRequest, e);
+            throw new RuntimeException("Lỗi DB khi tìm yêu cầu.", e);
+        }
+    }
+    
     @Override
     public List<YeuCau> getAllYeuCau() {
         String sql = "SELECT * FROM YeuCau ORDER BY ngayTao DESC";
@@ -247,6 +382,143 @@ public class YeuCauDAOMySQLImpl implements YeuCauDAO {
         return 0;
     }
     
+    @Override
+    public KetQuaHangLoat updateTrangThaiHangLoat(List<Long> yeuCauIds, Set<YeuCau.TrangThaiYeuCau> trangThaiChoPhep,
+                                                  YeuCau.TrangThaiYeuCau trangThaiMoi, String lyDo) {
+        List<Long> input = yeuCauIds != null ? yeuCauIds : Collections.<Long>emptyList();
+        if (input.isEmpty()) {
+            return new KetQuaHangLoat(0);
+        }
+        
+        long start = System.nanoTime();
+        try {
+            KetQuaHangLoat ketQua = TransactionRunner.execute("đổi trạng thái " + input.size() + " yêu cầu", conn -> {
+                // Tạo mới ở mỗi lần chạy vì transaction có thể bị chạy lại sau deadlock
+                KetQuaHangLoat kq = new KetQuaHangLoat(input.size());
+                Map<Long, Integer> viTriTheoId = viTriDuyNhat(input, kq);
+                List<Long> ids = new ArrayList<>(viTriTheoId.keySet());
+                LocalDateTime now = LocalDateTime.now();
+                for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+                    List<Long> lo = ids.subList(from, Math.min(ids.size(), from + BATCH_SIZE));
+                    updateTrangThaiLo(conn, lo, viTriTheoId, trangThaiChoPhep, trangThaiMoi, lyDo, now, kq);
+                }
+                return kq;
+            });
+            logger.info("Đổi trạng thái hàng loạt {} yêu cầu sang {}: {} thành công, {} lỗi ({} ms)",
+                       input.size(), trangThaiMoi, ketQua.getSoThanhCong(), ketQua.getSoThatBai(),
+                       (System.nanoTime() - start) / 1_000_000);
+            return ketQua;
+        } catch (SQLException e) {
+            logger.error("Lỗi khi đổi trạng thái hàng loạt {} yêu cầu, đã rollback", input.size(), e);
+            KetQuaHangLoat ketQua = new KetQuaHangLoat(input.size());
+            ketQua.huyTatCa("Lỗi database, toàn bộ lô đã được hoàn tác: " + e.getMessage());
+            return ketQua;
+        }
+    }
+    
+    private void updateTrangThaiLo(Connection conn, List<Long> lo, Map<Long, Integer> viTriTheoId,
+                                   Set<YeuCau.TrangThaiYeuCau> trangThaiChoPhep, YeuCau.TrangThaiYeuCau trangThaiMoi,
+                                   String lyDo, LocalDateTime now, KetQuaHangLoat ketQua) throws SQLException {
+        Map<Long, YeuCau.TrangThaiYeuCau> trangThaiTheoId = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT id, trangThai FROM YeuCau WHERE id IN (" + placeholders(lo.size()) + ") ORDER BY id FOR UPDATE")) {
+            bindIds(stmt, lo, 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    trangThaiTheoId.put(rs.getLong("id"), YeuCau.TrangThaiYeuCau.valueOf(rs.getString("trangThai")));
+                }
+            }
+        }
+        
+        List<Long> hopLe = new ArrayList<>(lo.size());
+        for (Long id : lo) {
+            int viTri = viTriTheoId.get(id);
+            YeuCau.TrangThaiYeuCau trangThai = trangThaiTheoId.get(id);
+            if (trangThai == null) {
+                ketQua.ghiNhanLoi(viTri, String.valueOf(id), "Không tìm thấy yêu cầu");
+            } else if (!trangThaiChoPhep.contains(trangThai)) {
+                ketQua.ghiNhanLoi(viTri, String.valueOf(id),
+                        "Yêu cầu đang ở trạng thái '" + trangThai.getDisplayName() + "'");
+            } else {
+                hopLe.add(id);
+            }
+        }
+        if (hopLe.isEmpty()) {
+            return;
+        }
+        
+        String sql = "UPDATE YeuCau SET trangThai = ?, ngayCapNhat = ?" + (lyDo != null ? ", lyDo = ?" : "") +
+                     " WHERE id IN (" + placeholders(hopLe.size()) + ")";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            stmt.setString(index++, trangThaiMoi.name());
+            stmt.setTimestamp(index++, Timestamp.valueOf(now));
+            if (lyDo != null) {
+                stmt.setString(index++, lyDo);
+            }
+            bindIds(stmt, hopLe, index);
+            stmt.executeUpdate();
+        }
+        for (Long id : hopLe) {
+            ketQua.ghiNhanThanhCong(viTriTheoId.get(id), id);
+        }
+    }
+    
+    /**
+     * Vị trí đầu tiên của mỗi id; id null hoặc lặp lại được ghi lỗi ngay
+     */
+    private static Map<Long, Integer> viTriDuyNhat(List<Long> ids, KetQuaHangLoat ketQua) {
+        Map<Long, Integer> viTriTheoId = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (id == null) {
+                ketQua.ghiNhanLoi(i, null, "Thiếu ID yêu cầu");
+            } else if (viTriTheoId.putIfAbsent(id, i) != null) {
+                ketQua.ghiNhanLoi(i, String.valueOf(id), "Yêu cầu bị lặp trong danh sách");
+            }
+        }
+        return viTriTheoId;
+    }
+    
+    /**
+     * Thêm điều kiện từ khoá của màn hình admin (nếu có từ khoá)
+     */
+    private static void addAdminTuKhoa(List<String> where, List<Object> params, String tuKhoa) {
+        String keyword = tuKhoa != null ? tuKhoa.trim() : "";
+        if (keyword.isEmpty()) {
+            return;
+        }
+        String like = "%" + escapeLike(keyword) + "%";
+        where.add("(" + ADMIN_TU_KHOA_FILTER + ")");
+        Collections.addAll(params, like, like, like, like);
+    }
+    
+    private static List<YeuCau.TrangThaiYeuCau> matchTrangThai(String keyword) {
+        String lower = keyword.toLowerCase();
+        String upper = keyword.toUpperCase();
+        List<YeuCau.TrangThaiYeuCau> result = new ArrayList<>();
+        for (YeuCau.TrangThaiYeuCau trangThai : YeuCau.TrangThaiYeuCau.values()) {
+            if (trangThai.name().contains(upper) || trangThai.getDisplayName().toLowerCase().contains(lower)) {
+                result.add(trangThai);
+            }
+        }
+        return result;
+    }
+    
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+    
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+    
+    private static void bindIds(PreparedStatement stmt, List<Long> ids, int startIndex) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            stmt.setLong(startIndex + i, ids.get(i));
+        }
+    }
+    
     private YeuCau mapResultSetToYeuCau(ResultSet rs) throws SQLException {
         YeuCau yeuCau = new YeuCau();
         yeuCau.setId(rs.getLong("id"));
@@ -0,0 +1,382 @@
+package com.mycompany.device.loadtest;
+
+import com.mycompany.device.model.CapPhat;
+import com.mycompany.device.model.YeuCau;
+import com.mycompany.device.observer.EventBus;
+import com.mycompany.device.observer.YeuCauObserver;
+import com.mycompany.device.service.impl.CapPhatServiceImpl;
+import com.mycompany.device.service.impl.YeuCauServiceImpl;
+import com.mycompany.device.util.ConfigLoader;
+import com.mycompany.device.util.DatabaseConnection;
+import com.mycompany.device.util.EmbeddedDatabase;
+import com.mycompany.device.util.SyntheticDataGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Kiểm thử tải vòng đời yêu cầu/cấp phát trên database đang cấu hình (MySQL hoặc H2 nhúng).
+ * Nhân viên tạo yêu cầu, admin duyệt rồi cấp phát, luồng trả thiết bị trả lại, mỗi vai trò
+ * chạy trên virtual thread. Cuối lần chạy in throughput, độ trễ p50/p99 theo từng phương thức
+ * service và các vi phạm bất biến cấp phát (một thiết bị có hai cấp phát đang hoạt động).
+ *
+ * Chạy: mvn exec:java -Dexec.mainClass=com.mycompany.device.loadtest.LoadTest -Dexec.args="--duration=30"
+ * @author Kim Ngan - Load Test
+ */
+public final class LoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTest.class);
+
+    private static final long POLL_MILLIS = 200;
+    private static final long PROGRESS_MILLIS = 10_000;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private static final String TAO_YEU_CAU = "YeuCauService.taoYeuCau";
+    private static final String DUYET_YEU_CAU = "YeuCauService.duyetYeuCau";
+    private static final String TAO_CAP_PHAT = "CapPhatService.taoCapPhat";
+    private static final String TIM_CAP_PHAT = "CapPhatService.timCapPhatHienTaiCuaThietBi";
+    private static final String TRA_THIET_BI = "CapPhatService.traThietBi";
+
+    // Hai cấp phát chưa trả trên cùng một thiết bị
+    private static final String DUPLICATE_ACTIVE_SQL =
+        "SELECT y.thietBiId, COUNT(*) AS soCapPhat FROM CapPhat cp JOIN YeuCau y ON cp.yeuCauId = y.id " +
+        "WHERE cp.ngayTra IS NULL GROUP BY y.thietBiId HAVING COUNT(*) > 1";
+    // Cấp phát chưa trả nhưng thiết bị không ở trạng thái DANG_CAP_PHAT
+    private static final String STATUS_MISMATCH_SQL =
+        "SELECT COUNT(*) FROM CapPhat cp JOIN YeuCau y ON cp.yeuCauId = y.id JOIN ThietBi t ON t.id = y.thietBiId " +
+        "WHERE cp.ngayTra IS NULL AND t.trangThai <> 'DANG_CAP_PHAT'";
+
+    private final LoadTestConfig config;
+    private final YeuCauServiceImpl yeuCauService = new YeuCauServiceImpl();
+    private final CapPhatServiceImpl capPhatService = new CapPhatServiceImpl();
+    private final Map<String, OpStats> stats = new LinkedHashMap<>();
+    // Yêu cầu mới (nhận qua observer) chờ admin xử lý, và thiết bị đã cấp phát chờ trả
+    private final BlockingQueue<YeuCau> choDuyet = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Long> daCapPhat = new LinkedBlockingQueue<>();
+    private final YeuCauMoiObserver observer = new YeuCauMoiObserver();
+
+    private List<Long> thietBiIds;
+    private List<String> nhanVienIds;
+    private volatile boolean running = true;
+
+    private LoadTest(LoadTestConfig config) {
+        this.config = config;
+        for (String op : new String[] {TAO_YEU_CAU, DUYET_YEU_CAU, TAO_CAP_PHAT, TIM_CAP_PHAT, TRA_THIET_BI}) {
+            stats.put(op, new OpStats());
+        }
+    }
+
+    public static void main(String[] args) {
+        LoadTestConfig config;
+        try {
+            config = LoadTestConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadTestConfig.usage());
+            System.exit(2);
+            return;
+        }
+        if (EmbeddedDatabase.isEmbedded(ConfigLoader.getDatabaseUrl())) {
+            // Database nhúng được sinh dữ liệu ngay ở kết nối đầu tiên, theo quy mô của lần chạy này
+            System.setProperty("DB_SEED_THIETBI", String.valueOf(config.soThietBi));
+            System.setProperty("DB_SEED_NHANVIEN", String.valueOf(config.soNhanVien));
+            System.setProperty("DB_SEED_PHONGBAN", String.valueOf(config.soPhongBan));
+            System.setProperty("DB_SEED_LOAITHIETBI", String.valueOf(config.soLoai));
+            System.setProperty("DB_SEED_LICH_SU", "false");
+        }
+        int exitCode;
+        try {
+            exitCode = new LoadTest(config).run();
+        } catch (Exception e) {
+            logger.error("Kiểm thử tải thất bại", e);
+            exitCode = 1;
+        } finally {
+            EventBus.getInstance().shutdown(2000);
+            DatabaseConnection.getInstance().shutdown();
+        }
+        System.exit(exitCode);
+    }
+
+    /**
+     * @return 0 nếu không có vi phạm bất biến, 1 nếu có
+     */
+    private int run() throws SQLException, InterruptedException {
+        logger.info("Bắt đầu kiểm thử tải: {}", config);
+        chuanBiDuLieu();
+        yeuCauService.addObserver(observer);
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        Pacer taoPacer = new Pacer(config.rate);
+        Pacer traPacer = new Pacer(config.returnRate);
+        for (int i = 0; i < config.users; i++) {
+            executor.submit(() -> vongLap(() -> taoYeuCau(taoPacer)));
+        }
+        for (int i = 0; i < config.admins; i++) {
+            executor.submit(() -> vongLap(this::duyetVaCapPhat));
+        }
+        for (int i = 0; i < config.returners; i++) {
+            executor.submit(() -> vongLap(() -> traThietBi(traPacer)));
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(config.durationSeconds);
+        while (System.nanoTime() < deadline) {
+            Thread.sleep(Math.min(PROGRESS_MILLIS, Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()))));
+            logger.info("Tiến độ: {} yêu cầu, {} cấp phát, {} lần trả, chờ duyệt={}",
+                stats.get(TAO_YEU_CAU).ok.sum(), stats.get(TAO_CAP_PHAT).ok.sum(),
+                stats.get(TRA_THIET_BI).ok.sum(), choDuyet.size());
+        }
+        running = false;
+        executor.shutdown();
+        if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            logger.warn("Còn thao tác chưa xong sau {} giây", SHUTDOWN_TIMEOUT_SECONDS);
+            executor.shutdownNow();
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        yeuCauService.removeObserver(observer);
+
+        inBaoCao(elapsedSeconds);
+        return kiemTraBatBien() == 0 ? 0 : 1;
+    }
+
+    /**
+     * Sinh dữ liệu nếu database chưa có thiết bị, sau đó nạp danh sách id dùng cho các luồng
+     */
+    private void chuanBiDuLieu() throws SQLException {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            if (queryLongs(conn, "SELECT COUNT(*) FROM ThietBi").get(0) == 0) {
+                new SyntheticDataGenerator(config.soPhongBan, config.soLoai, config.soNhanVien, config.soThietBi, false)
+                    .generate(conn);
+            }
+            thietBiIds = queryLongs(conn, "SELECT id FROM ThietBi WHERE trangThai = 'TON_KHO' ORDER BY id");
+            if (config.hotDevices > 0 && thietBiIds.size() > config.hotDevices) {
+                thietBiIds = new ArrayList<>(thietBiIds.subList(0, config.hotDevices));
+            }
+            nhanVienIds = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT maNhanVien FROM NhanVien");
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    nhanVienIds.add(rs.getString(1));
+                }
+            }
+        }
+        if (thietBiIds.isEmpty() || nhanVienIds.isEmpty()) {
+            throw new IllegalStateException("Database không có thiết bị tồn kho hoặc nhân viên để kiểm thử");
+        }
+        logger.info("Kiểm thử trên {} thiết bị tồn kho, {} nhân viên", thietBiIds.size(), nhanVienIds.size());
+    }
+
+    private void vongLap(InterruptibleTask task) {
+        try {
+            while (running) {
+                task.run();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void taoYeuCau(Pacer pacer) throws InterruptedException {
+        pacer.acquire();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Long thietBiId = thietBiIds.get(random.nextInt(thietBiIds.size()));
+        String nhanVienId = nhanVienIds.get(random.nextInt(nhanVienIds.size()));
+        timed(TAO_YEU_CAU, () -> yeuCauService.taoYeuCau(thietBiId, nhanVienId, "Kiểm thử tải"));
+    }
+
+    private void duyetVaCapPhat() throws InterruptedException {
+        YeuCau yeuCau = choDuyet.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (yeuCau == null) {
+            return;
+        }
+        if (timed(DUYET_YEU_CAU, () -> yeuCauService.duyetYeuCau(yeuCau.getId()))
+                && timed(TAO_CAP_PHAT, () -> capPhatService.taoCapPhat(yeuCau.getId()))) {
+            daCapPhat.add(yeuCau.getThietBiId());
+        }
+    }
+
+    private void traThietBi(Pacer pacer) throws InterruptedException {
+        Long thietBiId = daCapPhat.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (thietBiId == null) {
+            return;
+        }
+        pacer.acquire();
+        AtomicReference<CapPhat> hienTai = new AtomicReference<>();
+        timed(TIM_CAP_PHAT, () -> {
+            capPhatService.timCapPhatHienTaiCuaThietBi(thietBiId).ifPresent(hienTai::set);
+            return hienTai.get() != null;
+        });
+        CapPhat capPhat = hienTai.get();
+        if (capPhat != null) {
+            timed(TRA_THIET_BI, () -> capPhatService.traThietBi(capPhat.getId(), CapPhat.TinhTrangTra.TOT, "Kiểm thử tải"));
+        }
+    }
+
+    private boolean timed(String op, BooleanSupplier call) {
+        OpStats opStats = stats.get(op);
+        long start = System.nanoTime();
+        boolean ok;
+        try {
+            ok = call.getAsBoolean();
+        } catch (RuntimeException e) {
+            logger.debug("{} ném lỗi", op, e);
+            opStats.errors.increment();
+            return false;
+        } finally {
+            opStats.latency.record(System.nanoTime() - start);
+        }
+        (ok ? opStats.ok : opStats.failed).increment();
+        return ok;
+    }
+
+    private void inBaoCao(double elapsedSeconds) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%nKết quả sau %.1f giây (%s)%n", elapsedSeconds, config));
+        sb.append(String.format("%-45s %9s %9s %7s %7s %10s %9s %9s %9s %9s%n",
+            "Phương thức", "Số lần", "Thành công", "Từ chối", "Lỗi", "ops/s", "p50 ms", "p99 ms", "max ms", "mean ms"));
+        for (Map.Entry<String, OpStats> entry : stats.entrySet()) {
+            OpStats s = entry.getValue();
+            long total = s.latency.getCount();
+            sb.append(String.format("%-45s %9d %9d %7d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                entry.getKey(), total, s.ok.sum(), s.failed.sum(), s.errors.sum(), total / elapsedSeconds,
+                s.latency.getPercentileMillis(50), s.latency.getPercentileMillis(99),
+                s.latency.getMaxMillis(), s.latency.getMeanMillis()));
+        }
+        sb.append(String.format("Còn chờ duyệt: %d, đang cấp phát chưa trả: %d%n", choDuyet.size(), daCapPhat.size()));
+        System.out.print(sb);
+    }
+
+    /**
+     * @return tổng số vi phạm bất biến cấp phát
+     */
+    private long kiemTraBatBien() throws SQLException {
+        long viPham = 0;
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(DUPLICATE_ACTIVE_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    viPham++;
+                    System.out.printf("VI PHẠM: thiết bị %d có %d cấp phát đang hoạt động%n",
+                        rs.getLong("thietBiId"), rs.getLong("soCapPhat"));
+                }
+            }
+            long lechTrangThai = queryLongs(conn, STATUS_MISMATCH_SQL).get(0);
+            if (lechTrangThai > 0) {
+                System.out.printf("VI PHẠM: %d cấp phát đang hoạt động trên thiết bị không ở trạng thái DANG_CAP_PHAT%n",
+                    lechTrangThai);
+            }
+            viPham += lechTrangThai;
+        }
+        System.out.println(viPham == 0 ? "Không có vi phạm bất biến cấp phát" : "Tổng số vi phạm: " + viPham);
+        return viPham;
+    }
+
+    private static List<Long> queryLongs(Connection conn, String sql) throws SQLException {
+        List<Long> result = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                result.add(rs.getLong(1));
+            }
+        }
+        return result;
+    }
+
+    private interface InterruptibleTask {
+        void run() throws InterruptedException;
+    }
+
+    private static final class OpStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder ok = new LongAdder();
+        // Service trả về false: bị quy tắc nghiệp vụ từ chối (ví dụ thiết bị đang được cấp phát)
+        final LongAdder failed = new LongAdder();
+        final LongAdder errors = new LongAdder();
+    }
+
+    /**
+     * Giới hạn tổng tốc độ của một nhóm luồng: mỗi lần acquire() nhận một khe thời gian kế tiếp
+     */
+    private static final class Pacer {
+        private final long intervalNanos;
+        private final AtomicLong nextSlot = new AtomicLong(System.nanoTime());
+
+        Pacer(int ratePerSecond) {
+            this.intervalNanos = ratePerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / ratePerSecond : 0;
+        }
+
+        void acquire() throws InterruptedException {
+            if (intervalNanos == 0) {
+                return;
+            }
+            long now = System.nanoTime();
+            // Không dồn khe khi tụt lại phía sau quá một giây (ví dụ sau lúc database chậm)
+            long slot = nextSlot.getAndAccumulate(intervalNanos,
+                (current, step) -> Math.max(current, now - TimeUnit.SECONDS.toNanos(1)) + step);
+            slot = Math.max(slot, now - TimeUnit.SECONDS.toNanos(1));
+            long waitNanos = slot - now;
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+    }
+
+    /**
+     * Nhận id của yêu cầu vừa tạo (service chỉ trả về boolean) để đưa vào hàng chờ duyệt
+     */
+    private final class YeuCauMoiObserver implements YeuCauObserver {
+        @Override
+        public void onYeuCauAdded(YeuCau yeuCau) {
+            if (running) {
+                choDuyet.add(yeuCau);
+            }
+        }
+
+        @Override
+        public void onYeuCauDeleted(Long yeuCauId) {
+        }
+
+        @Override
+        public void onYeuCauUpdated(YeuCau yeuCau, YeuCau oldYeuCau) {
+        }
+
+        @Override
+        public void onYeuCauStatusChanged(YeuCau yeuCau, YeuCau.TrangThaiYeuCau oldStatus,
+                                          YeuCau.TrangThaiYeuCau newStatus) {
+        }
+
+        @Override
+        public void onYeuCauApproved(YeuCau yeuCau) {
+        }
+
+        @Override
+        public void onYeuCauRejected(YeuCau yeuCau) {
+        }
+
+        @Override
+        public void onYeuCauAllocated(YeuCau yeuCau) {
+        }
+
+        @Override
+        public void onYeuCauCancelled(YeuCau yeuCau) {
+        }
+    }
+}
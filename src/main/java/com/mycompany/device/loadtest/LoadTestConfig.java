@@ -0,0 +1,111 @@
+package com.mycompany.device.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tham số của lần chạy kiểm thử tải, đọc từ dòng lệnh dạng --ten=giaTri.
+ * Kết nối database lấy từ config.env / system property như ứng dụng.
+ * @author Kim Ngan - Load Test
+ */
+final class LoadTestConfig {
+
+    private static final Map<String, String> MO_TA = new LinkedHashMap<>();
+
+    static {
+        MO_TA.put("duration", "Thời gian chạy, giây (mặc định 60)");
+        MO_TA.put("users", "Số nhân viên tạo yêu cầu đồng thời (mặc định 50)");
+        MO_TA.put("admins", "Số admin duyệt và cấp phát đồng thời (mặc định 4)");
+        MO_TA.put("returners", "Số luồng trả thiết bị đồng thời (mặc định 4)");
+        MO_TA.put("rate", "Tổng số yêu cầu tạo mỗi giây, 0 = không giới hạn (mặc định 100)");
+        MO_TA.put("return-rate", "Tổng số lần trả thiết bị mỗi giây, 0 = không giới hạn (mặc định 50)");
+        MO_TA.put("hot-devices", "Chỉ yêu cầu trong N thiết bị đầu để tạo tranh chấp, 0 = tất cả (mặc định 0)");
+        MO_TA.put("thiet-bi", "Số thiết bị sinh khi database trống (mặc định 10000)");
+        MO_TA.put("nhan-vien", "Số nhân viên sinh khi database trống (mặc định 500)");
+        MO_TA.put("phong-ban", "Số phòng ban sinh khi database trống (mặc định 20)");
+        MO_TA.put("loai", "Số loại thiết bị sinh khi database trống (mặc định 10)");
+    }
+
+    final int durationSeconds;
+    final int users;
+    final int admins;
+    final int returners;
+    final int rate;
+    final int returnRate;
+    final int hotDevices;
+    final int soThietBi;
+    final int soNhanVien;
+    final int soPhongBan;
+    final int soLoai;
+
+    private LoadTestConfig(Map<String, String> values) {
+        durationSeconds = intValue(values, "duration", 60, 1);
+        users = intValue(values, "users", 50, 1);
+        admins = intValue(values, "admins", 4, 1);
+        returners = intValue(values, "returners", 4, 0);
+        rate = intValue(values, "rate", 100, 0);
+        returnRate = intValue(values, "return-rate", 50, 0);
+        hotDevices = intValue(values, "hot-devices", 0, 0);
+        soThietBi = intValue(values, "thiet-bi", 10000, 1);
+        soNhanVien = intValue(values, "nhan-vien", 500, 1);
+        soPhongBan = intValue(values, "phong-ban", 20, 1);
+        soLoai = intValue(values, "loai", 10, 1);
+    }
+
+    /**
+     * @throws IllegalArgumentException tham số không hợp lệ hoặc không được hỗ trợ
+     */
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Tham số không hợp lệ: " + arg);
+            }
+            String key = arg.substring(2, arg.indexOf('='));
+            if (!MO_TA.containsKey(key)) {
+                throw new IllegalArgumentException("Tham số không được hỗ trợ: --" + key);
+            }
+            values.put(key, arg.substring(arg.indexOf('=') + 1));
+        }
+        return new LoadTestConfig(values);
+    }
+
+    static String usage() {
+        StringBuilder sb = new StringBuilder("Tham số (--ten=giaTri):\n");
+        for (Map.Entry<String, String> entry : MO_TA.entrySet()) {
+            sb.append(String.format("  --%-12s %s%n", entry.getKey(), entry.getValue()));
+        }
+        return sb.toString();
+    }
+
+    private static int intValue(Map<String, String> values, String key, int defaultValue, int min) {
+        String value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed < min) {
+                throw new IllegalArgumentException("--" + key + " phải >= " + min);
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + key + " phải là số nguyên: " + value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LoadTestConfig{" +
+                "duration=" + durationSeconds + "s" +
+                ", users=" + users +
+                ", admins=" + admins +
+                ", returners=" + returners +
+                ", rate=" + rate +
+                ", returnRate=" + returnRate +
+                ", hotDevices=" + hotDevices +
+                ", thietBi=" + soThietBi +
+                ", nhanVien=" + soNhanVien +
+                '}';
+    }
+}
@@ -0,0 +1,34 @@
+package com.mycompany.device.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bộ đếm tăng dần, ghi không khoá từ nhiều luồng
+ * @author Kim Ngan - Metrics
+ */
+public final class Counter implements CounterMXBean {
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long delta) {
+        count.add(delta);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+}
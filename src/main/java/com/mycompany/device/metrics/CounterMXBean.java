@@ -0,0 +1,10 @@
+package com.mycompany.device.metrics;
+
+/**
+ * Giá trị của một Counter khi xem qua JMX
+ * @author Kim Ngan - Metrics
+ */
+public interface CounterMXBean {
+
+    long getCount();
+}
@@ -0,0 +1,166 @@
+package com.mycompany.device.metrics;
+
+import com.mycompany.device.util.ConfigLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Điểm vào của số liệu hiệu năng: Timer (độ trễ, phân vị) và Counter (bộ đếm).
+ * Bật bằng METRICS_ENABLED; khi tắt, instrument() trả lại nguyên đối tượng
+ * nên đường gọi service/DAO không thêm proxy, không đo giờ và không cấp phát.
+ * Mỗi Timer/Counter được đăng ký JMX dưới domain com.mycompany.device
+ * và được MetricsReporter ghi log/CSV định kỳ.
+ * @author Kim Ngan - Metrics
+ */
+public final class Metrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(Metrics.class);
+
+    private static final String JMX_DOMAIN = "com.mycompany.device";
+    private static final boolean ENABLED = ConfigLoader.getBooleanProperty("METRICS_ENABLED", false);
+    private static final boolean JMX_ENABLED = ConfigLoader.getBooleanProperty("METRICS_JMX_ENABLED", true);
+
+    private static final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private static volatile MetricsReporter reporter;
+
+    private Metrics() {
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Lấy (hoặc tạo) Timer theo tên; nên giữ tham chiếu thay vì tra cứu mỗi lần gọi
+     */
+    public static Timer timer(String name) {
+        return timers.computeIfAbsent(name, key -> {
+            Timer timer = new Timer(key);
+            registerMBean("Timer", key, timer);
+            return timer;
+        });
+    }
+
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> {
+            Counter counter = new Counter(key);
+            registerMBean("Counter", key, counter);
+            return counter;
+        });
+    }
+
+    /**
+     * Bọc một service/DAO để đo thời gian mọi phương thức của interface.
+     * Timer đặt tên theo lớp thực thi, ví dụ "ThietBiDAOMySQLImpl.findById";
+     * ngoại lệ được đếm vào Counter "&lt;timer&gt;.errors" rồi ném lại nguyên vẹn.
+     * @return target khi metrics đang tắt, ngược lại là proxy cùng interface
+     */
+    public static <T> T instrument(Class<T> iface, T target) {
+        if (!ENABLED || target == null) {
+            return target;
+        }
+        String className = target.getClass().getSimpleName();
+        String prefix = (className.isEmpty() ? iface.getSimpleName() : className) + ".";
+        Map<Method, Timer> methodTimers = new HashMap<>();
+        for (Method method : iface.getMethods()) {
+            methodTimers.put(method, timer(prefix + method.getName()));
+        }
+        Object proxy = Proxy.newProxyInstance(iface.getClassLoader(), new Class<?>[]{iface},
+            new TimingHandler(target, methodTimers));
+        return iface.cast(proxy);
+    }
+
+    public static List<Timer> getTimers() {
+        List<Timer> result = new ArrayList<>(timers.values());
+        result.sort((a, b) -> a.getName().compareTo(b.getName()));
+        return Collections.unmodifiableList(result);
+    }
+
+    public static List<Counter> getCounters() {
+        List<Counter> result = new ArrayList<>(counters.values());
+        result.sort((a, b) -> a.getName().compareTo(b.getName()));
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Bắt đầu reporter định kỳ (không làm gì khi metrics tắt hoặc đã chạy)
+     */
+    public static synchronized void start() {
+        if (!ENABLED || reporter != null) {
+            return;
+        }
+        reporter = MetricsReporter.fromConfig();
+        reporter.start();
+        logger.info("Metrics đã bật (JMX: {})", JMX_ENABLED);
+    }
+
+    /**
+     * Dừng reporter và ghi báo cáo cuối cùng, gọi khi tắt ứng dụng
+     */
+    public static synchronized void shutdown() {
+        if (reporter != null) {
+            reporter.shutdown();
+            reporter = null;
+        }
+    }
+
+    private static void registerMBean(String type, String name, Object bean) {
+        if (!JMX_ENABLED) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(bean, objectName);
+            }
+        } catch (Exception e) {
+            logger.warn("Không thể đăng ký JMX cho {} {}", type, name, e);
+        }
+    }
+
+    private static final class TimingHandler implements InvocationHandler {
+
+        private final Object target;
+        private final Map<Method, Timer> timers;
+
+        TimingHandler(Object target, Map<Method, Timer> timers) {
+            this.target = target;
+            this.timers = timers;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Timer timer = timers.get(method);
+            long start = System.nanoTime();
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                if (timer != null) {
+                    counter(timer.getName() + ".errors").increment();
+                }
+                throw e.getCause();
+            } finally {
+                if (timer != null) {
+                    timer.record(System.nanoTime() - start);
+                }
+            }
+        }
+    }
+}
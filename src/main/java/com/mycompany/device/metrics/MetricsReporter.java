@@ -0,0 +1,136 @@
+package com.mycompany.device.metrics;
+
+import com.mycompany.device.util.ConfigLoader;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ghi số liệu định kỳ ra log và (tuỳ chọn) file CSV.
+ * Mỗi kỳ chỉ báo các Timer có lượt gọi trong kỳ, phân vị tính riêng cho kỳ đó;
+ * Counter được báo theo phần tăng thêm so với kỳ trước.
+ * @author Kim Ngan - Metrics
+ */
+final class MetricsReporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricsReporter.class);
+
+    private static final String CSV_HEADER = "thoiGian,loai,ten,soLuong,tocDoMoiGiay,p50Ms,p95Ms,p99Ms,maxMs";
+
+    private final long intervalSeconds;
+    private final Path csvFile;
+    private final Map<String, Long> lastCounts = new HashMap<>();
+    private ScheduledExecutorService scheduler;
+    private long lastReportNanos;
+
+    MetricsReporter(long intervalSeconds, Path csvFile) {
+        this.intervalSeconds = Math.max(1, intervalSeconds);
+        this.csvFile = csvFile;
+    }
+
+    static MetricsReporter fromConfig() {
+        String csv = ConfigLoader.getProperty("METRICS_CSV_FILE", "");
+        return new MetricsReporter(ConfigLoader.getLongProperty("METRICS_REPORT_INTERVAL_S", 60),
+            csv.isBlank() ? null : Paths.get(csv.trim()));
+    }
+
+    synchronized void start() {
+        lastReportNanos = System.nanoTime();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::reportSafely, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        reportSafely();
+    }
+
+    private void reportSafely() {
+        try {
+            report();
+        } catch (RuntimeException e) {
+            logger.error("Lỗi khi ghi báo cáo metrics", e);
+        }
+    }
+
+    synchronized void report() {
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-3, (now - lastReportNanos) / 1e9);
+        lastReportNanos = now;
+        String thoiGian = LocalDateTime.now().withNano(0).toString();
+        StringBuilder csv = new StringBuilder();
+
+        for (Timer timer : Metrics.getTimers()) {
+            Histogram h = timer.takeIntervalSnapshot();
+            long count = h.getTotalCount();
+            if (count == 0) {
+                continue;
+            }
+            double p50 = h.getValueAtPercentile(50) / 1000.0;
+            double p95 = h.getValueAtPercentile(95) / 1000.0;
+            double p99 = h.getValueAtPercentile(99) / 1000.0;
+            double max = h.getMaxValue() / 1000.0;
+            logger.info(String.format(Locale.ROOT,
+                "metrics %s count=%d rate=%.1f/s p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms",
+                timer.getName(), count, count / seconds, p50, p95, p99, max));
+            csv.append(String.format(Locale.ROOT, "%s,timer,%s,%d,%.2f,%.3f,%.3f,%.3f,%.3f%n",
+                thoiGian, timer.getName(), count, count / seconds, p50, p95, p99, max));
+        }
+        for (Counter counter : Metrics.getCounters()) {
+            long total = counter.getCount();
+            Long previous = lastCounts.put(counter.getName(), total);
+            long delta = total - (previous == null ? 0 : previous);
+            if (delta == 0) {
+                continue;
+            }
+            logger.info(String.format(Locale.ROOT, "metrics %s count=%d total=%d",
+                counter.getName(), delta, total));
+            csv.append(String.format(Locale.ROOT, "%s,counter,%s,%d,%.2f,,,,%n",
+                thoiGian, counter.getName(), delta, delta / seconds));
+        }
+        if (csvFile != null && csv.length() > 0) {
+            appendCsv(csv);
+        }
+    }
+
+    private void appendCsv(CharSequence rows) {
+        try {
+            Path parent = csvFile.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            boolean moi = !Files.exists(csvFile) || Files.size(csvFile) == 0;
+            try (BufferedWriter writer = Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                if (moi) {
+                    writer.write(CSV_HEADER);
+                    writer.newLine();
+                }
+                writer.append(rows);
+            }
+        } catch (IOException e) {
+            logger.error("Không thể ghi file metrics {}", csvFile, e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.mycompany.device.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Đo thời gian thực thi bằng HdrHistogram (micro giây, 2 chữ số có nghĩa ~ sai số 1%).
+ * record() ghi vào Recorder không khoá và không cấp phát; phân vị được tính khi đọc:
+ * tích luỹ từ lúc khởi động cho JMX và theo từng kỳ cho reporter.
+ * @author Kim Ngan - Metrics
+ */
+public final class Timer implements TimerMXBean {
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final String name;
+    private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+    private final Histogram sinceLastReport = new Histogram(SIGNIFICANT_DIGITS);
+    private Histogram interval;
+
+    Timer(String name) {
+        this.name = name;
+    }
+
+    public void record(long nanos) {
+        recorder.recordValue(Math.max(0, nanos / 1000));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Số liệu từ lần gọi trước tới giờ, dùng cho reporter định kỳ
+     */
+    synchronized Histogram takeIntervalSnapshot() {
+        drain();
+        Histogram copy = sinceLastReport.copy();
+        sinceLastReport.reset();
+        return copy;
+    }
+
+    /**
+     * Chuyển các mẫu mới từ Recorder sang các histogram tích luỹ
+     */
+    private void drain() {
+        interval = recorder.getIntervalHistogram(interval);
+        total.add(interval);
+        sinceLastReport.add(interval);
+    }
+
+    @Override
+    public synchronized long getCount() {
+        drain();
+        return total.getTotalCount();
+    }
+
+    @Override
+    public synchronized double getMeanMillis() {
+        drain();
+        return total.getMean() / 1000.0;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return percentileMillis(50);
+    }
+
+    @Override
+    public double getP95Millis() {
+        return percentileMillis(95);
+    }
+
+    @Override
+    public double getP99Millis() {
+        return percentileMillis(99);
+    }
+
+    @Override
+    public synchronized double getMaxMillis() {
+        drain();
+        return total.getMaxValue() / 1000.0;
+    }
+
+    private synchronized double percentileMillis(double percentile) {
+        drain();
+        return total.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
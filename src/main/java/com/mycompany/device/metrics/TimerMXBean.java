@@ -0,0 +1,20 @@
+package com.mycompany.device.metrics;
+
+/**
+ * Số liệu của một Timer khi xem qua JMX (jconsole, VisualVM), tính từ lúc khởi động
+ * @author Kim Ngan - Metrics
+ */
+public interface TimerMXBean {
+
+    long getCount();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP95Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+}
@@ -0,0 +1,92 @@
+package com.mycompany.device.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Báo cáo một lần nhập thiết bị từ file: số dòng đã đọc, thành công, lỗi từng dòng
+ * @author Kim Ngan - Model Layer
+ */
+public class BaoCaoNhapThietBi {
+
+    /** Chỉ giữ chi tiết của chừng này lỗi đầu tiên, các lỗi sau chỉ được đếm */
+    public static final int SO_LOI_LUU_TOI_DA = 1000;
+
+    private long soDongDaDoc;
+    private long soThanhCong;
+    private long soLoi;
+    private boolean daHuy;
+    private long thoiGianMs;
+    private final List<LoiDong> loiList = new ArrayList<>();
+
+    /**
+     * Lỗi của một dòng trong file
+     */
+    public static class LoiDong {
+        private final long soDong;
+        private final String soSerial;
+        private final String lyDo;
+
+        public LoiDong(long soDong, String soSerial, String lyDo) {
+            this.soDong = soDong;
+            this.soSerial = soSerial;
+            this.lyDo = lyDo;
+        }
+
+        /** Số dòng trong file (đánh số từ 1, tính cả dòng tiêu đề) */
+        public long getSoDong() { return soDong; }
+        public String getSoSerial() { return soSerial; }
+        public String getLyDo() { return lyDo; }
+
+        @Override
+        public String toString() {
+            return "Dòng " + soDong + (soSerial != null && !soSerial.isEmpty() ? " (" + soSerial + ")" : "") + ": " + lyDo;
+        }
+    }
+
+    public void congDongDaDoc(long soDong) {
+        soDongDaDoc += soDong;
+    }
+
+    public void congThanhCong(long soDong) {
+        soThanhCong += soDong;
+    }
+
+    public void themLoi(LoiDong loi) {
+        soLoi++;
+        if (loiList.size() < SO_LOI_LUU_TOI_DA) {
+            loiList.add(loi);
+        }
+    }
+
+    public void setDaHuy(boolean daHuy) { this.daHuy = daHuy; }
+    public void setThoiGianMs(long thoiGianMs) { this.thoiGianMs = thoiGianMs; }
+
+    // Getters
+    public long getSoDongDaDoc() { return soDongDaDoc; }
+    public long getSoThanhCong() { return soThanhCong; }
+    public long getSoLoi() { return soLoi; }
+    public boolean isDaHuy() { return daHuy; }
+    public long getThoiGianMs() { return thoiGianMs; }
+
+    /**
+     * Chi tiết lỗi (tối đa SO_LOI_LUU_TOI_DA dòng), theo thứ tự trong file
+     */
+    public List<LoiDong> getLoiList() {
+        List<LoiDong> sorted = new ArrayList<>(loiList);
+        sorted.sort((a, b) -> Long.compare(a.getSoDong(), b.getSoDong()));
+        return Collections.unmodifiableList(sorted);
+    }
+
+    @Override
+    public String toString() {
+        return "BaoCaoNhapThietBi{" +
+                "soDongDaDoc=" + soDongDaDoc +
+                ", soThanhCong=" + soThanhCong +
+                ", soLoi=" + soLoi +
+                ", daHuy=" + daHuy +
+                ", thoiGianMs=" + thoiGianMs +
+                '}';
+    }
+}
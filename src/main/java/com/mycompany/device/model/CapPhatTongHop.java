@@ -0,0 +1,71 @@
+package com.mycompany.device.model;
+
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Số liệu tổng hợp về cấp phát, lấy bằng một truy vấn aggregate
+ * @author Kim Ngan - Model Layer
+ */
+public class CapPhatTongHop {
+    private final int tongSo;
+    private final int soDangHoatDong;
+    private final int soDaTra;
+    private final Map<CapPhat.TinhTrangTra, Integer> soLuongTheoTinhTrangTra;
+    private final Map<YearMonth, Integer> soLuongTheoThang;
+
+    public CapPhatTongHop(int tongSo, int soDangHoatDong, int soDaTra,
+                          Map<CapPhat.TinhTrangTra, Integer> soLuongTheoTinhTrangTra,
+                          Map<YearMonth, Integer> soLuongTheoThang) {
+        this.tongSo = tongSo;
+        this.soDangHoatDong = soDangHoatDong;
+        this.soDaTra = soDaTra;
+
+        EnumMap<CapPhat.TinhTrangTra, Integer> theoTinhTrang = new EnumMap<>(CapPhat.TinhTrangTra.class);
+        for (CapPhat.TinhTrangTra tinhTrang : CapPhat.TinhTrangTra.values()) {
+            theoTinhTrang.put(tinhTrang, 0);
+        }
+        if (soLuongTheoTinhTrangTra != null) {
+            theoTinhTrang.putAll(soLuongTheoTinhTrangTra);
+        }
+        this.soLuongTheoTinhTrangTra = Collections.unmodifiableMap(theoTinhTrang);
+        this.soLuongTheoThang = Collections.unmodifiableMap(
+            soLuongTheoThang != null ? new TreeMap<>(soLuongTheoThang) : new TreeMap<>());
+    }
+
+    /**
+     * Kết quả rỗng khi không truy vấn được database
+     */
+    public static CapPhatTongHop empty() {
+        return new CapPhatTongHop(0, 0, 0, null, null);
+    }
+
+    // Getters
+    public int getTongSo() { return tongSo; }
+    public int getSoDangHoatDong() { return soDangHoatDong; }
+    public int getSoDaTra() { return soDaTra; }
+
+    /**
+     * Số cấp phát đã trả theo từng tình trạng trả (luôn đủ các giá trị enum)
+     */
+    public Map<CapPhat.TinhTrangTra, Integer> getSoLuongTheoTinhTrangTra() { return soLuongTheoTinhTrangTra; }
+
+    /**
+     * Số cấp phát theo tháng cấp, sắp xếp tăng dần theo tháng
+     */
+    public Map<YearMonth, Integer> getSoLuongTheoThang() { return soLuongTheoThang; }
+
+    @Override
+    public String toString() {
+        return "CapPhatTongHop{" +
+                "tongSo=" + tongSo +
+                ", soDangHoatDong=" + soDangHoatDong +
+                ", soDaTra=" + soDaTra +
+                ", theoTinhTrangTra=" + soLuongTheoTinhTrangTra +
+                ", theoThang=" + soLuongTheoThang +
+                '}';
+    }
+}
@@ -0,0 +1,73 @@
+package com.mycompany.device.model;
+
+/**
+ * Kết quả một lần cấp phát thiết bị trong transaction: thành công thì có record CapPhat,
+ * thất bại thì có mã lý do để tầng giao diện hiển thị thông báo phù hợp.
+ * @author Kim Ngan - Model Layer
+ */
+public class KetQuaCapPhat {
+
+    public enum MaKetQua {
+        THANH_CONG("Cấp phát thành công"),
+        KHONG_TIM_THAY_YEU_CAU("Không tìm thấy yêu cầu"),
+        SAI_TRANG_THAI_YEU_CAU("Yêu cầu không ở trạng thái cho phép cấp phát"),
+        KHONG_TIM_THAY_THIET_BI("Không tìm thấy thiết bị của yêu cầu"),
+        THIET_BI_DANG_CAP_PHAT("Thiết bị đang được cấp phát cho yêu cầu khác"),
+        LOI_DATABASE("Lỗi database");
+
+        private final String moTa;
+
+        MaKetQua(String moTa) {
+            this.moTa = moTa;
+        }
+
+        public String getMoTa() {
+            return moTa;
+        }
+    }
+
+    private final MaKetQua ma;
+    private final CapPhat capPhat;
+    private final Long thietBiId;
+    private final String chiTiet;
+
+    private KetQuaCapPhat(MaKetQua ma, CapPhat capPhat, Long thietBiId, String chiTiet) {
+        this.ma = ma;
+        this.capPhat = capPhat;
+        this.thietBiId = thietBiId;
+        this.chiTiet = chiTiet;
+    }
+
+    public static KetQuaCapPhat thanhCong(CapPhat capPhat, Long thietBiId) {
+        return new KetQuaCapPhat(MaKetQua.THANH_CONG, capPhat, thietBiId, null);
+    }
+
+    public static KetQuaCapPhat thatBai(MaKetQua ma, Long thietBiId, String chiTiet) {
+        return new KetQuaCapPhat(ma, null, thietBiId, chiTiet);
+    }
+
+    public boolean isThanhCong() { return ma == MaKetQua.THANH_CONG; }
+
+    // Getters
+    public MaKetQua getMa() { return ma; }
+    public CapPhat getCapPhat() { return capPhat; }
+    public Long getThietBiId() { return thietBiId; }
+    public String getChiTiet() { return chiTiet; }
+
+    /**
+     * Thông báo cho người dùng: mô tả mã kết quả kèm chi tiết nếu có
+     */
+    public String getThongBao() {
+        return chiTiet != null ? ma.getMoTa() + ": " + chiTiet : ma.getMoTa();
+    }
+
+    @Override
+    public String toString() {
+        return "KetQuaCapPhat{" +
+                "ma=" + ma +
+                ", capPhatId=" + (capPhat != null ? capPhat.getId() : null) +
+                ", thietBiId=" + thietBiId +
+                ", chiTiet='" + chiTiet + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,106 @@
+package com.mycompany.device.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Kết quả của một thao tác hàng loạt (thêm/cập nhật nhiều bản ghi).
+ * Mỗi phần tử đầu vào được theo dõi theo vị trí: thành công thì có id, thất bại thì có lý do.
+ * @author Kim Ngan - Model Layer
+ */
+public class KetQuaHangLoat {
+    private final int tongSo;
+    private final Long[] ids;
+    private final List<LoiDong> loiList = new ArrayList<>();
+
+    public KetQuaHangLoat(int tongSo) {
+        this.tongSo = tongSo;
+        this.ids = new Long[tongSo];
+    }
+
+    /**
+     * Lỗi của một phần tử đầu vào
+     */
+    public static class LoiDong {
+        private final int viTri;
+        private final String khoa;
+        private final String lyDo;
+
+        public LoiDong(int viTri, String khoa, String lyDo) {
+            this.viTri = viTri;
+            this.khoa = khoa;
+            this.lyDo = lyDo;
+        }
+
+        /** Vị trí (bắt đầu từ 0) trong danh sách đầu vào */
+        public int getViTri() { return viTri; }
+        /** Khoá nghiệp vụ của phần tử, ví dụ số serial */
+        public String getKhoa() { return khoa; }
+        public String getLyDo() { return lyDo; }
+
+        @Override
+        public String toString() {
+            return "#" + (viTri + 1) + (khoa != null ? " (" + khoa + ")" : "") + ": " + lyDo;
+        }
+    }
+
+    public void ghiNhanThanhCong(int viTri, Long id) {
+        ids[viTri] = id;
+    }
+
+    public void ghiNhanLoi(int viTri, String khoa, String lyDo) {
+        ids[viTri] = null;
+        loiList.add(new LoiDong(viTri, khoa, lyDo));
+    }
+
+    /**
+     * Huỷ các kết quả thành công (khi transaction bị rollback), ghi lỗi cho các phần tử chưa có lỗi
+     */
+    public void huyTatCa(String lyDo) {
+        boolean[] daCoLoi = new boolean[tongSo];
+        for (LoiDong loi : loiList) {
+            daCoLoi[loi.getViTri()] = true;
+        }
+        for (int i = 0; i < tongSo; i++) {
+            if (!daCoLoi[i]) {
+                ghiNhanLoi(i, null, lyDo);
+            }
+        }
+    }
+
+    // Getters
+    public int getTongSo() { return tongSo; }
+
+    public int getSoThatBai() { return loiList.size(); }
+
+    public int getSoThanhCong() { return tongSo - loiList.size(); }
+
+    public boolean isThanhCongHet() { return loiList.isEmpty(); }
+
+    /**
+     * Id theo đúng vị trí đầu vào, null với phần tử thất bại
+     */
+    public List<Long> getIds() {
+        return Collections.unmodifiableList(Arrays.asList(ids.clone()));
+    }
+
+    /**
+     * Danh sách lỗi, sắp xếp theo vị trí đầu vào
+     */
+    public List<LoiDong> getLoiList() {
+        List<LoiDong> sorted = new ArrayList<>(loiList);
+        sorted.sort((a, b) -> Integer.compare(a.getViTri(), b.getViTri()));
+        return sorted;
+    }
+
+    @Override
+    public String toString() {
+        return "KetQuaHangLoat{" +
+                "tongSo=" + tongSo +
+                ", thanhCong=" + getSoThanhCong() +
+                ", thatBai=" + getSoThatBai() +
+                '}';
+    }
+}
@@ -0,0 +1,83 @@
+package com.mycompany.device.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Một dòng lịch sử cấp phát đã được join sẵn (cấp phát + yêu cầu + thiết bị + nhân viên + phòng ban)
+ * @author Kim Ngan - Model Layer
+ */
+public class LichSuCapPhat {
+    private Long capPhatId;
+    private Long yeuCauId;
+    private Long thietBiId;
+    private String soSerial;
+    private String thietBiGhiChu;
+    private String maNhanVien;
+    private String tenNhanVien;
+    private String tenPhongBan;
+    private LocalDateTime ngayYeuCau;
+    private LocalDateTime ngayCap;
+    private LocalDateTime ngayTra;
+    private CapPhat.TinhTrangTra tinhTrangTra;
+    private String ghiChu;
+
+    // Constructors
+    public LichSuCapPhat() {
+    }
+
+    // Getters and Setters
+    public Long getCapPhatId() { return capPhatId; }
+    public void setCapPhatId(Long capPhatId) { this.capPhatId = capPhatId; }
+
+    public Long getYeuCauId() { return yeuCauId; }
+    public void setYeuCauId(Long yeuCauId) { this.yeuCauId = yeuCauId; }
+
+    public Long getThietBiId() { return thietBiId; }
+    public void setThietBiId(Long thietBiId) { this.thietBiId = thietBiId; }
+
+    public String getSoSerial() { return soSerial; }
+    public void setSoSerial(String soSerial) { this.soSerial = soSerial; }
+
+    public String getThietBiGhiChu() { return thietBiGhiChu; }
+    public void setThietBiGhiChu(String thietBiGhiChu) { this.thietBiGhiChu = thietBiGhiChu; }
+
+    public String getMaNhanVien() { return maNhanVien; }
+    public void setMaNhanVien(String maNhanVien) { this.maNhanVien = maNhanVien; }
+
+    public String getTenNhanVien() { return tenNhanVien; }
+    public void setTenNhanVien(String tenNhanVien) { this.tenNhanVien = tenNhanVien; }
+
+    public String getTenPhongBan() { return tenPhongBan; }
+    public void setTenPhongBan(String tenPhongBan) { this.tenPhongBan = tenPhongBan; }
+
+    public LocalDateTime getNgayYeuCau() { return ngayYeuCau; }
+    public void setNgayYeuCau(LocalDateTime ngayYeuCau) { this.ngayYeuCau = ngayYeuCau; }
+
+    public LocalDateTime getNgayCap() { return ngayCap; }
+    public void setNgayCap(LocalDateTime ngayCap) { this.ngayCap = ngayCap; }
+
+    public LocalDateTime getNgayTra() { return ngayTra; }
+    public void setNgayTra(LocalDateTime ngayTra) { this.ngayTra = ngayTra; }
+
+    public CapPhat.TinhTrangTra getTinhTrangTra() { return tinhTrangTra; }
+    public void setTinhTrangTra(CapPhat.TinhTrangTra tinhTrangTra) { this.tinhTrangTra = tinhTrangTra; }
+
+    public String getGhiChu() { return ghiChu; }
+    public void setGhiChu(String ghiChu) { this.ghiChu = ghiChu; }
+
+    // Business methods
+    public boolean isDaTra() {
+        return ngayTra != null;
+    }
+
+    @Override
+    public String toString() {
+        return "LichSuCapPhat{" +
+                "capPhatId=" + capPhatId +
+                ", thietBiId=" + thietBiId +
+                ", maNhanVien='" + maNhanVien + '\'' +
+                ", ngayCap=" + ngayCap +
+                ", ngayTra=" + ngayTra +
+                '}';
+    }
+}
@@ -29,6 +29,13 @@ public class LoaiThietBi {
         this.id = id;
     }
     
+    /**
+     * Bản sao, dùng khi trả dữ liệu từ cache
+     */
+    public LoaiThietBi(LoaiThietBi other) {
+        this(other.id, other.maLoai, other.tenLoai, other.moTa);
+    }
+    
     // Getters and Setters
     public Long getId() { 
         return id; 
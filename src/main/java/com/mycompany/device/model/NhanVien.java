@@ -64,6 +64,14 @@ public class NhanVien {
         this.ngayTao = ngayTao;
     }
     
+    /**
+     * Bản sao, dùng khi trả dữ liệu từ cache
+     */
+    public NhanVien(NhanVien other) {
+        this(other.maNhanVien, other.tenNhanVien, other.email, other.password,
+             other.soDienThoai, other.role, other.maPhongBan, other.ngayTao);
+    }
+    
     // Getters and Setters
     public String getId() {
         return this.maNhanVien;
@@ -0,0 +1,51 @@
+package com.mycompany.device.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Một trang kết quả phân trang keyset
+ * @param <T> kiểu phần tử
+ * @author Kim Ngan - Model Layer
+ */
+public final class Page<T> {
+
+    private final List<T> content;
+    private final PageRequest request;
+    private final PageRequest nextPageRequest;
+
+    public Page(List<T> content, PageRequest request, PageRequest nextPageRequest) {
+        this.content = Collections.unmodifiableList(content);
+        this.request = request;
+        this.nextPageRequest = nextPageRequest;
+    }
+
+    public static <T> Page<T> empty(PageRequest request) {
+        return new Page<>(Collections.<T>emptyList(), request, null);
+    }
+
+    public List<T> getContent() { return content; }
+    public PageRequest getRequest() { return request; }
+
+    /**
+     * Yêu cầu lấy trang kế tiếp, null nếu đây là trang cuối
+     */
+    public PageRequest getNextPageRequest() { return nextPageRequest; }
+
+    public boolean hasNext() {
+        return nextPageRequest != null;
+    }
+
+    public int getNumberOfElements() {
+        return content.size();
+    }
+
+    public boolean isEmpty() {
+        return content.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "Page{" + content.size() + " phần tử, " + request + (hasNext() ? ", còn trang sau" : ", trang cuối") + '}';
+    }
+}
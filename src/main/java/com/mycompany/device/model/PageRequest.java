@@ -0,0 +1,81 @@
+package com.mycompany.device.model;
+
+/**
+ * Yêu cầu lấy một trang dữ liệu, phân trang keyset (con trỏ) thay cho OFFSET.
+ * Trang đầu chỉ có kích thước và khoá sắp xếp; các trang sau mang thêm giá trị khoá sắp xếp
+ * và id của dòng cuối trang trước (lấy qua Page.getNextPageRequest()), nên truy vấn trang thứ n
+ * đi thẳng vào index thay vì quét bỏ n * size dòng.
+ * @author Kim Ngan - Model Layer
+ */
+public final class PageRequest {
+
+    public enum Direction {
+        ASC, DESC
+    }
+
+    public static final int MAX_SIZE = 1000;
+
+    private final int size;
+    private final String sort;
+    private final Direction direction;
+    private final Object afterSortValue;
+    private final Object afterId;
+
+    private PageRequest(int size, String sort, Direction direction, Object afterSortValue, Object afterId) {
+        this.size = Math.max(1, Math.min(size, MAX_SIZE));
+        this.sort = sort;
+        this.direction = direction;
+        this.afterSortValue = afterSortValue;
+        this.afterId = afterId;
+    }
+
+    /**
+     * Trang đầu, sắp xếp mặc định của DAO
+     */
+    public static PageRequest of(int size) {
+        return new PageRequest(size, null, null, null, null);
+    }
+
+    /**
+     * Trang đầu, sắp xếp theo khoá cho trước (tên thuộc tính, ví dụ "ngayTao")
+     * @param direction null = tăng dần
+     */
+    public static PageRequest of(int size, String sort, Direction direction) {
+        return new PageRequest(size, sort, direction, null, null);
+    }
+
+    /**
+     * Trang tiếp theo sau dòng có giá trị khoá sắp xếp và id cho trước
+     */
+    public PageRequest after(Object sortValue, Object id) {
+        return new PageRequest(size, sort, direction, sortValue, id);
+    }
+
+    /**
+     * Cùng kích thước và sắp xếp, quay về trang đầu
+     */
+    public PageRequest first() {
+        return new PageRequest(size, sort, direction, null, null);
+    }
+
+    public int getSize() { return size; }
+    /** Khoá sắp xếp, null = mặc định của DAO */
+    public String getSort() { return sort; }
+    /** Chiều sắp xếp, null = mặc định */
+    public Direction getDirection() { return direction; }
+    public Object getAfterSortValue() { return afterSortValue; }
+    public Object getAfterId() { return afterId; }
+
+    public boolean isFirstPage() {
+        return afterId == null;
+    }
+
+    @Override
+    public String toString() {
+        return "PageRequest{size=" + size +
+                ", sort=" + (sort != null ? sort : "mặc định") +
+                (direction != null ? " " + direction : "") +
+                (isFirstPage() ? ", trang đầu" : ", sau=(" + afterSortValue + ", " + afterId + ")") +
+                '}';
+    }
+}
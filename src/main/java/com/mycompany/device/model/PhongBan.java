@@ -23,6 +23,13 @@ public class PhongBan {
         this.moTa = moTa;
     }
     
+    /**
+     * Bản sao, dùng khi trả dữ liệu từ cache
+     */
+    public PhongBan(PhongBan other) {
+        this(other.maPhongBan, other.tenPhongBan, other.moTa);
+    }
+    
     // Getters and Setters
     public String getMaPhongBan() { 
         return maPhongBan; 
@@ -72,6 +72,14 @@ public class ThietBi {
         this.updatedAt = updatedAt;
     }
     
+    /**
+     * Bản sao để sửa mà không đụng tới đối tượng đang được chia sẻ (cache, read model)
+     */
+    public ThietBi(ThietBi other) {
+        this(other.id, other.soSerial, other.loaiId, other.trangThai, other.ngayMua, other.giaMua,
+             other.ghiChu, other.createdAt, other.updatedAt);
+    }
+    
     // Getters and Setters
     public Long getId() { 
         return id; 
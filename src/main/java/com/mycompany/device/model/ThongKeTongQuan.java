@@ -0,0 +1,97 @@
+package com.mycompany.device.model;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Số liệu tổng quan cho dashboard (bất biến), lấy bằng một truy vấn gộp
+ * và được cập nhật dần theo sự kiện của các service
+ * @author Kim Ngan - Model Layer
+ */
+public class ThongKeTongQuan {
+    private final int soPhongBan;
+    private final int soNhanVien;
+    private final Map<ThietBi.TrangThaiThietBi, Integer> soThietBiTheoTrangThai;
+    private final int soThietBi;
+    private final int soCapPhat;
+    private final int soCapPhatDangHoatDong;
+    private final int soYeuCauChoDuyet;
+    private final LocalDateTime thoiDiem;
+
+    public ThongKeTongQuan(int soPhongBan, int soNhanVien,
+                           Map<ThietBi.TrangThaiThietBi, Integer> soThietBiTheoTrangThai,
+                           int soCapPhat, int soCapPhatDangHoatDong, int soYeuCauChoDuyet,
+                           LocalDateTime thoiDiem) {
+        this.soPhongBan = soPhongBan;
+        this.soNhanVien = soNhanVien;
+        this.soCapPhat = soCapPhat;
+        this.soCapPhatDangHoatDong = soCapPhatDangHoatDong;
+        this.soYeuCauChoDuyet = soYeuCauChoDuyet;
+        this.thoiDiem = thoiDiem;
+
+        EnumMap<ThietBi.TrangThaiThietBi, Integer> theoTrangThai = new EnumMap<>(ThietBi.TrangThaiThietBi.class);
+        int tong = 0;
+        for (ThietBi.TrangThaiThietBi trangThai : ThietBi.TrangThaiThietBi.values()) {
+            Integer soLuong = soThietBiTheoTrangThai != null ? soThietBiTheoTrangThai.get(trangThai) : null;
+            theoTrangThai.put(trangThai, soLuong != null ? soLuong : 0);
+            tong += theoTrangThai.get(trangThai);
+        }
+        this.soThietBiTheoTrangThai = Collections.unmodifiableMap(theoTrangThai);
+        this.soThietBi = tong;
+    }
+
+    /**
+     * Kết quả rỗng khi không truy vấn được database
+     */
+    public static ThongKeTongQuan empty() {
+        return new ThongKeTongQuan(0, 0, null, 0, 0, 0, LocalDateTime.now());
+    }
+
+    /**
+     * Bản sao với số phòng ban/nhân viên/yêu cầu chờ duyệt cộng thêm delta (không âm)
+     */
+    public ThongKeTongQuan cong(int deltaPhongBan, int deltaNhanVien, int deltaYeuCauChoDuyet) {
+        return new ThongKeTongQuan(
+            Math.max(0, soPhongBan + deltaPhongBan),
+            Math.max(0, soNhanVien + deltaNhanVien),
+            soThietBiTheoTrangThai,
+            soCapPhat,
+            soCapPhatDangHoatDong,
+            Math.max(0, soYeuCauChoDuyet + deltaYeuCauChoDuyet),
+            LocalDateTime.now());
+    }
+
+    // Getters
+    public int getSoPhongBan() { return soPhongBan; }
+    public int getSoNhanVien() { return soNhanVien; }
+    public int getSoThietBi() { return soThietBi; }
+    public int getSoCapPhat() { return soCapPhat; }
+    public int getSoCapPhatDangHoatDong() { return soCapPhatDangHoatDong; }
+    public int getSoYeuCauChoDuyet() { return soYeuCauChoDuyet; }
+    public LocalDateTime getThoiDiem() { return thoiDiem; }
+
+    /**
+     * Số thiết bị theo từng trạng thái (luôn đủ các giá trị enum)
+     */
+    public Map<ThietBi.TrangThaiThietBi, Integer> getSoThietBiTheoTrangThai() { return soThietBiTheoTrangThai; }
+
+    public int getSoThietBi(ThietBi.TrangThaiThietBi trangThai) {
+        return soThietBiTheoTrangThai.get(trangThai);
+    }
+
+    @Override
+    public String toString() {
+        return "ThongKeTongQuan{" +
+                "soPhongBan=" + soPhongBan +
+                ", soNhanVien=" + soNhanVien +
+                ", soThietBi=" + soThietBi +
+                ", theoTrangThai=" + soThietBiTheoTrangThai +
+                ", soCapPhat=" + soCapPhat +
+                ", dangHoatDong=" + soCapPhatDangHoatDong +
+                ", choDuyet=" + soYeuCauChoDuyet +
+                ", thoiDiem=" + thoiDiem +
+                '}';
+    }
+}
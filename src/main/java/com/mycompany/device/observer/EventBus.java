@@ -0,0 +1,404 @@
+package com.mycompany.device.observer;
+
+import com.mycompany.device.util.ConfigLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bus sự kiện bất đồng bộ dùng chung cho các *Subject.
+ * - Mỗi observer đăng ký vào một subject có một Subscriber riêng: observer chậm chỉ làm đầy hàng đợi của chính nó,
+ *   không làm chậm luồng ghi của service hay các observer khác
+ * - Mỗi Subscriber có EVENT_BUS_LANES làn, mỗi làn là một hàng đợi có giới hạn (EVENT_BUS_QUEUE_CAPACITY)
+ *   và một virtual thread (chỉ khởi động khi có sự kiện đầu tiên, chờ trên hàng đợi thay vì thức dậy định kỳ);
+ *   sự kiện cùng aggregate id (ví dụ id yêu cầu) luôn vào cùng làn nên giữ đúng thứ tự
+ * - Khi hàng đợi đầy xử lý theo EVENT_BUS_OVERFLOW (BLOCK, DROP_OLDEST, DROP_NEWEST, CALLER_RUNS)
+ * - EVENT_BUS_ASYNC=false gọi observer ngay trên luồng của caller như trước
+ * Sự kiện mang tham chiếu tới đối tượng của caller, observer không nên giả định đối tượng chưa bị sửa sau đó.
+ * @author Kim Ngan - Observer Pattern
+ */
+public final class EventBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventBus.class);
+
+    /**
+     * Cách xử lý khi hàng đợi của một làn đã đầy
+     */
+    public enum OverflowPolicy {
+        /** Chờ tới khi có chỗ trống (không mất sự kiện, caller có thể bị chậm) */
+        BLOCK,
+        /** Bỏ sự kiện cũ nhất trong hàng đợi để nhận sự kiện mới */
+        DROP_OLDEST,
+        /** Bỏ sự kiện mới */
+        DROP_NEWEST,
+        /** Gọi observer ngay trên luồng của caller (không mất sự kiện nhưng có thể lệch thứ tự) */
+        CALLER_RUNS
+    }
+
+    // Sự kiện đánh dấu làn dừng sau khi đã xử lý hết các sự kiện trước nó
+    private static final Event STOP = new Event("stop", () -> { });
+
+    private static EventBus instance;
+
+    private final boolean async;
+    private final int queueCapacity;
+    private final int lanesPerSubscriber;
+    private final OverflowPolicy overflowPolicy;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong threadCounter = new AtomicLong();
+
+    EventBus(boolean async, int queueCapacity, int lanesPerSubscriber, OverflowPolicy overflowPolicy) {
+        this.async = async;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.lanesPerSubscriber = Math.max(1, lanesPerSubscriber);
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public static synchronized EventBus getInstance() {
+        if (instance == null) {
+            instance = new EventBus(
+                ConfigLoader.getBooleanProperty("EVENT_BUS_ASYNC", true),
+                ConfigLoader.getIntProperty("EVENT_BUS_QUEUE_CAPACITY", 1024),
+                ConfigLoader.getIntProperty("EVENT_BUS_LANES", 1),
+                parsePolicy(ConfigLoader.getProperty("EVENT_BUS_OVERFLOW", "BLOCK")));
+            logger.info("EventBus: async={}, queueCapacity={}, lanes={}, overflow={}",
+                instance.async, instance.queueCapacity, instance.lanesPerSubscriber, instance.overflowPolicy);
+        }
+        return instance;
+    }
+
+    private static OverflowPolicy parsePolicy(String value) {
+        try {
+            return OverflowPolicy.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            logger.warn("EVENT_BUS_OVERFLOW không hợp lệ: '{}', dùng BLOCK", value);
+            return OverflowPolicy.BLOCK;
+        }
+    }
+
+    /**
+     * Tạo Subscriber cho một observer
+     * @param name tên dùng cho log, tên thread và số liệu (ví dụ "YeuCau/YeuCauLogger")
+     */
+    public Subscriber register(String name) {
+        Subscriber subscriber = new Subscriber(name);
+        subscribers.add(subscriber);
+        return subscriber;
+    }
+
+    /**
+     * Số liệu của mọi Subscriber đang hoạt động
+     */
+    public List<SubscriberStats> getStats() {
+        List<SubscriberStats> result = new ArrayList<>();
+        for (Subscriber subscriber : subscribers) {
+            result.add(subscriber.getStats());
+        }
+        return result;
+    }
+
+    /**
+     * Dừng nhận sự kiện mới và chờ các hàng đợi xử lý hết (dùng khi tắt ứng dụng)
+     * @return số liệu cuối cùng của mọi Subscriber (close() gỡ Subscriber khỏi bus nên getStats() sau đó sẽ rỗng)
+     */
+    public List<SubscriberStats> shutdown(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        List<Subscriber> all = new ArrayList<>(subscribers);
+        for (Subscriber subscriber : all) {
+            subscriber.close();
+        }
+        for (Subscriber subscriber : all) {
+            if (!subscriber.awaitTermination(deadline)) {
+                logger.warn("EventBus: {} còn {} sự kiện chưa xử lý khi tắt", subscriber.name, subscriber.queueDepth());
+            }
+        }
+        List<SubscriberStats> result = new ArrayList<>(all.size());
+        for (Subscriber subscriber : all) {
+            result.add(subscriber.getStats());
+        }
+        return result;
+    }
+
+    /**
+     * Đầu nhận sự kiện của một observer
+     */
+    public final class Subscriber {
+        private final String name;
+        private final Lane[] lanes;
+        private volatile boolean closed;
+
+        private final LongAdder published = new LongAdder();
+        private final LongAdder delivered = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder callerRuns = new LongAdder();
+        private final LongAdder totalLatencyNanos = new LongAdder();
+        private final AtomicLong maxLatencyNanos = new AtomicLong();
+        private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+        private Subscriber(String name) {
+            this.name = name;
+            this.lanes = new Lane[async ? lanesPerSubscriber : 0];
+            for (int i = 0; i < lanes.length; i++) {
+                lanes[i] = new Lane(name + "-" + i);
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gửi một sự kiện cho observer
+         * @param aggregateId id của đối tượng gốc; sự kiện cùng id được xử lý theo đúng thứ tự gửi
+         * @param eventName tên sự kiện, dùng cho log lỗi
+         * @param delivery lời gọi tới observer
+         */
+        public void publish(Object aggregateId, String eventName, Runnable delivery) {
+            if (closed) {
+                return;
+            }
+            published.increment();
+            Event event = new Event(eventName, delivery);
+            if (lanes.length == 0) {
+                deliver(event);
+                return;
+            }
+            Lane lane = lanes[Math.floorMod(Objects.hashCode(aggregateId), lanes.length)];
+            lane.enqueue(event);
+        }
+
+        /**
+         * Ngừng nhận sự kiện; các sự kiện đã nhận vẫn được xử lý hết
+         */
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (Lane lane : lanes) {
+                lane.stop();
+            }
+            subscribers.remove(this);
+        }
+
+        private boolean awaitTermination(long deadlineNanos) {
+            for (Lane lane : lanes) {
+                long remaining = deadlineNanos - System.nanoTime();
+                Thread thread = lane.thread;
+                if (thread == null) {
+                    continue; // Làn chưa từng nhận sự kiện
+                }
+                try {
+                    if (remaining <= 0 || !thread.join(Duration.ofNanos(remaining))) {
+                        return false;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int queueDepth() {
+            int depth = 0;
+            for (Lane lane : lanes) {
+                depth += lane.queue.size();
+            }
+            return depth;
+        }
+
+        private void deliver(Event event) {
+            try {
+                event.delivery.run();
+                delivered.increment();
+            } catch (RuntimeException e) {
+                failed.increment();
+                logger.error("Lỗi khi thông báo observer {} ({})", name, event.name, e);
+            }
+            long latency = System.nanoTime() - event.enqueuedNanos;
+            totalLatencyNanos.add(latency);
+            maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        }
+
+        public SubscriberStats getStats() {
+            return new SubscriberStats(name, published.sum(), delivered.sum(), dropped.sum(), failed.sum(),
+                callerRuns.sum(), queueDepth(), maxQueueDepth.get(), totalLatencyNanos.sum(), maxLatencyNanos.get());
+        }
+
+        /**
+         * Một làn: hàng đợi có giới hạn và một virtual thread xử lý tuần tự
+         */
+        private final class Lane implements Runnable {
+            private final BlockingQueue<Event> queue = new ArrayBlockingQueue<>(queueCapacity);
+            private final String laneName;
+            // null tới khi làn nhận sự kiện đầu tiên
+            private volatile Thread thread;
+            private volatile boolean stopping;
+
+            private Lane(String laneName) {
+                this.laneName = laneName;
+            }
+
+            private void startIfNeeded() {
+                if (thread == null) {
+                    synchronized (this) {
+                        if (thread == null && !stopping) {
+                            thread = Thread.ofVirtual()
+                                .name("event-bus-" + laneName + "-" + threadCounter.incrementAndGet())
+                                .start(this);
+                        }
+                    }
+                }
+            }
+
+            private void enqueue(Event event) {
+                startIfNeeded();
+                boolean accepted = queue.offer(event);
+                if (!accepted) {
+                    switch (overflowPolicy) {
+                        case DROP_NEWEST:
+                            dropped.increment();
+                            return;
+                        case DROP_OLDEST:
+                            while (!queue.offer(event)) {
+                                if (queue.poll() != null) {
+                                    dropped.increment();
+                                }
+                            }
+                            break;
+                        case CALLER_RUNS:
+                            callerRuns.increment();
+                            deliver(event);
+                            return;
+                        case BLOCK:
+                        default:
+                            try {
+                                queue.put(event);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                dropped.increment();
+                                return;
+                            }
+                            break;
+                    }
+                }
+                maxQueueDepth.accumulateAndGet(queue.size(), Math::max);
+            }
+
+            private void stop() {
+                synchronized (this) {
+                    stopping = true;
+                    if (thread == null) {
+                        return;
+                    }
+                }
+                // Hàng đợi đầy thì làn tự dừng khi thấy cờ stopping lúc hàng đợi đã rỗng
+                queue.offer(STOP);
+            }
+
+            @Override
+            public void run() {
+                while (true) {
+                    if (stopping && queue.isEmpty()) {
+                        return;
+                    }
+                    Event event;
+                    try {
+                        event = queue.take();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (event == STOP) {
+                        // Đã xử lý hết sự kiện nhận trước khi close()
+                        return;
+                    }
+                    deliver(event);
+                }
+            }
+        }
+    }
+
+    private static final class Event {
+        private final String name;
+        private final Runnable delivery;
+        private final long enqueuedNanos = System.nanoTime();
+
+        private Event(String name, Runnable delivery) {
+            this.name = name;
+            this.delivery = delivery;
+        }
+    }
+
+    /**
+     * Số liệu của một Subscriber tại thời điểm gọi
+     */
+    public static final class SubscriberStats {
+        private final String name;
+        private final long published;
+        private final long delivered;
+        private final long dropped;
+        private final long failed;
+        private final long callerRuns;
+        private final int queueDepth;
+        private final int maxQueueDepth;
+        private final long totalLatencyNanos;
+        private final long maxLatencyNanos;
+
+        SubscriberStats(String name, long published, long delivered, long dropped, long failed, long callerRuns,
+                        int queueDepth, int maxQueueDepth, long totalLatencyNanos, long maxLatencyNanos) {
+            this.name = name;
+            this.published = published;
+            this.delivered = delivered;
+            this.dropped = dropped;
+            this.failed = failed;
+            this.callerRuns = callerRuns;
+            this.queueDepth = queueDepth;
+            this.maxQueueDepth = maxQueueDepth;
+            this.totalLatencyNanos = totalLatencyNanos;
+            this.maxLatencyNanos = maxLatencyNanos;
+        }
+
+        public String getName() { return name; }
+        public long getPublished() { return published; }
+        public long getDelivered() { return delivered; }
+        public long getDropped() { return dropped; }
+        public long getFailed() { return failed; }
+        public long getCallerRuns() { return callerRuns; }
+        public int getQueueDepth() { return queueDepth; }
+        public int getMaxQueueDepth() { return maxQueueDepth; }
+
+        /**
+         * Thời gian trung bình từ lúc gửi tới lúc observer xử lý xong (ms)
+         */
+        public double getAvgLatencyMillis() {
+            long count = delivered + failed;
+            return count == 0 ? 0.0 : totalLatencyNanos / 1_000_000.0 / count;
+        }
+
+        public double getMaxLatencyMillis() {
+            return maxLatencyNanos / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("EventBus[%s] published=%d, delivered=%d, dropped=%d, failed=%d, callerRuns=%d, "
+                    + "queueDepth=%d, maxQueueDepth=%d, avgLatency=%.2fms, maxLatency=%.2fms",
+                name, published, delivered, dropped, failed, callerRuns, queueDepth, maxQueueDepth,
+                getAvgLatencyMillis(), getMaxLatencyMillis());
+        }
+    }
+}
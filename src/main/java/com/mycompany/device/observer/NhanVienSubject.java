@@ -1,8 +1,7 @@
 package com.mycompany.device.observer;
 
 import com.mycompany.device.model.NhanVien;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Subject class cho Observer Pattern
@@ -10,12 +9,19 @@ import java.util.List;
  */
 public class NhanVienSubject {
     
-    private final List<NhanVienObserver> observers = new ArrayList<>();
+    // Mỗi observer có một Subscriber riêng trên EventBus, thông báo được gửi bất đồng bộ
+    private final ObserverRegistry<NhanVienObserver> observers = new ObserverRegistry<>("NhanVien");
     
     public void addObserver(NhanVienObserver observer) {
-        if (observer != null && !observers.contains(observer)) {
-            observers.add(observer);
-        }
+        observers.add(observer, false);
+    }
+    
+    /**
+     * Thêm observer chỉ giữ tham chiếu yếu, dùng cho panel Swing:
+     * khi màn hình bị đóng và panel bị GC thì observer tự được gỡ khỏi danh sách
+     */
+    public void addWeakObserver(NhanVienObserver observer) {
+        observers.add(observer, true);
     }
     
     public void removeObserver(NhanVienObserver observer) {
@@ -23,53 +29,31 @@ public class NhanVienSubject {
     }
     
     public void notifyNhanVienAdded(NhanVien nhanVien) {
-        for (NhanVienObserver observer : observers) {
-            try {
-                observer.onNhanVienAdded(nhanVien);
-            } catch (Exception e) {
-                System.err.println("Lỗi khi thông báo observer: " + e.getMessage());
-            }
-        }
+        publish(nhanVien.getMaNhanVien(), "onNhanVienAdded", observer -> observer.onNhanVienAdded(nhanVien));
     }
     
     public void notifyNhanVienDeleted(String maNhanVien) {
-        for (NhanVienObserver observer : observers) {
-            try {
-                observer.onNhanVienDeleted(maNhanVien);
-            } catch (Exception e) {
-                System.err.println("Lỗi khi thông báo observer: " + e.getMessage());
-            }
-        }
+        publish(maNhanVien, "onNhanVienDeleted", observer -> observer.onNhanVienDeleted(maNhanVien));
     }
     
     public void notifyNhanVienUpdated(NhanVien nhanVien, NhanVien oldNhanVien) {
-        for (NhanVienObserver observer : observers) {
-            try {
-                observer.onNhanVienUpdated(nhanVien, oldNhanVien);
-            } catch (Exception e) {
-                System.err.println("Lỗi khi thông báo observer: " + e.getMessage());
-            }
-        }
+        publish(nhanVien.getMaNhanVien(), "onNhanVienUpdated", observer -> observer.onNhanVienUpdated(nhanVien, oldNhanVien));
     }
     
     public void notifyNhanVienLoggedIn(NhanVien nhanVien) {
-        for (NhanVienObserver observer : observers) {
-            try {
-                observer.onNhanVienLoggedIn(nhanVien);
-            } catch (Exception e) {
-                System.err.println("Lỗi khi thông báo observer: " + e.getMessage());
-            }
-        }
+        publish(nhanVien.getMaNhanVien(), "onNhanVienLoggedIn", observer -> observer.onNhanVienLoggedIn(nhanVien));
     }
     
     public void notifyNhanVienLoggedOut(NhanVien nhanVien) {
-        for (NhanVienObserver observer : observers) {
-            try {
-                observer.onNhanVienLoggedOut(nhanVien);
-            } catch (Exception e) {
-                System.err.println("Lỗi khi thông báo observer: " + e.getMessage());
-            }
-        }
+        publish(nhanVien.getMaNhanVien(), "onNhanVienLoggedOut", observer -> observer.onNhanVienLoggedOut(nhanVien));
+    }
+    
+    /**
+     * Gửi sự kiện tới từng observer qua Subscriber của nó
+     * @param aggregateId sự kiện cùng id được xử lý theo đúng thứ tự gửi
+     */
+    private void publish(Object aggregateId, String eventName, Consumer<NhanVienObserver> event) {
+        observers.publish(aggregateId, eventName, event);
     }
     
     public int getObserverCount() {
@@ -0,0 +1,177 @@
+package com.mycompany.device.observer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Danh sách observer của một Subject, dùng chung cho YeuCau/NhanVien/PhongBan.
+ * Luồng gửi thông báo chỉ đọc một mảng snapshot (volatile) nên không cần khoá;
+ * thêm/xoá observer hiếm khi xảy ra nên sao chép mảng mới (copy-on-write).
+ * Observer đăng ký dạng yếu (thường là panel Swing) tự bị gỡ khi đã bị GC,
+ * để màn hình đã đóng không bị giữ lại và không nhận thông báo mãi.
+ * @author Kim Ngan - Observer Pattern
+ */
+final class ObserverRegistry<O> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ObserverRegistry.class);
+
+    private final String tenNhom;
+    private final Object writeLock = new Object();
+    private volatile Entry<O>[] entries = newArray(0);
+
+    /**
+     * @param tenNhom tiền tố tên Subscriber trên EventBus, ví dụ "YeuCau"
+     */
+    ObserverRegistry(String tenNhom) {
+        this.tenNhom = tenNhom;
+    }
+
+    /**
+     * Thêm observer nếu chưa có (so sánh theo tham chiếu)
+     * @param weak true để chỉ giữ tham chiếu yếu tới observer
+     */
+    void add(O observer, boolean weak) {
+        if (observer == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            Entry<O>[] current = entries;
+            int live = 0;
+            for (Entry<O> entry : current) {
+                O existing = entry.get();
+                if (existing == observer) {
+                    return;
+                }
+                if (existing != null) {
+                    live++;
+                }
+            }
+            Entry<O>[] next = newArray(live + 1);
+            int i = 0;
+            for (Entry<O> entry : current) {
+                if (entry.get() != null) {
+                    next[i++] = entry;
+                } else {
+                    entry.subscriber.close();
+                }
+            }
+            EventBus.Subscriber subscriber = EventBus.getInstance()
+                    .register(tenNhom + "/" + observer.getClass().getSimpleName());
+            next[i] = new Entry<>(observer, weak, subscriber);
+            entries = next;
+        }
+    }
+
+    /**
+     * Xoá observer và đóng Subscriber của nó
+     * @return true nếu observer có trong danh sách
+     */
+    boolean remove(O observer) {
+        if (observer == null) {
+            return false;
+        }
+        synchronized (writeLock) {
+            Entry<O>[] current = entries;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i].get() == observer) {
+                    Entry<O>[] next = newArray(current.length - 1);
+                    System.arraycopy(current, 0, next, 0, i);
+                    System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                    entries = next;
+                    current[i].subscriber.close();
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Gửi sự kiện tới từng observer còn sống qua Subscriber của nó
+     * @param aggregateId sự kiện cùng id được xử lý theo đúng thứ tự gửi
+     */
+    void publish(Object aggregateId, String eventName, Consumer<O> event) {
+        boolean coObserverDaThuHoi = false;
+        for (Entry<O> entry : entries) {
+            O observer = entry.get();
+            if (observer == null) {
+                coObserverDaThuHoi = true;
+                continue;
+            }
+            entry.subscriber.publish(aggregateId, eventName, () -> event.accept(observer));
+        }
+        if (coObserverDaThuHoi) {
+            expunge();
+        }
+    }
+
+    /**
+     * Số observer còn sống
+     */
+    int size() {
+        int count = 0;
+        for (Entry<O> entry : entries) {
+            if (entry.get() != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    void clear() {
+        synchronized (writeLock) {
+            Entry<O>[] current = entries;
+            entries = newArray(0);
+            for (Entry<O> entry : current) {
+                entry.subscriber.close();
+            }
+        }
+    }
+
+    /**
+     * Gỡ các observer yếu đã bị GC và đóng Subscriber tương ứng
+     */
+    private void expunge() {
+        synchronized (writeLock) {
+            Entry<O>[] current = entries;
+            Entry<O>[] next = newArray(current.length);
+            int live = 0;
+            for (Entry<O> entry : current) {
+                if (entry.get() != null) {
+                    next[live++] = entry;
+                } else {
+                    logger.debug("Gỡ observer đã bị thu hồi: {}", entry.subscriber.getName());
+                    entry.subscriber.close();
+                }
+            }
+            if (live != current.length) {
+                entries = Arrays.copyOf(next, live);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <O> Entry<O>[] newArray(int length) {
+        return (Entry<O>[]) new Entry<?>[length];
+    }
+
+    private static final class Entry<O> {
+        private final O strong;
+        private final WeakReference<O> weak;
+        private final EventBus.Subscriber subscriber;
+
+        Entry(O observer, boolean weak, EventBus.Subscriber subscriber) {
+            this.strong = weak ? null : observer;
+            this.weak = weak ? new WeakReference<>(observer) : null;
+            this.subscriber = subscriber;
+        }
+
+        O get() {
+            return weak != null ? weak.get() : strong;
+        }
+    }
+}
@@ -1,8 +1,7 @@
 package com.mycompany.device.observer;
 
 import com.mycompany.device.model.PhongBan;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Quản lý danh sách các observers và thông báo khi có thay đổi
@@ -10,12 +9,19 @@ import java.util.List;
  */
 public class PhongBanSubject {
     
-    private final List<PhongBanObserver> observers = new ArrayList<>();
+    // Mỗi observer có một Subscriber riêng trên EventBus, thông báo được gửi bất đồng bộ
+    private final ObserverRegistry<PhongBanObserver> observers = new ObserverRegistry<>("PhongBan");
     
     public void addObserver(PhongBanObserver observer) {
-        if (observer != null && !observers.contains(observer)) {
-            observers.add(observer);
-        }
+        observers.add(observer, false);
+    }
+    
+    /**
+     * Thêm observer chỉ giữ tham chiếu yếu, dùng cho panel Swing:
+     * khi màn hình bị đóng và panel bị GC thì observer tự được gỡ khỏi danh sách
+     */
+    public void addWeakObserver(PhongBanObserver observer) {
+        observers.add(observer, true);
     }
     
     public void removeObserver(PhongBanObserver observer) {
@@ -23,33 +29,23 @@ public class PhongBanSubject {
     }
     
     public void notifyPhongBanAdded(PhongBan phongBan) {
-        for (PhongBanObserver observer : observers) {
-            try {
-                observer.onPhongBanAdded(phongBan);
-            } catch (Exception e) {
-                System.err.println("Lỗi khi thông báo observer: " + e.getMessage());
-            }
-        }
+        publish(phongBan.getMaPhongBan(), "onPhongBanAdded", observer -> observer.onPhongBanAdded(phongBan));
     }
     
     public void notifyPhongBanDeleted(String maPhongBan) {
-        for (PhongBanObserver observer : observers) {
-            try {
-                observer.onPhongBanDeleted(maPhongBan);
-            } catch (Exception e) {
-                System.err.println("Lỗi khi thông báo observer: " + e.getMessage());
-            }
-        }
+        publish(maPhongBan, "onPhongBanDeleted", observer -> observer.onPhongBanDeleted(maPhongBan));
     }
     
     public void notifyPhongBanUpdated(PhongBan phongBan, PhongBan oldPhongBan) {
-        for (PhongBanObserver observer : observers) {
-            try {
-                observer.onPhongBanUpdated(phongBan, oldPhongBan);
-            } catch (Exception e) {
-                System.err.println("Lỗi khi thông báo observer: " + e.getMessage());
-            }
-        }
+        publish(phongBan.getMaPhongBan(), "onPhongBanUpdated", observer -> observer.onPhongBanUpdated(phongBan, oldPhongBan));
+    }
+    
+    /**
+     * Gửi sự kiện tới từng observer qua Subscriber của nó
+     * @param aggregateId sự kiện cùng id được xử lý theo đúng thứ tự gửi
+     */
+    private void publish(Object aggregateId, String eventName, Consumer<PhongBanObserver> event) {
+        observers.publish(aggregateId, eventName, event);
     }
     
     public int getObserverCount() {
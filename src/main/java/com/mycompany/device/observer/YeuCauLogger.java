@@ -6,6 +6,7 @@ import org.slf4j.LoggerFactory;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 /**
  * Logger Observer cho YeuCau
@@ -99,4 +100,11 @@ public class YeuCauLogger implements YeuCauObserver {
         logger.warn("[{}] YEUCAU_CANCELLED: ID={}, Thiết bị={}, Nhân viên={}, Lý do='{}'", 
                    timestamp, yeuCau.getId(), yeuCau.getThietBiId(), yeuCau.getNhanVienId(), yeuCau.getLyDo());
     }
+    
+    @Override
+    public void onYeuCauHangLoat(List<Long> yeuCauIds, YeuCau.TrangThaiYeuCau newStatus) {
+        String timestamp = LocalDateTime.now().format(formatter);
+        logger.info("[{}] YEUCAU_BULK_STATUS_CHANGED: {} yêu cầu -> '{}', IDs={}", 
+                   timestamp, yeuCauIds.size(), newStatus.getDisplayName(), yeuCauIds);
+    }
 } 
\ No newline at end of file
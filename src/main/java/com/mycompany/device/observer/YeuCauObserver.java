@@ -1,6 +1,7 @@
 package com.mycompany.device.observer;
 
 import com.mycompany.device.model.YeuCau;
+import java.util.List;
 
 /**
  * Observer interface cho YeuCau
@@ -47,4 +48,14 @@ public interface YeuCauObserver {
      * Được gọi khi yêu cầu bị hủy
      */
     void onYeuCauCancelled(YeuCau yeuCau);
+    
+    /**
+     * Được gọi một lần sau thao tác hàng loạt (duyệt/từ chối/cấp phát nhiều yêu cầu)
+     * thay cho từng thông báo riêng lẻ.
+     * Mặc định bỏ qua (sự kiện chỉ mang id nên không gọi lại được các callback theo từng YeuCau),
+     * observer cũ không phải sửa
+     * @param yeuCauIds các yêu cầu đã chuyển trạng thái thành công
+     */
+    default void onYeuCauHangLoat(List<Long> yeuCauIds, YeuCau.TrangThaiYeuCau newStatus) {
+    }
 } 
\ No newline at end of file
@@ -1,8 +1,8 @@
 package com.mycompany.device.observer;
 
 import com.mycompany.device.model.YeuCau;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Subject class cho Observer Pattern của YeuCau
@@ -10,15 +10,22 @@ import java.util.List;
  */
 public class YeuCauSubject {
     
-    private final List<YeuCauObserver> observers = new ArrayList<>();
+    // Mỗi observer có một Subscriber riêng trên EventBus, thông báo được gửi bất đồng bộ
+    private final ObserverRegistry<YeuCauObserver> observers = new ObserverRegistry<>("YeuCau");
     
     /**
      * Thêm observer
      */
     public void addObserver(YeuCauObserver observer) {
-        if (observer != null && !observers.contains(observer)) {
-            observers.add(observer);
-        }
+        observers.add(observer, false);
+    }
+    
+    /**
+     * Thêm observer chỉ giữ tham chiếu yếu, dùng cho panel Swing:
+     * khi màn hình bị đóng và panel bị GC thì observer tự được gỡ khỏi danh sách
+     */
+    public void addWeakObserver(YeuCauObserver observer) {
+        observers.add(observer, true);
     }
     
     /**
@@ -32,104 +39,71 @@ public class YeuCauSubject {
      * Thông báo yêu cầu mới được tạo
      */
     public void notifyYeuCauAdded(YeuCau yeuCau) {
-        for (YeuCauObserver observer : observers) {
-            try {
-                observer.onYeuCauAdded(yeuCau);
-            } catch (Exception e) {
-                System.err.println("Lỗi khi thông báo observer: " + e.getMessage());
-            }
-        }
+        publish(yeuCau.getId(), "onYeuCauAdded", observer -> observer.onYeuCauAdded(yeuCau));
     }
     
     /**
      * Thông báo yêu cầu bị xóa
      */
     public void notifyYeuCauDeleted(Long yeuCauId) {
-        for (YeuCauObserver observer : observers) {
-            try {
-                observer.onYeuCauDeleted(yeuCauId);
-            } catch (Exception e) {
-                System.err.println("Lỗi khi thông báo observer: " + e.getMessage());
-            }
-        }
+        publish(yeuCauId, "onYeuCauDeleted", observer -> observer.onYeuCauDeleted(yeuCauId));
     }
     
     /**
      * Thông báo yêu cầu được cập nhật
      */
     public void notifyYeuCauUpdated(YeuCau yeuCau, YeuCau oldYeuCau) {
-        for (YeuCauObserver observer : observers) {
-            try {
-                observer.onYeuCauUpdated(yeuCau, oldYeuCau);
-            } catch (Exception e) {
-                System.err.println("Lỗi khi thông báo observer: " + e.getMessage());
-            }
-        }
+        publish(yeuCau.getId(), "onYeuCauUpdated", observer -> observer.onYeuCauUpdated(yeuCau, oldYeuCau));
     }
     
     /**
      * Thông báo trạng thái yêu cầu thay đổi
      */
     public void notifyYeuCauStatusChanged(YeuCau yeuCau, YeuCau.TrangThaiYeuCau oldStatus, YeuCau.TrangThaiYeuCau newStatus) {
-        for (YeuCauObserver observer : observers) {
-            try {
-                observer.onYeuCauStatusChanged(yeuCau, oldStatus, newStatus);
-            } catch (Exception e) {
-                System.err.println("Lỗi khi thông báo observer: " + e.getMessage());
-            }
-        }
+        publish(yeuCau.getId(), "onYeuCauStatusChanged", observer -> observer.onYeuCauStatusChanged(yeuCau, oldStatus, newStatus));
     }
     
     /**
      * Thông báo yêu cầu được duyệt
      */
     public void notifyYeuCauApproved(YeuCau yeuCau) {
-        for (YeuCauObserver observer : observers) {
-            try {
-                observer.onYeuCauApproved(yeuCau);
-            } catch (Exception e) {
-                System.err.println("Lỗi khi thông báo observer: " + e.getMessage());
-            }
-        }
+        publish(yeuCau.getId(), "onYeuCauApproved", observer -> observer.onYeuCauApproved(yeuCau));
     }
     
     /**
      * Thông báo yêu cầu bị từ chối
      */
     public void notifyYeuCauRejected(YeuCau yeuCau) {
-        for (YeuCauObserver observer : observers) {
-            try {
-                observer.onYeuCauRejected(yeuCau);
-            } catch (Exception e) {
-                System.err.println("Lỗi khi thông báo observer: " + e.getMessage());
-            }
-        }
+        publish(yeuCau.getId(), "onYeuCauRejected", observer -> observer.onYeuCauRejected(yeuCau));
     }
     
     /**
      * Thông báo yêu cầu được cấp phát
      */
     public void notifyYeuCauAllocated(YeuCau yeuCau) {
-        for (YeuCauObserver observer : observers) {
-            try {
-                observer.onYeuCauAllocated(yeuCau);
-            } catch (Exception e) {
-                System.err.println("Lỗi khi thông báo observer: " + e.getMessage());
-            }
-        }
+        publish(yeuCau.getId(), "onYeuCauAllocated", observer -> observer.onYeuCauAllocated(yeuCau));
     }
     
     /**
      * Thông báo yêu cầu bị hủy
      */
     public void notifyYeuCauCancelled(YeuCau yeuCau) {
-        for (YeuCauObserver observer : observers) {
-            try {
-                observer.onYeuCauCancelled(yeuCau);
-            } catch (Exception e) {
-                System.err.println("Lỗi khi thông báo observer: " + e.getMessage());
-            }
-        }
+        publish(yeuCau.getId(), "onYeuCauCancelled", observer -> observer.onYeuCauCancelled(yeuCau));
+    }
+    
+    /**
+     * Thông báo gộp cho một thao tác hàng loạt
+     */
+    public void notifyYeuCauHangLoat(List<Long> yeuCauIds, YeuCau.TrangThaiYeuCau newStatus) {
+        publish(null, "onYeuCauHangLoat", observer -> observer.onYeuCauHangLoat(yeuCauIds, newStatus));
+    }
+    
+    /**
+     * Gửi sự kiện tới từng observer qua Subscriber của nó
+     * @param aggregateId sự kiện cùng id được xử lý theo đúng thứ tự gửi
+     */
+    private void publish(Object aggregateId, String eventName, Consumer<YeuCauObserver> event) {
+        observers.publish(aggregateId, eventName, event);
     }
     
     /**
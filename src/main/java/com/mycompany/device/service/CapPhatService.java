@@ -1,7 +1,14 @@
 package com.mycompany.device.service;
 
 import com.mycompany.device.model.CapPhat;
+import com.mycompany.device.model.KetQuaCapPhat;
+import com.mycompany.device.model.KetQuaHangLoat;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
+import java.time.YearMonth;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -11,10 +18,29 @@ import java.util.Optional;
 public interface CapPhatService {
     
     /**
-     * Tạo record cấp phát mới khi admin phê duyệt yêu cầu
+     * Tạo record cấp phát mới cho yêu cầu đã duyệt (chuyển yêu cầu sang Đã cấp phát), trong một transaction
      */
     boolean taoCapPhat(Long yeuCauId);
     
+    /**
+     * Phê duyệt yêu cầu đang chờ duyệt và cấp phát thiết bị trong cùng một transaction:
+     * yêu cầu chuyển sang Đã duyệt, thiết bị sang Đang cấp phát, tạo record cấp phát.
+     * Hai admin duyệt cùng lúc hai yêu cầu của một thiết bị thì chỉ một người thành công.
+     */
+    KetQuaCapPhat duyetVaCapPhat(Long yeuCauId);
+    
+    /**
+     * Tạo cấp phát cho nhiều yêu cầu đã duyệt trong một transaction (chuyển sang Đã cấp phát)
+     * @return kết quả theo vị trí đầu vào, id là id CapPhat mới tạo
+     */
+    KetQuaHangLoat taoCapPhatNhieu(List<Long> yeuCauIds);
+    
+    /**
+     * Phê duyệt và cấp phát nhiều yêu cầu đang chờ duyệt trong một transaction
+     * @return kết quả theo vị trí đầu vào, id là id CapPhat mới tạo
+     */
+    KetQuaHangLoat duyetVaCapPhatNhieu(List<Long> yeuCauIds);
+    
     /**
      * Tạo record cấp phát với thông tin chi tiết
      */
@@ -35,6 +61,11 @@ public interface CapPhatService {
      */
     List<CapPhat> layDanhSachCapPhat();
     
+    /**
+     * Lấy một trang cấp phát (mặc định mới nhất trước), trang sau lấy qua Page.getNextPageRequest()
+     */
+    Page<CapPhat> layTrangCapPhat(PageRequest pageRequest);
+    
     /**
      * Lấy danh sách cấp phát theo yêu cầu
      */
@@ -61,10 +92,16 @@ public interface CapPhatService {
     Optional<CapPhat> timCapPhatHienTaiCuaThietBi(Long thietBiId);
     
     /**
-     * Lấy thống kê cấp phát
+     * Lấy thống kê cấp phát (được cache ngắn hạn, tự làm mới khi có cấp phát/trả thiết bị)
+     * @throws RuntimeException khi lỗi database (kết quả lỗi không được cache)
      */
     ThongKeCapPhat layThongKeCapPhat();
     
+    /**
+     * Xóa cache thống kê để lần gọi sau đọc lại từ database
+     */
+    void lamMoiThongKe();
+    
     /**
      * Inner class cho thống kê
      */
@@ -72,16 +109,29 @@ public interface CapPhatService {
         private int tongSoCapPhat;
         private int soCapPhatDangHoatDong;
         private int soCapPhatDaTra;
+        private Map<CapPhat.TinhTrangTra, Integer> soLuongTheoTinhTrangTra;
+        private Map<YearMonth, Integer> soLuongTheoThang;
         
         public ThongKeCapPhat(int tongSoCapPhat, int soCapPhatDangHoatDong, int soCapPhatDaTra) {
+            this(tongSoCapPhat, soCapPhatDangHoatDong, soCapPhatDaTra,
+                 Collections.emptyMap(), Collections.emptyMap());
+        }
+        
+        public ThongKeCapPhat(int tongSoCapPhat, int soCapPhatDangHoatDong, int soCapPhatDaTra,
+                              Map<CapPhat.TinhTrangTra, Integer> soLuongTheoTinhTrangTra,
+                              Map<YearMonth, Integer> soLuongTheoThang) {
             this.tongSoCapPhat = tongSoCapPhat;
             this.soCapPhatDangHoatDong = soCapPhatDangHoatDong;
             this.soCapPhatDaTra = soCapPhatDaTra;
+            this.soLuongTheoTinhTrangTra = soLuongTheoTinhTrangTra;
+            this.soLuongTheoThang = soLuongTheoThang;
         }
         
         // Getters
         public int getTongSoCapPhat() { return tongSoCapPhat; }
         public int getSoCapPhatDangHoatDong() { return soCapPhatDangHoatDong; }
         public int getSoCapPhatDaTra() { return soCapPhatDaTra; }
+        public Map<CapPhat.TinhTrangTra, Integer> getSoLuongTheoTinhTrangTra() { return soLuongTheoTinhTrangTra; }
+        public Map<YearMonth, Integer> getSoLuongTheoThang() { return soLuongTheoThang; }
     }
 }
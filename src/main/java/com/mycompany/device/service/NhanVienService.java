@@ -1,6 +1,8 @@
 package com.mycompany.device.service;
 
 import com.mycompany.device.model.NhanVien;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
 import java.util.List;
 import java.util.Optional;
 
@@ -58,6 +60,23 @@ public interface NhanVienService {
      */
     List<NhanVien> xemDanhSachNhanVien();
     
+    /**
+     * Xem một trang nhân viên
+     * @param pageRequest Kích thước trang, sắp xếp và con trỏ trang trước
+     * @return Trang nhân viên, trang sau lấy qua Page.getNextPageRequest()
+     */
+    Page<NhanVien> xemTrangNhanVien(PageRequest pageRequest);
+    
+    /**
+     * Tìm một trang nhân viên trên database
+     * @param tieuChi Tiêu chí tìm kiếm ("Tất cả", "Mã nhân viên", "Tên nhân viên", "Email",
+     *                "Số điện thoại", "Vai trò", "Mã phòng ban")
+     * @param tuKhoa Từ khoá, rỗng = không lọc
+     * @param pageRequest Kích thước trang, sắp xếp và con trỏ trang trước
+     * @return Trang nhân viên khớp, trang sau lấy qua Page.getNextPageRequest()
+     */
+    Page<NhanVien> timTrangNhanVien(String tieuChi, String tuKhoa, PageRequest pageRequest);
+    
     /**
      * Tìm nhân viên theo mã
      * @param maNhanVien Mã nhân viên
@@ -141,4 +160,10 @@ public interface NhanVienService {
      * @return Optional chứa nhân viên nếu đăng nhập thành công
      */
     Optional<NhanVien> dangNhap(String email, String password);
+
+    /**
+     * Đăng xuất nhân viên
+     * @param nhanVien Nhân viên đang đăng nhập
+     */
+    void dangXuat(NhanVien nhanVien);
 }
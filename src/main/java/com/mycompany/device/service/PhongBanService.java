@@ -1,6 +1,8 @@
 package com.mycompany.device.service;
 
 import com.mycompany.device.model.PhongBan;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
 import java.util.List;
 import java.util.Optional;
 
@@ -48,6 +50,13 @@ public interface PhongBanService {
      */
     List<PhongBan> xemDanhSachPhongBan();
     
+    /**
+     * Xem một trang phòng ban
+     * @param pageRequest Kích thước trang, sắp xếp và con trỏ trang trước
+     * @return Trang phòng ban, trang sau lấy qua Page.getNextPageRequest()
+     */
+    Page<PhongBan> xemTrangPhongBan(PageRequest pageRequest);
+    
     /**
      * Tìm phòng ban theo mã
      * @param maPhongBan Mã phòng ban
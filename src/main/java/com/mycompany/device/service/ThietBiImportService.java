@@ -0,0 +1,35 @@
+package com.mycompany.device.service;
+
+import com.mycompany.device.model.BaoCaoNhapThietBi;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Nghiệp vụ nhập thiết bị hàng loạt từ file CSV.
+ * File gồm các cột: số serial, mã loại, ngày mua, giá mua, ghi chú (dòng tiêu đề là tuỳ chọn).
+ * @author Kim Ngan - Service Interface
+ */
+public interface ThietBiImportService {
+
+    /**
+     * Nhận tiến trình nhập; được gọi từ luồng nền sau mỗi batch đã ghi
+     */
+    interface TienDoListener {
+        void onTienDo(long soDongDaDoc, long soThanhCong, long soLoi, long byteDaDoc, long tongSoByte);
+    }
+
+    /**
+     * Đọc file theo luồng, kiểm tra song song và ghi theo batch.
+     * Mỗi batch được commit riêng nên khi huỷ các batch đã ghi vẫn được giữ lại.
+     * Huỷ bằng daHuy (kiểm tra giữa các batch), không interrupt luồng gọi: interrupt giữa một batch JDBC
+     * làm hỏng connection ngay trong transaction.
+     * @param file File CSV (UTF-8, phân cách bằng dấu phẩy, chấm phẩy hoặc tab)
+     * @param listener Nhận tiến trình, có thể null
+     * @param daHuy Trả true khi người dùng huỷ, có thể null
+     * @return Báo cáo số dòng thành công và lỗi từng dòng (tới batch cuối đã ghi nếu bị huỷ)
+     */
+    BaoCaoNhapThietBi nhapTuCsv(Path file, TienDoListener listener, BooleanSupplier daHuy)
+        throws IOException, InterruptedException;
+}
@@ -1,6 +1,9 @@
 package com.mycompany.device.service;
 
+import com.mycompany.device.model.KetQuaHangLoat;
 import com.mycompany.device.model.ThietBi;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
 import java.util.List;
 
 /**
@@ -10,11 +13,18 @@ import java.util.List;
 public interface ThietBiService {
     // Thao tác CRUD
     List<ThietBi> findAll();
+    // Một trang thiết bị (phân trang keyset), trang sau lấy qua Page.getNextPageRequest()
+    Page<ThietBi> findPage(PageRequest pageRequest);
     ThietBi findById(Long id);
     boolean save(ThietBi thietBi);
     boolean update(ThietBi thietBi);
     boolean delete(Long id);
     
+    // Thao tác hàng loạt (một transaction, lỗi từng dòng được báo riêng)
+    KetQuaHangLoat saveAll(List<ThietBi> thietBiList);
+    KetQuaHangLoat updateAll(List<ThietBi> thietBiList);
+    
     // Logic nghiệp vụ bổ sung
     List<ThietBi> search(String keyword, String searchType);
+    List<ThietBi> search(String keyword, String searchType, int limit);
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.mycompany.device.service;
+
+import com.mycompany.device.model.ThongKeTongQuan;
+import java.util.function.Consumer;
+
+/**
+ * Service cung cấp số liệu tổng quan cho dashboard.
+ * Số liệu được giữ trong bộ nhớ và cập nhật theo sự kiện của các service khác,
+ * nên việc đọc không truy vấn database (trừ lần tải đầu tiên)
+ * @author Kim Ngan - Service Layer
+ */
+public interface ThongKeService {
+    
+    /**
+     * Lấy số liệu hiện tại; lần gọi đầu tiên tải từ database nên không gọi trên EDT
+     */
+    ThongKeTongQuan layThongKeTongQuan();
+    
+    /**
+     * Số liệu đã có trong bộ nhớ, không bao giờ truy vấn database
+     * @return null nếu chưa tải lần nào
+     */
+    ThongKeTongQuan xemThongKeHienTai();
+    
+    /**
+     * Yêu cầu tải lại từ database ở nền; các lần gọi dồn dập được gộp thành một truy vấn
+     */
+    void lamMoi();
+    
+    /**
+     * Đăng ký nhận số liệu mới mỗi khi thay đổi (gọi trên luồng nền, không phải EDT)
+     */
+    void addListener(Consumer<ThongKeTongQuan> listener);
+    
+    void removeListener(Consumer<ThongKeTongQuan> listener);
+}
@@ -0,0 +1,79 @@
+package com.mycompany.device.service;
+
+import com.mycompany.device.model.CapPhat;
+import com.mycompany.device.model.LoaiThietBi;
+import com.mycompany.device.model.NhanVien;
+import com.mycompany.device.model.PhongBan;
+import com.mycompany.device.model.ThietBi;
+import com.mycompany.device.model.YeuCau;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read model dùng chung để tra cứu thực thể theo khoá khi render bảng (O(1), không truy vấn database).
+ * Dữ liệu được nạp từ danh sách các panel vừa tải (nap*), sau đó cập nhật dần
+ * theo sự kiện của YeuCau/NhanVien/PhongBan service và các thao tác ghi của ThietBi/CapPhat service
+ * @author Kim Ngan - Service Layer
+ */
+public interface TraCuuService {
+
+    ThietBi timThietBi(Long id);
+
+    LoaiThietBi timLoaiThietBi(Long id);
+
+    NhanVien timNhanVien(String maNhanVien);
+
+    PhongBan timPhongBan(String maPhongBan);
+
+    YeuCau timYeuCau(Long id);
+
+    /**
+     * Cấp phát chưa trả mới nhất của thiết bị, null nếu thiết bị không đang được cấp phát
+     */
+    CapPhat timCapPhatHienTai(Long thietBiId);
+
+    // ===== Nạp toàn bộ một loại thực thể (thay dữ liệu cũ) =====
+
+    void napThietBi(List<ThietBi> thietBiList);
+
+    void napLoaiThietBi(List<LoaiThietBi> loaiThietBiList);
+
+    void napNhanVien(List<NhanVien> nhanVienList);
+
+    void napPhongBan(List<PhongBan> phongBanList);
+
+    void napYeuCau(List<YeuCau> yeuCauList);
+
+    /**
+     * Dựng map thiết bị -> cấp phát hiện tại
+     * @param yeuCauList yêu cầu dùng để biết thiết bị của từng cấp phát (không dựa vào yêu cầu đã nạp trước đó)
+     */
+    void napCapPhat(List<CapPhat> capPhatList, List<YeuCau> yeuCauList);
+
+    /**
+     * Thay map thiết bị -> cấp phát hiện tại bằng kết quả đã join sẵn (CapPhatDAO.findActiveCapPhatByThietBi)
+     */
+    void napCapPhatHienTai(Map<Long, CapPhat> capPhatByThietBi);
+
+    // ===== Cập nhật từ các service không có observer =====
+
+    void capNhatThietBi(ThietBi thietBi);
+
+    void xoaThietBi(Long thietBiId);
+
+    /**
+     * Thiết bị đổi trạng thái ngoài ThietBiService (ví dụ trong transaction cấp phát):
+     * thay bằng bản sao mang trạng thái mới, không sửa đối tượng đang được chia sẻ
+     */
+    void ghiNhanTrangThaiThietBi(Long thietBiId, ThietBi.TrangThaiThietBi trangThai);
+
+    void ghiNhanCapPhat(Long thietBiId, CapPhat capPhat);
+
+    void ghiNhanTraThietBi(Long capPhatId);
+
+    /**
+     * Tải lại các cấp phát đang hoạt động ở nền (sau thao tác hàng loạt không biết chi tiết từng dòng)
+     */
+    void lamMoiCapPhat();
+}
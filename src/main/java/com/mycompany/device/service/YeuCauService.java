@@ -1,7 +1,11 @@
 package com.mycompany.device.service;
 
+import com.mycompany.device.model.KetQuaHangLoat;
 import com.mycompany.device.model.YeuCau;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -57,6 +61,43 @@ public interface YeuCauService {
      */
     List<YeuCau> xemDanhSachYeuCau();
     
+    /**
+     * Xem một trang yêu cầu (mặc định mới nhất trước)
+     * @param pageRequest Kích thước trang, sắp xếp và con trỏ trang trước
+     * @return Trang yêu cầu, trang sau lấy qua Page.getNextPageRequest()
+     */
+    Page<YeuCau> xemTrangYeuCau(PageRequest pageRequest);
+    
+    /**
+     * Xem một trang yêu cầu đã lọc trên database (màn hình admin)
+     * @param trangThai null = mọi trạng thái
+     * @param tuKhoa tên thiết bị, tên nhân viên hoặc tên phòng ban; rỗng = không lọc
+     * @return Trang yêu cầu khớp, trang sau lấy qua Page.getNextPageRequest()
+     */
+    Page<YeuCau> locTrangYeuCau(YeuCau.TrangThaiYeuCau trangThai, String tuKhoa, PageRequest pageRequest);
+    
+    /**
+     * Đếm yêu cầu theo từng trạng thái (một truy vấn GROUP BY), cùng điều kiện từ khoá với locTrangYeuCau
+     * @return số yêu cầu theo trạng thái, trạng thái vắng mặt = 0
+     */
+    Map<YeuCau.TrangThaiYeuCau, Integer> demYeuCauTheoTrangThai(String tuKhoa);
+    
+    /**
+     * Xem một trang yêu cầu của nhân viên (mặc định mới nhất trước)
+     * @param nhanVienId Mã nhân viên
+     * @param pageRequest Kích thước trang, sắp xếp và con trỏ trang trước
+     * @return Trang yêu cầu của nhân viên, trang sau lấy qua Page.getNextPageRequest()
+     */
+    Page<YeuCau> timTrangYeuCauTheoNhanVien(String nhanVienId, PageRequest pageRequest);
+    
+    /**
+     * Tìm một trang yêu cầu của nhân viên trên database
+     * @param tieuChi "Tất cả", "Thiết bị", "Trạng thái" hoặc "Lý do"
+     * @param tuKhoa rỗng = không lọc
+     * @return Trang yêu cầu khớp, trang sau lấy qua Page.getNextPageRequest()
+     */
+    Page<YeuCau> timTrangYeuCauTheoNhanVien(String nhanVienId, String tieuChi, String tuKhoa, PageRequest pageRequest);
+    
     /**
      * Tìm yêu cầu theo ID
      * @param yeuCauId ID yêu cầu
@@ -162,4 +203,33 @@ public interface YeuCauService {
      * @return true nếu hủy thành công, false nếu thất bại
      */
     boolean huyYeuCau(Long yeuCauId, String lyDoHuy);
+    
+    /**
+     * Duyệt nhiều yêu cầu đang chờ duyệt trong một transaction
+     * @param yeuCauIds Danh sách ID yêu cầu
+     * @return Kết quả từng yêu cầu theo vị trí đầu vào
+     */
+    KetQuaHangLoat duyetNhieu(List<Long> yeuCauIds);
+    
+    /**
+     * Từ chối nhiều yêu cầu đang chờ duyệt trong một transaction
+     * @param yeuCauIds Danh sách ID yêu cầu
+     * @param lyDoTuChoi Lý do từ chối (null = giữ nguyên lý do cũ)
+     * @return Kết quả từng yêu cầu theo vị trí đầu vào
+     */
+    KetQuaHangLoat tuChoiNhieu(List<Long> yeuCauIds, String lyDoTuChoi);
+    
+    /**
+     * Cấp phát thiết bị cho nhiều yêu cầu đã duyệt trong một transaction
+     * @param yeuCauIds Danh sách ID yêu cầu
+     * @return Kết quả từng yêu cầu theo vị trí đầu vào (id là id cấp phát)
+     */
+    KetQuaHangLoat capPhatNhieu(List<Long> yeuCauIds);
+    
+    /**
+     * Phê duyệt và cấp phát nhiều yêu cầu đang chờ duyệt trong một transaction
+     * @param yeuCauIds Danh sách ID yêu cầu
+     * @return Kết quả từng yêu cầu theo vị trí đầu vào (id là id cấp phát)
+     */
+    KetQuaHangLoat duyetVaCapPhatNhieu(List<Long> yeuCauIds);
 } 
\ No newline at end of file
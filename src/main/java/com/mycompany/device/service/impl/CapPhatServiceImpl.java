@@ -1,18 +1,26 @@
 package com.mycompany.device.service.impl;
 
 import com.mycompany.device.dao.CapPhatDAO;
-import com.mycompany.device.dao.YeuCauDAO;
 import com.mycompany.device.dao.impl.CapPhatDAOMySQLImpl;
-import com.mycompany.device.dao.impl.YeuCauDAOMySQLImpl;
+import com.mycompany.device.dao.impl.ThietBiDAOCacheImpl;
 import com.mycompany.device.model.CapPhat;
+import com.mycompany.device.model.CapPhatTongHop;
+import com.mycompany.device.model.KetQuaCapPhat;
+import com.mycompany.device.model.KetQuaHangLoat;
+import com.mycompany.device.model.ThietBi;
 import com.mycompany.device.model.YeuCau;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
 import com.mycompany.device.service.CapPhatService;
+import com.mycompany.device.util.ConfigLoader;
+import com.mycompany.device.metrics.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Implementation của CapPhatService
@@ -23,61 +31,83 @@ public class CapPhatServiceImpl implements CapPhatService {
     private static final Logger logger = LoggerFactory.getLogger(CapPhatServiceImpl.class);
     
     private final CapPhatDAO capPhatDAO;
-    private final YeuCauDAO yeuCauDAO;
+    
+    // Cache thống kê dùng chung giữa các instance, hết hạn sau THONGKE_CACHE_TTL_MS
+    private static final long THONG_KE_TTL_MS = ConfigLoader.getLongProperty("THONGKE_CACHE_TTL_MS", 5000);
+    private static final int SO_THANG_THONG_KE = 12;
+    private static volatile ThongKeCapPhat thongKeCache;
+    private static volatile long thongKeCacheAt;
+    // Tăng mỗi lần lamMoiThongKe; kết quả truy vấn bắt đầu trước đó không được ghi vào cache
+    private static long thongKeGeneration;
     
     public CapPhatServiceImpl() {
-        this.capPhatDAO = new CapPhatDAOMySQLImpl();
-        this.yeuCauDAO = new YeuCauDAOMySQLImpl();
+        this.capPhatDAO = Metrics.instrument(CapPhatDAO.class, new CapPhatDAOMySQLImpl());
     }
     
     @Override
     public boolean taoCapPhat(Long yeuCauId) {
         logger.info("Tạo cấp phát cho yêu cầu: {}", yeuCauId);
         
-        // Kiểm tra yêu cầu có tồn tại không
-        Optional<YeuCau> yeuCauOpt = yeuCauDAO.findYeuCauById(yeuCauId);
-        if (!yeuCauOpt.isPresent()) {
-            logger.warn("Không tìm thấy yêu cầu: {}", yeuCauId);
-            return false;
-        }
-        
-        YeuCau yeuCau = yeuCauOpt.get();
+        // Kiểm tra trạng thái, thiết bị đang cấp phát và ghi dữ liệu trong cùng một transaction
+        KetQuaCapPhat ketQua = capPhatTrongGiaoDich(yeuCauId,
+            EnumSet.of(YeuCau.TrangThaiYeuCau.DA_DUYET), YeuCau.TrangThaiYeuCau.DA_CAP_PHAT);
+        return ketQua.isThanhCong();
+    }
+    
+    @Override
+    public KetQuaCapPhat duyetVaCapPhat(Long yeuCauId) {
+        logger.info("Phê duyệt và cấp phát cho yêu cầu: {}", yeuCauId);
         
-        // Kiểm tra trạng thái yêu cầu phải là đã duyệt
-        if (yeuCau.getTrangThai() != YeuCau.TrangThaiYeuCau.DA_DUYET) {
-            logger.warn("Yêu cầu chưa được duyệt: {} - Trạng thái: {}", 
-                       yeuCauId, yeuCau.getTrangThai());
-            return false;
+        return capPhatTrongGiaoDich(yeuCauId,
+            EnumSet.of(YeuCau.TrangThaiYeuCau.CHO_DUYET), YeuCau.TrangThaiYeuCau.DA_DUYET);
+    }
+    
+    @Override
+    public KetQuaHangLoat taoCapPhatNhieu(List<Long> yeuCauIds) {
+        return capPhatHangLoat(yeuCauIds,
+            EnumSet.of(YeuCau.TrangThaiYeuCau.DA_DUYET), YeuCau.TrangThaiYeuCau.DA_CAP_PHAT);
+    }
+    
+    @Override
+    public KetQuaHangLoat duyetVaCapPhatNhieu(List<Long> yeuCauIds) {
+        return capPhatHangLoat(yeuCauIds,
+            EnumSet.of(YeuCau.TrangThaiYeuCau.CHO_DUYET), YeuCau.TrangThaiYeuCau.DA_DUYET);
+    }
+    
+    private KetQuaHangLoat capPhatHangLoat(List<Long> yeuCauIds, Set<YeuCau.TrangThaiYeuCau> trangThaiChoPhep,
+                                           YeuCau.TrangThaiYeuCau trangThaiMoi) {
+        logger.info("Cấp phát hàng loạt {} yêu cầu", yeuCauIds != null ? yeuCauIds.size() : 0);
+        
+        KetQuaHangLoat ketQua = capPhatDAO.capPhatHangLoat(yeuCauIds, trangThaiChoPhep, trangThaiMoi,
+            "Thiết bị đã được cấp phát cho nhân viên");
+        if (ketQua.getSoThanhCong() > 0) {
+            // Nhiều thiết bị đổi trạng thái ngoài decorator, xoá toàn bộ cache thiết bị
+            ThietBiDAOCacheImpl.invalidateAllCache();
+            lamMoiThongKe();
+            TraCuuServiceImpl.getInstance().lamMoiCapPhat();
         }
-        
-        // Kiểm tra thiết bị có đang được cấp phát không
-        if (capPhatDAO.isThietBiBeingAllocated(yeuCau.getThietBiId())) {
-            logger.warn("Thiết bị {} đang được cấp phát, không thể tạo cấp phát mới", 
-                       yeuCau.getThietBiId());
-            return false;
+        return ketQua;
+    }
+    
+    private KetQuaCapPhat capPhatTrongGiaoDich(Long yeuCauId, Set<YeuCau.TrangThaiYeuCau> trangThaiChoPhep,
+                                               YeuCau.TrangThaiYeuCau trangThaiMoi) {
+        if (yeuCauId == null) {
+            return KetQuaCapPhat.thatBai(KetQuaCapPhat.MaKetQua.KHONG_TIM_THAY_YEU_CAU, null, null);
         }
         
-        // Tạo record cấp phát mới
-        CapPhat capPhat = new CapPhat();
-        capPhat.setYeuCauId(yeuCauId);
-        capPhat.setNgayCap(LocalDateTime.now());
-        capPhat.setNgayTra(null); // Chưa trả
-        capPhat.setTinhTrangTra(null); // Chưa có tình trạng trả
-        capPhat.setGhiChu("Thiết bị đã được cấp phát cho nhân viên");
-        
-        boolean result = capPhatDAO.createCapPhat(capPhat);
-        
-        if (result) {
-            logger.info("Tạo cấp phát thành công: ID={}, YeuCau ID={}", 
-                       capPhat.getId(), yeuCauId);
-            
-            // Cập nhật trạng thái yêu cầu thành DA_CAP_PHAT
-            yeuCau.setTrangThai(YeuCau.TrangThaiYeuCau.DA_CAP_PHAT);
-            yeuCau.setNgayCapNhat(LocalDateTime.now());
-            yeuCauDAO.updateYeuCau(yeuCau);
+        KetQuaCapPhat ketQua = capPhatDAO.capPhatTrongGiaoDich(yeuCauId, trangThaiChoPhep, trangThaiMoi,
+            "Thiết bị đã được cấp phát cho nhân viên");
+        if (ketQua.isThanhCong()) {
+            // Trạng thái thiết bị được ghi trực tiếp trong transaction nên phải xoá bản cache cũ
+            ThietBiDAOCacheImpl.invalidateCache(ketQua.getThietBiId());
+            lamMoiThongKe();
+            // Transaction đổi trạng thái trực tiếp trong DB nên read model thay bằng bản sao, không sửa đối tượng dùng chung
+            TraCuuServiceImpl traCuu = TraCuuServiceImpl.getInstance();
+            traCuu.ghiNhanCapPhat(ketQua.getThietBiId(), ketQua.getCapPhat());
+            traCuu.ghiNhanTrangThaiThietBi(ketQua.getThietBiId(), ThietBi.TrangThaiThietBi.DANG_CAP_PHAT);
+            traCuu.ghiNhanTrangThaiYeuCau(yeuCauId, trangThaiMoi);
         }
-        
-        return result;
+        return ketQua;
     }
     
     @Override
@@ -90,7 +120,12 @@ public class CapPhatServiceImpl implements CapPhatService {
             return false;
         }
         
-        return capPhatDAO.createCapPhat(capPhat);
+        boolean result = capPhatDAO.createCapPhat(capPhat);
+        if (result) {
+            lamMoiThongKe();
+            TraCuuServiceImpl.getInstance().ghiNhanCapPhatTheoYeuCau(capPhat);
+        }
+        return result;
     }
     
     @Override
@@ -118,6 +153,8 @@ public class CapPhatServiceImpl implements CapPhatService {
         
         if (result) {
             logger.info("Trả thiết bị thành công: CapPhat ID={}", capPhatId);
+            lamMoiThongKe();
+            TraCuuServiceImpl.getInstance().ghiNhanTraThietBi(capPhatId);
         }
         
         return result;
@@ -133,6 +170,11 @@ public class CapPhatServiceImpl implements CapPhatService {
         return capPhatDAO.getAllCapPhat();
     }
     
+    @Override
+    public Page<CapPhat> layTrangCapPhat(PageRequest pageRequest) {
+        return capPhatDAO.getCapPhatPage(pageRequest);
+    }
+    
     @Override
     public List<CapPhat> layDanhSachCapPhatTheoYeuCau(Long yeuCauId) {
         return capPhatDAO.findCapPhatByYeuCau(yeuCauId);
@@ -160,10 +202,42 @@ public class CapPhatServiceImpl implements CapPhatService {
     
     @Override
     public ThongKeCapPhat layThongKeCapPhat() {
-        int tongSoCapPhat = capPhatDAO.countCapPhat();
-        int soCapPhatDangHoatDong = capPhatDAO.countActiveCapPhat();
-        int soCapPhatDaTra = capPhatDAO.countReturnedCapPhat();
+        ThongKeCapPhat cached = thongKeCache;
+        if (cached != null && System.currentTimeMillis() - thongKeCacheAt < THONG_KE_TTL_MS) {
+            return cached;
+        }
+        long startGeneration;
+        synchronized (CapPhatServiceImpl.class) {
+            startGeneration = thongKeGeneration;
+        }
         
-        return new ThongKeCapPhat(tongSoCapPhat, soCapPhatDangHoatDong, soCapPhatDaTra);
+        // Một truy vấn aggregate thay cho ba lần COUNT riêng lẻ
+        CapPhatTongHop tongHop = capPhatDAO.getThongKeTongHop(SO_THANG_THONG_KE);
+        ThongKeCapPhat thongKe = new ThongKeCapPhat(
+            tongHop.getTongSo(),
+            tongHop.getSoDangHoatDong(),
+            tongHop.getSoDaTra(),
+            tongHop.getSoLuongTheoTinhTrangTra(),
+            tongHop.getSoLuongTheoThang()
+        );
+        
+        synchronized (CapPhatServiceImpl.class) {
+            // Có cấp phát/trả trong lúc truy vấn: kết quả có thể đã cũ, lần gọi sau đọc lại
+            if (thongKeGeneration == startGeneration) {
+                thongKeCacheAt = System.currentTimeMillis();
+                thongKeCache = thongKe;
+            }
+        }
+        return thongKe;
+    }
+    
+    @Override
+    public void lamMoiThongKe() {
+        synchronized (CapPhatServiceImpl.class) {
+            thongKeGeneration++;
+            thongKeCache = null;
+        }
+        // Cấp phát/trả đổi cả trạng thái thiết bị, dashboard tải lại một lần thay vì đoán delta
+        ThongKeServiceImpl.getInstance().lamMoi();
     }
 }
@@ -1,9 +1,10 @@
 package com.mycompany.device.service.impl;
 
 import com.mycompany.device.dao.LoaiThietBiDAO;
-import com.mycompany.device.dao.impl.LoaiThietBiDAOMySQLImpl;
+import com.mycompany.device.dao.impl.LoaiThietBiDAOCacheImpl;
 import com.mycompany.device.model.LoaiThietBi;
 import com.mycompany.device.service.LoaiThietBiService;
+import com.mycompany.device.metrics.Metrics;
 import java.util.List;
 
 /**
@@ -16,7 +17,7 @@ public class LoaiThietBiServiceImpl implements LoaiThietBiService {
 
     public LoaiThietBiServiceImpl() {
         // Khởi tạo DAO
-        this.loaiThietBiDAO = new LoaiThietBiDAOMySQLImpl();
+        this.loaiThietBiDAO = Metrics.instrument(LoaiThietBiDAO.class, new LoaiThietBiDAOCacheImpl());
     }
 
     @Override
@@ -1,12 +1,15 @@
 package com.mycompany.device.service.impl;
 
 import com.mycompany.device.dao.NhanVienDAO;
-import com.mycompany.device.dao.impl.NhanVienDAOMySQLImpl;
+import com.mycompany.device.dao.impl.NhanVienDAOCacheImpl;
 import com.mycompany.device.model.NhanVien;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
 import com.mycompany.device.observer.NhanVienObserver;
 import com.mycompany.device.observer.NhanVienSubject;
 import com.mycompany.device.service.NhanVienService;
 import com.mycompany.device.util.PasswordUtil;
+import com.mycompany.device.metrics.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,27 +27,38 @@ public class NhanVienServiceImpl implements NhanVienService {
     private final NhanVienDAO nhanVienDAO;
     private final NhanVienSubject subject;
     
+    // Subject dùng chung cho mọi instance của service (mỗi panel/controller tạo một instance riêng):
+    // observer mặc định chỉ đăng ký một lần, observer của panel nhận được thay đổi từ mọi màn hình
+    private static NhanVienSubject sharedSubject;
+    
     public NhanVienServiceImpl() {
         // Sử dụng MySQL implementation
-        this.nhanVienDAO = new NhanVienDAOMySQLImpl();
-        this.subject = new NhanVienSubject();
-        
-        // Thêm logger observer mặc định
-        this.subject.addObserver(new com.mycompany.device.observer.NhanVienLogger());
+        this.nhanVienDAO = Metrics.instrument(NhanVienDAO.class, new NhanVienDAOCacheImpl());
+        this.subject = getSharedSubject();
         
         logger.info("Khởi tạo NhanVienServiceImpl với MySQL database và Observer pattern");
     }
     
     public NhanVienServiceImpl(NhanVienDAO nhanVienDAO) {
         this.nhanVienDAO = nhanVienDAO;
-        this.subject = new NhanVienSubject();
-        
-        // Thêm logger observer mặc định
-        this.subject.addObserver(new com.mycompany.device.observer.NhanVienLogger());
+        this.subject = getSharedSubject();
         
         logger.info("Khởi tạo NhanVienServiceImpl với DAO được inject và Observer pattern");
     }
     
+    private static synchronized NhanVienSubject getSharedSubject() {
+        if (sharedSubject == null) {
+            sharedSubject = new NhanVienSubject();
+            // Thêm logger observer mặc định
+            sharedSubject.addObserver(new com.mycompany.device.observer.NhanVienLogger());
+            // Số liệu dashboard cập nhật theo sự kiện thay vì truy vấn lại
+            sharedSubject.addObserver(ThongKeServiceImpl.getInstance());
+            // Read model tra cứu của các panel yêu cầu
+            sharedSubject.addObserver(TraCuuServiceImpl.getInstance());
+        }
+        return sharedSubject;
+    }
+    
     /**
      * Thêm observer
      */
@@ -53,6 +67,14 @@ public class NhanVienServiceImpl implements NhanVienService {
         logger.info("Đã thêm observer: {}", observer.getClass().getSimpleName());
     }
     
+    /**
+     * Thêm observer giữ tham chiếu yếu, không cần gọi removeObserver khi panel bị đóng
+     */
+    public void addWeakObserver(NhanVienObserver observer) {
+        subject.addWeakObserver(observer);
+        logger.info("Đã thêm weak observer: {}", observer.getClass().getSimpleName());
+    }
+    
     /**
      * Xóa observer
      */
@@ -208,6 +230,21 @@ public class NhanVienServiceImpl implements NhanVienService {
         return result;
     }
     
+    @Override
+    public Page<NhanVien> xemTrangNhanVien(PageRequest pageRequest) {
+        Page<NhanVien> page = nhanVienDAO.getNhanVienPage(pageRequest);
+        logger.debug("Lấy trang nhân viên {}: {} nhân viên", pageRequest, page.getNumberOfElements());
+        return page;
+    }
+    
+    @Override
+    public Page<NhanVien> timTrangNhanVien(String tieuChi, String tuKhoa, PageRequest pageRequest) {
+        Page<NhanVien> page = nhanVienDAO.searchNhanVienPage(tieuChi, tuKhoa, pageRequest);
+        logger.debug("Tìm trang nhân viên {}='{}' {}: {} nhân viên", tieuChi, tuKhoa, pageRequest,
+                     page.getNumberOfElements());
+        return page;
+    }
+    
     @Override
     public Optional<NhanVien> timNhanVienTheoMa(String maNhanVien) {
         if (maNhanVien == null || maNhanVien.trim().isEmpty()) {
@@ -399,6 +436,7 @@ public class NhanVienServiceImpl implements NhanVienService {
     /**
      * Đăng xuất nhân viên
      */
+    @Override
     public void dangXuat(NhanVien nhanVien) {
         if (nhanVien != null) {
             logger.info("Nhân viên đăng xuất: {}", nhanVien.getEmail());
@@ -1,11 +1,14 @@
 package com.mycompany.device.service.impl;
 
 import com.mycompany.device.dao.PhongBanDAO;
-import com.mycompany.device.dao.impl.PhongBanDAOMySQLImpl;
+import com.mycompany.device.dao.impl.PhongBanDAOCacheImpl;
 import com.mycompany.device.model.PhongBan;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
 import com.mycompany.device.observer.PhongBanObserver;
 import com.mycompany.device.observer.PhongBanSubject;
 import com.mycompany.device.service.PhongBanService;
+import com.mycompany.device.metrics.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,27 +26,38 @@ public class PhongBanServiceImpl implements PhongBanService {
     private final PhongBanDAO phongBanDAO;
     private final PhongBanSubject subject;
     
+    // Subject dùng chung cho mọi instance của service (mỗi panel/controller tạo một instance riêng):
+    // observer mặc định chỉ đăng ký một lần, observer của panel nhận được thay đổi từ mọi màn hình
+    private static PhongBanSubject sharedSubject;
+    
     public PhongBanServiceImpl() {
         // Sử dụng MySQL implementation thay vì in-memory
-        this.phongBanDAO = new PhongBanDAOMySQLImpl();
-        this.subject = new PhongBanSubject();
-        
-        // Thêm logger observer mặc định
-        this.subject.addObserver(new com.mycompany.device.observer.PhongBanLogger());
+        this.phongBanDAO = Metrics.instrument(PhongBanDAO.class, new PhongBanDAOCacheImpl());
+        this.subject = getSharedSubject();
         
         logger.info("Khởi tạo PhongBanServiceImpl với MySQL database và Observer pattern");
     }
     
     public PhongBanServiceImpl(PhongBanDAO phongBanDAO) {
         this.phongBanDAO = phongBanDAO;
-        this.subject = new PhongBanSubject();
-        
-        // Thêm logger observer mặc định
-        this.subject.addObserver(new com.mycompany.device.observer.PhongBanLogger());
+        this.subject = getSharedSubject();
         
         logger.info("Khởi tạo PhongBanServiceImpl với DAO được inject và Observer pattern");
     }
     
+    private static synchronized PhongBanSubject getSharedSubject() {
+        if (sharedSubject == null) {
+            sharedSubject = new PhongBanSubject();
+            // Thêm logger observer mặc định
+            sharedSubject.addObserver(new com.mycompany.device.observer.PhongBanLogger());
+            // Số liệu dashboard cập nhật theo sự kiện thay vì truy vấn lại
+            sharedSubject.addObserver(ThongKeServiceImpl.getInstance());
+            // Read model tra cứu của các panel yêu cầu
+            sharedSubject.addObserver(TraCuuServiceImpl.getInstance());
+        }
+        return sharedSubject;
+    }
+    
     /**
      * Thêm observer
      */
@@ -52,6 +66,14 @@ public class PhongBanServiceImpl implements PhongBanService {
         logger.info("Đã thêm observer: {}", observer.getClass().getSimpleName());
     }
     
+    /**
+     * Thêm observer giữ tham chiếu yếu, không cần gọi removeObserver khi panel bị đóng
+     */
+    public void addWeakObserver(PhongBanObserver observer) {
+        subject.addWeakObserver(observer);
+        logger.info("Đã thêm weak observer: {}", observer.getClass().getSimpleName());
+    }
+    
     /**
      * Xóa observer
      */
@@ -176,6 +198,13 @@ public class PhongBanServiceImpl implements PhongBanService {
         return result;
     }
     
+    @Override
+    public Page<PhongBan> xemTrangPhongBan(PageRequest pageRequest) {
+        Page<PhongBan> page = phongBanDAO.getPhongBanPage(pageRequest);
+        logger.debug("Lấy trang phòng ban {}: {} phòng ban", pageRequest, page.getNumberOfElements());
+        return page;
+    }
+    
     @Override
     public Optional<PhongBan> timPhongBanTheoMa(String maPhongBan) {
         if (maPhongBan == null || maPhongBan.trim().isEmpty()) {
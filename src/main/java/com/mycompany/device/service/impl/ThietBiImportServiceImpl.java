@@ -0,0 +1,436 @@
+package com.mycompany.device.service.impl;
+
+import com.mycompany.device.dao.LoaiThietBiDAO;
+import com.mycompany.device.dao.impl.LoaiThietBiDAOCacheImpl;
+import com.mycompany.device.model.BaoCaoNhapThietBi;
+import com.mycompany.device.model.KetQuaHangLoat;
+import com.mycompany.device.model.LoaiThietBi;
+import com.mycompany.device.model.ThietBi;
+import com.mycompany.device.service.ThietBiImportService;
+import com.mycompany.device.service.ThietBiService;
+import com.mycompany.device.util.ConfigLoader;
+import com.mycompany.device.util.CsvReader;
+import com.mycompany.device.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Pipeline nhập thiết bị từ CSV:
+ * 1. Luồng đọc: đọc file theo luồng, gom thành từng lô DB_BATCH_SIZE dòng
+ * 2. Kiểm tra: mỗi lô được kiểm tra song song (mã loại -> id qua map trong bộ nhớ, ngày, giá...)
+ * 3. Luồng ghi (luồng gọi): lấy các lô theo đúng thứ tự và ghi bằng ThietBiService.saveAll
+ * Hàng đợi giữa bước 1 và 3 có giới hạn (IMPORT_QUEUE_CAPACITY) nên khi DB ghi chậm,
+ * luồng đọc sẽ dừng chờ thay vì đọc cả file vào bộ nhớ.
+ * @author Kim Ngan - Service Implementation
+ */
+public class ThietBiImportServiceImpl implements ThietBiImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThietBiImportServiceImpl.class);
+
+    private static final int BATCH_SIZE = Math.max(1, ConfigLoader.getIntProperty("DB_BATCH_SIZE", 500));
+    private static final int QUEUE_CAPACITY = Math.max(1, ConfigLoader.getIntProperty("IMPORT_QUEUE_CAPACITY", 4));
+    private static final int VALIDATION_THREADS = Math.max(1, ConfigLoader.getIntProperty(
+        "IMPORT_VALIDATION_THREADS", Runtime.getRuntime().availableProcessors()));
+
+    private static final int SERIAL_MAX_LENGTH = 100;
+    // DECIMAL(15,2)
+    private static final BigDecimal GIA_MUA_TOI_DA = new BigDecimal("9999999999999.99");
+    private static final DateTimeFormatter[] DATE_FORMATS = {
+        DateTimeFormatter.ISO_LOCAL_DATE,
+        DateTimeFormatter.ofPattern("d/M/yyyy"),
+        DateTimeFormatter.ofPattern("d-M-yyyy")
+    };
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final ThietBiService thietBiService;
+    private final LoaiThietBiDAO loaiThietBiDAO;
+
+    public ThietBiImportServiceImpl() {
+        this.thietBiService = Metrics.instrument(ThietBiService.class, new ThietBiServiceImpl());
+        this.loaiThietBiDAO = Metrics.instrument(LoaiThietBiDAO.class, new LoaiThietBiDAOCacheImpl());
+    }
+
+    /**
+     * Một lô dòng đã đọc từ file (chưa kiểm tra)
+     */
+    private static final class LoTho {
+        private final List<List<String>> dongList = new ArrayList<>();
+        private final List<Long> soDongList = new ArrayList<>();
+        private long byteDaDoc;
+    }
+
+    /**
+     * Một lô đã kiểm tra: các thiết bị hợp lệ kèm số dòng, và lỗi của các dòng không hợp lệ
+     */
+    private static final class LoDaKiemTra {
+        private static final LoDaKiemTra KET_THUC = new LoDaKiemTra(0, 0);
+
+        private final List<ThietBi> hopLe;
+        private final List<Long> soDongHopLe;
+        private final List<BaoCaoNhapThietBi.LoiDong> loiList = new ArrayList<>();
+        private final int soDong;
+        private final long byteDaDoc;
+
+        private LoDaKiemTra(int soDong, long byteDaDoc) {
+            this.hopLe = new ArrayList<>(soDong);
+            this.soDongHopLe = new ArrayList<>(soDong);
+            this.soDong = soDong;
+            this.byteDaDoc = byteDaDoc;
+        }
+    }
+
+    @Override
+    public BaoCaoNhapThietBi nhapTuCsv(Path file, TienDoListener listener, BooleanSupplier daHuy)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        long tongSoByte = Files.size(file);
+        Map<String, Long> loaiIdTheoMa = buildLoaiIdTheoMa();
+        logger.info("Bắt đầu nhập thiết bị từ {} ({} byte, {} loại thiết bị)", file, tongSoByte, loaiIdTheoMa.size());
+
+        BaoCaoNhapThietBi baoCao = new BaoCaoNhapThietBi();
+        BlockingQueue<CompletableFuture<LoDaKiemTra>> hangDoi = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        AtomicReference<Exception> loiDoc = new AtomicReference<>();
+        ExecutorService kiemTraPool = Executors.newFixedThreadPool(VALIDATION_THREADS, r -> {
+            Thread t = new Thread(r, "thietbi-import-validate-" + THREAD_COUNTER.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        Thread luongDoc = new Thread(() -> docFile(file, loaiIdTheoMa, hangDoi, kiemTraPool, loiDoc),
+            "thietbi-import-reader");
+        luongDoc.setDaemon(true);
+        luongDoc.start();
+
+        boolean biHuy = false;
+        try {
+            while (true) {
+                LoDaKiemTra lo = layLo(hangDoi.take());
+                if (lo == LoDaKiemTra.KET_THUC) {
+                    break;
+                }
+                // Chỉ dừng giữa hai lô: lô đang ghi luôn được commit hoặc rollback trọn vẹn
+                if (daHuy != null && daHuy.getAsBoolean()) {
+                    biHuy = true;
+                    break;
+                }
+                ghiLo(lo, baoCao);
+                if (listener != null) {
+                    listener.onTienDo(baoCao.getSoDongDaDoc(), baoCao.getSoThanhCong(), baoCao.getSoLoi(),
+                        lo.byteDaDoc, tongSoByte);
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } catch (InterruptedException e) {
+            logger.warn("Đã huỷ nhập thiết bị sau {} dòng ({} thành công)",
+                baoCao.getSoDongDaDoc(), baoCao.getSoThanhCong());
+            throw e;
+        } finally {
+            luongDoc.interrupt();
+            kiemTraPool.shutdownNow();
+        }
+
+        if (biHuy) {
+            logger.info("Đã huỷ nhập thiết bị sau {} dòng ({} thành công)",
+                baoCao.getSoDongDaDoc(), baoCao.getSoThanhCong());
+            baoCao.setThoiGianMs((System.nanoTime() - start) / 1_000_000);
+            return baoCao;
+        }
+
+        Exception loi = loiDoc.get();
+        if (loi instanceof IOException) {
+            throw (IOException) loi;
+        }
+        if (loi != null) {
+            throw new IOException("Lỗi khi đọc file: " + loi.getMessage(), loi);
+        }
+
+        baoCao.setThoiGianMs((System.nanoTime() - start) / 1_000_000);
+        logger.info("Nhập thiết bị từ {} xong: {}", file, baoCao);
+        return baoCao;
+    }
+
+    private Map<String, Long> buildLoaiIdTheoMa() {
+        Map<String, Long> loaiIdTheoMa = new HashMap<>();
+        for (LoaiThietBi loai : loaiThietBiDAO.findAll()) {
+            if (loai.getMaLoai() != null) {
+                loaiIdTheoMa.put(normalizeMaLoai(loai.getMaLoai()), loai.getId());
+            }
+        }
+        return loaiIdTheoMa;
+    }
+
+    private static String normalizeMaLoai(String maLoai) {
+        return maLoai.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Luồng đọc: gom dòng thành lô, đưa lô vào pool kiểm tra và đặt Future vào hàng đợi theo thứ tự.
+     * put() sẽ chặn khi hàng đợi đầy - đây là cơ chế back-pressure.
+     */
+    private void docFile(Path file, Map<String, Long> loaiIdTheoMa,
+                         BlockingQueue<CompletableFuture<LoDaKiemTra>> hangDoi,
+                         ExecutorService kiemTraPool, AtomicReference<Exception> loiDoc) {
+        AtomicLong byteDaDoc = new AtomicLong();
+        try (InputStream in = new CountingInputStream(Files.newInputStream(file), byteDaDoc);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+
+            reader.mark(64 * 1024);
+            char delimiter = CsvReader.detectDelimiter(reader.readLine());
+            reader.reset();
+
+            CsvReader csv = new CsvReader(reader, delimiter);
+            LoTho lo = new LoTho();
+            boolean dongDau = true;
+            List<String> dong;
+            while ((dong = csv.readRecord()) != null) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                if (dongDau) {
+                    dongDau = false;
+                    if (isTieuDe(dong)) {
+                        continue;
+                    }
+                }
+                if (isDongTrong(dong)) {
+                    continue;
+                }
+                lo.dongList.add(dong);
+                lo.soDongList.add(csv.getRecordLineNumber());
+                if (lo.dongList.size() >= BATCH_SIZE) {
+                    lo.byteDaDoc = byteDaDoc.get();
+                    guiLo(lo, loaiIdTheoMa, hangDoi, kiemTraPool);
+                    lo = new LoTho();
+                }
+            }
+            if (!lo.dongList.isEmpty()) {
+                lo.byteDaDoc = byteDaDoc.get();
+                guiLo(lo, loaiIdTheoMa, hangDoi, kiemTraPool);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            logger.error("Lỗi khi đọc file nhập thiết bị {}", file, e);
+            loiDoc.set(e);
+        }
+
+        try {
+            hangDoi.put(CompletableFuture.completedFuture(LoDaKiemTra.KET_THUC));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void guiLo(LoTho lo, Map<String, Long> loaiIdTheoMa,
+                       BlockingQueue<CompletableFuture<LoDaKiemTra>> hangDoi,
+                       ExecutorService kiemTraPool) throws InterruptedException {
+        hangDoi.put(CompletableFuture.supplyAsync(() -> kiemTraLo(lo, loaiIdTheoMa), kiemTraPool));
+    }
+
+    private static LoDaKiemTra layLo(CompletableFuture<LoDaKiemTra> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            // kiemTraLo không ném lỗi nghiệp vụ; lỗi ở đây là lỗi lập trình
+            throw new IllegalStateException("Lỗi khi kiểm tra dữ liệu nhập", e.getCause());
+        }
+    }
+
+    /**
+     * Kiểm tra một lô (chạy song song trên pool kiểm tra)
+     */
+    private LoDaKiemTra kiemTraLo(LoTho lo, Map<String, Long> loaiIdTheoMa) {
+        LoDaKiemTra ketQua = new LoDaKiemTra(lo.dongList.size(), lo.byteDaDoc);
+        for (int i = 0; i < lo.dongList.size(); i++) {
+            long soDong = lo.soDongList.get(i);
+            List<String> dong = lo.dongList.get(i);
+            String serial = cot(dong, 0);
+            try {
+                ThietBi thietBi = chuyenDong(dong, loaiIdTheoMa);
+                ketQua.hopLe.add(thietBi);
+                ketQua.soDongHopLe.add(soDong);
+            } catch (IllegalArgumentException e) {
+                ketQua.loiList.add(new BaoCaoNhapThietBi.LoiDong(soDong, serial, e.getMessage()));
+            }
+        }
+        return ketQua;
+    }
+
+    /**
+     * Chuyển một dòng CSV thành ThietBi
+     * @throws IllegalArgumentException nếu dữ liệu không hợp lệ (message là lý do hiển thị cho người dùng)
+     */
+    private ThietBi chuyenDong(List<String> dong, Map<String, Long> loaiIdTheoMa) {
+        String soSerial = cot(dong, 0);
+        String maLoai = cot(dong, 1);
+        String ngayMua = cot(dong, 2);
+        String giaMua = cot(dong, 3);
+        String ghiChu = cot(dong, 4);
+
+        if (soSerial.isEmpty()) {
+            throw new IllegalArgumentException("Thiếu số serial");
+        }
+        if (soSerial.length() > SERIAL_MAX_LENGTH) {
+            throw new IllegalArgumentException("Số serial dài quá " + SERIAL_MAX_LENGTH + " ký tự");
+        }
+        if (maLoai.isEmpty()) {
+            throw new IllegalArgumentException("Thiếu mã loại thiết bị");
+        }
+        Long loaiId = loaiIdTheoMa.get(normalizeMaLoai(maLoai));
+        if (loaiId == null) {
+            throw new IllegalArgumentException("Không có loại thiết bị với mã '" + maLoai + "'");
+        }
+
+        ThietBi thietBi = new ThietBi(soSerial, loaiId, ThietBi.TrangThaiThietBi.TON_KHO);
+        thietBi.setNgayMua(parseNgay(ngayMua));
+        thietBi.setGiaMua(parseGia(giaMua));
+        thietBi.setGhiChu(ghiChu.isEmpty() ? null : ghiChu);
+        return thietBi;
+    }
+
+    private static LocalDate parseNgay(String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                LocalDate ngay = LocalDate.parse(value, format);
+                if (ngay.isAfter(LocalDate.now())) {
+                    throw new IllegalArgumentException("Ngày mua nằm trong tương lai: " + value);
+                }
+                return ngay;
+            } catch (DateTimeParseException e) {
+                // thử định dạng kế tiếp
+            }
+        }
+        throw new IllegalArgumentException("Ngày mua không hợp lệ (yyyy-MM-dd hoặc dd/MM/yyyy): " + value);
+    }
+
+    private static BigDecimal parseGia(String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        BigDecimal gia;
+        try {
+            gia = new BigDecimal(value.replace(" ", "").replace("_", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Giá mua không phải là số: " + value);
+        }
+        if (gia.signum() < 0) {
+            throw new IllegalArgumentException("Giá mua không được âm");
+        }
+        if (gia.compareTo(GIA_MUA_TOI_DA) > 0 || gia.scale() > 2) {
+            throw new IllegalArgumentException("Giá mua vượt quá giới hạn DECIMAL(15,2): " + value);
+        }
+        return gia;
+    }
+
+    /**
+     * Ghi một lô đã kiểm tra và gộp lỗi vào báo cáo (chạy trên luồng gọi)
+     */
+    private void ghiLo(LoDaKiemTra lo, BaoCaoNhapThietBi baoCao) {
+        baoCao.congDongDaDoc(lo.soDong);
+        for (BaoCaoNhapThietBi.LoiDong loi : lo.loiList) {
+            baoCao.themLoi(loi);
+        }
+        if (lo.hopLe.isEmpty()) {
+            return;
+        }
+        KetQuaHangLoat ketQua = thietBiService.saveAll(lo.hopLe);
+        baoCao.congThanhCong(ketQua.getSoThanhCong());
+        for (KetQuaHangLoat.LoiDong loi : ketQua.getLoiList()) {
+            baoCao.themLoi(new BaoCaoNhapThietBi.LoiDong(
+                lo.soDongHopLe.get(loi.getViTri()), loi.getKhoa(), loi.getLyDo()));
+        }
+    }
+
+    private static String cot(List<String> dong, int index) {
+        return index < dong.size() && dong.get(index) != null ? dong.get(index).trim() : "";
+    }
+
+    private static boolean isDongTrong(List<String> dong) {
+        for (String cot : dong) {
+            if (cot != null && !cot.trim().isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Dòng đầu là tiêu đề nếu cột đầu là tên cột serial
+     */
+    private static boolean isTieuDe(List<String> dong) {
+        String dau = cot(dong, 0).toLowerCase(Locale.ROOT).replace(" ", "").replace("_", "");
+        return dau.equals("soserial") || dau.equals("serial") || dau.equals("sốserial");
+    }
+
+    /**
+     * Đếm số byte đã đọc để tính phần trăm tiến trình
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private final AtomicLong counter;
+
+        private CountingInputStream(InputStream in, AtomicLong counter) {
+            super(in);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                counter.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                counter.addAndGet(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            counter.addAndGet(skipped);
+            return skipped;
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.mycompany.device.service.impl;
 
 import com.mycompany.device.dao.ThietBiDAO;
-import com.mycompany.device.dao.impl.ThietBiDAOMySQLImpl;
+import com.mycompany.device.dao.impl.ThietBiDAOCacheImpl;
+import com.mycompany.device.model.KetQuaHangLoat;
 import com.mycompany.device.model.ThietBi;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
 import com.mycompany.device.service.ThietBiService;
+import com.mycompany.device.metrics.Metrics;
 import java.util.List;
 
 /**
@@ -14,7 +18,7 @@ public class ThietBiServiceImpl implements ThietBiService {
     private final ThietBiDAO thietBiDAO;
 
     public ThietBiServiceImpl() {
-        this.thietBiDAO = new ThietBiDAOMySQLImpl();
+        this.thietBiDAO = Metrics.instrument(ThietBiDAO.class, new ThietBiDAOCacheImpl());
     }
 
     @Override
@@ -22,6 +26,11 @@ public class ThietBiServiceImpl implements ThietBiService {
         return thietBiDAO.findAll();
     }
 
+    @Override
+    public Page<ThietBi> findPage(PageRequest pageRequest) {
+        return thietBiDAO.findPage(pageRequest);
+    }
+
     @Override
     public ThietBi findById(Long id) {
         return thietBiDAO.findById(id);
@@ -32,7 +41,7 @@ public class ThietBiServiceImpl implements ThietBiService {
         if (thietBiDAO.findBySoSerial(thietBi.getSoSerial()) != null) {
             throw new IllegalArgumentException("Lỗi: Số Serial đã tồn tại trong hệ thống.");
         }
-        return thietBiDAO.save(thietBi);
+        return ghiNhanThayDoi(thietBiDAO.save(thietBi), thietBi);
     }
 
     @Override
@@ -41,12 +50,34 @@ public class ThietBiServiceImpl implements ThietBiService {
         if (existingBySerial != null && !existingBySerial.getId().equals(thietBi.getId())) {
              throw new IllegalArgumentException("Lỗi: Số Serial đã tồn tại ở thiết bị khác.");
         }
-        return thietBiDAO.update(thietBi);
+        return ghiNhanThayDoi(thietBiDAO.update(thietBi), thietBi);
     }
 
     @Override
     public boolean delete(Long id) {
-        return thietBiDAO.delete(id);
+        boolean result = lamMoiThongKe(thietBiDAO.delete(id));
+        if (result) {
+            TraCuuServiceImpl.getInstance().xoaThietBi(id);
+        }
+        return result;
+    }
+
+    /**
+     * Thêm hàng loạt: kiểm tra trùng serial được thực hiện trong DAO cho cả lô
+     * (một truy vấn mỗi batch) thay vì findBySoSerial cho từng thiết bị.
+     */
+    @Override
+    public KetQuaHangLoat saveAll(List<ThietBi> thietBiList) {
+        KetQuaHangLoat ketQua = thietBiDAO.saveAll(thietBiList);
+        ghiNhanThayDoi(ketQua, thietBiList);
+        return ketQua;
+    }
+
+    @Override
+    public KetQuaHangLoat updateAll(List<ThietBi> thietBiList) {
+        KetQuaHangLoat ketQua = thietBiDAO.updateAll(thietBiList);
+        ghiNhanThayDoi(ketQua, thietBiList);
+        return ketQua;
     }
 
     /**
@@ -61,4 +92,46 @@ public class ThietBiServiceImpl implements ThietBiService {
         
         return thietBiDAO.search(keyword, searchType);
     }
+
+    @Override
+    public List<ThietBi> search(String keyword, String searchType, int limit) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return findAll();
+        }
+        
+        return thietBiDAO.search(keyword, searchType, limit);
+    }
+
+    /**
+     * Sau khi ghi thành công: cập nhật read model tra cứu và tải lại số liệu dashboard ở nền
+     */
+    private boolean ghiNhanThayDoi(boolean thayDoi, ThietBi thietBi) {
+        if (thayDoi) {
+            TraCuuServiceImpl.getInstance().capNhatThietBi(thietBi);
+        }
+        return lamMoiThongKe(thayDoi);
+    }
+
+    private void ghiNhanThayDoi(KetQuaHangLoat ketQua, List<ThietBi> thietBiList) {
+        if (ketQua.getSoThanhCong() > 0) {
+            // Id null ở vị trí thất bại
+            List<Long> ids = ketQua.getIds();
+            for (int i = 0; i < thietBiList.size(); i++) {
+                if (ids.get(i) != null) {
+                    TraCuuServiceImpl.getInstance().capNhatThietBi(thietBiList.get(i));
+                }
+            }
+        }
+        lamMoiThongKe(ketQua.getSoThanhCong() > 0);
+    }
+
+    /**
+     * Số thiết bị theo trạng thái trên dashboard tải lại ở nền khi có thay đổi
+     */
+    private boolean lamMoiThongKe(boolean thayDoi) {
+        if (thayDoi) {
+            ThongKeServiceImpl.getInstance().lamMoi();
+        }
+        return thayDoi;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,272 @@
+package com.mycompany.device.service.impl;
+
+import com.mycompany.device.dao.ThongKeDAO;
+import com.mycompany.device.dao.impl.ThongKeDAOMySQLImpl;
+import com.mycompany.device.metrics.Metrics;
+import com.mycompany.device.model.NhanVien;
+import com.mycompany.device.model.PhongBan;
+import com.mycompany.device.model.ThongKeTongQuan;
+import com.mycompany.device.model.YeuCau;
+import com.mycompany.device.observer.NhanVienObserver;
+import com.mycompany.device.observer.PhongBanObserver;
+import com.mycompany.device.observer.YeuCauObserver;
+import com.mycompany.device.service.ThongKeService;
+import com.mycompany.device.util.ConfigLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Implementation của ThongKeService (singleton).
+ * Thêm/xóa phòng ban, nhân viên và chuyển trạng thái yêu cầu được cộng dồn thẳng vào số liệu;
+ * các thay đổi không biết chính xác delta (cấp phát, trả, thiết bị, xóa yêu cầu, thao tác hàng loạt)
+ * gộp lại thành một lần tải lại ở nền. Số liệu cũng được đồng bộ lại định kỳ
+ * (THONGKE_RESYNC_INTERVAL_S) để sửa sai lệch nếu sự kiện đến lệch với lần tải lại.
+ * Truy vấn lỗi thì giữ snapshot cũ và thử lại sau THONGKE_RETRY_DELAY_MS.
+ * @author Kim Ngan - Service Implementation Layer
+ */
+public class ThongKeServiceImpl implements ThongKeService, YeuCauObserver, NhanVienObserver, PhongBanObserver {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThongKeServiceImpl.class);
+
+    private static final long REFRESH_DELAY_MS = Math.max(0, ConfigLoader.getLongProperty("THONGKE_REFRESH_DELAY_MS", 300));
+    private static final long RESYNC_INTERVAL_S = ConfigLoader.getLongProperty("THONGKE_RESYNC_INTERVAL_S", 300);
+    private static final long RETRY_DELAY_MS = Math.max(0, ConfigLoader.getLongProperty("THONGKE_RETRY_DELAY_MS", 5000));
+
+    private static ThongKeServiceImpl instance;
+
+    private final ThongKeDAO thongKeDAO;
+    private final ScheduledExecutorService scheduler;
+    private final List<Consumer<ThongKeTongQuan>> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    // Tăng mỗi lần áp delta, để biết delta nào rơi vào lúc đang truy vấn
+    private final AtomicLong phienBan = new AtomicLong();
+    private volatile ThongKeTongQuan snapshot;
+
+    private ThongKeServiceImpl() {
+        this.thongKeDAO = Metrics.instrument(ThongKeDAO.class, new ThongKeDAOMySQLImpl());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "thongke-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (RESYNC_INTERVAL_S > 0) {
+            scheduler.scheduleWithFixedDelay(() -> {
+                if (snapshot != null) {
+                    lamMoi();
+                }
+            }, RESYNC_INTERVAL_S, RESYNC_INTERVAL_S, TimeUnit.SECONDS);
+        }
+    }
+
+    public static synchronized ThongKeServiceImpl getInstance() {
+        if (instance == null) {
+            instance = new ThongKeServiceImpl();
+        }
+        return instance;
+    }
+
+    @Override
+    public ThongKeTongQuan layThongKeTongQuan() {
+        ThongKeTongQuan current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        return taiLai();
+    }
+
+    @Override
+    public ThongKeTongQuan xemThongKeHienTai() {
+        return snapshot;
+    }
+
+    @Override
+    public void lamMoi() {
+        if (refreshScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(() -> {
+                refreshScheduled.set(false);
+                taiLai();
+            }, REFRESH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void addListener(Consumer<ThongKeTongQuan> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(Consumer<ThongKeTongQuan> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Đọc lại toàn bộ số liệu bằng một truy vấn rồi thay snapshot
+     * @throws RuntimeException khi truy vấn lỗi (snapshot cũ được giữ nguyên)
+     */
+    private ThongKeTongQuan taiLai() {
+        long phienBanTruoc = phienBan.get();
+        long start = System.nanoTime();
+        ThongKeTongQuan moi;
+        try {
+            moi = thongKeDAO.getThongKeTongQuan();
+        } catch (RuntimeException e) {
+            // Không thay snapshot bằng số liệu rỗng; hẹn thử lại sớm thay vì chờ lần đồng bộ định kỳ
+            logger.warn("Không tải được thống kê tổng quan, giữ số liệu cũ và thử lại sau {} ms", RETRY_DELAY_MS);
+            scheduler.schedule(this::lamMoi, RETRY_DELAY_MS, TimeUnit.MILLISECONDS);
+            throw e;
+        }
+
+        synchronized (this) {
+            snapshot = moi;
+        }
+        logger.debug("Đã tải thống kê tổng quan trong {} ms: {}",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), moi);
+
+        // Có delta áp vào trong lúc truy vấn: không biết kết quả đã gồm delta đó chưa nên tải lại
+        if (phienBan.get() != phienBanTruoc) {
+            lamMoi();
+        }
+        thongBao(moi);
+        return moi;
+    }
+
+    /**
+     * Áp delta vào snapshot hiện tại; chưa có snapshot thì bỏ qua (lần tải đầu sẽ đọc từ database)
+     */
+    private void capNhat(UnaryOperator<ThongKeTongQuan> delta) {
+        ThongKeTongQuan moi;
+        synchronized (this) {
+            phienBan.incrementAndGet();
+            if (snapshot == null) {
+                return;
+            }
+            moi = delta.apply(snapshot);
+            snapshot = moi;
+        }
+        thongBao(moi);
+    }
+
+    private void thongBao(ThongKeTongQuan thongKe) {
+        for (Consumer<ThongKeTongQuan> listener : listeners) {
+            try {
+                listener.accept(thongKe);
+            } catch (RuntimeException e) {
+                logger.error("Listener thống kê lỗi", e);
+            }
+        }
+    }
+
+    private static int laChoDuyet(YeuCau.TrangThaiYeuCau trangThai) {
+        return trangThai == YeuCau.TrangThaiYeuCau.CHO_DUYET ? 1 : 0;
+    }
+
+    // ===== PhongBanObserver =====
+
+    @Override
+    public void onPhongBanAdded(PhongBan phongBan) {
+        capNhat(tk -> tk.cong(1, 0, 0));
+    }
+
+    @Override
+    public void onPhongBanDeleted(String maPhongBan) {
+        capNhat(tk -> tk.cong(-1, 0, 0));
+    }
+
+    @Override
+    public void onPhongBanUpdated(PhongBan phongBan, PhongBan oldPhongBan) {
+        // Không ảnh hưởng số liệu
+    }
+
+    // ===== NhanVienObserver =====
+
+    @Override
+    public void onNhanVienAdded(NhanVien nhanVien) {
+        capNhat(tk -> tk.cong(0, 1, 0));
+    }
+
+    @Override
+    public void onNhanVienDeleted(String maNhanVien) {
+        capNhat(tk -> tk.cong(0, -1, 0));
+    }
+
+    @Override
+    public void onNhanVienUpdated(NhanVien nhanVien, NhanVien oldNhanVien) {
+        // Không ảnh hưởng số liệu
+    }
+
+    @Override
+    public void onNhanVienLoggedIn(NhanVien nhanVien) {
+        // Không ảnh hưởng số liệu
+    }
+
+    @Override
+    public void onNhanVienLoggedOut(NhanVien nhanVien) {
+        // Không ảnh hưởng số liệu
+    }
+
+    // ===== YeuCauObserver =====
+
+    @Override
+    public void onYeuCauAdded(YeuCau yeuCau) {
+        int delta = laChoDuyet(yeuCau.getTrangThai());
+        if (delta != 0) {
+            capNhat(tk -> tk.cong(0, 0, delta));
+        }
+    }
+
+    @Override
+    public void onYeuCauDeleted(Long yeuCauId) {
+        // Không biết trạng thái của yêu cầu đã xóa
+        lamMoi();
+    }
+
+    @Override
+    public void onYeuCauUpdated(YeuCau yeuCau, YeuCau oldYeuCau) {
+        // Cập nhật nội dung không đổi trạng thái
+    }
+
+    @Override
+    public void onYeuCauStatusChanged(YeuCau yeuCau, YeuCau.TrangThaiYeuCau oldStatus, YeuCau.TrangThaiYeuCau newStatus) {
+        // Cấp phát/thiết bị thay đổi đã được CapPhatService báo qua lamMoi(), ở đây chỉ đếm chờ duyệt
+        int delta = laChoDuyet(newStatus) - laChoDuyet(oldStatus);
+        if (delta != 0) {
+            capNhat(tk -> tk.cong(0, 0, delta));
+        }
+    }
+
+    @Override
+    public void onYeuCauApproved(YeuCau yeuCau) {
+        // Đã tính trong onYeuCauStatusChanged
+    }
+
+    @Override
+    public void onYeuCauRejected(YeuCau yeuCau) {
+        // Đã tính trong onYeuCauStatusChanged
+    }
+
+    @Override
+    public void onYeuCauAllocated(YeuCau yeuCau) {
+        // Đã tính trong onYeuCauStatusChanged
+    }
+
+    @Override
+    public void onYeuCauCancelled(YeuCau yeuCau) {
+        // Đã tính trong onYeuCauStatusChanged
+    }
+
+    @Override
+    public void onYeuCauHangLoat(List<Long> yeuCauIds, YeuCau.TrangThaiYeuCau newStatus) {
+        // Không biết trạng thái cũ của từng yêu cầu
+        lamMoi();
+    }
+}
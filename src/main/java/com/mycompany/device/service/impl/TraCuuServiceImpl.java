@@ -0,0 +1,384 @@
+package com.mycompany.device.service.impl;
+
+import com.mycompany.device.dao.CapPhatDAO;
+import com.mycompany.device.dao.impl.CapPhatDAOMySQLImpl;
+import com.mycompany.device.metrics.Metrics;
+import com.mycompany.device.model.CapPhat;
+import com.mycompany.device.model.LoaiThietBi;
+import com.mycompany.device.model.NhanVien;
+import com.mycompany.device.model.PhongBan;
+import com.mycompany.device.model.ThietBi;
+import com.mycompany.device.model.YeuCau;
+import com.mycompany.device.observer.NhanVienObserver;
+import com.mycompany.device.observer.PhongBanObserver;
+import com.mycompany.device.observer.YeuCauObserver;
+import com.mycompany.device.service.TraCuuService;
+import com.mycompany.device.util.LichSuCapPhatIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Implementation của TraCuuService (singleton).
+ * Mỗi loại thực thể là một ConcurrentHashMap theo khoá; nạp lại thì dựng map mới rồi thay tham chiếu,
+ * sự kiện thì sửa trực tiếp map hiện tại. Sự kiện đến qua EventBus nên dữ liệu có thể trễ một chút
+ * so với database; các panel vẫn nạp lại mỗi lần làm mới.
+ * @author Kim Ngan - Service Implementation Layer
+ */
+public class TraCuuServiceImpl implements TraCuuService, YeuCauObserver, NhanVienObserver, PhongBanObserver {
+
+    private static final Logger logger = LoggerFactory.getLogger(TraCuuServiceImpl.class);
+
+    // Gộp các yêu cầu tải lại cấp phát dồn dập thành một truy vấn
+    private static final long REFRESH_DELAY_MS = 300;
+
+    private static TraCuuServiceImpl instance;
+
+    private final CapPhatDAO capPhatDAO;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean capPhatRefreshScheduled = new AtomicBoolean();
+
+    private volatile Map<Long, ThietBi> thietBiById = new ConcurrentHashMap<>();
+    private volatile Map<Long, LoaiThietBi> loaiThietBiById = new ConcurrentHashMap<>();
+    private volatile Map<String, NhanVien> nhanVienByMa = new ConcurrentHashMap<>();
+    private volatile Map<String, PhongBan> phongBanByMa = new ConcurrentHashMap<>();
+    private volatile Map<Long, YeuCau> yeuCauById = new ConcurrentHashMap<>();
+    // Thiết bị -> cấp phát chưa trả, và chiều ngược lại để xử lý trả thiết bị theo id cấp phát
+    private volatile Map<Long, CapPhat> capPhatHienTaiByThietBi = new ConcurrentHashMap<>();
+    private volatile Map<Long, Long> thietBiIdByCapPhat = new ConcurrentHashMap<>();
+    private volatile boolean daNapCapPhat;
+
+    private TraCuuServiceImpl() {
+        this.capPhatDAO = Metrics.instrument(CapPhatDAO.class, new CapPhatDAOMySQLImpl());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "tracuu-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static synchronized TraCuuServiceImpl getInstance() {
+        if (instance == null) {
+            instance = new TraCuuServiceImpl();
+        }
+        return instance;
+    }
+
+    // ===== Tra cứu =====
+
+    @Override
+    public ThietBi timThietBi(Long id) {
+        return id != null ? thietBiById.get(id) : null;
+    }
+
+    @Override
+    public LoaiThietBi timLoaiThietBi(Long id) {
+        return id != null ? loaiThietBiById.get(id) : null;
+    }
+
+    @Override
+    public NhanVien timNhanVien(String maNhanVien) {
+        return maNhanVien != null ? nhanVienByMa.get(maNhanVien) : null;
+    }
+
+    @Override
+    public PhongBan timPhongBan(String maPhongBan) {
+        return maPhongBan != null ? phongBanByMa.get(maPhongBan) : null;
+    }
+
+    @Override
+    public YeuCau timYeuCau(Long id) {
+        return id != null ? yeuCauById.get(id) : null;
+    }
+
+    @Override
+    public CapPhat timCapPhatHienTai(Long thietBiId) {
+        return thietBiId != null ? capPhatHienTaiByThietBi.get(thietBiId) : null;
+    }
+
+    // ===== Nạp dữ liệu =====
+
+    @Override
+    public void napThietBi(List<ThietBi> thietBiList) {
+        thietBiById = indexBy(thietBiList, ThietBi::getId);
+    }
+
+    @Override
+    public void napLoaiThietBi(List<LoaiThietBi> loaiThietBiList) {
+        loaiThietBiById = indexBy(loaiThietBiList, LoaiThietBi::getId);
+    }
+
+    @Override
+    public void napNhanVien(List<NhanVien> nhanVienList) {
+        nhanVienByMa = indexBy(nhanVienList, NhanVien::getMaNhanVien);
+    }
+
+    @Override
+    public void napPhongBan(List<PhongBan> phongBanList) {
+        phongBanByMa = indexBy(phongBanList, PhongBan::getMaPhongBan);
+    }
+
+    @Override
+    public void napYeuCau(List<YeuCau> yeuCauList) {
+        yeuCauById = indexBy(yeuCauList, YeuCau::getId);
+    }
+
+    @Override
+    public void napCapPhat(List<CapPhat> capPhatList, List<YeuCau> yeuCauList) {
+        // Dùng lại phép join cấp phát -> yêu cầu -> thiết bị của LichSuCapPhatIndex (đã sắp mới nhất trước)
+        LichSuCapPhatIndex index = new LichSuCapPhatIndex(capPhatList, yeuCauList, null, null, null);
+        Map<Long, CapPhat> moiNhat = new HashMap<>();
+        for (Map.Entry<Long, List<CapPhat>> entry : index.getActiveCapPhatByThietBi().entrySet()) {
+            moiNhat.put(entry.getKey(), entry.getValue().get(0));
+        }
+        napCapPhatHienTai(moiNhat);
+    }
+
+    @Override
+    public void napCapPhatHienTai(Map<Long, CapPhat> capPhatByThietBi) {
+        Map<Long, CapPhat> hienTai = new ConcurrentHashMap<>();
+        Map<Long, Long> nguoc = new ConcurrentHashMap<>();
+        for (Map.Entry<Long, CapPhat> entry : capPhatByThietBi.entrySet()) {
+            CapPhat capPhat = entry.getValue();
+            hienTai.put(entry.getKey(), capPhat);
+            if (capPhat.getId() != null) {
+                nguoc.put(capPhat.getId(), entry.getKey());
+            }
+        }
+        synchronized (this) {
+            capPhatHienTaiByThietBi = hienTai;
+            thietBiIdByCapPhat = nguoc;
+            daNapCapPhat = true;
+        }
+        logger.debug("Đã nạp {} cấp phát đang hoạt động", hienTai.size());
+    }
+
+    private static <K, V> Map<K, V> indexBy(List<V> list, Function<V, K> keyFn) {
+        Map<K, V> map = new ConcurrentHashMap<>(list != null ? list.size() * 4 / 3 + 1 : 16);
+        if (list != null) {
+            for (V item : list) {
+                K key = keyFn.apply(item);
+                if (key != null) {
+                    map.putIfAbsent(key, item);
+                }
+            }
+        }
+        return map;
+    }
+
+    // ===== Thiết bị / cấp phát =====
+
+    @Override
+    public void capNhatThietBi(ThietBi thietBi) {
+        if (thietBi != null && thietBi.getId() != null) {
+            thietBiById.put(thietBi.getId(), thietBi);
+        }
+    }
+
+    @Override
+    public void xoaThietBi(Long thietBiId) {
+        if (thietBiId != null) {
+            thietBiById.remove(thietBiId);
+        }
+    }
+
+    @Override
+    public void ghiNhanTrangThaiThietBi(Long thietBiId, ThietBi.TrangThaiThietBi trangThai) {
+        ThietBi cu = thietBiId != null ? thietBiById.get(thietBiId) : null;
+        if (cu != null) {
+            ThietBi moi = new ThietBi(cu);
+            moi.setTrangThai(trangThai);
+            thietBiById.put(thietBiId, moi);
+        }
+    }
+
+    @Override
+    public synchronized void ghiNhanCapPhat(Long thietBiId, CapPhat capPhat) {
+        if (thietBiId == null || capPhat == null) {
+            return;
+        }
+        CapPhat cu = capPhatHienTaiByThietBi.put(thietBiId, capPhat);
+        if (cu != null && cu.getId() != null) {
+            thietBiIdByCapPhat.remove(cu.getId());
+        }
+        if (capPhat.getId() != null) {
+            thietBiIdByCapPhat.put(capPhat.getId(), thietBiId);
+        }
+    }
+
+    @Override
+    public synchronized void ghiNhanTraThietBi(Long capPhatId) {
+        Long thietBiId = capPhatId != null ? thietBiIdByCapPhat.remove(capPhatId) : null;
+        if (thietBiId != null) {
+            capPhatHienTaiByThietBi.remove(thietBiId);
+        }
+    }
+
+    @Override
+    public void lamMoiCapPhat() {
+        if (!daNapCapPhat) {
+            return; // Chưa ai dùng map cấp phát, lần nạp đầu sẽ đọc dữ liệu mới
+        }
+        if (capPhatRefreshScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(() -> {
+                capPhatRefreshScheduled.set(false);
+                // Join CapPhat -> YeuCau trên database: chỉ đọc các cấp phát chưa trả, không tải bảng YeuCau
+                try {
+                    napCapPhatHienTai(capPhatDAO.findActiveCapPhatByThietBi());
+                } catch (RuntimeException e) {
+                    // DAO đã ghi log; giữ map hiện tại tới lần làm mới sau
+                }
+            }, REFRESH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Gắn cấp phát cho thiết bị của yêu cầu (khi chỉ biết id yêu cầu)
+     */
+    void ghiNhanCapPhatTheoYeuCau(CapPhat capPhat) {
+        YeuCau yeuCau = capPhat != null ? timYeuCau(capPhat.getYeuCauId()) : null;
+        if (yeuCau != null) {
+            ghiNhanCapPhat(yeuCau.getThietBiId(), capPhat);
+        } else {
+            lamMoiCapPhat();
+        }
+    }
+
+    /**
+     * Yêu cầu đổi trạng thái ngoài YeuCauService (transaction cấp phát): thay bằng bản sao mang trạng thái mới
+     */
+    void ghiNhanTrangThaiYeuCau(Long yeuCauId, YeuCau.TrangThaiYeuCau trangThai) {
+        YeuCau cu = yeuCauId != null ? yeuCauById.get(yeuCauId) : null;
+        if (cu != null) {
+            yeuCauById.put(yeuCauId, new YeuCau(cu.getId(), cu.getThietBiId(), cu.getNhanVienId(), trangThai,
+                                                cu.getLyDo(), cu.getNgayTao(), cu.getNgayCapNhat()));
+        }
+    }
+
+    // ===== YeuCauObserver =====
+
+    private void capNhatYeuCau(YeuCau yeuCau) {
+        if (yeuCau != null && yeuCau.getId() != null) {
+            yeuCauById.put(yeuCau.getId(), yeuCau);
+        }
+    }
+
+    @Override
+    public void onYeuCauAdded(YeuCau yeuCau) {
+        capNhatYeuCau(yeuCau);
+    }
+
+    @Override
+    public void onYeuCauDeleted(Long yeuCauId) {
+        if (yeuCauId != null) {
+            yeuCauById.remove(yeuCauId);
+        }
+    }
+
+    @Override
+    public void onYeuCauUpdated(YeuCau yeuCau, YeuCau oldYeuCau) {
+        capNhatYeuCau(yeuCau);
+    }
+
+    @Override
+    public void onYeuCauStatusChanged(YeuCau yeuCau, YeuCau.TrangThaiYeuCau oldStatus, YeuCau.TrangThaiYeuCau newStatus) {
+        capNhatYeuCau(yeuCau);
+    }
+
+    @Override
+    public void onYeuCauApproved(YeuCau yeuCau) {
+        // Đã cập nhật trong onYeuCauStatusChanged
+    }
+
+    @Override
+    public void onYeuCauRejected(YeuCau yeuCau) {
+        // Đã cập nhật trong onYeuCauStatusChanged
+    }
+
+    @Override
+    public void onYeuCauAllocated(YeuCau yeuCau) {
+        // Đã cập nhật trong onYeuCauStatusChanged
+    }
+
+    @Override
+    public void onYeuCauCancelled(YeuCau yeuCau) {
+        // Đã cập nhật trong onYeuCauStatusChanged
+    }
+
+    @Override
+    public void onYeuCauHangLoat(List<Long> yeuCauIds, YeuCau.TrangThaiYeuCau newStatus) {
+        // Thay bằng bản sao mang trạng thái mới, không sửa đối tượng mà panel đang giữ
+        for (Long id : yeuCauIds) {
+            ghiNhanTrangThaiYeuCau(id, newStatus);
+        }
+    }
+
+    // ===== NhanVienObserver =====
+
+    @Override
+    public void onNhanVienAdded(NhanVien nhanVien) {
+        if (nhanVien != null && nhanVien.getMaNhanVien() != null) {
+            nhanVienByMa.put(nhanVien.getMaNhanVien(), nhanVien);
+        }
+    }
+
+    @Override
+    public void onNhanVienDeleted(String maNhanVien) {
+        if (maNhanVien != null) {
+            nhanVienByMa.remove(maNhanVien);
+        }
+    }
+
+    @Override
+    public void onNhanVienUpdated(NhanVien nhanVien, NhanVien oldNhanVien) {
+        if (oldNhanVien != null && nhanVien != null && oldNhanVien.getMaNhanVien() != null
+                && !oldNhanVien.getMaNhanVien().equals(nhanVien.getMaNhanVien())) {
+            nhanVienByMa.remove(oldNhanVien.getMaNhanVien());
+        }
+        onNhanVienAdded(nhanVien);
+    }
+
+    @Override
+    public void onNhanVienLoggedIn(NhanVien nhanVien) {
+        // Không đổi dữ liệu tra cứu
+    }
+
+    @Override
+    public void onNhanVienLoggedOut(NhanVien nhanVien) {
+        // Không đổi dữ liệu tra cứu
+    }
+
+    // ===== PhongBanObserver =====
+
+    @Override
+    public void onPhongBanAdded(PhongBan phongBan) {
+        if (phongBan != null && phongBan.getMaPhongBan() != null) {
+            phongBanByMa.put(phongBan.getMaPhongBan(), phongBan);
+        }
+    }
+
+    @Override
+    public void onPhongBanDeleted(String maPhongBan) {
+        if (maPhongBan != null) {
+            phongBanByMa.remove(maPhongBan);
+        }
+    }
+
+    @Override
+    public void onPhongBanUpdated(PhongBan phongBan, PhongBan oldPhongBan) {
+        if (oldPhongBan != null && phongBan != null && oldPhongBan.getMaPhongBan() != null
+                && !oldPhongBan.getMaPhongBan().equals(phongBan.getMaPhongBan())) {
+            phongBanByMa.remove(oldPhongBan.getMaPhongBan());
+        }
+        onPhongBanAdded(phongBan);
+    }
+}
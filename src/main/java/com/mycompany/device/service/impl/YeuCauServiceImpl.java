@@ -2,14 +2,22 @@ package com.mycompany.device.service.impl;
 
 import com.mycompany.device.dao.YeuCauDAO;
 import com.mycompany.device.dao.impl.YeuCauDAOMySQLImpl;
+import com.mycompany.device.model.KetQuaHangLoat;
 import com.mycompany.device.model.YeuCau;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
 import com.mycompany.device.observer.YeuCauObserver;
 import com.mycompany.device.observer.YeuCauSubject;
+import com.mycompany.device.service.CapPhatService;
 import com.mycompany.device.service.YeuCauService;
+import com.mycompany.device.metrics.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -23,26 +31,38 @@ public class YeuCauServiceImpl implements YeuCauService {
     private final YeuCauDAO yeuCauDAO;
     private final YeuCauSubject subject;
     
+    // Subject dùng chung cho mọi instance của service (mỗi panel/controller tạo một instance riêng):
+    // observer mặc định chỉ đăng ký một lần, observer của panel nhận được thay đổi từ mọi màn hình
+    private static YeuCauSubject sharedSubject;
+    private final CapPhatService capPhatService = Metrics.instrument(CapPhatService.class, new CapPhatServiceImpl());
+    
     public YeuCauServiceImpl() {
-        this.yeuCauDAO = new YeuCauDAOMySQLImpl();
-        this.subject = new YeuCauSubject();
-        
-        // Thêm logger observer mặc định
-        this.subject.addObserver(new com.mycompany.device.observer.YeuCauLogger());
+        this.yeuCauDAO = Metrics.instrument(YeuCauDAO.class, new YeuCauDAOMySQLImpl());
+        this.subject = getSharedSubject();
         
         logger.info("Khởi tạo YeuCauServiceImpl với MySQL database và Observer pattern");
     }
     
     public YeuCauServiceImpl(YeuCauDAO yeuCauDAO) {
         this.yeuCauDAO = yeuCauDAO;
-        this.subject = new YeuCauSubject();
-        
-        // Thêm logger observer mặc định
-        this.subject.addObserver(new com.mycompany.device.observer.YeuCauLogger());
+        this.subject = getSharedSubject();
         
         logger.info("Khởi tạo YeuCauServiceImpl với DAO được inject và Observer pattern");
     }
     
+    private static synchronized YeuCauSubject getSharedSubject() {
+        if (sharedSubject == null) {
+            sharedSubject = new YeuCauSubject();
+            // Thêm logger observer mặc định
+            sharedSubject.addObserver(new com.mycompany.device.observer.YeuCauLogger());
+            // Số liệu dashboard cập nhật theo sự kiện thay vì truy vấn lại
+            sharedSubject.addObserver(ThongKeServiceImpl.getInstance());
+            // Read model tra cứu của các panel yêu cầu
+            sharedSubject.addObserver(TraCuuServiceImpl.getInstance());
+        }
+        return sharedSubject;
+    }
+    
     /**
      * Thêm observer
      */
@@ -51,6 +71,14 @@ public class YeuCauServiceImpl implements YeuCauService {
         logger.info("Đã thêm observer: {}", observer.getClass().getSimpleName());
     }
     
+    /**
+     * Thêm observer giữ tham chiếu yếu, không cần gọi removeObserver khi panel bị đóng
+     */
+    public void addWeakObserver(YeuCauObserver observer) {
+        subject.addWeakObserver(observer);
+        logger.info("Đã thêm weak observer: {}", observer.getClass().getSimpleName());
+    }
+    
     /**
      * Xóa observer
      */
@@ -215,6 +243,40 @@ public class YeuCauServiceImpl implements YeuCauService {
         return result;
     }
     
+    @Override
+    public Page<YeuCau> xemTrangYeuCau(PageRequest pageRequest) {
+        return yeuCauDAO.getYeuCauPage(pageRequest);
+    }
+    
+    @Override
+    public Page<YeuCau> locTrangYeuCau(YeuCau.TrangThaiYeuCau trangThai, String tuKhoa, PageRequest pageRequest) {
+        return yeuCauDAO.findYeuCauPage(trangThai, tuKhoa, pageRequest);
+    }
+    
+    @Override
+    public Map<YeuCau.TrangThaiYeuCau, Integer> demYeuCauTheoTrangThai(String tuKhoa) {
+        return yeuCauDAO.countYeuCauTheoTrangThai(tuKhoa);
+    }
+    
+    @Override
+    public Page<YeuCau> timTrangYeuCauTheoNhanVien(String nhanVienId, PageRequest pageRequest) {
+        if (nhanVienId == null || nhanVienId.trim().isEmpty()) {
+            logger.warn("Mã nhân viên không hợp lệ");
+            return Page.empty(pageRequest);
+        }
+        return yeuCauDAO.findYeuCauPageByNhanVien(nhanVienId.trim(), pageRequest);
+    }
+    
+    @Override
+    public Page<YeuCau> timTrangYeuCauTheoNhanVien(String nhanVienId, String tieuChi, String tuKhoa,
+                                                   PageRequest pageRequest) {
+        if (nhanVienId == null || nhanVienId.trim().isEmpty()) {
+            logger.warn("Mã nhân viên không hợp lệ");
+            return Page.empty(pageRequest);
+        }
+        return yeuCauDAO.searchYeuCauPageByNhanVien(nhanVienId.trim(), tieuChi, tuKhoa, pageRequest);
+    }
+    
     @Override
     public Optional<YeuCau> timYeuCauTheoId(Long yeuCauId) {
         if (yeuCauId == null) {
@@ -407,6 +469,54 @@ public class YeuCauServiceImpl implements YeuCauService {
         return capNhatTrangThai(yeuCauId, YeuCau.TrangThaiYeuCau.DA_HUY);
     }
     
+    @Override
+    public KetQuaHangLoat duyetNhieu(List<Long> yeuCauIds) {
+        KetQuaHangLoat ketQua = yeuCauDAO.updateTrangThaiHangLoat(yeuCauIds,
+            EnumSet.of(YeuCau.TrangThaiYeuCau.CHO_DUYET), YeuCau.TrangThaiYeuCau.DA_DUYET, null);
+        thongBaoHangLoat(yeuCauIds, ketQua, YeuCau.TrangThaiYeuCau.DA_DUYET);
+        return ketQua;
+    }
+    
+    @Override
+    public KetQuaHangLoat tuChoiNhieu(List<Long> yeuCauIds, String lyDoTuChoi) {
+        KetQuaHangLoat ketQua = yeuCauDAO.updateTrangThaiHangLoat(yeuCauIds,
+            EnumSet.of(YeuCau.TrangThaiYeuCau.CHO_DUYET), YeuCau.TrangThaiYeuCau.TU_CHOI, lyDoTuChoi);
+        thongBaoHangLoat(yeuCauIds, ketQua, YeuCau.TrangThaiYeuCau.TU_CHOI);
+        return ketQua;
+    }
+    
+    @Override
+    public KetQuaHangLoat capPhatNhieu(List<Long> yeuCauIds) {
+        KetQuaHangLoat ketQua = capPhatService.taoCapPhatNhieu(yeuCauIds);
+        thongBaoHangLoat(yeuCauIds, ketQua, YeuCau.TrangThaiYeuCau.DA_CAP_PHAT);
+        return ketQua;
+    }
+    
+    @Override
+    public KetQuaHangLoat duyetVaCapPhatNhieu(List<Long> yeuCauIds) {
+        KetQuaHangLoat ketQua = capPhatService.duyetVaCapPhatNhieu(yeuCauIds);
+        thongBaoHangLoat(yeuCauIds, ketQua, YeuCau.TrangThaiYeuCau.DA_DUYET);
+        return ketQua;
+    }
+    
+    /**
+     * Một thông báo gộp cho các yêu cầu thành công thay vì N thông báo riêng lẻ
+     */
+    private void thongBaoHangLoat(List<Long> yeuCauIds, KetQuaHangLoat ketQua, YeuCau.TrangThaiYeuCau trangThaiMoi) {
+        List<Long> ids = ketQua.getIds();
+        List<Long> thanhCong = new ArrayList<>(ketQua.getSoThanhCong());
+        for (int i = 0; i < ids.size(); i++) {
+            if (ids.get(i) != null) {
+                thanhCong.add(yeuCauIds.get(i));
+            }
+        }
+        logger.info("Thao tác hàng loạt -> {}: {} thành công, {} lỗi",
+                   trangThaiMoi.getDisplayName(), ketQua.getSoThanhCong(), ketQua.getSoThatBai());
+        if (!thanhCong.isEmpty()) {
+            subject.notifyYeuCauHangLoat(thanhCong, trangThaiMoi);
+        }
+    }
+    
     /**
      * Validate input cơ bản
      */
@@ -3,6 +3,7 @@ package com.mycompany.device.ui.console;
 import com.mycompany.device.model.PhongBan;
 import com.mycompany.device.service.PhongBanService;
 import com.mycompany.device.service.impl.PhongBanServiceImpl;
+import com.mycompany.device.metrics.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,7 +24,7 @@ public class PhongBanController {
     private final Scanner scanner;
     
     public PhongBanController() {
-        this.phongBanService = new PhongBanServiceImpl();
+        this.phongBanService = Metrics.instrument(PhongBanService.class, new PhongBanServiceImpl());
         this.scanner = new Scanner(System.in);
         logger.info("Khởi tạo PhongBanController");
     }
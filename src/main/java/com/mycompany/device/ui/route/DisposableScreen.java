@@ -0,0 +1,15 @@
+package com.mycompany.device.ui.route;
+
+/**
+ * Screen cần dọn dẹp (huỷ đăng ký observer...) khi ScreenRouter bỏ hẳn panel.
+ * Không được gọi khi panel chỉ bị gỡ khỏi CardLayout và còn giữ bằng SoftReference,
+ * vì panel đó có thể được gắn lại.
+ * @author Kim Ngan
+ */
+public interface DisposableScreen {
+    
+    /**
+     * Gọi trên EDT, sau khi panel đã bị gỡ khỏi CardLayout
+     */
+    void disposeScreen();
+}
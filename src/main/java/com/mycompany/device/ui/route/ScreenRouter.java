@@ -1,27 +1,77 @@
 package com.mycompany.device.ui.route;
 
+import com.mycompany.device.util.ConfigLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
 import java.awt.*;
+import java.lang.ref.SoftReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Router chịu trách nhiệm điều hướng giữa các screen trong ứng dụng
  * Đây KHÔNG PHẢI là Controller trong MVC pattern mà là Router/Navigator
+ * 
+ * Screen đăng ký bằng Supplier chỉ được tạo ở lần navigateToScreen đầu tiên (hoặc khi prewarm).
+ * Chỉ SCREEN_CACHE_SIZE screen lazy dùng gần nhất được giữ trong CardLayout, các screen còn lại
+ * được gỡ ra và giữ bằng SoftReference nên GC có thể thu hồi cả panel lẫn dữ liệu bảng khi thiếu bộ nhớ;
+ * khi heap vượt SCREEN_EVICT_HEAP_PERCENT thì bỏ luôn (panel là DisposableScreen sẽ được dọn dẹp).
+ * Screen bị thu hồi sẽ được tạo lại khi quay lại.
  * @author Kim Ngan
  */
 public class ScreenRouter {
     
     private static final Logger logger = LoggerFactory.getLogger(ScreenRouter.class);
     
+    private static final int CACHE_SIZE = Math.max(1, ConfigLoader.getIntProperty("SCREEN_CACHE_SIZE", 4));
+    private static final int EVICT_HEAP_PERCENT = ConfigLoader.getIntProperty("SCREEN_EVICT_HEAP_PERCENT", 85);
+    private static final boolean PREWARM_ENABLED = ConfigLoader.getBooleanProperty("SCREEN_PREWARM_ENABLED", true);
+    private static final int PREWARM_DELAY_MS = Math.max(0, ConfigLoader.getIntProperty("SCREEN_PREWARM_DELAY_MS", 1500));
+    
     // View components
     private CardLayout cardLayout;
     private JPanel mainContentPanel;
-    private Map<String, JPanel> screens;
+    private Map<String, Screen> screens;
     private String currentScreen;
+    private long navigationCount;
+    private Timer prewarmTimer;
+    
+    /**
+     * Trạng thái của một screen: đang gắn trong CardLayout (panel), đã gỡ nhưng còn
+     * trong bộ nhớ (softPanel), hoặc chưa tạo/đã bị thu hồi (cả hai null)
+     */
+    private static final class Screen {
+        private final String id;
+        private final Supplier<? extends JPanel> factory;
+        private JPanel panel;
+        private SoftReference<JPanel> softPanel;
+        private long lastShown;
+        
+        private Screen(String id, Supplier<? extends JPanel> factory, JPanel panel) {
+            this.id = id;
+            this.factory = factory;
+            this.panel = panel;
+        }
+        
+        private boolean isLazy() {
+            return factory != null;
+        }
+        
+        private JPanel loadedPanel() {
+            if (panel != null) {
+                return panel;
+            }
+            return softPanel != null ? softPanel.get() : null;
+        }
+    }
     
     // Navigation constants
     public static final String DASHBOARD = "DASHBOARD";
@@ -55,26 +105,42 @@ public class ScreenRouter {
      * @param panel Panel component của screen
      */
     public void registerScreen(String screenId, JPanel panel) {
-        screens.put(screenId, panel);
+        screens.put(screenId, new Screen(screenId, null, panel));
         mainContentPanel.add(panel, screenId);
         logger.debug("Đã đăng ký screen: {}", screenId);
     }
     
+    /**
+     * Đăng ký screen tạo lười: panel chỉ được tạo khi điều hướng tới lần đầu,
+     * và có thể bị thu hồi rồi tạo lại khi ít dùng
+     * @param screenId ID của screen
+     * @param factory Hàm tạo panel (chạy trên EDT)
+     */
+    public void registerScreen(String screenId, Supplier<? extends JPanel> factory) {
+        screens.put(screenId, new Screen(screenId, factory, null));
+        logger.debug("Đã đăng ký screen lazy: {}", screenId);
+    }
+    
     /**
      * Điều hướng đến một screen cụ thể
      * @param screenId ID của screen cần chuyển đến
      */
     public void navigateToScreen(String screenId) {
-        if (!screens.containsKey(screenId)) {
+        Screen screen = screens.get(screenId);
+        if (screen == null) {
             logger.warn("Screen không tồn tại: {}", screenId);
             return;
         }
         
+        attach(screen);
+        screen.lastShown = ++navigationCount;
+        
         String previousScreen = currentScreen;
         currentScreen = screenId;
         
         // Thực hiện chuyển screen
         cardLayout.show(mainContentPanel, screenId);
+        evictRarelyUsed();
         
         // Log navigation
         logger.info("Điều hướng từ {} đến {}", previousScreen, screenId);
@@ -109,19 +175,139 @@ public class ScreenRouter {
     }
     
     /**
-     * Lấy panel của một screen
+     * Lấy panel của một screen, tạo panel nếu screen lazy chưa được tạo
      * @param screenId ID của screen
      * @return Panel component hoặc null nếu không tìm thấy
      */
     public JPanel getScreen(String screenId) {
-        return screens.get(screenId);
+        Screen screen = screens.get(screenId);
+        if (screen == null) {
+            return null;
+        }
+        attach(screen);
+        return screen.panel;
+    }
+    
+    /**
+     * Lấy panel nếu screen đã được tạo và chưa bị thu hồi, không tạo mới
+     * @param screenId ID của screen
+     * @param type Kiểu panel mong đợi
+     * @return Panel hoặc null nếu chưa tạo/đã thu hồi/khác kiểu
+     */
+    public <T extends JPanel> T getLoadedScreen(String screenId, Class<T> type) {
+        Screen screen = screens.get(screenId);
+        JPanel panel = screen != null ? screen.loadedPanel() : null;
+        return type.isInstance(panel) ? type.cast(panel) : null;
+    }
+    
+    /**
+     * Tạo trước (ở các lượt rảnh của EDT) các screen có khả năng được mở tiếp theo,
+     * mỗi lượt một screen để không chặn giao diện lâu
+     * @param screenIds Các screen theo thứ tự ưu tiên
+     */
+    public void prewarm(String... screenIds) {
+        if (!PREWARM_ENABLED || screenIds.length == 0) {
+            return;
+        }
+        if (prewarmTimer != null) {
+            prewarmTimer.stop();
+        }
+        Deque<String> pending = new ArrayDeque<>(Arrays.asList(screenIds));
+        prewarmTimer = new Timer(PREWARM_DELAY_MS, null);
+        prewarmTimer.addActionListener(e -> {
+            Screen screen = null;
+            while (!pending.isEmpty() && screen == null) {
+                Screen candidate = screens.get(pending.poll());
+                if (candidate != null && candidate.isLazy() && candidate.loadedPanel() == null) {
+                    screen = candidate;
+                }
+            }
+            if (screen != null) {
+                attach(screen);
+            }
+            if (pending.isEmpty()) {
+                ((Timer) e.getSource()).stop();
+            }
+        });
+        prewarmTimer.setInitialDelay(PREWARM_DELAY_MS);
+        prewarmTimer.start();
+    }
+    
+    /**
+     * Gắn panel của screen vào CardLayout: dùng lại panel còn trong bộ nhớ hoặc tạo mới
+     */
+    private void attach(Screen screen) {
+        if (screen.panel != null) {
+            return;
+        }
+        JPanel panel = screen.loadedPanel();
+        if (panel == null) {
+            long start = System.nanoTime();
+            panel = screen.factory.get();
+            logger.info("Đã tạo screen {} trong {} ms", screen.id, (System.nanoTime() - start) / 1_000_000);
+        }
+        screen.panel = panel;
+        screen.softPanel = null;
+        mainContentPanel.add(panel, screen.id);
+    }
+    
+    /**
+     * Gỡ các screen lazy ngoài CACHE_SIZE screen dùng gần nhất khỏi CardLayout;
+     * khi heap gần đầy thì bỏ hẳn để GC thu hồi ngay
+     */
+    private void evictRarelyUsed() {
+        boolean thieuBoNho = heapUsedPercent() >= EVICT_HEAP_PERCENT;
+        List<Screen> attached = new ArrayList<>();
+        for (Screen screen : screens.values()) {
+            if (screen.isLazy() && screen.panel != null && !screen.id.equals(currentScreen)) {
+                attached.add(screen);
+            }
+        }
+        attached.sort((a, b) -> Long.compare(b.lastShown, a.lastShown));
+        
+        int giuLai = thieuBoNho ? 0 : CACHE_SIZE - 1;
+        for (int i = giuLai; i < attached.size(); i++) {
+            Screen screen = attached.get(i);
+            mainContentPanel.remove(screen.panel);
+            screen.softPanel = new SoftReference<>(screen.panel);
+            screen.panel = null;
+            logger.info("Đã gỡ screen {} khỏi bộ nhớ đệm{}", screen.id, thieuBoNho ? " (heap gần đầy)" : "");
+        }
+        if (thieuBoNho) {
+            for (Screen screen : screens.values()) {
+                if (screen.softPanel != null) {
+                    dispose(screen.softPanel.get());
+                    screen.softPanel = null;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Panel bị bỏ hẳn (không gắn lại được nữa): cho panel tự dọn dẹp
+     */
+    private static void dispose(JPanel panel) {
+        if (panel instanceof DisposableScreen) {
+            try {
+                ((DisposableScreen) panel).disposeScreen();
+            } catch (RuntimeException e) {
+                logger.error("Lỗi khi dọn dẹp screen {}", panel.getClass().getSimpleName(), e);
+            }
+        }
+    }
+    
+    private static int heapUsedPercent() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        return (int) (used * 100 / runtime.maxMemory());
     }
     
     /**
      * Refresh screen hiện tại
      */
     public void refreshCurrentScreen() {
-        JPanel currentPanel = screens.get(currentScreen);
+        Screen screen = screens.get(currentScreen);
+        JPanel currentPanel = screen != null ? screen.panel : null;
         if (currentPanel != null) {
             currentPanel.revalidate();
             currentPanel.repaint();
@@ -412,6 +412,7 @@ public class LoginFrame extends JFrame {
         this.dispose();
 
         // Mở main frame với thông tin user
+        long start = System.nanoTime();
         SwingUtilities.invokeLater(() -> {
             try {
                 // Truyền AuthController cho MainFrame để quản lý session
@@ -419,7 +420,8 @@ public class LoginFrame extends JFrame {
                 // Cập nhật sidebar dựa trên quyền của user
                 mainFrame.refreshSidebar();
                 mainFrame.setVisible(true);
-                logger.info("Đã mở MainFrame cho user: {}", nhanVien.getTenNhanVien());
+                logger.info("Đã mở MainFrame cho user: {} sau {} ms kể từ khi đăng nhập",
+                           nhanVien.getTenNhanVien(), (System.nanoTime() - start) / 1_000_000);
             } catch (Exception e) {
                 logger.error("Lỗi khi mở MainFrame: " + e.getMessage(), e);
                 LogoUtil.showMessageDialog(
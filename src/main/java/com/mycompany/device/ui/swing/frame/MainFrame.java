@@ -12,14 +12,9 @@ import com.mycompany.device.ui.swing.panel.YeuCauPanel;
 import com.mycompany.device.ui.swing.panel.AdminYeuCauPanel;
 import com.mycompany.device.ui.swing.panel.LichSuCapPhatPanel;
 import com.mycompany.device.ui.swing.panel.HoSoCaNhanPanel;
-import com.mycompany.device.dao.PhongBanDAO;
-import com.mycompany.device.dao.NhanVienDAO;
-import com.mycompany.device.dao.ThietBiDAO;
-import com.mycompany.device.dao.CapPhatDAO;
-import com.mycompany.device.dao.impl.PhongBanDAOMySQLImpl;
-import com.mycompany.device.dao.impl.NhanVienDAOMySQLImpl;
-import com.mycompany.device.dao.impl.ThietBiDAOMySQLImpl;
-import com.mycompany.device.dao.impl.CapPhatDAOMySQLImpl;
+import com.mycompany.device.ui.swing.service.BackgroundLoader;
+import com.mycompany.device.service.ThongKeService;
+import com.mycompany.device.service.impl.ThongKeServiceImpl;
 import com.mycompany.device.util.LogoUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,7 +23,11 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.function.Consumer;
 import com.mycompany.device.model.NhanVien;
+import com.mycompany.device.model.ThietBi;
+import com.mycompany.device.model.ThongKeTongQuan;
+import com.mycompany.device.metrics.Metrics;
 
 /**
  * Giao diện chính với Sidebar Menu Layout
@@ -45,13 +44,6 @@ public class MainFrame extends JFrame {
     private JPanel sidebarPanel;
     private JPanel mainContentPanel;
     private CardLayout cardLayout;
-    private PhongBanPanel phongBanPanel;
-    private NhanVienPanel nhanVienPanel;
-    private ThietBiPanel thietBiPanel;
-    private YeuCauPanel yeuCauPanel;
-    private AdminYeuCauPanel adminYeuCauPanel;
-    private LichSuCapPhatPanel lichSuCapPhatPanel;
-    private HoSoCaNhanPanel hoSoCaNhanPanel;
     private JPanel dashboardPanel;
     private JLabel statusLabel;
     
@@ -62,11 +54,18 @@ public class MainFrame extends JFrame {
     private PhongBanController phongBanController;
     private AuthController authController;
     
-    // DAO instances for dashboard statistics
-    private PhongBanDAO phongBanDAO;
-    private NhanVienDAO nhanVienDAO;
-    private ThietBiDAO thietBiDAO;
-    private CapPhatDAO capPhatDAO;
+    // Số liệu dashboard lấy từ snapshot của ThongKeService, không truy vấn trên EDT
+    private final ThongKeService thongKeService = ThongKeServiceImpl.getInstance();
+    private final Consumer<ThongKeTongQuan> thongKeListener =
+        thongKe -> SwingUtilities.invokeLater(() -> hienThiThongKe(thongKe));
+    private JLabel phongBanValueLabel;
+    private JLabel nhanVienValueLabel;
+    private JLabel thietBiValueLabel;
+    private JLabel thietBiSubtitleLabel;
+    private JLabel tonKhoValueLabel;
+    private JLabel capPhatValueLabel;
+    private JLabel capPhatSubtitleLabel;
+    private JLabel yeuCauValueLabel;
     
     // Menu items
     private JPanel selectedMenuItem = null;
@@ -85,6 +84,7 @@ public class MainFrame extends JFrame {
 
     // Thêm constructor mới để nhận AuthController
     public MainFrame(AuthController authController) {
+        long start = System.nanoTime();
         this.authController = authController;
         initializeComponents();
         setupLayout();
@@ -100,7 +100,8 @@ public class MainFrame extends JFrame {
             setTitle("Hệ Thống Quản Lý Thiết Bị - " + currentUser.getTenNhanVien() + " (" + currentUser.getRole().getDisplayName() + ")");
         }
         
-        logger.info("MainFrame đã được khởi tạo với AuthController");
+        logger.info("MainFrame đã được khởi tạo với AuthController trong {} ms",
+                    (System.nanoTime() - start) / 1_000_000);
     }
     
     /**
@@ -117,8 +118,15 @@ public class MainFrame extends JFrame {
             
             // Update user info in panels
             if (authController != null && authController.isLoggedIn()) {
-                yeuCauPanel.setCurrentUser(authController.getCurrentUser());
-                hoSoCaNhanPanel.setCurrentUser(authController.getCurrentUser(), authController);
+                YeuCauPanel yeuCauPanel = screenRouter.getLoadedScreen(ScreenRouter.YEU_CAU, YeuCauPanel.class);
+                if (yeuCauPanel != null) {
+                    yeuCauPanel.setCurrentUser(authController.getCurrentUser());
+                }
+                HoSoCaNhanPanel hoSoCaNhanPanel = screenRouter.getLoadedScreen(ScreenRouter.HO_SO_CA_NHAN, HoSoCaNhanPanel.class);
+                if (hoSoCaNhanPanel != null) {
+                    hoSoCaNhanPanel.setCurrentUser(authController.getCurrentUser(), authController);
+                }
+                prewarmLikelyScreens(authController.getCurrentUser());
             }
             
             // Refresh the UI
@@ -138,19 +146,6 @@ public class MainFrame extends JFrame {
         setLocationRelativeTo(null);
         setMinimumSize(new Dimension(1000, 700));
         
-        // Initialize DAOs for dashboard statistics
-        initializeDAOs();
-        
-        // Initialize panels
-        phongBanPanel = new PhongBanPanel();
-        nhanVienPanel = new NhanVienPanel();
-        thietBiPanel = new ThietBiPanel();
-        hoSoCaNhanPanel = new HoSoCaNhanPanel();
-        
-        // Initialize services and controllers 
-        PhongBanService phongBanService = new PhongBanServiceImpl();
-        phongBanController = new PhongBanController(phongBanPanel, phongBanService);
-        
         // Create card layout for main content
         cardLayout = new CardLayout();
         mainContentPanel = new JPanel(cardLayout);
@@ -159,28 +154,18 @@ public class MainFrame extends JFrame {
         // Initialize ScreenRouter
         screenRouter = new ScreenRouter(cardLayout, mainContentPanel);
         
-        // Add panels to card layout via ScreenRouter
+        // Dashboard tạo ngay; các screen khác chỉ tạo (và tải dữ liệu) khi mở lần đầu
         dashboardPanel = createDashboardPanel();
         screenRouter.registerScreen(ScreenRouter.DASHBOARD, dashboardPanel);
-        screenRouter.registerScreen(ScreenRouter.PHONG_BAN, phongBanPanel);
-        screenRouter.registerScreen(ScreenRouter.NHAN_VIEN, nhanVienPanel);
-        screenRouter.registerScreen(ScreenRouter.THIET_BI, thietBiPanel);
-        
-        // Initialize YeuCau panel  
-        yeuCauPanel = new YeuCauPanel();
-        screenRouter.registerScreen(ScreenRouter.YEU_CAU, yeuCauPanel);
-        
-        // Initialize Admin YeuCau panel  
-        adminYeuCauPanel = new AdminYeuCauPanel();
-        screenRouter.registerScreen(ScreenRouter.ADMIN_YEU_CAU, adminYeuCauPanel);
-        
-        // Initialize Lich Su Cap Phat panel
-        lichSuCapPhatPanel = new LichSuCapPhatPanel();
-        screenRouter.registerScreen(ScreenRouter.LICH_SU_CAP_PHAT, lichSuCapPhatPanel);
-        
-        screenRouter.registerScreen(ScreenRouter.HO_SO_CA_NHAN, hoSoCaNhanPanel);
-        screenRouter.registerScreen(ScreenRouter.BAO_CAO, createBaoCaoPanel());
-        screenRouter.registerScreen(ScreenRouter.CAI_DAT, createCaiDatPanel());
+        screenRouter.registerScreen(ScreenRouter.PHONG_BAN, this::createPhongBanScreen);
+        screenRouter.registerScreen(ScreenRouter.NHAN_VIEN, NhanVienPanel::new);
+        screenRouter.registerScreen(ScreenRouter.THIET_BI, ThietBiPanel::new);
+        screenRouter.registerScreen(ScreenRouter.YEU_CAU, this::createYeuCauScreen);
+        screenRouter.registerScreen(ScreenRouter.ADMIN_YEU_CAU, AdminYeuCauPanel::new);
+        screenRouter.registerScreen(ScreenRouter.LICH_SU_CAP_PHAT, LichSuCapPhatPanel::new);
+        screenRouter.registerScreen(ScreenRouter.HO_SO_CA_NHAN, this::createHoSoCaNhanScreen);
+        screenRouter.registerScreen(ScreenRouter.BAO_CAO, this::createBaoCaoPanel);
+        screenRouter.registerScreen(ScreenRouter.CAI_DAT, this::createCaiDatPanel);
         
         // Status label
         statusLabel = new JLabel("Sẵn sàng");
@@ -188,22 +173,46 @@ public class MainFrame extends JFrame {
         statusLabel.setBorder(BorderFactory.createEmptyBorder(5, 15, 5, 15));
         statusLabel.setOpaque(true);
         statusLabel.setBackground(Color.WHITE);
+        // Tiến trình tải nền của các panel hiển thị trên thanh trạng thái
+        BackgroundLoader.getInstance().setStatusListener(this::updateStatus);
         
         logger.info("Đã khởi tạo tất cả components");
     }
     
     /**
-     * Initialize DAOs for dashboard statistics
+     * Tạo screen phòng ban cùng controller của nó (controller tải dữ liệu ban đầu)
+     */
+    private JPanel createPhongBanScreen() {
+        PhongBanPanel phongBanPanel = new PhongBanPanel();
+        PhongBanService phongBanService = Metrics.instrument(PhongBanService.class, new PhongBanServiceImpl());
+        phongBanController = new PhongBanController(phongBanPanel, phongBanService);
+        return phongBanPanel;
+    }
+    
+    private JPanel createYeuCauScreen() {
+        YeuCauPanel yeuCauPanel = new YeuCauPanel();
+        if (authController != null && authController.isLoggedIn()) {
+            yeuCauPanel.setCurrentUser(authController.getCurrentUser());
+        }
+        return yeuCauPanel;
+    }
+    
+    private JPanel createHoSoCaNhanScreen() {
+        HoSoCaNhanPanel hoSoCaNhanPanel = new HoSoCaNhanPanel();
+        if (authController != null && authController.isLoggedIn()) {
+            hoSoCaNhanPanel.setCurrentUser(authController.getCurrentUser(), authController);
+        }
+        return hoSoCaNhanPanel;
+    }
+    
+    /**
+     * Tạo trước các screen người dùng thường mở ngay sau đăng nhập, theo vai trò
      */
-    private void initializeDAOs() {
-        try {
-            phongBanDAO = new PhongBanDAOMySQLImpl();
-            nhanVienDAO = new NhanVienDAOMySQLImpl();
-            thietBiDAO = new ThietBiDAOMySQLImpl();
-            capPhatDAO = new CapPhatDAOMySQLImpl();
-            logger.info("Đã khởi tạo các DAO cho dashboard statistics");
-        } catch (Exception e) {
-            logger.error("Lỗi khi khởi tạo DAO cho dashboard", e);
+    private void prewarmLikelyScreens(NhanVien currentUser) {
+        if (currentUser.getRole() == NhanVien.NhanVienRole.ADMIN) {
+            screenRouter.prewarm(ScreenRouter.ADMIN_YEU_CAU, ScreenRouter.THIET_BI);
+        } else {
+            screenRouter.prewarm(ScreenRouter.YEU_CAU);
         }
     }
     
@@ -576,81 +585,86 @@ public class MainFrame extends JFrame {
      * Tao panel thong ke
      */
     private JPanel createStatsPanel() {
-        JPanel statsPanel = new JPanel(new GridLayout(2, 2, 20, 20));
+        JPanel statsPanel = new JPanel(new GridLayout(2, 3, 20, 20));
         statsPanel.setBackground(MAIN_BACKGROUND_COLOR);
         statsPanel.setBorder(BorderFactory.createEmptyBorder(50, 50, 50, 50));
         
-        // Load statistics from database
-        String phongBanCount = getPhongBanCount();
-        String nhanVienCount = getNhanVienCount();
-        String thietBiCount = getThietBiCount();
-        String capPhatCount = getCapPhatCount();
+        phongBanValueLabel = createStatValueLabel();
+        nhanVienValueLabel = createStatValueLabel();
+        thietBiValueLabel = createStatValueLabel();
+        thietBiSubtitleLabel = createStatSubtitleLabel("Tổng số thiết bị");
+        tonKhoValueLabel = createStatValueLabel();
+        capPhatValueLabel = createStatValueLabel();
+        capPhatSubtitleLabel = createStatSubtitleLabel("Thiết bị chưa trả");
+        yeuCauValueLabel = createStatValueLabel();
         
         // Stat cards
-        statsPanel.add(createStatCard("🏢", "Phòng ban", phongBanCount, "Tổng số phòng ban"));
-        statsPanel.add(createStatCard("👥", "Nhân viên", nhanVienCount, "Tổng số nhân viên"));
-        statsPanel.add(createStatCard("💻", "Thiết bị", thietBiCount, "Tổng số thiết bị"));
-        statsPanel.add(createStatCard("📊", "Cấp phát", capPhatCount, "Tổng số cấp phát"));
+        statsPanel.add(createStatCard("🏢", "Phòng ban", phongBanValueLabel, createStatSubtitleLabel("Tổng số phòng ban")));
+        statsPanel.add(createStatCard("👥", "Nhân viên", nhanVienValueLabel, createStatSubtitleLabel("Tổng số nhân viên")));
+        statsPanel.add(createStatCard("💻", "Thiết bị", thietBiValueLabel, thietBiSubtitleLabel));
+        statsPanel.add(createStatCard("📦", "Tồn kho", tonKhoValueLabel, createStatSubtitleLabel("Sẵn sàng cấp phát")));
+        statsPanel.add(createStatCard("📊", "Đang cấp phát", capPhatValueLabel, capPhatSubtitleLabel));
+        statsPanel.add(createStatCard("📝", "Chờ duyệt", yeuCauValueLabel, createStatSubtitleLabel("Yêu cầu đang chờ phê duyệt")));
+        
+        loadStatistics();
         
         return statsPanel;
     }
     
     /**
-     * Get phong ban count from database
+     * Hiển thị snapshot đã có ngay; chỉ lần đầu mới tải (ở nền) bằng một truy vấn gộp.
+     * Sau đó ThongKeService đẩy số liệu mới qua listener khi các service khác thay đổi dữ liệu.
      */
-    private String getPhongBanCount() {
-        try {
-            int count = phongBanDAO.countPhongBan();
-            return String.valueOf(count);
-        } catch (Exception e) {
-            logger.error("Lỗi khi đếm số phòng ban", e);
-            return "0";
+    private void loadStatistics() {
+        thongKeService.addListener(thongKeListener);
+        
+        ThongKeTongQuan hienTai = thongKeService.xemThongKeHienTai();
+        if (hienTai != null) {
+            hienThiThongKe(hienTai);
+            return;
         }
+        BackgroundLoader.getInstance().load("dashboard", "thống kê",
+            thongKeService::layThongKeTongQuan,
+            this::hienThiThongKe,
+            e -> {
+                // BackgroundLoader đã ghi log và báo lỗi trên thanh trạng thái, giữ số liệu cũ
+            });
     }
     
     /**
-     * Get nhan vien count from database
+     * Cập nhật các stat card (chạy trên EDT)
      */
-    private String getNhanVienCount() {
-        try {
-            int count = nhanVienDAO.countNhanVien();
-            return String.valueOf(count);
-        } catch (Exception e) {
-            logger.error("Lỗi khi đếm số nhân viên", e);
-            return "0";
-        }
+    private void hienThiThongKe(ThongKeTongQuan thongKe) {
+        phongBanValueLabel.setText(String.valueOf(thongKe.getSoPhongBan()));
+        nhanVienValueLabel.setText(String.valueOf(thongKe.getSoNhanVien()));
+        thietBiValueLabel.setText(String.valueOf(thongKe.getSoThietBi()));
+        thietBiSubtitleLabel.setText(String.format("Bảo trì: %d · Hư hỏng: %d",
+            thongKe.getSoThietBi(ThietBi.TrangThaiThietBi.DANG_BAO_TRI),
+            thongKe.getSoThietBi(ThietBi.TrangThaiThietBi.HU_HONG)));
+        tonKhoValueLabel.setText(String.valueOf(thongKe.getSoThietBi(ThietBi.TrangThaiThietBi.TON_KHO)));
+        capPhatValueLabel.setText(String.valueOf(thongKe.getSoCapPhatDangHoatDong()));
+        capPhatSubtitleLabel.setText("Tổng số cấp phát: " + thongKe.getSoCapPhat());
+        yeuCauValueLabel.setText(String.valueOf(thongKe.getSoYeuCauChoDuyet()));
     }
     
-    /**
-     * Get thiet bi count from database
-     */
-    private String getThietBiCount() {
-        try {
-            int count = thietBiDAO.findAll().size();
-            return String.valueOf(count);
-        } catch (Exception e) {
-            logger.error("Lỗi khi đếm số thiết bị", e);
-            return "0";
-        }
+    private JLabel createStatValueLabel() {
+        JLabel valueLabel = new JLabel("...", SwingConstants.CENTER);
+        valueLabel.setFont(new Font("Arial", Font.BOLD, 28));
+        valueLabel.setForeground(new Color(0, 123, 255));
+        return valueLabel;
     }
     
-    /**
-     * Get cap phat count from database
-     */
-    private String getCapPhatCount() {
-        try {
-            int count = capPhatDAO.countCapPhat();
-            return String.valueOf(count);
-        } catch (Exception e) {
-            logger.error("Lỗi khi đếm số cấp phát", e);
-            return "0";
-        }
+    private JLabel createStatSubtitleLabel(String subtitle) {
+        JLabel subtitleLabel = new JLabel(subtitle, SwingConstants.CENTER);
+        subtitleLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+        subtitleLabel.setForeground(new Color(108, 117, 125));
+        return subtitleLabel;
     }
     
     /**
      * Tao stat card
      */
-    private JPanel createStatCard(String icon, String title, String value, String subtitle) {
+    private JPanel createStatCard(String icon, String title, JLabel valueLabel, JLabel subtitleLabel) {
         JPanel card = new JPanel(new BorderLayout());
         card.setBackground(Color.WHITE);
         card.setBorder(BorderFactory.createCompoundBorder(
@@ -665,14 +679,6 @@ public class MainFrame extends JFrame {
         titleLabel.setFont(new Font("Arial", Font.BOLD, 16));
         titleLabel.setForeground(new Color(73, 80, 87));
         
-        JLabel valueLabel = new JLabel(value, SwingConstants.CENTER);
-        valueLabel.setFont(new Font("Arial", Font.BOLD, 28));
-        valueLabel.setForeground(new Color(0, 123, 255));
-        
-        JLabel subtitleLabel = new JLabel(subtitle, SwingConstants.CENTER);
-        subtitleLabel.setFont(new Font("Arial", Font.PLAIN, 12));
-        subtitleLabel.setForeground(new Color(108, 117, 125));
-        
         JPanel contentPanel = new JPanel(new GridLayout(4, 1, 5, 5));
         contentPanel.setBackground(Color.WHITE);
         contentPanel.add(iconLabel);
@@ -717,8 +723,9 @@ public class MainFrame extends JFrame {
      * Hien thi yeu cau panel
      */
     private void showYeuCauPanel() {
-        // Set current user for YeuCauPanel
-        if (authController != null && authController.isLoggedIn()) {
+        // Set current user for YeuCauPanel (panel mới tạo đã được set trong createYeuCauScreen)
+        YeuCauPanel yeuCauPanel = screenRouter.getLoadedScreen(ScreenRouter.YEU_CAU, YeuCauPanel.class);
+        if (yeuCauPanel != null && authController != null && authController.isLoggedIn()) {
             yeuCauPanel.setCurrentUser(authController.getCurrentUser());
         }
         screenRouter.navigateToScreen(ScreenRouter.YEU_CAU);
@@ -742,8 +749,9 @@ public class MainFrame extends JFrame {
      * Hien thi ho so ca nhan panel
      */
     private void showHoSoCaNhanPanel() {
-        // Set current user for HoSoCaNhanPanel
-        if (authController != null && authController.isLoggedIn()) {
+        // Set current user for HoSoCaNhanPanel (panel mới tạo đã được set trong createHoSoCaNhanScreen)
+        HoSoCaNhanPanel hoSoCaNhanPanel = screenRouter.getLoadedScreen(ScreenRouter.HO_SO_CA_NHAN, HoSoCaNhanPanel.class);
+        if (hoSoCaNhanPanel != null && authController != null && authController.isLoggedIn()) {
             hoSoCaNhanPanel.setCurrentUser(authController.getCurrentUser(), authController);
         }
         screenRouter.navigateToScreen(ScreenRouter.HO_SO_CA_NHAN);
@@ -770,6 +778,7 @@ public class MainFrame extends JFrame {
         if (authController != null) {
             authController.logout();
         }
+        thongKeService.removeListener(thongKeListener);
         this.dispose();
         new LoginFrame().setVisible(true);
     }
@@ -814,6 +823,9 @@ public class MainFrame extends JFrame {
      * Đồng bộ dữ liệu giữa AdminYeuCauPanel và LichSuCapPhatPanel
      */
     public void syncDataBetweenPanels() {
+        // Chỉ đồng bộ khi cả hai screen đang được tạo; screen tạo sau sẽ tự tải dữ liệu mới
+        AdminYeuCauPanel adminYeuCauPanel = screenRouter.getLoadedScreen(ScreenRouter.ADMIN_YEU_CAU, AdminYeuCauPanel.class);
+        LichSuCapPhatPanel lichSuCapPhatPanel = screenRouter.getLoadedScreen(ScreenRouter.LICH_SU_CAP_PHAT, LichSuCapPhatPanel.class);
         if (adminYeuCauPanel != null && lichSuCapPhatPanel != null) {
             // Cập nhật dữ liệu từ AdminYeuCauPanel sang LichSuCapPhatPanel
             lichSuCapPhatPanel.updateDataFromAdminPanel(
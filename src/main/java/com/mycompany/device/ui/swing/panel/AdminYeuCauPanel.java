@@ -6,12 +6,25 @@ import com.mycompany.device.model.CapPhat;
 import com.mycompany.device.model.ThietBi;
 import com.mycompany.device.model.NhanVien;
 import com.mycompany.device.model.PhongBan;
+import com.mycompany.device.model.KetQuaCapPhat;
+import com.mycompany.device.model.KetQuaHangLoat;
+import com.mycompany.device.model.PageRequest;
 import com.mycompany.device.dao.CapPhatDAO;
-import com.mycompany.device.dao.YeuCauDAO;
 import com.mycompany.device.dao.ThietBiDAO;
 import com.mycompany.device.dao.impl.CapPhatDAOMySQLImpl;
-import com.mycompany.device.dao.impl.YeuCauDAOMySQLImpl;
-import com.mycompany.device.dao.impl.ThietBiDAOMySQLImpl;
+import com.mycompany.device.dao.impl.ThietBiDAOCacheImpl;
+import com.mycompany.device.service.CapPhatService;
+import com.mycompany.device.service.NhanVienService;
+import com.mycompany.device.service.PhongBanService;
+import com.mycompany.device.service.TraCuuService;
+import com.mycompany.device.service.YeuCauService;
+import com.mycompany.device.service.impl.CapPhatServiceImpl;
+import com.mycompany.device.service.impl.NhanVienServiceImpl;
+import com.mycompany.device.service.impl.PhongBanServiceImpl;
+import com.mycompany.device.service.impl.TraCuuServiceImpl;
+import com.mycompany.device.service.impl.YeuCauServiceImpl;
+import com.mycompany.device.ui.swing.service.BackgroundLoader;
+import com.mycompany.device.ui.swing.service.PagedLoader;
 import com.mycompany.device.util.LogoUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,8 +42,9 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 import com.mycompany.device.util.DatabaseConnection;
+import com.mycompany.device.metrics.Metrics;
 
 /**
  * Panel dành cho admin để xem và phê duyệt các yêu cầu
@@ -50,19 +64,26 @@ public class AdminYeuCauPanel extends JPanel {
     private JTextField txtTimKiem;
     private JButton btnTimKiem;
     private JButton btnLamMoi;
+    private JButton btnDuyetDaChon;
+    private JButton btnTuChoiDaChon;
     
     // Data
-    private List<YeuCau> yeuCauList;
+    // Các yêu cầu đã tải (khớp bộ lọc trạng thái/từ khoá trên database), cùng thứ tự với bảng
     private List<YeuCau> filteredYeuCauList;
     private List<ThietBi> thietBiList;
     private List<NhanVien> nhanVienList;
     private List<PhongBan> phongBanList;
-    private List<CapPhat> capPhatList; // Thêm danh sách lịch sử cấp phát
+    private List<CapPhat> capPhatList; // Cấp phát đang hoạt động, mỗi thiết bị một bản ghi
+    private PagedLoader<YeuCau> taiTrang;
     
     // DAO instances
     private CapPhatDAO capPhatDAO;
-    private YeuCauDAO yeuCauDAO;
     private ThietBiDAO thietBiDAO;
+    private CapPhatService capPhatService;
+    private YeuCauService yeuCauService;
+    private NhanVienService nhanVienService;
+    private PhongBanService phongBanService;
+    private final TraCuuService traCuu = TraCuuServiceImpl.getInstance();
     
     // Reference to LichSuCapPhatPanel for synchronization
     private LichSuCapPhatPanel lichSuCapPhatPanel;
@@ -74,13 +95,22 @@ public class AdminYeuCauPanel extends JPanel {
     
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
     
+    // Khoá cho BackgroundLoader: lượt làm mới sau sẽ huỷ lượt trước
+    private static final String LOAD_KEY = "AdminYeuCauPanel.data";
+    private static final String PAGE_KEY = "AdminYeuCauPanel.yeuCau";
+    private static final String STATS_KEY = "AdminYeuCauPanel.thongKe";
+    private static final String APPROVE_KEY_PREFIX = "AdminYeuCauPanel.duyet.";
+    private static final String BULK_KEY = "AdminYeuCauPanel.hangLoat";
+    // Số lỗi tối đa hiển thị trong hộp thoại kết quả hàng loạt
+    private static final int SO_LOI_HIEN_THI = 20;
+    
     public AdminYeuCauPanel() {
         initializeDAOs();
         initializeData();
         initializeComponents();
         setupLayout();
         setupEventHandlers();
-        loadData();
+        refreshData();
         
         logger.info("AdminYeuCauPanel đã được khởi tạo thành công");
     }
@@ -96,15 +126,22 @@ public class AdminYeuCauPanel extends JPanel {
             }
             logger.info("✅ Database connection test PASSED");
             
-            capPhatDAO = new CapPhatDAOMySQLImpl();
+            capPhatDAO = Metrics.instrument(CapPhatDAO.class, new CapPhatDAOMySQLImpl());
             logger.info("✅ CapPhatDAO created");
             
-            yeuCauDAO = new YeuCauDAOMySQLImpl();
-            logger.info("✅ YeuCauDAO created");
-            
-            thietBiDAO = new ThietBiDAOMySQLImpl();
+            thietBiDAO = Metrics.instrument(ThietBiDAO.class, new ThietBiDAOCacheImpl());
             logger.info("✅ ThietBiDAO created");
             
+            capPhatService = Metrics.instrument(CapPhatService.class, new CapPhatServiceImpl());
+            logger.info("✅ CapPhatService created");
+            
+            yeuCauService = Metrics.instrument(YeuCauService.class, new YeuCauServiceImpl());
+            logger.info("✅ YeuCauService created");
+            
+            nhanVienService = Metrics.instrument(NhanVienService.class, new NhanVienServiceImpl());
+            phongBanService = Metrics.instrument(PhongBanService.class, new PhongBanServiceImpl());
+            logger.info("✅ NhanVienService, PhongBanService created");
+            
             logger.info("✅ Đã khởi tạo tất cả DAO thành công");
         } catch (Exception e) {
             logger.error("❌ Lỗi khi khởi tạo DAO", e);
@@ -116,51 +153,45 @@ public class AdminYeuCauPanel extends JPanel {
     }
     
     private void initializeData() {
-        yeuCauList = new ArrayList<>();
         filteredYeuCauList = new ArrayList<>();
         thietBiList = new ArrayList<>();
         nhanVienList = new ArrayList<>();
         phongBanList = new ArrayList<>();
         capPhatList = new ArrayList<>();
-        
-        // Load data from database
-        loadDataFromDatabase();
     }
     
-    private void loadDataFromDatabase() {
-        try {
-            // Load all data from database
-            yeuCauList = yeuCauDAO.getAllYeuCau();
-            thietBiList = thietBiDAO.findAll();
-            capPhatList = capPhatDAO.getAllCapPhat();
-            
-            // Mock data for NhanVien and PhongBan (có thể thay bằng DAO thực tế)
-            initializeMockNhanVienPhongBan();
-            
-            logger.info("Đã tải dữ liệu từ database: {} yêu cầu, {} thiết bị, {} cấp phát", 
-                yeuCauList.size(), thietBiList.size(), capPhatList.size());
-            
-        } catch (Exception e) {
-            logger.error("Lỗi khi tải dữ liệu từ database", e);
-            JOptionPane.showMessageDialog(this, 
-                "Lỗi khi tải dữ liệu: " + e.getMessage(), 
-                "Lỗi Database", 
-                JOptionPane.ERROR_MESSAGE);
-        }
+    /**
+     * Chạy trên luồng nền, chỉ đọc database và trả về dữ liệu tra cứu tên; việc gán vào panel làm trên EDT.
+     * Bản thân các yêu cầu tải theo trang qua taiTrang.
+     */
+    private DuLieuNen loadDataFromDatabase() {
+        DuLieuNen duLieu = new DuLieuNen();
+        duLieu.thietBiList = thietBiDAO.findAll();
+        Map<Long, CapPhat> capPhatHienTai = capPhatDAO.findActiveCapPhatByThietBi();
+        duLieu.capPhatList = new ArrayList<>(capPhatHienTai.values());
+        duLieu.nhanVienList = nhanVienService.xemDanhSachNhanVien();
+        duLieu.phongBanList = phongBanService.xemDanhSachPhongBan();
+        
+        // Dựng chỉ mục tra cứu trên luồng nền; cấp phát hiện tại đã join với YeuCau trong SQL
+        traCuu.napThietBi(duLieu.thietBiList);
+        traCuu.napNhanVien(duLieu.nhanVienList);
+        traCuu.napPhongBan(duLieu.phongBanList);
+        traCuu.napCapPhatHienTai(capPhatHienTai);
+        
+        logger.info("Đã tải dữ liệu từ database: {} thiết bị, {} cấp phát đang hoạt động, {} nhân viên, {} phòng ban", 
+            duLieu.thietBiList.size(), duLieu.capPhatList.size(),
+            duLieu.nhanVienList.size(), duLieu.phongBanList.size());
+        return duLieu;
     }
     
-    private void initializeMockNhanVienPhongBan() {
-        // Mock data for NhanVien and PhongBan (có thể thay bằng DAO thực tế)
-        nhanVienList.add(new NhanVien("NV001", "Nguyễn Văn An", "an.nguyen@company.com", 
-                "password", "0901234567", NhanVien.NhanVienRole.STAFF, "PB001"));
-        nhanVienList.add(new NhanVien("NV002", "Trần Thị Bình", "binh.tran@company.com", 
-                "password", "0901234568", NhanVien.NhanVienRole.STAFF, "PB002"));
-        nhanVienList.add(new NhanVien("NV003", "Lê Văn Cường", "cuong.le@company.com", 
-                "password", "0901234569", NhanVien.NhanVienRole.STAFF, "PB001"));
-        
-        phongBanList.add(new PhongBan("PB001", "Phòng IT", "Phòng Công nghệ thông tin"));
-        phongBanList.add(new PhongBan("PB002", "Phòng Kế toán", "Phòng Kế toán và Tài chính"));
-        phongBanList.add(new PhongBan("PB003", "Phòng Nhân sự", "Phòng Quản lý Nhân sự"));
+    /**
+     * Kết quả một lượt tải nền
+     */
+    private static class DuLieuNen {
+        private List<ThietBi> thietBiList;
+        private List<CapPhat> capPhatList;
+        private List<NhanVien> nhanVienList;
+        private List<PhongBan> phongBanList;
     }
     
     private void initializeComponents() {
@@ -177,9 +208,16 @@ public class AdminYeuCauPanel extends JPanel {
         btnTimKiem = new JButton("Tìm kiếm");
         btnLamMoi = new JButton("Làm mới");
         
+        btnDuyetDaChon = new JButton("Duyệt đã chọn");
+        btnTuChoiDaChon = new JButton("Từ chối đã chọn");
+        btnDuyetDaChon.setToolTipText("Phê duyệt và cấp phát các yêu cầu 'Chờ duyệt' đang được chọn (giữ Ctrl/Shift để chọn nhiều dòng)");
+        btnTuChoiDaChon.setToolTipText("Từ chối các yêu cầu 'Chờ duyệt' đang được chọn");
+        
         // Style buttons
         styleButton(btnTimKiem);
         styleButton(btnLamMoi);
+        styleButton(btnDuyetDaChon);
+        styleButton(btnTuChoiDaChon);
         
         // Table setup
         tableModel = new DefaultTableModel(COLUMN_NAMES, 0) {
@@ -194,6 +232,35 @@ public class AdminYeuCauPanel extends JPanel {
         
         scrollPane = new JScrollPane(tableYeuCau);
         scrollPane.setPreferredSize(new Dimension(800, 400));
+        
+        // Yêu cầu tải theo trang (mới nhất trước); trạng thái và từ khoá lọc trên database
+        taiTrang = new PagedLoader<YeuCau>(PAGE_KEY, "yêu cầu thiết bị", PageRequest.of(PagedLoader.PAGE_SIZE),
+            (trangThai, tuKhoa, request) -> yeuCauService.locTrangYeuCau(trangThaiTheoTen(trangThai), tuKhoa, request),
+            new PagedLoader.Listener<YeuCau>() {
+                @Override
+                public void onReset() {
+                    filteredYeuCauList = new ArrayList<>();
+                    tableModel.setRowCount(0);
+                    taiThongKe();
+                }
+                
+                @Override
+                public void onRows(List<YeuCau> rows) {
+                    for (YeuCau yeuCau : rows) {
+                        filteredYeuCauList.add(yeuCau);
+                        tableModel.addRow(toRowData(yeuCau));
+                    }
+                }
+                
+                @Override
+                public void onError(Exception e) {
+                    JOptionPane.showMessageDialog(AdminYeuCauPanel.this, 
+                        "Lỗi khi tải yêu cầu: " + e.getMessage(), 
+                        "Lỗi Database", 
+                        JOptionPane.ERROR_MESSAGE);
+                }
+            });
+        taiTrang.installOn(scrollPane);
     }
     
     private void setupTable() {
@@ -214,6 +281,9 @@ public class AdminYeuCauPanel extends JPanel {
         // Set row height
         tableYeuCau.setRowHeight(35);
         
+        // Cho phép chọn nhiều dòng để duyệt/từ chối hàng loạt
+        tableYeuCau.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        
         // Alternate row colors
         tableYeuCau.setDefaultRenderer(Object.class, new AlternatingRowRenderer());
     }
@@ -250,6 +320,10 @@ public class AdminYeuCauPanel extends JPanel {
         panel.add(Box.createHorizontalStrut(10));
         panel.add(btnLamMoi);
         
+        panel.add(Box.createHorizontalStrut(20));
+        panel.add(btnDuyetDaChon);
+        panel.add(btnTuChoiDaChon);
+        
         return panel;
     }
     
@@ -265,14 +339,19 @@ public class AdminYeuCauPanel extends JPanel {
     }
     
     private void setupEventHandlers() {
-        btnTimKiem.addActionListener(e -> applyFilters());
+        btnTimKiem.addActionListener(e -> 
+            taiTrang.search((String) cboTrangThaiFilter.getSelectedItem(), txtTimKiem.getText()));
         btnLamMoi.addActionListener(e -> {
             cboTrangThaiFilter.setSelectedIndex(0);
             txtTimKiem.setText("");
-            loadData();
+            taiTrang.search((String) cboTrangThaiFilter.getSelectedItem(), "");
         });
         
-        cboTrangThaiFilter.addActionListener(e -> applyFilters());
+        // Gõ từ khoá (debounce), Enter hoặc đổi trạng thái thì lọc lại trên database từ trang đầu
+        taiTrang.bindSearch(txtTimKiem, cboTrangThaiFilter);
+        
+        btnDuyetDaChon.addActionListener(e -> xuLyHangLoat(true));
+        btnTuChoiDaChon.addActionListener(e -> xuLyHangLoat(false));
     }
     
     private void styleButton(JButton button) {
@@ -297,75 +376,64 @@ public class AdminYeuCauPanel extends JPanel {
         });
     }
     
-    private void loadData() {
-        filteredYeuCauList = new ArrayList<>(yeuCauList);
-        updateTable();
-        updateStatistics();
-    }
-    
-    private void applyFilters() {
-        String selectedStatus = (String) cboTrangThaiFilter.getSelectedItem();
-        String searchText = txtTimKiem.getText().toLowerCase().trim();
-        
-        filteredYeuCauList = yeuCauList.stream()
-            .filter(yeuCau -> {
-                // Filter by status
-                if (!"Tất cả".equals(selectedStatus)) {
-                    if (!yeuCau.getTrangThai().getDisplayName().equals(selectedStatus)) {
-                        return false;
-                    }
-                }
-                
-                // Filter by search text
-                if (!searchText.isEmpty()) {
-                    String tenThietBi = getThietBiName(yeuCau.getThietBiId()).toLowerCase();
-                    String tenNhanVien = getNhanVienName(yeuCau.getNhanVienId()).toLowerCase();
-                    String tenPhongBan = getPhongBanName(yeuCau.getNhanVienId()).toLowerCase();
-                    
-                    if (!tenThietBi.contains(searchText) && !tenNhanVien.contains(searchText) && !tenPhongBan.contains(searchText)) {
-                        return false;
-                    }
-                }
-                
-                return true;
-            })
-            .collect(Collectors.toList());
-        
-        updateTable();
-        updateStatistics();
+    /**
+     * Trạng thái ứng với lựa chọn của combobox lọc, null = "Tất cả"
+     */
+    private static TrangThaiYeuCau trangThaiTheoTen(String displayName) {
+        for (TrangThaiYeuCau trangThai : TrangThaiYeuCau.values()) {
+            if (trangThai.getDisplayName().equals(displayName)) {
+                return trangThai;
+            }
+        }
+        return null;
     }
     
+    /**
+     * Vẽ lại các dòng đã tải (ví dụ khi tên thiết bị/nhân viên vừa tra được hoặc trạng thái một yêu cầu đổi)
+     */
     private void updateTable() {
-        // Clear existing data
         tableModel.setRowCount(0);
-        
-        // Add filtered data
         for (YeuCau yeuCau : filteredYeuCauList) {
-            Object[] rowData = {
-                yeuCau.getId(),
-                getThietBiName(yeuCau.getThietBiId()),
-                getNhanVienName(yeuCau.getNhanVienId()),
-                getPhongBanName(yeuCau.getNhanVienId()),
-                yeuCau.getLyDo(),
-                yeuCau.getTrangThai().getDisplayName(),
-                yeuCau.getNgayTao().format(DATE_FORMATTER),
-                "Actions" // Placeholder for buttons
-            };
-            tableModel.addRow(rowData);
+            tableModel.addRow(toRowData(yeuCau));
         }
     }
     
-    private void updateStatistics() {
-        int total = filteredYeuCauList.size();
-        int choDuyet = (int) filteredYeuCauList.stream()
-            .filter(yc -> yc.getTrangThai() == TrangThaiYeuCau.CHO_DUYET)
-            .count();
-        int daDuyet = (int) filteredYeuCauList.stream()
-            .filter(yc -> yc.getTrangThai() == TrangThaiYeuCau.DA_DUYET)
-            .count();
-        int tuChoi = (int) filteredYeuCauList.stream()
-            .filter(yc -> yc.getTrangThai() == TrangThaiYeuCau.TU_CHOI)
-            .count();
+    private Object[] toRowData(YeuCau yeuCau) {
+        return new Object[] {
+            yeuCau.getId(),
+            getThietBiName(yeuCau.getThietBiId()),
+            getNhanVienName(yeuCau.getNhanVienId()),
+            getPhongBanName(yeuCau.getNhanVienId()),
+            yeuCau.getLyDo(),
+            yeuCau.getTrangThai().getDisplayName(),
+            yeuCau.getNgayTao().format(DATE_FORMATTER),
+            "Actions" // Placeholder for buttons
+        };
+    }
+    
+    /**
+     * Đếm yêu cầu theo trạng thái trên database (GROUP BY trangThai) cho bộ lọc của các dòng đang hiển thị,
+     * thay vì đếm trên danh sách đã tải (chỉ là vài trang đầu)
+     */
+    private void taiThongKe() {
+        TrangThaiYeuCau trangThaiLoc = trangThaiTheoTen(taiTrang.getTieuChi());
+        String tuKhoa = taiTrang.getTuKhoa();
+        BackgroundLoader.getInstance().load(STATS_KEY, "thống kê yêu cầu",
+            () -> yeuCauService.demYeuCauTheoTrangThai(tuKhoa),
+            soLuong -> updateStatistics(soLuong, trangThaiLoc),
+            e -> {
+                // BackgroundLoader đã ghi log, giữ số liệu cũ
+            });
+    }
+    
+    private void updateStatistics(Map<TrangThaiYeuCau, Integer> soLuong, TrangThaiYeuCau trangThaiLoc) {
+        int total = 0;
+        for (TrangThaiYeuCau trangThai : TrangThaiYeuCau.values()) {
+            total += demTheoBoLoc(soLuong, trangThaiLoc, trangThai);
+        }
+        int choDuyet = demTheoBoLoc(soLuong, trangThaiLoc, TrangThaiYeuCau.CHO_DUYET);
+        int daDuyet = demTheoBoLoc(soLuong, trangThaiLoc, TrangThaiYeuCau.DA_DUYET);
+        int tuChoi = demTheoBoLoc(soLuong, trangThaiLoc, TrangThaiYeuCau.TU_CHOI);
         
         // Update statistics label (find it in bottom panel)
         Component[] components = ((JPanel) getComponent(2)).getComponents();
@@ -380,142 +448,58 @@ public class AdminYeuCauPanel extends JPanel {
         }
     }
     
+    /**
+     * Số yêu cầu của một trạng thái, 0 nếu bộ lọc đang chọn trạng thái khác
+     */
+    private static int demTheoBoLoc(Map<TrangThaiYeuCau, Integer> soLuong, TrangThaiYeuCau trangThaiLoc,
+                                    TrangThaiYeuCau trangThai) {
+        if (trangThaiLoc != null && trangThaiLoc != trangThai) {
+            return 0;
+        }
+        return soLuong.getOrDefault(trangThai, 0);
+    }
+    
+    // Tra cứu O(1) qua TraCuuService thay vì quét danh sách cho mỗi dòng
     private String getThietBiName(Long thietBiId) {
-        return thietBiList.stream()
-            .filter(tb -> tb.getId().equals(thietBiId))
-            .findFirst()
-            .map(tb -> tb.getGhiChu() != null ? tb.getGhiChu() : ("TB-" + tb.getId()))
-            .orElse("N/A");
+        ThietBi tb = traCuu.timThietBi(thietBiId);
+        if (tb == null) {
+            return "N/A";
+        }
+        return tb.getGhiChu() != null ? tb.getGhiChu() : ("TB-" + tb.getId());
     }
     
     private String getNhanVienName(String nhanVienId) {
-        return nhanVienList.stream()
-            .filter(nv -> nv.getMaNhanVien().equals(nhanVienId))
-            .findFirst()
-            .map(NhanVien::getTenNhanVien)
-            .orElse("N/A");
+        NhanVien nv = traCuu.timNhanVien(nhanVienId);
+        return nv != null ? nv.getTenNhanVien() : "N/A";
     }
     
     private String getPhongBanName(String nhanVienId) {
-        return nhanVienList.stream()
-            .filter(nv -> nv.getMaNhanVien().equals(nhanVienId))
-            .findFirst()
-            .map(NhanVien::getMaPhongBan)
-            .map(maPhongBan -> phongBanList.stream()
-                .filter(pb -> pb.getMaPhongBan().equals(maPhongBan))
-                .findFirst()
-                .map(PhongBan::getTenPhongBan)
-                .orElse("N/A"))
-            .orElse("N/A");
+        NhanVien nv = traCuu.timNhanVien(nhanVienId);
+        PhongBan pb = nv != null ? traCuu.timPhongBan(nv.getMaPhongBan()) : null;
+        return pb != null ? pb.getTenPhongBan() : "N/A";
     }
     
     /**
-     * Cập nhật method approveRequest để lưu vào database với debug logging
+     * Phê duyệt yêu cầu: duyệt và cấp phát thiết bị trong một transaction (CapPhatService.duyetVaCapPhat)
      */
     private void approveRequest(int row) {
         if (row >= 0 && row < filteredYeuCauList.size()) {
             YeuCau yeuCau = filteredYeuCauList.get(row);
             
             if (yeuCau.getTrangThai() == TrangThaiYeuCau.CHO_DUYET) {
-                try {
-                    logger.info("=== BẮT ĐẦU PHÊ DUYỆT YÊU CẦU ===");
-                    logger.info("Yêu cầu ID: {}", yeuCau.getId());
-                    logger.info("Thiết bị ID: {}", yeuCau.getThietBiId());
-                    logger.info("Nhân viên ID: {}", yeuCau.getNhanVienId());
-                    
-                    // Kiểm tra database connection
-                    if (capPhatDAO == null) {
-                        logger.error("CapPhatDAO is NULL!");
-                        LogoUtil.showMessageDialog(this, 
-                            "Lỗi: CapPhatDAO chưa được khởi tạo",
-                            "Lỗi Database", 
-                            JOptionPane.ERROR_MESSAGE);
-                        return;
-                    }
-                    
-                    // Update status in database
-                    logger.info("Cập nhật trạng thái yêu cầu...");
-                    yeuCau.setTrangThai(TrangThaiYeuCau.DA_DUYET);
-                    yeuCau.setNgayCapNhat(LocalDateTime.now());
-                    boolean yeuCauUpdated = yeuCauDAO.updateYeuCau(yeuCau);
-                    
-                    if (!yeuCauUpdated) {
-                        logger.error("Lỗi khi cập nhật trạng thái yêu cầu trong database");
-                        LogoUtil.showMessageDialog(this, 
-                            "Lỗi khi cập nhật trạng thái yêu cầu trong database",
-                            "Lỗi Database", 
-                            JOptionPane.ERROR_MESSAGE);
-                        return;
-                    }
-                    
-                    logger.info("✅ Đã cập nhật trạng thái yêu cầu thành công");
-                    
-                    // Create CapPhat record and save to database
-                    logger.info("Tạo CapPhat record...");
-                    CapPhat capPhat = new CapPhat();
-                    capPhat.setYeuCauId(yeuCau.getId());
-                    capPhat.setNgayCap(LocalDateTime.now());
-                    capPhat.setNgayTra(null); // Chưa trả
-                    capPhat.setTinhTrangTra(null); // Chưa có tình trạng trả
-                    capPhat.setGhiChu("Thiết bị đã được cấp phát cho nhân viên");
-                    
-                    logger.info("CapPhat record details:");
-                    logger.info("  - YeuCauId: {}", capPhat.getYeuCauId());
-                    logger.info("  - NgayCap: {}", capPhat.getNgayCap());
-                    logger.info("  - NgayTra: {}", capPhat.getNgayTra());
-                    logger.info("  - TinhTrangTra: {}", capPhat.getTinhTrangTra());
-                    logger.info("  - GhiChu: {}", capPhat.getGhiChu());
-                    
-                    // Save to database
-                    logger.info("Lưu CapPhat vào database...");
-                    boolean capPhatSaved = capPhatDAO.createCapPhat(capPhat);
-                    
-                    if (!capPhatSaved) {
-                        logger.error("❌ Lỗi khi tạo lịch sử cấp phát trong database");
+                logger.info("Phê duyệt yêu cầu: ID={}, Thiết bị ID={}, Nhân viên ID={}",
+                    yeuCau.getId(), yeuCau.getThietBiId(), yeuCau.getNhanVienId());
+                
+                // Duyệt, tạo cấp phát và đổi trạng thái thiết bị trong một transaction, chạy ngoài EDT
+                BackgroundLoader.getInstance().load(APPROVE_KEY_PREFIX + yeuCau.getId(), "phê duyệt yêu cầu",
+                    () -> capPhatService.duyetVaCapPhat(yeuCau.getId()),
+                    ketQua -> onApproveCompleted(yeuCau, ketQua),
+                    e -> {
                         LogoUtil.showMessageDialog(this, 
-                            "Lỗi khi tạo lịch sử cấp phát trong database",
+                            "Lỗi khi phê duyệt yêu cầu: " + e.getMessage(),
                             "Lỗi Database", 
                             JOptionPane.ERROR_MESSAGE);
-                        return;
-                    }
-                    
-                    logger.info("✅ Đã tạo CapPhat thành công: ID={}", capPhat.getId());
-                    
-                    // Update device status in database
-                    logger.info("Cập nhật trạng thái thiết bị...");
-                    updateThietBiStatus(yeuCau.getThietBiId(), ThietBi.TrangThaiThietBi.DANG_CAP_PHAT);
-                    
-                    // Add to local list for UI update
-                    capPhatList.add(capPhat);
-                    
-                    // Đồng bộ với LichSuCapPhatPanel nếu có
-                    if (lichSuCapPhatPanel != null) {
-                        lichSuCapPhatPanel.addCapPhat(capPhat);
-                    }
-                    
-                    // Show success message
-                    LogoUtil.showMessageDialog(this, 
-                        "Yêu cầu đã được phê duyệt thành công!\n" +
-                        "ID Yêu cầu: " + yeuCau.getId() + "\n" +
-                        "Đã tạo lịch sử cấp phát với ID: " + capPhat.getId() + "\n" +
-                        "Thiết bị đã được chuyển sang trạng thái 'Đang cấp phát'",
-                        "Phê duyệt thành công", 
-                        JOptionPane.INFORMATION_MESSAGE);
-                    
-                    logger.info("=== HOÀN THÀNH PHÊ DUYỆT YÊU CẦU ===");
-                    logger.info("Yêu cầu ID: {}, CapPhat ID: {}", yeuCau.getId(), capPhat.getId());
-                    
-                    // Refresh data
-                    updateTable();
-                    updateStatistics();
-                    
-                } catch (Exception e) {
-                    logger.error("❌ Lỗi khi phê duyệt yêu cầu", e);
-                    LogoUtil.showMessageDialog(this, 
-                        "Lỗi khi phê duyệt yêu cầu: " + e.getMessage(),
-                        "Lỗi Database", 
-                        JOptionPane.ERROR_MESSAGE);
-                }
+                    });
             } else {
                 LogoUtil.showMessageDialog(this, 
                     "Chỉ có thể phê duyệt yêu cầu đang ở trạng thái 'Chờ duyệt'",
@@ -525,6 +509,130 @@ public class AdminYeuCauPanel extends JPanel {
         }
     }
     
+    /**
+     * Chạy trên EDT sau khi transaction cấp phát kết thúc
+     */
+    private void onApproveCompleted(YeuCau yeuCau, KetQuaCapPhat ketQua) {
+        if (!ketQua.isThanhCong()) {
+            LogoUtil.showMessageDialog(this, 
+                "Không thể phê duyệt yêu cầu ID " + yeuCau.getId() + ":\n" + ketQua.getThongBao(),
+                "Không thể phê duyệt", 
+                ketQua.getMa() == KetQuaCapPhat.MaKetQua.LOI_DATABASE
+                    ? JOptionPane.ERROR_MESSAGE : JOptionPane.WARNING_MESSAGE);
+            // Dữ liệu trên màn hình đã cũ (admin khác vừa xử lý), tải lại
+            if (ketQua.getMa() != KetQuaCapPhat.MaKetQua.LOI_DATABASE) {
+                refreshData();
+            }
+            return;
+        }
+        
+        CapPhat capPhat = ketQua.getCapPhat();
+        // yeuCau thuộc danh sách riêng của panel; read model (thiết bị, yêu cầu) đã được CapPhatService
+        // thay bằng bản sao mang trạng thái mới nên không sửa đối tượng dùng chung ở đây
+        yeuCau.setTrangThai(TrangThaiYeuCau.DA_DUYET);
+        yeuCau.setNgayCapNhat(capPhat.getNgayCap());
+        
+        // Add to local list for UI update
+        capPhatList.add(capPhat);
+        
+        // Đồng bộ với LichSuCapPhatPanel nếu có
+        if (lichSuCapPhatPanel != null) {
+            lichSuCapPhatPanel.addCapPhat(capPhat);
+        }
+        
+        LogoUtil.showMessageDialog(this, 
+            "Yêu cầu đã được phê duyệt thành công!\n" +
+            "ID Yêu cầu: " + yeuCau.getId() + "\n" +
+            "Đã tạo lịch sử cấp phát với ID: " + capPhat.getId() + "\n" +
+            "Thiết bị đã được chuyển sang trạng thái 'Đang cấp phát'",
+            "Phê duyệt thành công", 
+            JOptionPane.INFORMATION_MESSAGE);
+        
+        logger.info("Hoàn thành phê duyệt: Yêu cầu ID={}, CapPhat ID={}", yeuCau.getId(), capPhat.getId());
+        
+        // Refresh data
+        updateTable();
+        taiThongKe();
+    }
+    
+    /**
+     * Duyệt (kèm cấp phát) hoặc từ chối các yêu cầu 'Chờ duyệt' đang chọn trong một transaction
+     */
+    private void xuLyHangLoat(boolean duyet) {
+        List<Long> yeuCauIds = new ArrayList<>();
+        for (int row : tableYeuCau.getSelectedRows()) {
+            if (row < filteredYeuCauList.size()) {
+                YeuCau yeuCau = filteredYeuCauList.get(row);
+                if (yeuCau.getTrangThai() == TrangThaiYeuCau.CHO_DUYET) {
+                    yeuCauIds.add(yeuCau.getId());
+                }
+            }
+        }
+        
+        if (yeuCauIds.isEmpty()) {
+            LogoUtil.showMessageDialog(this, 
+                "Hãy chọn ít nhất một yêu cầu đang ở trạng thái 'Chờ duyệt'",
+                "Chưa chọn yêu cầu", 
+                JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        
+        String hanhDong = duyet ? "phê duyệt và cấp phát" : "từ chối";
+        int confirm = JOptionPane.showConfirmDialog(this,
+            "Bạn có chắc muốn " + hanhDong + " " + yeuCauIds.size() + " yêu cầu đã chọn?",
+            "Xác nhận", JOptionPane.YES_NO_OPTION);
+        if (confirm != JOptionPane.YES_OPTION) {
+            return;
+        }
+        
+        btnDuyetDaChon.setEnabled(false);
+        btnTuChoiDaChon.setEnabled(false);
+        BackgroundLoader.getInstance().load(BULK_KEY, hanhDong + " " + yeuCauIds.size() + " yêu cầu",
+            () -> duyet ? yeuCauService.duyetVaCapPhatNhieu(yeuCauIds) : yeuCauService.tuChoiNhieu(yeuCauIds, null),
+            ketQua -> {
+                btnDuyetDaChon.setEnabled(true);
+                btnTuChoiDaChon.setEnabled(true);
+                hienThiKetQuaHangLoat(hanhDong, ketQua);
+            },
+            e -> {
+                btnDuyetDaChon.setEnabled(true);
+                btnTuChoiDaChon.setEnabled(true);
+                LogoUtil.showMessageDialog(this, 
+                    "Lỗi khi " + hanhDong + " hàng loạt: " + e.getMessage(),
+                    "Lỗi Database", 
+                    JOptionPane.ERROR_MESSAGE);
+            });
+    }
+    
+    private void hienThiKetQuaHangLoat(String hanhDong, KetQuaHangLoat ketQua) {
+        StringBuilder message = new StringBuilder();
+        message.append("Đã ").append(hanhDong).append(" ").append(ketQua.getSoThanhCong())
+               .append("/").append(ketQua.getTongSo()).append(" yêu cầu.");
+        
+        List<KetQuaHangLoat.LoiDong> loiList = ketQua.getLoiList();
+        if (!loiList.isEmpty()) {
+            message.append("\n\n").append(loiList.size()).append(" yêu cầu không xử lý được:");
+            for (int i = 0; i < Math.min(SO_LOI_HIEN_THI, loiList.size()); i++) {
+                KetQuaHangLoat.LoiDong loi = loiList.get(i);
+                message.append("\n- Yêu cầu ID ").append(loi.getKhoa()).append(": ").append(loi.getLyDo());
+            }
+            if (loiList.size() > SO_LOI_HIEN_THI) {
+                message.append("\n... và ").append(loiList.size() - SO_LOI_HIEN_THI).append(" lỗi khác");
+            }
+        }
+        
+        LogoUtil.showMessageDialog(this, 
+            message.toString(),
+            "Kết quả xử lý hàng loạt", 
+            ketQua.isThanhCongHet() ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE);
+        
+        // Trạng thái của nhiều yêu cầu/thiết bị đã đổi, tải lại từ database
+        refreshData();
+        if (lichSuCapPhatPanel != null) {
+            lichSuCapPhatPanel.refreshData();
+        }
+    }
+    
     private void rejectRequest(int row) {
         if (row >= 0 && row < filteredYeuCauList.size()) {
             YeuCau yeuCau = filteredYeuCauList.get(row);
@@ -542,7 +650,7 @@ public class AdminYeuCauPanel extends JPanel {
                 
                 // Refresh data
                 updateTable();
-                updateStatistics();
+                taiThongKe();
             } else {
                 LogoUtil.showMessageDialog(this, 
                     "Chỉ có thể từ chối yêu cầu đang ở trạng thái 'Chờ duyệt'",
@@ -552,27 +660,6 @@ public class AdminYeuCauPanel extends JPanel {
         }
     }
     
-    /**
-     * Cập nhật trạng thái thiết bị
-     */
-    private void updateThietBiStatus(Long thietBiId, ThietBi.TrangThaiThietBi newStatus) {
-        try {
-            ThietBi thietBi = thietBiDAO.findById(thietBiId);
-            if (thietBi != null) {
-                thietBi.setTrangThai(newStatus);
-                boolean updated = thietBiDAO.update(thietBi);
-                if (updated) {
-                    logger.info("Đã cập nhật trạng thái thiết bị: ID={}, Trạng thái={}", 
-                        thietBiId, newStatus);
-                } else {
-                    logger.error("Lỗi khi cập nhật trạng thái thiết bị: ID={}", thietBiId);
-                }
-            }
-        } catch (Exception e) {
-            logger.error("Lỗi khi cập nhật trạng thái thiết bị", e);
-        }
-    }
-    
     /**
      * Lấy danh sách lịch sử cấp phát (để sử dụng trong LichSuCapPhatPanel)
      */
@@ -580,8 +667,11 @@ public class AdminYeuCauPanel extends JPanel {
         return capPhatList;
     }
     
+    /**
+     * Các yêu cầu đã tải theo bộ lọc hiện tại (không phải toàn bộ bảng YeuCau)
+     */
     public List<YeuCau> getYeuCauList() {
-        return yeuCauList;
+        return filteredYeuCauList;
     }
     
     public List<ThietBi> getThietBiList() {
@@ -800,11 +890,24 @@ public class AdminYeuCauPanel extends JPanel {
     }
     
     /**
-     * Refresh data from database
+     * Refresh data from database: tải lại trang đầu yêu cầu (giữ bộ lọc) và dữ liệu tra cứu tên
      */
     public void refreshData() {
-        loadDataFromDatabase();
-        loadData();
-        logger.info("Đã refresh dữ liệu từ database");
+        taiTrang.reload();
+        BackgroundLoader.getInstance().load(LOAD_KEY, "dữ liệu tra cứu yêu cầu",
+            this::loadDataFromDatabase,
+            duLieu -> {
+                thietBiList = duLieu.thietBiList;
+                capPhatList = duLieu.capPhatList;
+                nhanVienList = duLieu.nhanVienList;
+                phongBanList = duLieu.phongBanList;
+                // Tên thiết bị/nhân viên/phòng ban của các dòng đã hiển thị giờ mới tra được
+                updateTable();
+                logger.info("Đã refresh dữ liệu từ database");
+            },
+            e -> JOptionPane.showMessageDialog(this, 
+                "Lỗi khi tải dữ liệu: " + e.getMessage(), 
+                "Lỗi Database", 
+                JOptionPane.ERROR_MESSAGE));
     }
 }
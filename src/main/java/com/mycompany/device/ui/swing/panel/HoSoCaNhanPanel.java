@@ -7,6 +7,7 @@ import com.mycompany.device.controller.AuthController;
 import com.mycompany.device.service.PhongBanService;
 import com.mycompany.device.service.impl.PhongBanServiceImpl;
 import com.mycompany.device.util.LogoUtil;
+import com.mycompany.device.metrics.Metrics;
 
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
@@ -43,7 +44,7 @@ public class HoSoCaNhanPanel extends JPanel {
     private PhongBanService phongBanService;
     
     public HoSoCaNhanPanel() {
-        phongBanService = new PhongBanServiceImpl();
+        phongBanService = Metrics.instrument(PhongBanService.class, new PhongBanServiceImpl());
         initializeComponents();
         setupLayout();
         setupEventHandlers();
@@ -5,22 +5,22 @@ import com.mycompany.device.model.ThietBi;
 import com.mycompany.device.model.YeuCau;
 import com.mycompany.device.model.NhanVien;
 import com.mycompany.device.model.PhongBan;
+import com.mycompany.device.model.CapPhatTongHop;
+import com.mycompany.device.model.LichSuCapPhat;
 import com.mycompany.device.dao.CapPhatDAO;
 import com.mycompany.device.dao.ThietBiDAO;
-import com.mycompany.device.dao.YeuCauDAO;
-import com.mycompany.device.dao.NhanVienDAO;
-import com.mycompany.device.dao.PhongBanDAO;
 import com.mycompany.device.dao.impl.CapPhatDAOMySQLImpl;
-import com.mycompany.device.dao.impl.ThietBiDAOMySQLImpl;
-import com.mycompany.device.dao.impl.YeuCauDAOMySQLImpl;
-import com.mycompany.device.dao.impl.NhanVienDAOMySQLImpl;
-import com.mycompany.device.dao.impl.PhongBanDAOMySQLImpl;
+import com.mycompany.device.dao.impl.ThietBiDAOCacheImpl;
+import com.mycompany.device.ui.swing.service.BackgroundLoader;
+import com.mycompany.device.ui.swing.table.EntityTableModel;
+import com.mycompany.device.ui.swing.table.IndexRowSorter;
+import com.mycompany.device.util.ConfigLoader;
 import com.mycompany.device.util.LogoUtil;
+import com.mycompany.device.metrics.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.TableCellRenderer;
 import java.awt.*;
@@ -31,10 +31,8 @@ import java.awt.event.ItemListener;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Panel lịch sử cấp phát thiết bị cho admin
@@ -58,22 +56,28 @@ public class LichSuCapPhatPanel extends JPanel {
     private JButton btnLoc;
     private JButton btnTatCa;
     private JTable tblLichSu;
-    private DefaultTableModel tableModel;
+    private EntityTableModel<LichSuCapPhat> tableModel;
     private JLabel lblTongSo;
     
     // Data
-    private List<CapPhat> capPhatList;
     private List<ThietBi> thietBiList;
-    private List<YeuCau> yeuCauList;
-    private List<NhanVien> nhanVienList;
-    private List<PhongBan> phongBanList;
+    
+    // Phân trang keyset: tableModel chỉ giữ các dòng đã tải, trang tiếp theo lấy sau dòng cuối cùng (theo thứ tự model)
+    private static final int PAGE_SIZE = ConfigLoader.getIntProperty("LICH_SU_PAGE_SIZE", 100);
+    private static final int PREFETCH_PIXELS = 200;
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private Long currentThietBiFilter;
+    private boolean hasMoreRows;
+    private boolean loadingPage;
+    private CapPhatTongHop thongKeHienTai = CapPhatTongHop.empty();
     
     // DAO instances
     private CapPhatDAO capPhatDAO;
     private ThietBiDAO thietBiDAO;
-    private YeuCauDAO yeuCauDAO;
-    private NhanVienDAO nhanVienDAO;
-    private PhongBanDAO phongBanDAO;
+    
+    // Khoá cho BackgroundLoader: lượt tải mới cùng khoá sẽ huỷ lượt cũ
+    private static final String LOAD_KEY_DATA = "LichSuCapPhatPanel.data";
+    private static final String LOAD_KEY_PAGE = "LichSuCapPhatPanel.page";
     
     public LichSuCapPhatPanel() {
         initializeDAOs();
@@ -81,18 +85,15 @@ public class LichSuCapPhatPanel extends JPanel {
         initializeComponents();
         setupLayout();
         setupEventHandlers();
-        loadLichSuData();
+        refreshData();
         
         logger.info("LichSuCapPhatPanel đã được khởi tạo thành công");
     }
     
     private void initializeDAOs() {
         try {
-            capPhatDAO = new CapPhatDAOMySQLImpl();
-            thietBiDAO = new ThietBiDAOMySQLImpl();
-            yeuCauDAO = new YeuCauDAOMySQLImpl();
-            nhanVienDAO = new NhanVienDAOMySQLImpl();
-            phongBanDAO = new PhongBanDAOMySQLImpl();
+            capPhatDAO = Metrics.instrument(CapPhatDAO.class, new CapPhatDAOMySQLImpl());
+            thietBiDAO = Metrics.instrument(ThietBiDAO.class, new ThietBiDAOCacheImpl());
             logger.info("Đã khởi tạo các DAO thành công");
         } catch (Exception e) {
             logger.error("Lỗi khi khởi tạo DAO", e);
@@ -104,38 +105,35 @@ public class LichSuCapPhatPanel extends JPanel {
     }
     
     private void initializeData() {
-        capPhatList = new ArrayList<>();
         thietBiList = new ArrayList<>();
-        yeuCauList = new ArrayList<>();
-        nhanVienList = new ArrayList<>();
-        phongBanList = new ArrayList<>();
-        
-        // Load data from database
-        loadDataFromDatabase();
     }
     
-    private void loadDataFromDatabase() {
-        try {
-            // Load all data from database
-            capPhatList = capPhatDAO.getAllCapPhat();
-            thietBiList = thietBiDAO.findAll();
-            yeuCauList = yeuCauDAO.getAllYeuCau();
-            nhanVienList = nhanVienDAO.getAllNhanVien();
-            phongBanList = phongBanDAO.getAllPhongBan();
-            
-            logger.info("Đã tải dữ liệu từ database: {} cấp phát, {} thiết bị, {} yêu cầu, {} nhân viên, {} phòng ban", 
-                capPhatList.size(), thietBiList.size(), yeuCauList.size(), nhanVienList.size(), phongBanList.size());
-            
-            // Validate business logic after loading data
-            validateBusinessLogic();
-            
-        } catch (Exception e) {
-            logger.error("Lỗi khi tải dữ liệu từ database", e);
-            JOptionPane.showMessageDialog(this, 
-                "Lỗi khi tải dữ liệu: " + e.getMessage(), 
-                "Lỗi Database", 
-                JOptionPane.ERROR_MESSAGE);
-        }
+    /**
+     * Chạy trên luồng nền: chỉ tải danh sách thiết bị cho combobox và kiểm tra vi phạm nghiệp vụ;
+     * lịch sử được tải theo trang
+     */
+    private DuLieuNen loadDataFromDatabase() {
+        DuLieuNen duLieu = new DuLieuNen();
+        duLieu.thietBiList = thietBiDAO.findAll();
+        duLieu.viPham = capPhatDAO.findThietBiCoNhieuCapPhatDangHoatDong();
+        logger.info("Đã tải dữ liệu từ database: {} thiết bị", duLieu.thietBiList.size());
+        return duLieu;
+    }
+    
+    /**
+     * Kết quả tải nền của panel
+     */
+    private static class DuLieuNen {
+        private List<ThietBi> thietBiList;
+        private Map<Long, Integer> viPham;
+    }
+    
+    /**
+     * Một trang lịch sử cùng số liệu tổng hợp (khi tải lại từ đầu)
+     */
+    private static class TrangLichSu {
+        private CapPhatTongHop thongKe;
+        private List<LichSuCapPhat> rows;
     }
     
     private void initializeComponents() {
@@ -160,19 +158,27 @@ public class LichSuCapPhatPanel extends JPanel {
         btnTatCa.setFocusPainted(false);
         btnTatCa.setBorderPainted(false);
         
-        // Table
-        String[] columnNames = {
-            "ID", "Tên thiết bị", "Người được cấp", "Phòng ban", 
-            "Ngày tạo yêu cầu", "Ngày cấp", "Ngày trả", "Tình trạng", "Ghi chú"
-        };
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        // Table: giá trị ô định dạng khi render, cột ngày sắp xếp theo giá trị gốc
+        tableModel = new EntityTableModel<LichSuCapPhat>(
+            EntityTableModel.column("ID", LichSuCapPhat::getCapPhatId),
+            EntityTableModel.column("Tên thiết bị", row -> orNA(row.getThietBiGhiChu())),
+            EntityTableModel.column("Người được cấp", row -> orNA(row.getTenNhanVien())),
+            EntityTableModel.column("Phòng ban", row -> orNA(row.getTenPhongBan())),
+            EntityTableModel.column("Ngày tạo yêu cầu",
+                row -> row.getNgayYeuCau() != null ? row.getNgayYeuCau().format(DATE_TIME_FORMATTER) : "N/A",
+                LichSuCapPhat::getNgayYeuCau),
+            EntityTableModel.column("Ngày cấp",
+                row -> row.getNgayCap() != null ? row.getNgayCap().format(DATE_TIME_FORMATTER) : "N/A",
+                LichSuCapPhat::getNgayCap),
+            EntityTableModel.column("Ngày trả",
+                row -> row.getNgayTra() != null ? row.getNgayTra().format(DATE_TIME_FORMATTER) : "Chưa trả",
+                LichSuCapPhat::getNgayTra),
+            EntityTableModel.column("Tình trạng", LichSuCapPhatPanel::tinhTrangTraHienThi),
+            EntityTableModel.column("Ghi chú", row -> row.getGhiChu() != null ? row.getGhiChu() : "")
+        );
         
         tblLichSu = new JTable(tableModel);
+        tblLichSu.setRowSorter(new IndexRowSorter<>(tableModel));
         
         tblLichSu.setFont(LABEL_FONT);
         tblLichSu.getTableHeader().setFont(TABLE_HEADER_FONT);
@@ -341,6 +347,15 @@ public class LichSuCapPhatPanel extends JPanel {
         // Ensure table doesn't auto-resize columns to fit viewport
         tblLichSu.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
         
+        // Tải trang tiếp theo khi cuộn gần cuối bảng
+        JScrollBar verticalBar = scrollPane.getVerticalScrollBar();
+        verticalBar.addAdjustmentListener(e -> {
+            if (hasMoreRows && !loadingPage
+                    && verticalBar.getValue() + verticalBar.getVisibleAmount() >= verticalBar.getMaximum() - PREFETCH_PIXELS) {
+                SwingUtilities.invokeLater(this::loadNextPage);
+            }
+        });
+        
         tablePanel.add(scrollPane, BorderLayout.CENTER);
         tablePanel.add(lblTongSo, BorderLayout.SOUTH);
         
@@ -390,53 +405,7 @@ public class LichSuCapPhatPanel extends JPanel {
     }
     
     private void loadLichSuData() {
-        tableModel.setRowCount(0);
-        
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
-        
-        // Sort CapPhat list by ngayCap descending (newest first)
-        List<CapPhat> sortedCapPhatList = capPhatList.stream()
-            .sorted((cp1, cp2) -> {
-                if (cp1.getNgayCap() != null && cp2.getNgayCap() != null) {
-                    return cp2.getNgayCap().compareTo(cp1.getNgayCap());
-                }
-                return 0;
-            })
-            .collect(Collectors.toList());
-        
-        for (CapPhat capPhat : sortedCapPhatList) {
-            YeuCau yeuCau = findYeuCauById(capPhat.getYeuCauId());
-            if (yeuCau == null) continue;
-            
-            ThietBi thietBi = findThietBiById(yeuCau.getThietBiId());
-            NhanVien nhanVien = findNhanVienById(yeuCau.getNhanVienId());
-            PhongBan phongBan = null;
-            
-            if (nhanVien != null) {
-                phongBan = findPhongBanByMa(nhanVien.getMaPhongBan());
-            }
-            
-            // Determine tình trạng based on ngayTra  
-            String tinhTrangTraHienThi = capPhat.getTinhTrangTra() != null ? 
-                capPhat.getTinhTrangTra().getDisplayName() : 
-                (capPhat.getNgayTra() != null ? "N/A" : "Đang sử dụng");
-            
-            Object[] rowData = {
-                capPhat.getId(),
-                thietBi != null ? thietBi.getGhiChu() : "N/A",
-                nhanVien != null ? nhanVien.getTenNhanVien() : "N/A",
-                phongBan != null ? phongBan.getTenPhongBan() : "N/A",
-                yeuCau.getNgayTao() != null ? yeuCau.getNgayTao().format(formatter) : "N/A",
-                capPhat.getNgayCap() != null ? capPhat.getNgayCap().format(formatter) : "N/A",
-                capPhat.getNgayTra() != null ? capPhat.getNgayTra().format(formatter) : "Chưa trả",
-                tinhTrangTraHienThi,
-                capPhat.getGhiChu() != null ? capPhat.getGhiChu() : ""
-            };
-            
-            tableModel.addRow(rowData);
-        }
-        
-        updateTongSoLabel();
+        resetPaging(null);
     }
     
     private void filterByThietBi() {
@@ -447,111 +416,102 @@ public class LichSuCapPhatPanel extends JPanel {
             return;
         }
         
-        // Clear existing data
-        tableModel.setRowCount(0);
-        
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
-        
-        // Filter all CapPhat records for the selected device
-        List<CapPhat> filteredCapPhat = capPhatList.stream()
-            .filter(capPhat -> {
-                YeuCau yeuCau = findYeuCauById(capPhat.getYeuCauId());
-                return yeuCau != null && yeuCau.getThietBiId().equals(selectedThietBi.getId());
-            })
-            .sorted((cp1, cp2) -> {
-                // Sort by ngayCap descending (newest first)
-                if (cp1.getNgayCap() != null && cp2.getNgayCap() != null) {
-                    return cp2.getNgayCap().compareTo(cp1.getNgayCap());
+        // Số lượt cấp phát được log khi trang đầu tải xong (resetPaging chạy nền)
+        resetPaging(selectedThietBi.getId());
+    }
+    
+    /**
+     * Bắt đầu lại từ trang đầu với bộ lọc thiết bị mới
+     */
+    private void resetPaging(Long thietBiId) {
+        currentThietBiFilter = thietBiId;
+        tableModel.clear();
+        hasMoreRows = false;
+        loadingPage = true;
+        
+        // Lượt tải mới sẽ huỷ trang đang tải dở của bộ lọc cũ
+        BackgroundLoader.getInstance().load(LOAD_KEY_PAGE, "lịch sử cấp phát",
+            () -> {
+                TrangLichSu trang = new TrangLichSu();
+                trang.thongKe = capPhatDAO.getThongKeLichSu(thietBiId);
+                trang.rows = capPhatDAO.findLichSuCapPhatPage(thietBiId, null, null, PAGE_SIZE);
+                return trang;
+            },
+            trang -> {
+                thongKeHienTai = trang.thongKe;
+                onPageLoaded(trang.rows);
+                if (thietBiId != null) {
+                    logger.info("Đã lọc {} lượt cấp phát cho thiết bị ID={}", thongKeHienTai.getTongSo(), thietBiId);
                 }
-                return 0;
-            })
-            .collect(Collectors.toList());
-        
-        // Display filtered results
-        for (CapPhat capPhat : filteredCapPhat) {
-            YeuCau yeuCau = findYeuCauById(capPhat.getYeuCauId());
-            if (yeuCau == null) continue;
-            
-            ThietBi thietBi = findThietBiById(yeuCau.getThietBiId());
-            NhanVien nhanVien = findNhanVienById(yeuCau.getNhanVienId());
-            PhongBan phongBan = null;
-            
-            if (nhanVien != null) {
-                phongBan = findPhongBanByMa(nhanVien.getMaPhongBan());
-            }
-            
-            // Determine tình trạng based on ngayTra
-            String tinhTrangTraHienThi = capPhat.getTinhTrangTra() != null ? 
-                capPhat.getTinhTrangTra().getDisplayName() : 
-                (capPhat.getNgayTra() != null ? "N/A" : "Đang sử dụng");
-            
-            Object[] rowData = {
-                capPhat.getId(),
-                thietBi != null ? thietBi.getGhiChu() : "N/A",
-                nhanVien != null ? nhanVien.getTenNhanVien() : "N/A",
-                phongBan != null ? phongBan.getTenPhongBan() : "N/A",
-                yeuCau.getNgayTao() != null ? yeuCau.getNgayTao().format(formatter) : "N/A",
-                capPhat.getNgayCap() != null ? capPhat.getNgayCap().format(formatter) : "N/A",
-                capPhat.getNgayTra() != null ? capPhat.getNgayTra().format(formatter) : "Chưa trả",
-                tinhTrangTraHienThi,
-                capPhat.getGhiChu() != null ? capPhat.getGhiChu() : ""
-            };
-            
-            tableModel.addRow(rowData);
-        }
-        
-        updateTongSoLabel();
-        
-        // Log the filter result
-        logger.info("Đã lọc " + filteredCapPhat.size() + " lượt cấp phát cho thiết bị: " + 
-                   selectedThietBi.getGhiChu());
+            },
+            this::onPageError);
     }
     
-    private void updateTongSoLabel() {
-        int totalRows = tableModel.getRowCount();
-        int daTra = 0, chuaTra = 0;
-        
-        // Đếm số lượng đã trả và chưa trả
-        for (int i = 0; i < totalRows; i++) {
-            String ngayTra = (String) tableModel.getValueAt(i, 6); // Cột ngày trả
-            if (ngayTra != null && !ngayTra.trim().isEmpty() && !ngayTra.equals("Chưa trả")) {
-                daTra++;
-            } else {
-                chuaTra++;
-            }
+    /**
+     * Tải trang kế tiếp bắt đầu sau dòng cuối cùng đã hiển thị
+     */
+    private void loadNextPage() {
+        if (loadingPage || !hasMoreRows) {
+            return;
         }
-        
-        lblTongSo.setText(String.format("Tổng: %d | Đã trả: %d | Chưa trả: %d", totalRows, daTra, chuaTra));
+        loadingPage = true;
+        
+        Long thietBiId = currentThietBiFilter;
+        int loaded = tableModel.getRowCount();
+        LichSuCapPhat last = loaded == 0 ? null : tableModel.getRow(loaded - 1);
+        BackgroundLoader.getInstance().load(LOAD_KEY_PAGE, "trang lịch sử cấp phát",
+            () -> capPhatDAO.findLichSuCapPhatPage(
+                thietBiId,
+                last != null ? last.getNgayCap() : null,
+                last != null ? last.getCapPhatId() : null,
+                PAGE_SIZE),
+            this::onPageLoaded,
+            this::onPageError);
     }
     
-    // Helper methods
-    private YeuCau findYeuCauById(Long id) {
-        return yeuCauList.stream()
-            .filter(yc -> yc.getId().equals(id))
-            .findFirst()
-            .orElse(null);
+    /**
+     * Trang không tải được: giữ các dòng đã có và báo lỗi; nếu là trang kế tiếp thì cuộn xuống lại sẽ thử tải lại
+     */
+    private void onPageError(Exception e) {
+        loadingPage = false;
+        JOptionPane.showMessageDialog(this,
+            "Lỗi khi tải lịch sử cấp phát: " + e.getMessage(),
+            "Lỗi Database",
+            JOptionPane.ERROR_MESSAGE);
     }
     
-    private ThietBi findThietBiById(Long id) {
-        return thietBiList.stream()
-            .filter(tb -> tb.getId().equals(id))
-            .findFirst()
-            .orElse(null);
+    /**
+     * Nhận một trang đã tải (trên EDT)
+     */
+    private void onPageLoaded(List<LichSuCapPhat> page) {
+        hasMoreRows = page.size() == PAGE_SIZE;
+        tableModel.appendRows(page);
+        loadingPage = false;
+        logger.debug("Đã tải trang lịch sử: {} dòng (tổng đã tải {})", page.size(), tableModel.getRowCount());
+        updateTongSoLabel();
     }
     
-    private NhanVien findNhanVienById(String id) {
-        if (id != null) {
-            return nhanVienList.stream()
-                .filter(nv -> nv.getMaNhanVien().equals(id))
-                .findFirst()
-                .orElse(null);
-        }
-        return null;
+    private static String orNA(String value) {
+        return value != null ? value : "N/A";
     }
     
-    private PhongBan findPhongBanByMa(String maPhongBan) {
-        return phongBanList.stream()
-            .filter(pb -> pb.getMaPhongBan().equals(maPhongBan))
+    private static String tinhTrangTraHienThi(LichSuCapPhat row) {
+        // Determine tình trạng based on ngayTra
+        return row.getTinhTrangTra() != null ?
+            row.getTinhTrangTra().getDisplayName() :
+            (row.getNgayTra() != null ? "N/A" : "Đang sử dụng");
+    }
+    
+    private void updateTongSoLabel() {
+        // Số liệu lấy từ truy vấn aggregate, không phụ thuộc số dòng đã tải
+        lblTongSo.setText(String.format("Tổng: %d | Đã trả: %d | Chưa trả: %d | Đang hiển thị: %d",
+            thongKeHienTai.getTongSo(), thongKeHienTai.getSoDaTra(),
+            thongKeHienTai.getSoDangHoatDong(), tableModel.getRowCount()));
+    }
+    
+    private ThietBi findThietBiById(Long id) {
+        return thietBiList.stream()
+            .filter(tb -> tb.getId().equals(id))
             .findFirst()
             .orElse(null);
     }
@@ -559,31 +519,18 @@ public class LichSuCapPhatPanel extends JPanel {
     /**
      * Validate business logic: Một thiết bị chỉ có thể có tối đa 1 lượt cấp phát đang hoạt động (chưa trả)
      */
-    private void validateBusinessLogic() {
-        Map<Long, List<CapPhat>> deviceActiveAllocations = new HashMap<>();
-        
-        // Group active allocations by device ID
-        for (CapPhat capPhat : capPhatList) {
-            if (capPhat.getNgayTra() == null) { // Chưa trả
-                YeuCau yeuCau = findYeuCauById(capPhat.getYeuCauId());
-                if (yeuCau != null) {
-                    Long thietBiId = yeuCau.getThietBiId();
-                    deviceActiveAllocations.computeIfAbsent(thietBiId, k -> new ArrayList<>()).add(capPhat);
-                }
-            }
-        }
+    private void validateBusinessLogic(Map<Long, Integer> deviceActiveAllocations) {
+        // deviceActiveAllocations: các thiết bị có nhiều hơn 1 cấp phát chưa trả (database đã lọc)
         
         // Check for violations
         List<String> violations = new ArrayList<>();
-        for (Map.Entry<Long, List<CapPhat>> entry : deviceActiveAllocations.entrySet()) {
-            if (entry.getValue().size() > 1) {
-                Long thietBiId = entry.getKey();
-                ThietBi thietBi = findThietBiById(thietBiId);
-                String thietBiTen = thietBi != null ? thietBi.getGhiChu() : "ID: " + thietBiId;
-                
-                violations.add("⚠️ CẢNH BÁO: Thiết bị '" + thietBiTen + "' có " + 
-                    entry.getValue().size() + " lượt cấp phát đang hoạt động cùng lúc!");
-            }
+        for (Map.Entry<Long, Integer> entry : deviceActiveAllocations.entrySet()) {
+            Long thietBiId = entry.getKey();
+            ThietBi thietBi = findThietBiById(thietBiId);
+            String thietBiTen = thietBi != null ? thietBi.getGhiChu() : "ID: " + thietBiId;
+            
+            violations.add("⚠️ CẢNH BÁO: Thiết bị '" + thietBiTen + "' có " + 
+                entry.getValue() + " lượt cấp phát đang hoạt động cùng lúc!");
         }
         
         // Show violations if any
@@ -719,8 +666,8 @@ public class LichSuCapPhatPanel extends JPanel {
      */
     public void addCapPhat(CapPhat capPhat) {
         if (capPhat != null) {
-            capPhatList.add(capPhat);
-            loadLichSuData(); // Refresh UI
+            // Cấp phát mới luôn nằm ở trang đầu, tải lại từ đầu với bộ lọc hiện tại
+            resetPaging(currentThietBiFilter);
             logger.info("Đã thêm cấp phát mới: ID={}", capPhat.getId());
         }
     }
@@ -731,13 +678,10 @@ public class LichSuCapPhatPanel extends JPanel {
     public void updateDataFromAdminPanel(List<CapPhat> capPhatList, List<YeuCau> yeuCauList, 
                                        List<ThietBi> thietBiList, List<NhanVien> nhanVienList, 
                                        List<PhongBan> phongBanList) {
-        if (capPhatList != null) this.capPhatList = capPhatList;
-        if (yeuCauList != null) this.yeuCauList = yeuCauList;
+        // Lịch sử được đọc trực tiếp từ database theo trang, chỉ cần cập nhật danh sách thiết bị
         if (thietBiList != null) this.thietBiList = thietBiList;
-        if (nhanVienList != null) this.nhanVienList = nhanVienList;
-        if (phongBanList != null) this.phongBanList = phongBanList;
         
-        loadLichSuData(); // Refresh UI
+        resetPaging(currentThietBiFilter); // Refresh UI
         logger.info("Đã cập nhật dữ liệu từ AdminPanel");
     }
     
@@ -745,9 +689,19 @@ public class LichSuCapPhatPanel extends JPanel {
      * Refresh data from database
      */
     public void refreshData() {
-        loadDataFromDatabase();
-        loadLichSuData();
-        loadThietBiComboBox();
-        logger.info("Đã refresh dữ liệu từ database");
+        BackgroundLoader.getInstance().load(LOAD_KEY_DATA, "dữ liệu lịch sử cấp phát",
+            this::loadDataFromDatabase,
+            duLieu -> {
+                thietBiList = duLieu.thietBiList;
+                loadThietBiComboBox();
+                loadLichSuData();
+                // Validate business logic after loading data
+                validateBusinessLogic(duLieu.viPham);
+                logger.info("Đã refresh dữ liệu từ database");
+            },
+            e -> JOptionPane.showMessageDialog(this, 
+                "Lỗi khi tải dữ liệu: " + e.getMessage(), 
+                "Lỗi Database", 
+                JOptionPane.ERROR_MESSAGE));
     }
 }
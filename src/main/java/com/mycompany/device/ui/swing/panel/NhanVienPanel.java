@@ -1,28 +1,31 @@
 package com.mycompany.device.ui.swing.panel;
 
 import com.mycompany.device.model.NhanVien;
+import com.mycompany.device.model.PageRequest;
 import com.mycompany.device.model.NhanVien.NhanVienRole;
 import com.mycompany.device.model.PhongBan;
 import com.mycompany.device.service.PhongBanService;
+import com.mycompany.device.ui.route.DisposableScreen;
 import com.mycompany.device.service.impl.PhongBanServiceImpl;
+import com.mycompany.device.ui.swing.service.BackgroundLoader;
+import com.mycompany.device.ui.swing.service.PagedLoader;
+import com.mycompany.device.ui.swing.table.EntityTableModel;
+import com.mycompany.device.ui.swing.table.IndexRowSorter;
 import com.mycompany.device.util.LogoUtil;
 import com.mycompany.device.service.NhanVienService;
 import com.mycompany.device.service.impl.NhanVienServiceImpl;
 import com.mycompany.device.observer.NhanVienObserver;
+import com.mycompany.device.metrics.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
-import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableRowSorter;
-import javax.swing.RowFilter;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,17 +33,18 @@ import java.util.Optional;
  * Panel quản lý nhân viên với NhanVienService integration
  * @author Kim Ngan - UI Layer
  */
-public class NhanVienPanel extends JPanel implements NhanVienObserver {
+public class NhanVienPanel extends JPanel implements NhanVienObserver, DisposableScreen {
 
     private static final Logger logger = LoggerFactory.getLogger(NhanVienPanel.class);
     
     // Service
     private NhanVienService nhanVienService;
+    private NhanVienServiceImpl observedService;
 
     // Components
     private JTable table;
-    private DefaultTableModel tableModel;
-    private TableRowSorter<DefaultTableModel> tableSorter;
+    private EntityTableModel<NhanVien> tableModel;
+    private IndexRowSorter<NhanVien> tableSorter;
     
     // Form components
     private JTextField txtMaNhanVien;
@@ -63,24 +67,19 @@ public class NhanVienPanel extends JPanel implements NhanVienObserver {
     // Search components
     private JTextField txtTimKiem;
     private JComboBox<String> cboTimKiem;
-    
-    // Data
-    private List<NhanVien> nhanVienList;
+    private PagedLoader<NhanVien> taiTrang;
     
     // Services
     private PhongBanService phongBanService;
     
-    // Table columns
-    private final String[] columnNames = {
-        "Mã NV", "Tên nhân viên", "Email", "Số điện thoại", 
-        "Vai trò", "Mã phòng ban", "Ngày tạo"
-    };
+    private static final DateTimeFormatter NGAY_TAO_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    
+    // Khoá cho BackgroundLoader: lượt làm mới sau sẽ huỷ lượt trước
+    private static final String LOAD_KEY_NHAN_VIEN = "NhanVienPanel.nhanVien";
+    private static final String LOAD_KEY_PHONG_BAN = "NhanVienPanel.phongBan";
     
     public NhanVienPanel() {
-        // Khởi tạo nhanVienList trước tiên
-        nhanVienList = new ArrayList<>();
-        
-        phongBanService = new PhongBanServiceImpl();
+        phongBanService = Metrics.instrument(PhongBanService.class, new PhongBanServiceImpl());
         initializeService();
         initializeComponents();
         setupLayout();
@@ -94,26 +93,31 @@ public class NhanVienPanel extends JPanel implements NhanVienObserver {
      * Khởi tạo NhanVienService và đăng ký observer
      */
     private void initializeService() {
-        this.nhanVienService = new NhanVienServiceImpl();
+        NhanVienServiceImpl service = new NhanVienServiceImpl();
         
-        // Đăng ký panel làm observer
-        if (nhanVienService instanceof NhanVienServiceImpl) {
-            ((NhanVienServiceImpl) nhanVienService).addObserver(this);
-        }
+        // Đăng ký panel làm observer trên subject dùng chung; ScreenRouter bỏ panel thì disposeScreen() gỡ ra,
+        // tham chiếu yếu chỉ là lưới an toàn khi panel bị GC thu hồi mà không qua router
+        service.addWeakObserver(this);
+        this.observedService = service;
+        this.nhanVienService = Metrics.instrument(NhanVienService.class, service);
         
         logger.info("Đã khởi tạo NhanVienService và đăng ký observer");
     }
     
     private void initializeComponents() {
         // Initialize table
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Make table read-only
-            }
-        };
+        tableModel = new EntityTableModel<NhanVien>(
+            EntityTableModel.column("Mã NV", NhanVien::getMaNhanVien),
+            EntityTableModel.column("Tên nhân viên", NhanVien::getTenNhanVien),
+            EntityTableModel.column("Email", NhanVien::getEmail),
+            EntityTableModel.column("Số điện thoại", NhanVien::getSoDienThoai),
+            EntityTableModel.column("Vai trò", nv -> nv.getRole().getDisplayName()),
+            EntityTableModel.column("Mã phòng ban", NhanVien::getMaPhongBan),
+            EntityTableModel.column("Ngày tạo",
+                nv -> nv.getNgayTao() != null ? nv.getNgayTao().format(NGAY_TAO_FORMATTER) : "", NhanVien::getNgayTao)
+        );
         table = new JTable(tableModel);
-        tableSorter = new TableRowSorter<>(tableModel);
+        tableSorter = new IndexRowSorter<>(tableModel);
         table.setRowSorter(tableSorter);
         
         // Table settings
@@ -165,6 +169,28 @@ public class NhanVienPanel extends JPanel implements NhanVienObserver {
             "Tất cả", "Mã nhân viên", "Tên nhân viên", "Email", 
             "Số điện thoại", "Vai trò", "Mã phòng ban"
         });
+        
+        // Tìm kiếm chạy trên database, kết quả cũng tải theo trang
+        taiTrang = new PagedLoader<NhanVien>(LOAD_KEY_NHAN_VIEN, "nhân viên", PageRequest.of(PagedLoader.PAGE_SIZE),
+            nhanVienService::timTrangNhanVien, new PagedLoader.Listener<NhanVien>() {
+                @Override
+                public void onReset() {
+                    tableModel.clear(); // Clear existing data
+                }
+                
+                @Override
+                public void onRows(List<NhanVien> rows) {
+                    tableModel.appendRows(rows);
+                    logger.debug("Đã load {} nhân viên từ service", tableModel.getRowCount());
+                }
+                
+                @Override
+                public void onError(Exception e) {
+                    // Giữ nguyên dữ liệu đang hiển thị
+                    JOptionPane.showMessageDialog(NhanVienPanel.this, "Lỗi khi tải dữ liệu: " + e.getMessage(), 
+                                                "Lỗi", JOptionPane.ERROR_MESSAGE);
+                }
+            });
     }
     
     private void styleButton(JButton button) {
@@ -226,6 +252,7 @@ public class NhanVienPanel extends JPanel implements NhanVienObserver {
         
         JScrollPane scrollPane = new JScrollPane(table);
         scrollPane.setPreferredSize(new Dimension(600, 300));
+        taiTrang.installOn(scrollPane);
         panel.add(scrollPane, BorderLayout.CENTER);
         
         return panel;
@@ -324,56 +351,15 @@ public class NhanVienPanel extends JPanel implements NhanVienObserver {
         btnTimKiem.addActionListener(this::handleTimKiem);
         btnLamSach.addActionListener(this::handleLamSach);
         
-        // Enter key for search
-        txtTimKiem.addActionListener(this::handleTimKiem);
+        // Tìm khi gõ (debounce), Enter hoặc đổi tiêu chí thì tìm ngay
+        taiTrang.bindSearch(txtTimKiem, cboTimKiem);
     }
     
     /**
-     * Load dữ liệu từ NhanVienService
+     * Load trang đầu danh sách nhân viên ở luồng nền, các trang sau tải khi cuộn gần cuối bảng
      */
     private void loadDataFromService() {
-        try {
-            List<NhanVien> data = nhanVienService.xemDanhSachNhanVien();
-            if (data != null) {
-                nhanVienList = data;
-            } else {
-                nhanVienList = new ArrayList<>();
-            }
-            loadDataToTable();
-            logger.info("Đã load {} nhân viên từ service", nhanVienList.size());
-        } catch (Exception e) {
-            logger.error("Lỗi khi load dữ liệu từ service", e);
-            // Đảm bảo nhanVienList không null
-            if (nhanVienList == null) {
-                nhanVienList = new ArrayList<>();
-            }
-            loadDataToTable(); // Vẫn load table với list rỗng
-            JOptionPane.showMessageDialog(this, "Lỗi khi tải dữ liệu: " + e.getMessage(), 
-                                        "Lỗi", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-    
-    private void loadDataToTable() {
-        tableModel.setRowCount(0); // Clear existing data
-        
-        // Kiểm tra nhanVienList không null
-        if (nhanVienList == null) {
-            logger.warn("nhanVienList is null, initializing empty list");
-            nhanVienList = new ArrayList<>();
-        }
-        
-        for (NhanVien nv : nhanVienList) {
-            Object[] row = {
-                nv.getMaNhanVien(),
-                nv.getTenNhanVien(),
-                nv.getEmail(),
-                nv.getSoDienThoai(),
-                nv.getRole().getDisplayName(),
-                nv.getMaPhongBan(),
-                nv.getNgayTao().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"))
-            };
-            tableModel.addRow(row);
-        }
+        taiTrang.reload();
     }
     
     private void loadSelectedRowToForm() {
@@ -382,11 +368,7 @@ public class NhanVienPanel extends JPanel implements NhanVienObserver {
             // Convert view index to model index
             int modelRow = table.convertRowIndexToModel(selectedRow);
             
-            // Find corresponding NhanVien object
-            String maNhanVien = (String) tableModel.getValueAt(modelRow, 0);
-            NhanVien nv = nhanVienList.stream()
-                    .filter(n -> n.getMaNhanVien().equals(maNhanVien))
-                    .findFirst().orElse(null);
+            NhanVien nv = tableModel.getRow(modelRow);
             
             if (nv != null) {
                 txtMaNhanVien.setText(nv.getMaNhanVien());
@@ -496,7 +478,7 @@ public class NhanVienPanel extends JPanel implements NhanVienObserver {
         try {
             // Convert view index to model index
             int modelRow = table.convertRowIndexToModel(selectedRow);
-            String maNhanVien = (String) tableModel.getValueAt(modelRow, 0);
+            String maNhanVien = tableModel.getRow(modelRow).getMaNhanVien();
             
             // Tìm nhân viên hiện tại
             Optional<NhanVien> nhanVienOpt = nhanVienService.timNhanVienTheoMa(maNhanVien);
@@ -553,7 +535,7 @@ public class NhanVienPanel extends JPanel implements NhanVienObserver {
             try {
                 // Convert view index to model index
                 int modelRow = table.convertRowIndexToModel(selectedRow);
-                String maNhanVien = (String) tableModel.getValueAt(modelRow, 0);
+                String maNhanVien = tableModel.getRow(modelRow).getMaNhanVien();
                 
                 // Xóa qua service
                 boolean success = nhanVienService.xoaNhanVien(maNhanVien);
@@ -575,71 +557,36 @@ public class NhanVienPanel extends JPanel implements NhanVienObserver {
     }
     
     private void handleLamMoi(ActionEvent e) {
-        loadDataFromService();
         clearForm();
         txtTimKiem.setText("");
         cboTimKiem.setSelectedIndex(0);
-        tableSorter.setRowFilter(null);
+        // Bỏ từ khoá và tải lại từ trang đầu
+        taiTrang.search((String) cboTimKiem.getSelectedItem(), "");
     }
     
     private void handleTimKiem(ActionEvent e) {
-        String keyword = txtTimKiem.getText().trim().toLowerCase();
-        String searchType = (String) cboTimKiem.getSelectedItem();
-        
-        if (keyword.isEmpty()) {
-            tableSorter.setRowFilter(null);
-            return;
-        }
-        
-        RowFilter<DefaultTableModel, Object> rowFilter = new RowFilter<DefaultTableModel, Object>() {
-            @Override
-            public boolean include(Entry<? extends DefaultTableModel, ? extends Object> entry) {
-                if ("Tất cả".equals(searchType)) {
-                    // Search in all columns
-                    for (int i = 0; i < entry.getValueCount(); i++) {
-                        if (entry.getStringValue(i).toLowerCase().contains(keyword)) {
-                            return true;
-                        }
-                    }
-                    return false;
-                } else {
-                    // Search in specific column
-                    int columnIndex = getColumnIndex(searchType);
-                    if (columnIndex >= 0) {
-                        return entry.getStringValue(columnIndex).toLowerCase().contains(keyword);
-                    }
-                    return false;
-                }
-            }
-        };
-        
-        tableSorter.setRowFilter(rowFilter);
-    }
-    
-    private int getColumnIndex(String searchType) {
-        switch (searchType) {
-            case "Mã nhân viên": return 0;
-            case "Tên nhân viên": return 1;
-            case "Email": return 2;
-            case "Số điện thoại": return 3;
-            case "Vai trò": return 4;
-            case "Mã phòng ban": return 5;
-            default: return -1;
-        }
+        taiTrang.search((String) cboTimKiem.getSelectedItem(), txtTimKiem.getText());
     }
     
     private void handleLamSach(ActionEvent e) {
         txtTimKiem.setText("");
         cboTimKiem.setSelectedIndex(0);
-        tableSorter.setRowFilter(null);
+        taiTrang.search((String) cboTimKiem.getSelectedItem(), "");
     }
     
     /**
      * Load phòng ban data vào combobox
      */
     private void loadPhongBanData() {
+        BackgroundLoader.getInstance().load(LOAD_KEY_PHONG_BAN, "phòng ban",
+            phongBanService::xemDanhSachPhongBan,
+            this::populatePhongBanComboBox,
+            e -> JOptionPane.showMessageDialog(this, "Không thể tải danh sách phòng ban: " + e.getMessage(),
+                                               "Lỗi", JOptionPane.ERROR_MESSAGE));
+    }
+    
+    private void populatePhongBanComboBox(List<PhongBan> phongBanList) {
         try {
-            java.util.List<PhongBan> phongBanList = phongBanService.xemDanhSachPhongBan();
             cboPhongBan.removeAllItems();
             
             // Set custom renderer để hiển thị tên phòng ban
@@ -660,7 +607,7 @@ public class NhanVienPanel extends JPanel implements NhanVienObserver {
                 cboPhongBan.addItem(phongBan);
             }
         } catch (Exception e) {
-            System.err.println("Lỗi khi load dữ liệu phòng ban: " + e.getMessage());
+            logger.error("Lỗi khi hiển thị danh sách phòng ban", e);
         }
     }
     
@@ -686,6 +633,14 @@ public class NhanVienPanel extends JPanel implements NhanVienObserver {
         loadDataFromService();
     }
     
+    /**
+     * ScreenRouter bỏ hẳn panel: gỡ observer khỏi subject dùng chung ngay, không chờ GC
+     */
+    @Override
+    public void disposeScreen() {
+        observedService.removeObserver(this);
+    }
+    
     // ===========================================
     // NhanVienObserver Implementation
     // ===========================================
@@ -1,26 +1,40 @@
 package com.mycompany.device.ui.swing.panel;
 
 import com.mycompany.device.controller.ThietBiController;
+import com.mycompany.device.model.BaoCaoNhapThietBi;
 import com.mycompany.device.dao.LoaiThietBiDAO;
-import com.mycompany.device.dao.impl.LoaiThietBiDAOMySQLImpl;
+import com.mycompany.device.dao.impl.LoaiThietBiDAOCacheImpl;
 import com.mycompany.device.model.ThietBi;
+import com.mycompany.device.model.PageRequest;
+import com.mycompany.device.ui.swing.service.BackgroundLoader;
+import com.mycompany.device.ui.swing.service.PagedLoader;
+import com.mycompany.device.ui.swing.table.EntityTableModel;
+import com.mycompany.device.ui.swing.table.IndexRowSorter;
+import com.mycompany.device.util.ConfigLoader;
 import com.mycompany.device.util.LogoUtil;
 import com.mycompany.device.model.ThietBi.TrangThaiThietBi;
 import com.mycompany.device.model.LoaiThietBi;
+import com.mycompany.device.metrics.Metrics;
 
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.io.File;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 /**
@@ -32,8 +46,11 @@ public class ThietBiPanel extends JPanel {
     
     // Table components
     private JTable table;
-    private DefaultTableModel tableModel;
+    private EntityTableModel<ThietBi> tableModel;
+    private IndexRowSorter<ThietBi> tableSorter;
     private JScrollPane scrollPane;
+    // Ô soạn thảo dùng lại để đo chiều cao dòng
+    private final JTextArea rowHeightProbe = new JTextArea();
     
     // Form components
     private JTextField txtId;
@@ -49,46 +66,97 @@ public class ThietBiPanel extends JPanel {
     private JButton btnSua;
     private JButton btnXoa;
     private JButton btnLamMoi;
+    private JButton btnNhapCsv;
+    private JProgressBar progressNhap;
+    private boolean dangNhap;
+    // Cờ huỷ của lượt nhập hiện tại, luồng nhập kiểm tra giữa các lô
+    private AtomicBoolean huyNhap = new AtomicBoolean();
     
     // Search components
     private JTextField txtTimKiem;
     private JComboBox<String> cboTimKiem;
     private JButton btnTimKiem;
     private JButton btnLamSach;
+    // Gộp phím gõ rồi mới tìm trên database; true khi bảng đang hiển thị kết quả tìm kiếm thay vì các trang
+    private Timer timKiemTimer;
+    private boolean dangTimKiem;
+    // Chỉ một truy vấn tìm kiếm chạy tại một thời điểm; từ khoá gõ thêm trong lúc chờ được xét khi kết quả về
+    private boolean timKiemDangChay;
+    private boolean timKiemCanChayLai;
+    // Kết quả (đã xếp hạng) của lần tìm gần nhất trên database, để lọc tiếp trong bộ nhớ khi chỉ gõ thêm ký tự
+    private String ketQuaTuKhoa;
+    private String ketQuaLoai;
+    private List<ThietBi> ketQuaTimKiem;
     
-    // Data & Controller
-    private List<ThietBi> thietBiList;
+    // Data & Controller (các trang thiết bị đã tải nằm trong tableModel)
+    private PagedLoader<ThietBi> taiTrang;
     private List<LoaiThietBi> loaiThietBiList;
+    private Map<Long, String> tenLoaiById = new HashMap<>();
     private final ThietBiController thietBiController; // Controller mới
     private final LoaiThietBiDAO loaiThietBiDAO; // DAO cho Loại thiết bị
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    
+    // Khoá cho BackgroundLoader: lượt làm mới sau sẽ huỷ lượt trước
+    private static final String LOAD_KEY_THIET_BI = "ThietBiPanel.thietBi";
+    private static final String LOAD_KEY_LOAI = "ThietBiPanel.loaiThietBi";
+    private static final String LOAD_KEY_NHAP = "ThietBiPanel.nhapCsv";
+    private static final String LOAD_KEY_TIM_KIEM = "ThietBiPanel.timKiem";
+    private static final int SEARCH_DEBOUNCE_MS = Math.max(0, ConfigLoader.getIntProperty("SEARCH_DEBOUNCE_MS", 200));
+    // Cùng giới hạn với ThietBiDAO.search: kết quả ít hơn số này là đầy đủ, lọc tiếp trong bộ nhớ được
+    private static final int SEARCH_LIMIT = Math.max(1, ConfigLoader.getIntProperty("THIETBI_SEARCH_LIMIT", 200));
     
     public ThietBiPanel() {
         // Khởi tạo Controller và DAO
         this.thietBiController = new ThietBiController();
-        // Giả định LoaiThietBiDAOMySQLImpl đã tồn tại và triển khai LoaiThietBiDAO
-        this.loaiThietBiDAO = new LoaiThietBiDAOMySQLImpl(); 
-        this.thietBiList = new ArrayList<>();
+        // Decorator có cache đặt trước LoaiThietBiDAOMySQLImpl
+        this.loaiThietBiDAO = Metrics.instrument(LoaiThietBiDAO.class, new LoaiThietBiDAOCacheImpl()); 
+        this.loaiThietBiList = new ArrayList<>();
         
         initializeComponents();
         setupLayout();
         setupEventHandlers();
         
-        loadLoaiThietBiData(); // Tải dữ liệu Loại TB từ DB
-        loadTableData(thietBiController.getAllThietBi()); // Tải dữ liệu TB từ DB
         clearForm();
+        loadLoaiThietBiData(); // Tải dữ liệu Loại TB rồi dữ liệu TB từ DB (chạy nền)
     }
     
-    private void initializeComponents() {
-        // Initialize table
-        String[] columnNames = {"ID", "Số Serial", "Loại thiết bị", "Trạng thái", "Ngày mua", "Giá mua", "Ghi chú", "Ngày tạo"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Make table read-only
+    /**
+     * Tải lại trang đầu danh sách thiết bị (mới nhất trước) ở luồng nền; các trang sau tải khi cuộn.
+     * Đang tìm kiếm thì chạy lại truy vấn tìm kiếm.
+     */
+    public void refreshData() {
+        // Dữ liệu đã đổi: bỏ kết quả tìm cũ, truy vấn đang chạy (nếu có) sẽ được chạy lại khi xong
+        ketQuaTimKiem = null;
+        if (dangTimKiem) {
+            if (timKiemDangChay) {
+                timKiemCanChayLai = true;
+            } else {
+                timKiemNgay();
             }
-        };
+        } else {
+            taiTrang.reload();
+        }
+    }
+    
+    private void initializeComponents() {
+        // Initialize table: giá trị ô chỉ được định dạng khi render, sắp xếp theo giá trị gốc
+        tableModel = new EntityTableModel<ThietBi>(
+            EntityTableModel.column("ID", ThietBi::getId),
+            EntityTableModel.column("Số Serial", ThietBi::getSoSerial),
+            EntityTableModel.column("Loại thiết bị", this::tenLoai),
+            EntityTableModel.column("Trạng thái", tb -> tb.getTrangThai().getDisplayName()),
+            EntityTableModel.column("Ngày mua",
+                tb -> tb.getNgayMua() != null ? tb.getNgayMua().format(DATE_FORMATTER) : "", ThietBi::getNgayMua),
+            EntityTableModel.column("Giá mua",
+                tb -> tb.getGiaMua() != null ? tb.getGiaMua().toString() : "", ThietBi::getGiaMua),
+            EntityTableModel.column("Ghi chú", tb -> tb.getGhiChu() != null ? tb.getGhiChu() : ""),
+            EntityTableModel.column("Ngày tạo",
+                tb -> tb.getCreatedAt() != null ? tb.getCreatedAt().format(DATE_TIME_FORMATTER) : "", ThietBi::getCreatedAt)
+        );
         table = new JTable(tableModel);
+        tableSorter = new IndexRowSorter<>(tableModel);
+        table.setRowSorter(tableSorter);
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         table.getTableHeader().setReorderingAllowed(false);
         
@@ -96,6 +164,29 @@ public class ThietBiPanel extends JPanel {
         setupTableAppearance();
         
         scrollPane = new JScrollPane(table);
+        // Đo lại chiều cao cho các dòng vừa cuộn vào viewport
+        scrollPane.getViewport().addChangeListener(e -> updateRowHeights());
+        
+        taiTrang = new PagedLoader<ThietBi>(LOAD_KEY_THIET_BI, "thiết bị", PageRequest.of(PagedLoader.PAGE_SIZE),
+            thietBiController::getThietBiPage, new PagedLoader.Listener<ThietBi>() {
+                @Override
+                public void onReset() {
+                    tableModel.clear();
+                }
+                
+                @Override
+                public void onRows(List<ThietBi> rows) {
+                    tableModel.appendRows(rows);
+                    updateRowHeights();
+                }
+                
+                @Override
+                public void onError(Exception e) {
+                    LogoUtil.showMessageDialog(ThietBiPanel.this, "Lỗi khi tải thiết bị: " + e.getMessage(),
+                        "Lỗi DB", JOptionPane.ERROR_MESSAGE);
+                }
+            });
+        taiTrang.installOn(scrollPane);
         
         // Initialize form components
         txtId = new JTextField();
@@ -127,12 +218,20 @@ public class ThietBiPanel extends JPanel {
         btnSua = new JButton("Sửa");
         btnXoa = new JButton("Xóa");
         btnLamMoi = new JButton("Làm mới");
+        btnNhapCsv = new JButton("Nhập CSV");
+        btnNhapCsv.setToolTipText("Nhập hàng loạt từ file CSV: số serial, mã loại, ngày mua, giá mua, ghi chú");
         
         // Style buttons
         styleButton(btnThem);
         styleButton(btnSua);
         styleButton(btnXoa);
         styleButton(btnLamMoi);
+        styleButton(btnNhapCsv);
+        
+        progressNhap = new JProgressBar(0, 100);
+        progressNhap.setStringPainted(true);
+        progressNhap.setPreferredSize(new Dimension(220, 25));
+        progressNhap.setVisible(false);
         
         // Initialize search components
         txtTimKiem = new JTextField(20);
@@ -142,6 +241,10 @@ public class ThietBiPanel extends JPanel {
         btnTimKiem = new JButton("Tìm kiếm");
         btnLamSach = new JButton("Làm sạch");
         
+        // Bảng chỉ giữ các trang đã cuộn tới nên tìm trên database (ThietBiDAO.search), không lọc trong bộ nhớ
+        timKiemTimer = new Timer(SEARCH_DEBOUNCE_MS, e -> timKiemNgay());
+        timKiemTimer.setRepeats(false);
+        
         styleButton(btnTimKiem);
         styleButton(btnLamSach);
     }
@@ -274,6 +377,8 @@ public class ThietBiPanel extends JPanel {
         panel.add(btnSua);
         panel.add(btnXoa);
         panel.add(btnLamMoi);
+        panel.add(btnNhapCsv);
+        panel.add(progressNhap);
         
         return panel;
     }
@@ -283,7 +388,7 @@ public class ThietBiPanel extends JPanel {
         table.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) {
                 int selectedRow = table.getSelectedRow();
-                if (selectedRow >= 0 && selectedRow < thietBiList.size()) {
+                if (selectedRow >= 0) {
                     loadFormFromTable(selectedRow);
                 }
             }
@@ -294,77 +399,222 @@ public class ThietBiPanel extends JPanel {
         btnSua.addActionListener(this::handleSua);
         btnXoa.addActionListener(this::handleXoa);
         btnLamMoi.addActionListener(this::handleLamMoi);
+        btnNhapCsv.addActionListener(this::handleNhapCsv);
         btnTimKiem.addActionListener(this::handleTimKiem);
         btnLamSach.addActionListener(this::handleLamSach);
+        
+        // Tìm khi gõ (debounce), Enter hoặc đổi tiêu chí thì tìm ngay
+        txtTimKiem.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            @Override
+            public void insertUpdate(javax.swing.event.DocumentEvent e) {
+                timKiemTimer.restart();
+            }
+            
+            @Override
+            public void removeUpdate(javax.swing.event.DocumentEvent e) {
+                timKiemTimer.restart();
+            }
+            
+            @Override
+            public void changedUpdate(javax.swing.event.DocumentEvent e) {
+                // Thay đổi thuộc tính, không đổi nội dung
+            }
+        });
+        txtTimKiem.addActionListener(e -> timKiemNgay());
+        cboTimKiem.addActionListener(e -> timKiemNgay());
     }
     
     /**
-     * Tải dữ liệu thiết bị vào JTable.
-     * @param dataList Danh sách thiết bị cần hiển thị.
+     * Tìm trên database qua ThietBiController.searchThietBi (index FULLTEXT, xếp hạng, giới hạn
+     * THIETBI_SEARCH_LIMIT dòng); kết quả thay các trang trong bảng. Từ khoá rỗng thì quay lại danh sách theo trang.
+     * Từ khoá chỉ gõ thêm so với lần tìm trước (kết quả trước đầy đủ) thì lọc lại kết quả đó trong bộ nhớ.
      */
-    private void loadTableData(List<ThietBi> dataList) {
-        tableModel.setRowCount(0);
-        this.thietBiList = dataList; // Cập nhật danh sách hiện tại
-        
-        for (ThietBi tb : thietBiList) {
-            // Tìm tên loại thiết bị từ ID
-            String tenLoai = loaiThietBiList.stream()
-                                .filter(loai -> tb.getLoaiId() != null && loai.getId().equals(tb.getLoaiId()))
-                                .findFirst()
-                                .map(LoaiThietBi::getTenLoai)
-                                .orElse("Không xác định"); 
-            
-            Object[] row = {
-                tb.getId(), // Thêm ID vào cột đầu tiên (Ẩn nếu muốn, nhưng tiện cho việc tìm kiếm)
-                tb.getSoSerial(),
-                tenLoai, 
-                tb.getTrangThai().getDisplayName(),
-                tb.getNgayMua() != null ? tb.getNgayMua().format(DATE_FORMATTER) : "",
-                tb.getGiaMua() != null ? tb.getGiaMua().toString() : "",
-                tb.getGhiChu() != null ? tb.getGhiChu() : "",
-                tb.getCreatedAt() != null ? tb.getCreatedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")) : ""
-            };
-            tableModel.addRow(row);
+    private void timKiemNgay() {
+        timKiemTimer.stop();
+        String keyword = txtTimKiem.getText().trim();
+        String searchType = (String) cboTimKiem.getSelectedItem();
+        if (keyword.isEmpty()) {
+            BackgroundLoader.getInstance().cancel(LOAD_KEY_TIM_KIEM);
+            timKiemDangChay = false;
+            timKiemCanChayLai = false;
+            ketQuaTimKiem = null;
+            if (dangTimKiem) {
+                dangTimKiem = false;
+                taiTrang.reload();
+            }
+            return;
         }
-        
-        // Cập nhật row heights sau khi load data để hỗ trợ wrap text
+        // Dừng tải trang: trang đến muộn hoặc cuộn xuống không được nối vào kết quả tìm kiếm
+        dangTimKiem = true;
+        taiTrang.cancel();
+        if (timKiemDangChay) {
+            // Không mở thêm truy vấn: khi kết quả về sẽ so lại với từ khoá hiện tại
+            return;
+        }
+        List<ThietBi> daLoc = locKetQuaTruoc(keyword, searchType);
+        if (daLoc != null) {
+            hienThiKetQuaTimKiem(daLoc);
+            return;
+        }
+        timKiemDangChay = true;
+        BackgroundLoader.getInstance().load(LOAD_KEY_TIM_KIEM, "tìm thiết bị",
+            () -> thietBiController.searchThietBi(keyword, searchType),
+            ketQua -> {
+                timKiemDangChay = false;
+                if (timKiemCanChayLai) {
+                    timKiemCanChayLai = false;
+                    timKiemNgay();
+                    return;
+                }
+                ketQuaTuKhoa = keyword;
+                ketQuaLoai = searchType;
+                ketQuaTimKiem = ketQua;
+                if (!keyword.equals(txtTimKiem.getText().trim()) || !searchType.equals(cboTimKiem.getSelectedItem())) {
+                    timKiemNgay();
+                    return;
+                }
+                hienThiKetQuaTimKiem(ketQua);
+            },
+            e -> {
+                timKiemDangChay = false;
+                timKiemCanChayLai = false;
+                LogoUtil.showMessageDialog(this, "Lỗi khi tìm kiếm thiết bị: " + e.getMessage(),
+                    "Lỗi DB", JOptionPane.ERROR_MESSAGE);
+            });
+    }
+    
+    private void hienThiKetQuaTimKiem(List<ThietBi> ketQua) {
+        tableModel.clear();
+        tableModel.appendRows(ketQua);
         updateRowHeights();
     }
     
     /**
-     * Cập nhật chiều cao các row để phù hợp với nội dung wrap text
+     * Lọc kết quả lần tìm trước theo từ khoá mới, cùng điều kiện khớp chuỗi con như ThietBiDAO.search.
+     * Trả null khi phải hỏi database: khác tiêu chí, tìm theo "Loại ID" (khớp đúng), từ khoá mới không chứa
+     * từ khoá cũ, hoặc kết quả cũ đã chạm giới hạn (có thể thiếu dòng).
+     */
+    private List<ThietBi> locKetQuaTruoc(String keyword, String searchType) {
+        if (ketQuaTimKiem == null || !searchType.equals(ketQuaLoai) || "Loại ID".equals(searchType)
+                || ketQuaTimKiem.size() >= SEARCH_LIMIT) {
+            return null;
+        }
+        String lower = keyword.toLowerCase(Locale.ROOT);
+        if (!lower.contains(ketQuaTuKhoa.toLowerCase(Locale.ROOT))) {
+            return null;
+        }
+        List<ThietBi> daLoc = new ArrayList<>();
+        for (ThietBi tb : ketQuaTimKiem) {
+            if (khopTuKhoa(tb, lower, searchType)) {
+                daLoc.add(tb);
+            }
+        }
+        // Xếp như database: trùng serial, rồi tiền tố serial, còn lại giữ thứ tự cũ (sort ổn định)
+        daLoc.sort(Comparator.comparingInt(tb -> hangSerial(tb, lower)));
+        return daLoc;
+    }
+    
+    private static boolean khopTuKhoa(ThietBi tb, String lower, String searchType) {
+        switch (searchType) {
+            case "Số Serial":
+                return chua(tb.getSoSerial(), lower);
+            case "Ghi chú":
+                return chua(tb.getGhiChu(), lower);
+            case "Trạng thái":
+                return khopTrangThai(tb, lower);
+            case "Tất cả":
+            default:
+                return chua(tb.getSoSerial(), lower) || chua(tb.getGhiChu(), lower) || khopTrangThai(tb, lower);
+        }
+    }
+    
+    private static boolean chua(String value, String lower) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(lower);
+    }
+    
+    private static boolean khopTrangThai(ThietBi tb, String lower) {
+        TrangThaiThietBi trangThai = tb.getTrangThai();
+        return trangThai != null && (trangThai.name().toLowerCase(Locale.ROOT).contains(lower)
+            || trangThai.getDisplayName().toLowerCase(Locale.ROOT).contains(lower));
+    }
+    
+    private static int hangSerial(ThietBi tb, String lower) {
+        String serial = tb.getSoSerial() != null ? tb.getSoSerial().toLowerCase(Locale.ROOT) : "";
+        if (serial.equals(lower)) {
+            return 0;
+        }
+        return serial.startsWith(lower) ? 1 : 2;
+    }
+    
+    /**
+     * Map id loại -> tên loại, dựng lại mỗi khi tải danh sách loại
+     */
+    private void buildTenLoaiById() {
+        Map<Long, String> map = new HashMap<>();
+        for (LoaiThietBi loai : loaiThietBiList) {
+            map.put(loai.getId(), loai.getTenLoai());
+        }
+        tenLoaiById = map;
+    }
+    
+    private String tenLoai(ThietBi tb) {
+        return tb.getLoaiId() != null
+            ? tenLoaiById.getOrDefault(tb.getLoaiId(), "Không xác định")
+            : "Không xác định";
+    }
+    
+    /**
+     * Thiết bị ở dòng đang hiển thị (chỉ số view)
+     */
+    private ThietBi getThietBiAt(int viewRow) {
+        return tableModel.getRow(table.convertRowIndexToModel(viewRow));
+    }
+    
+    /**
+     * Cập nhật chiều cao các row để phù hợp với nội dung wrap text.
+     * Chỉ đo các dòng đang nằm trong viewport (gọi lại khi cuộn) thay vì toàn bộ bảng
      */
     private void updateRowHeights() {
-        // Code cập nhật chiều cao hàng không thay đổi.
-        for (int row = 0; row < table.getRowCount(); row++) {
+        Rectangle visible = table.getVisibleRect();
+        if (table.getRowCount() == 0 || visible.height <= 0) {
+            return;
+        }
+        int first = table.rowAtPoint(new Point(0, visible.y));
+        int last = table.rowAtPoint(new Point(0, visible.y + visible.height - 1));
+        if (first < 0) {
+            return;
+        }
+        if (last < 0) {
+            last = table.getRowCount() - 1;
+        }
+        
+        rowHeightProbe.setFont(table.getFont());
+        rowHeightProbe.setWrapStyleWord(true);
+        rowHeightProbe.setLineWrap(true);
+        for (int row = first; row <= last; row++) {
             int maxHeight = 35; // Chiều cao tối thiểu
             
             for (int col = 0; col < table.getColumnCount(); col++) {
                 Object value = table.getValueAt(row, col);
-                if (value != null) {
-                    JTextArea textArea = new JTextArea();
-                    textArea.setText(value.toString());
-                    textArea.setFont(table.getFont());
-                    textArea.setWrapStyleWord(true);
-                    textArea.setLineWrap(true);
-                    
-                    // Lấy width của cột
-                    int colWidth = table.getColumnModel().getColumn(col).getWidth();
-                    if (colWidth > 0) {
-                        textArea.setSize(colWidth - 20, Short.MAX_VALUE); // Trừ padding
-                        int preferredHeight = textArea.getPreferredSize().height + 10; // Thêm padding
-                        maxHeight = Math.max(maxHeight, preferredHeight);
-                    }
+                // Lấy width của cột
+                int colWidth = table.getColumnModel().getColumn(col).getWidth();
+                if (value != null && colWidth > 0) {
+                    rowHeightProbe.setText(value.toString());
+                    rowHeightProbe.setSize(colWidth - 20, Short.MAX_VALUE); // Trừ padding
+                    int preferredHeight = rowHeightProbe.getPreferredSize().height + 10; // Thêm padding
+                    maxHeight = Math.max(maxHeight, preferredHeight);
                 }
             }
             
-            table.setRowHeight(row, maxHeight);
+            if (table.getRowHeight(row) != maxHeight) {
+                table.setRowHeight(row, maxHeight);
+            }
         }
     }
     
     private void loadFormFromTable(int row) {
-        if (row >= 0 && row < thietBiList.size()) {
-            ThietBi tb = thietBiList.get(row);
+        if (row >= 0 && row < table.getRowCount()) {
+            ThietBi tb = getThietBiAt(row);
             
             txtId.setText(tb.getId() != null ? tb.getId().toString() : "");
             txtSoSerial.setText(tb.getSoSerial() != null ? tb.getSoSerial() : "");
@@ -459,7 +709,7 @@ public class ThietBiPanel extends JPanel {
             boolean success = thietBiController.createThietBi(newThietBi);
             
             if (success) {
-                loadTableData(thietBiController.getAllThietBi()); // Tải lại toàn bộ bảng
+                refreshData(); // Tải lại toàn bộ bảng
                 clearForm();
                 LogoUtil.showMessageDialog(this, "Thêm thiết bị thành công!", "Thông báo", JOptionPane.INFORMATION_MESSAGE);
                 // Chọn hàng mới được thêm vào (nếu cần)
@@ -483,20 +733,20 @@ public class ThietBiPanel extends JPanel {
         
         try {
             // Lấy ID của thiết bị đang được chọn trong danh sách hiện tại
-            Long idToUpdate = thietBiList.get(selectedRow).getId(); 
+            Long idToUpdate = getThietBiAt(selectedRow).getId(); 
             
             ThietBi updatedThietBi = createThietBiFromForm();
             updatedThietBi.setId(idToUpdate); // Gán lại ID cho đối tượng
             
             // Giữ nguyên createdAt từ đối tượng cũ
-            ThietBi existingThietBi = thietBiList.get(selectedRow);
+            ThietBi existingThietBi = getThietBiAt(selectedRow);
             updatedThietBi.setCreatedAt(existingThietBi.getCreatedAt()); 
             
             // Gọi Controller để thực hiện cập nhật vào DB
             boolean success = thietBiController.updateThietBi(updatedThietBi);
             
             if (success) {
-                loadTableData(thietBiController.getAllThietBi()); // Tải lại toàn bộ bảng
+                refreshData(); // Tải lại toàn bộ bảng
                 LogoUtil.showMessageDialog(this, "Cập nhật thiết bị thành công!", "Thông báo", JOptionPane.INFORMATION_MESSAGE);
             } else {
                 LogoUtil.showMessageDialog(this, "Cập nhật thiết bị thất bại!", "Lỗi", JOptionPane.ERROR_MESSAGE);
@@ -516,7 +766,7 @@ public class ThietBiPanel extends JPanel {
             return;
         }
         
-        ThietBi thietBi = thietBiList.get(selectedRow);
+        ThietBi thietBi = getThietBiAt(selectedRow);
         int result = LogoUtil.showConfirmDialog(
             this,
             "Bạn có chắc chắn muốn xóa thiết bị: " + thietBi.getSoSerial() + "?",
@@ -529,7 +779,7 @@ public class ThietBiPanel extends JPanel {
             boolean success = thietBiController.deleteThietBi(thietBi.getId());
             
             if (success) {
-                loadTableData(thietBiController.getAllThietBi()); // Tải lại toàn bộ bảng
+                refreshData(); // Tải lại toàn bộ bảng
                 clearForm();
                 LogoUtil.showMessageDialog(this, "Xóa thiết bị thành công!", "Thông báo", JOptionPane.INFORMATION_MESSAGE);
             } else {
@@ -541,43 +791,138 @@ public class ThietBiPanel extends JPanel {
     private void handleLamMoi(ActionEvent e) {
         clearForm();
         table.clearSelection();
-        loadTableData(thietBiController.getAllThietBi()); // Tải lại dữ liệu gốc từ DB
         txtTimKiem.setText("");
         cboTimKiem.setSelectedIndex(0);
+        dangTimKiem = false;
+        refreshData(); // Tải lại dữ liệu gốc từ DB
     }
     
-    private void handleTimKiem(ActionEvent e) {
-        // *** ĐẢM BẢO KEYWORD KHÔNG CÓ KHOẢNG TRẮNG DƯ THỪA TRƯỚC KHI TRUYỀN ***
-        String keyword = txtTimKiem.getText().trim(); 
-        String searchType = (String) cboTimKiem.getSelectedItem();
+    /**
+     * Nhập thiết bị từ CSV ở luồng nền; bấm lần nữa khi đang nhập để dừng
+     */
+    private void handleNhapCsv(ActionEvent e) {
+        if (dangNhap) {
+            int confirm = LogoUtil.showConfirmDialog(this,
+                "Dừng nhập? Các lô đã ghi vào database sẽ được giữ lại.", "Xác nhận", JOptionPane.YES_NO_OPTION);
+            if (confirm == JOptionPane.YES_OPTION) {
+                // Luồng nhập tự dừng sau lô đang ghi; cancel() chỉ bỏ qua kết quả về muộn
+                huyNhap.set(true);
+                BackgroundLoader.getInstance().cancel(LOAD_KEY_NHAP);
+                ketThucNhap();
+                refreshData();
+            }
+            return;
+        }
+        
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Chọn file CSV thiết bị");
+        chooser.setFileFilter(new FileNameExtensionFilter("CSV (*.csv, *.txt)", "csv", "txt"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
         
-        // DÒNG DEBUG: Giúp bạn kiểm tra giá trị đang được truyền đi
-        System.out.println("DEBUG: Searching for '" + keyword + "' using type '" + searchType + "'");
+        AtomicBoolean daHuy = new AtomicBoolean();
+        huyNhap = daHuy;
+        dangNhap = true;
+        btnNhapCsv.setText("Dừng nhập");
+        progressNhap.setValue(0);
+        progressNhap.setString("0%");
+        progressNhap.setVisible(true);
+        revalidate();
         
-        // Gọi Controller để thực hiện tìm kiếm
-        List<ThietBi> filteredList = thietBiController.searchThietBi(keyword, searchType);
+        BackgroundLoader.getInstance().load(LOAD_KEY_NHAP, "thiết bị từ " + file.getName(),
+            () -> thietBiController.nhapTuCsv(file.toPath(),
+                (soDongDaDoc, soThanhCong, soLoi, byteDaDoc, tongSoByte) -> SwingUtilities.invokeLater(
+                    () -> capNhatTienDoNhap(soDongDaDoc, soThanhCong, soLoi, byteDaDoc, tongSoByte)),
+                daHuy::get),
+            baoCao -> {
+                ketThucNhap();
+                refreshData();
+                hienThiBaoCaoNhap(baoCao);
+            },
+            ex -> {
+                ketThucNhap();
+                refreshData();
+                LogoUtil.showMessageDialog(this, "Lỗi khi nhập file: " + ex.getMessage(), "Lỗi", JOptionPane.ERROR_MESSAGE);
+            });
+    }
+    
+    private void capNhatTienDoNhap(long soDongDaDoc, long soThanhCong, long soLoi, long byteDaDoc, long tongSoByte) {
+        if (!dangNhap) {
+            return; // cập nhật đến muộn sau khi đã dừng
+        }
+        int phanTram = tongSoByte > 0 ? (int) Math.min(100, byteDaDoc * 100 / tongSoByte) : 100;
+        progressNhap.setValue(phanTram);
+        progressNhap.setString(phanTram + "% - " + soThanhCong + " thành công, " + soLoi + " lỗi");
+    }
+    
+    private void ketThucNhap() {
+        dangNhap = false;
+        btnNhapCsv.setText("Nhập CSV");
+        progressNhap.setVisible(false);
+        revalidate();
+    }
+    
+    private void hienThiBaoCaoNhap(BaoCaoNhapThietBi baoCao) {
+        StringBuilder tomTat = new StringBuilder();
+        tomTat.append("Đã đọc ").append(baoCao.getSoDongDaDoc()).append(" dòng trong ")
+              .append(baoCao.getThoiGianMs()).append(" ms\n")
+              .append("Thành công: ").append(baoCao.getSoThanhCong()).append("\n")
+              .append("Lỗi: ").append(baoCao.getSoLoi());
         
-        // Hiển thị kết quả tìm kiếm lên bảng
-        loadTableData(filteredList); 
+        if (baoCao.getSoLoi() == 0) {
+            LogoUtil.showMessageDialog(this, tomTat.toString(), "Kết quả nhập", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        
+        StringBuilder chiTiet = new StringBuilder();
+        for (BaoCaoNhapThietBi.LoiDong loi : baoCao.getLoiList()) {
+            chiTiet.append(loi).append('\n');
+        }
+        if (baoCao.getSoLoi() > baoCao.getLoiList().size()) {
+            chiTiet.append("... và ").append(baoCao.getSoLoi() - baoCao.getLoiList().size()).append(" lỗi khác\n");
+        }
+        JTextArea txtLoi = new JTextArea(chiTiet.toString(), 15, 60);
+        txtLoi.setEditable(false);
+        txtLoi.setCaretPosition(0);
+        
+        JPanel panel = new JPanel(new BorderLayout(0, 8));
+        panel.add(new JLabel("<html>" + tomTat.toString().replace("\n", "<br>") + "</html>"), BorderLayout.NORTH);
+        panel.add(new JScrollPane(txtLoi), BorderLayout.CENTER);
+        LogoUtil.showMessageDialog(this, panel, "Kết quả nhập", JOptionPane.WARNING_MESSAGE);
+    }
+    
+    private void handleTimKiem(ActionEvent e) {
+        // Khi gõ đã tự tìm sau khoảng debounce; nút Tìm kiếm tìm ngay
+        timKiemNgay();
     }
     
     private void handleLamSach(ActionEvent e) {
         txtTimKiem.setText("");
         cboTimKiem.setSelectedIndex(0);
-        loadTableData(thietBiController.getAllThietBi());
+        timKiemNgay();
     }
     
     /**
      * Tải dữ liệu Loại thiết bị từ DAO và điền vào ComboBox.
      */
     private void loadLoaiThietBiData() {
-        try {
-            loaiThietBiList = loaiThietBiDAO.findAll();
-            populateLoaiThietBiComboBox();
-        } catch (Exception e) {
-             LogoUtil.showMessageDialog(this, "Lỗi tải Loại Thiết Bị: " + e.getMessage() + ". Vui lòng kiểm tra kết nối DB.", "Lỗi DB", JOptionPane.ERROR_MESSAGE);
-             loaiThietBiList = new ArrayList<>();
-        }
+        // Bảng thiết bị cần tên loại nên chỉ tải danh sách thiết bị sau khi đã có loại
+        BackgroundLoader.getInstance().load(LOAD_KEY_LOAI, "loại thiết bị",
+            loaiThietBiDAO::findAll,
+            list -> {
+                loaiThietBiList = list;
+                buildTenLoaiById();
+                populateLoaiThietBiComboBox();
+                refreshData();
+            },
+            e -> {
+                LogoUtil.showMessageDialog(this, "Lỗi tải Loại Thiết Bị: " + e.getMessage() + ". Vui lòng kiểm tra kết nối DB.", "Lỗi DB", JOptionPane.ERROR_MESSAGE);
+                loaiThietBiList = new ArrayList<>();
+                buildTenLoaiById();
+                refreshData();
+            });
     }
 
     // *** REMOVED initializeLoaiThietBiData() ***
@@ -601,18 +946,21 @@ public class ThietBiPanel extends JPanel {
         table.setIntercellSpacing(new Dimension(1, 1));
         
         javax.swing.table.TableCellRenderer cellRenderer = new javax.swing.table.TableCellRenderer() {
+            // Một component render dùng chung cho mọi ô, không tạo mới mỗi lần vẽ
+            private final JTextArea textArea = new JTextArea();
+            {
+                textArea.setWrapStyleWord(true);
+                textArea.setLineWrap(true);
+                textArea.setOpaque(true);
+                textArea.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
+            }
+            
             @Override
             public Component getTableCellRendererComponent(JTable table, Object value,
                     boolean isSelected, boolean hasFocus, int row, int column) {
                 
-                JTextArea textArea = new JTextArea();
                 textArea.setText(value != null ? value.toString() : "");
-                textArea.setWrapStyleWord(true);
-                textArea.setLineWrap(true);
-                textArea.setOpaque(true);
-                
                 textArea.setFont(table.getFont());
-                textArea.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
                 
                 if (isSelected) {
                     textArea.setBackground(table.getSelectionBackground());
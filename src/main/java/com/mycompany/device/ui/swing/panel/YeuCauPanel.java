@@ -6,13 +6,20 @@ import com.mycompany.device.util.LogoUtil;
 import com.mycompany.device.model.ThietBi;
 import com.mycompany.device.model.LoaiThietBi;
 import com.mycompany.device.model.NhanVien;
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
 import com.mycompany.device.service.YeuCauService;
 import com.mycompany.device.service.ThietBiService;
 import com.mycompany.device.service.LoaiThietBiService;
+import com.mycompany.device.service.TraCuuService;
 import com.mycompany.device.service.impl.YeuCauServiceImpl;
 import com.mycompany.device.service.impl.ThietBiServiceImpl;
 import com.mycompany.device.service.impl.LoaiThietBiServiceImpl;
+import com.mycompany.device.service.impl.TraCuuServiceImpl;
 import com.mycompany.device.controller.AuthController;
+import com.mycompany.device.ui.swing.service.BackgroundLoader;
+import com.mycompany.device.ui.swing.service.PagedLoader;
+import com.mycompany.device.metrics.Metrics;
 
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
@@ -39,6 +46,7 @@ public class YeuCauPanel extends JPanel {
     private final YeuCauService yeuCauService;
     private final ThietBiService thietBiService;
     private final LoaiThietBiService loaiThietBiService;
+    private final TraCuuService traCuu = TraCuuServiceImpl.getInstance();
     private AuthController authController;
     
     // Table components for displaying requests
@@ -68,43 +76,49 @@ public class YeuCauPanel extends JPanel {
     private JComboBox<String> cboTimKiem;
     private JButton btnTimKiem;
     private JButton btnLamSach;
+    private PagedLoader<YeuCau> taiTrangYeuCau;
     
     // Data
-    private List<YeuCau> yeuCauList;
-    private List<ThietBi> thietBiList;
-    private List<LoaiThietBi> loaiThietBiList;
+    // Yêu cầu đã tải (khớp từ khoá tìm kiếm, nếu có) của user hiện tại và các dòng đang hiển thị, cùng thứ tự với bảng
+    private List<YeuCau> yeuCauCuaToi = new ArrayList<>();
+    private List<YeuCau> yeuCauHienThi = new ArrayList<>();
+    private List<ThietBi> thietBiList = new ArrayList<>();
     private NhanVien currentUser;
+    // Mã nhân viên của lượt tải trang hiện tại, đặt trên EDT trước khi tải
+    private volatile String maNhanVienTaiTrang;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
     
+    // Khoá cho BackgroundLoader: lượt làm mới sau sẽ huỷ lượt trước
+    private static final String LOAD_KEY = "YeuCauPanel.data";
+    private static final String LOAD_KEY_YEU_CAU = "YeuCauPanel.yeuCau";
+    
     /**
      * Constructor với dependency injection
      */
     public YeuCauPanel(AuthController authController) {
         this.authController = authController;
-        this.yeuCauService = new YeuCauServiceImpl();
-        this.thietBiService = new ThietBiServiceImpl();
-        this.loaiThietBiService = new LoaiThietBiServiceImpl();
+        this.yeuCauService = Metrics.instrument(YeuCauService.class, new YeuCauServiceImpl());
+        this.thietBiService = Metrics.instrument(ThietBiService.class, new ThietBiServiceImpl());
+        this.loaiThietBiService = Metrics.instrument(LoaiThietBiService.class, new LoaiThietBiServiceImpl());
         
         initializeComponents();
         setupLayout();
         setupEventHandlers();
-        loadDataFromServices();
-        loadTableData();
+        refreshData();
     }
     
     /**
      * Constructor mặc định (fallback)
      */
     public YeuCauPanel() {
-        this.yeuCauService = new YeuCauServiceImpl();
-        this.thietBiService = new ThietBiServiceImpl();
-        this.loaiThietBiService = new LoaiThietBiServiceImpl();
+        this.yeuCauService = Metrics.instrument(YeuCauService.class, new YeuCauServiceImpl());
+        this.thietBiService = Metrics.instrument(ThietBiService.class, new ThietBiServiceImpl());
+        this.loaiThietBiService = Metrics.instrument(LoaiThietBiService.class, new LoaiThietBiServiceImpl());
         
         initializeComponents();
         setupLayout();
         setupEventHandlers();
-        loadDataFromServices();
-        loadTableData();
+        refreshData();
     }
     
     private void initializeComponents() {
@@ -124,6 +138,28 @@ public class YeuCauPanel extends JPanel {
         setupYeuCauTableAppearance();
         scrollPaneYeuCau = new JScrollPane(tableYeuCau);
         
+        // Yêu cầu của user tải theo trang (mới nhất trước), trang sau tải khi cuộn gần cuối bảng; tìm kiếm chạy trên database
+        taiTrangYeuCau = new PagedLoader<YeuCau>(LOAD_KEY_YEU_CAU, "yêu cầu của bạn", PageRequest.of(PagedLoader.PAGE_SIZE),
+            this::taiTrangYeuCauCuaToi, new PagedLoader.Listener<YeuCau>() {
+                @Override
+                public void onReset() {
+                    yeuCauCuaToi = new ArrayList<>();
+                }
+                
+                @Override
+                public void onRows(List<YeuCau> rows) {
+                    yeuCauCuaToi.addAll(rows);
+                    displayFilteredYeuCau(yeuCauCuaToi);
+                }
+                
+                @Override
+                public void onError(Exception e) {
+                    LogoUtil.showMessageDialog(YeuCauPanel.this, "Lỗi khi tải yêu cầu: " + e.getMessage(),
+                        "Lỗi", JOptionPane.ERROR_MESSAGE);
+                }
+            });
+        taiTrangYeuCau.installOn(scrollPaneYeuCau);
+        
         // Initialize thiet bi table  
         String[] thietBiColumns = {"Số Serial", "Loại thiết bị", "Trạng thái", "Ngày mua", "Giá mua"};
         tableModelThietBi = new DefaultTableModel(thietBiColumns, 0) {
@@ -177,38 +213,52 @@ public class YeuCauPanel extends JPanel {
     }
     
     /**
-     * Load data từ các service thay vì mock data
+     * Load data từ các service thay vì mock data (chạy trên luồng nền, không đụng tới component)
      */
-    private void loadDataFromServices() {
-        try {
-            logger.info("Bắt đầu load dữ liệu từ services");
-            
-            // Load loại thiết bị
-            loaiThietBiList = loaiThietBiService.findAll();
-            logger.info("Đã load {} loại thiết bị", loaiThietBiList.size());
-            
-            // Load thiết bị
-            thietBiList = thietBiService.findAll();
-            logger.info("Đã load {} thiết bị", thietBiList.size());
-            
-            // Load yêu cầu
-            yeuCauList = yeuCauService.xemDanhSachYeuCau();
-            logger.info("Đã load {} yêu cầu", yeuCauList.size());
-            
-            // Populate combo box với thiết bị có sẵn
-            populateThietBiComboBox();
-            
-        } catch (Exception e) {
-            logger.error("Lỗi khi load dữ liệu từ services", e);
-            LogoUtil.showMessageDialog(this, 
-                "Lỗi khi tải dữ liệu: " + e.getMessage(), 
-                "Lỗi", JOptionPane.ERROR_MESSAGE);
-            
-            // Fallback to empty lists
-            yeuCauList = new ArrayList<>();
-            thietBiList = new ArrayList<>();
-            loaiThietBiList = new ArrayList<>();
+    private DuLieuNen loadDataFromServices() {
+        logger.info("Bắt đầu load dữ liệu từ services");
+        DuLieuNen duLieu = new DuLieuNen();
+        
+        // Load loại thiết bị
+        duLieu.loaiThietBiList = loaiThietBiService.findAll();
+        logger.info("Đã load {} loại thiết bị", duLieu.loaiThietBiList.size());
+        
+        // Load thiết bị
+        duLieu.thietBiList = thietBiService.findAll();
+        logger.info("Đã load {} thiết bị", duLieu.thietBiList.size());
+        
+        // Dựng chỉ mục tra cứu ngay trên luồng nền; yêu cầu của user tải theo trang riêng (taiTrangYeuCau)
+        traCuu.napLoaiThietBi(duLieu.loaiThietBiList);
+        traCuu.napThietBi(duLieu.thietBiList);
+        return duLieu;
+    }
+    
+    /**
+     * Kết quả một lượt tải nền
+     */
+    private static class DuLieuNen {
+        private List<LoaiThietBi> loaiThietBiList;
+        private List<ThietBi> thietBiList;
+    }
+    
+    /**
+     * Lấy một trang yêu cầu của user hiện tại khớp tiêu chí tìm kiếm (luồng nền)
+     */
+    private Page<YeuCau> taiTrangYeuCauCuaToi(String tieuChi, String tuKhoa, PageRequest pageRequest) {
+        String maNhanVien = maNhanVienTaiTrang;
+        if (maNhanVien == null) {
+            return Page.empty(pageRequest);
         }
+        return yeuCauService.timTrangYeuCauTheoNhanVien(maNhanVien, tieuChi, tuKhoa, pageRequest);
+    }
+    
+    /**
+     * Tải lại từ trang đầu yêu cầu của user hiện tại
+     */
+    private void reloadYeuCauCuaToi() {
+        NhanVien user = getCurrentUser();
+        maNhanVienTaiTrang = user != null ? user.getMaNhanVien() : null;
+        taiTrangYeuCau.reload();
     }
     
     private void styleButton(JButton button) {
@@ -391,6 +441,7 @@ public class YeuCauPanel extends JPanel {
         btnLamMoi.addActionListener(this::handleLamMoi);
         btnTimKiem.addActionListener(this::handleTimKiem);
         btnLamSach.addActionListener(this::handleLamSach);
+        taiTrangYeuCau.bindSearch(txtTimKiem, cboTimKiem);
         
         // Table selection listeners
         tableYeuCau.getSelectionModel().addListSelectionListener(e -> {
@@ -490,7 +541,7 @@ public class YeuCauPanel extends JPanel {
                 return;
             }
             
-            YeuCau yeuCau = getFilteredYeuCauList().get(selectedRow);
+            YeuCau yeuCau = yeuCauHienThi.get(selectedRow);
             
             if (!yeuCau.isPending()) {
                 LogoUtil.showMessageDialog(this, "Chỉ có thể hủy yêu cầu đang chờ duyệt!", 
@@ -541,62 +592,31 @@ public class YeuCauPanel extends JPanel {
      * Refresh toàn bộ dữ liệu từ services
      */
     private void refreshData() {
-        loadDataFromServices();
-        loadTableData();
+        reloadYeuCauCuaToi();
+        BackgroundLoader.getInstance().load(LOAD_KEY, "thiết bị",
+            this::loadDataFromServices,
+            duLieu -> {
+                thietBiList = duLieu.thietBiList;
+                
+                // Populate combo box với thiết bị có sẵn
+                populateThietBiComboBox();
+                loadThietBiTableData();
+                // Số serial của các yêu cầu đã hiển thị giờ mới tra được
+                displayFilteredYeuCau(yeuCauHienThi);
+            },
+            e -> LogoUtil.showMessageDialog(this, 
+                "Lỗi khi tải dữ liệu: " + e.getMessage(), 
+                "Lỗi", JOptionPane.ERROR_MESSAGE));
     }
     
     private void handleTimKiem(ActionEvent e) {
-        String keyword = txtTimKiem.getText().trim().toLowerCase();
-        String searchIn = (String) cboTimKiem.getSelectedItem();
-        
-        if (keyword.isEmpty()) {
-            loadYeuCauTableData();
-            return;
-        }
-        
-        List<YeuCau> filteredList = new ArrayList<>();
-        List<YeuCau> userRequests = getFilteredYeuCauList();
-        
-        for (YeuCau yc : userRequests) {
-            boolean matches = false;
-            
-            switch (searchIn) {
-                case "Tất cả":
-                    matches = matchesKeyword(yc, keyword);
-                    break;
-                case "Thiết bị":
-                    ThietBi thietBi = findThietBiById(yc.getThietBiId());
-                    matches = thietBi != null && thietBi.getSoSerial().toLowerCase().contains(keyword);
-                    break;
-                case "Trạng thái":
-                    matches = yc.getTrangThai().getDisplayName().toLowerCase().contains(keyword);
-                    break;
-                case "Lý do":
-                    matches = yc.getLyDo() != null && yc.getLyDo().toLowerCase().contains(keyword);
-                    break;
-            }
-            
-            if (matches) {
-                filteredList.add(yc);
-            }
-        }
-        
-        displayFilteredYeuCau(filteredList);
-    }
-    
-    private boolean matchesKeyword(YeuCau yc, String keyword) {
-        if (yc.getLyDo() != null && yc.getLyDo().toLowerCase().contains(keyword)) {
-            return true;
-        }
-        if (yc.getTrangThai().getDisplayName().toLowerCase().contains(keyword)) {
-            return true;
-        }
-        ThietBi thietBi = findThietBiById(yc.getThietBiId());
-        return thietBi != null && thietBi.getSoSerial().toLowerCase().contains(keyword);
+        // Khi gõ đã tự tìm sau khoảng debounce; nút Tìm kiếm tìm ngay
+        taiTrangYeuCau.search((String) cboTimKiem.getSelectedItem(), txtTimKiem.getText());
     }
     
     private void displayFilteredYeuCau(List<YeuCau> filteredList) {
         tableModelYeuCau.setRowCount(0);
+        yeuCauHienThi = filteredList;
         
         for (YeuCau yc : filteredList) {
             ThietBi thietBi = findThietBiById(yc.getThietBiId());
@@ -617,13 +637,12 @@ public class YeuCauPanel extends JPanel {
     private void handleLamSach(ActionEvent e) {
         txtTimKiem.setText("");
         cboTimKiem.setSelectedIndex(0);
-        loadYeuCauTableData();
+        taiTrangYeuCau.search((String) cboTimKiem.getSelectedItem(), "");
     }
     
     private void loadYeuCauFromTable(int row) {
-        List<YeuCau> filteredList = getFilteredYeuCauList();
-        if (row >= 0 && row < filteredList.size()) {
-            YeuCau yc = filteredList.get(row);
+        if (row >= 0 && row < yeuCauHienThi.size()) {
+            YeuCau yc = yeuCauHienThi.get(row);
             
             ThietBi thietBi = findThietBiById(yc.getThietBiId());
             if (thietBi != null) {
@@ -662,35 +681,6 @@ public class YeuCauPanel extends JPanel {
         tableThietBi.clearSelection();
     }
     
-    private void loadTableData() {
-        loadYeuCauTableData();
-        loadThietBiTableData();
-    }
-    
-    /**
-     * Load dữ liệu yêu cầu của user hiện tại
-     */
-    private void loadYeuCauTableData() {
-        tableModelYeuCau.setRowCount(0);
-        
-        List<YeuCau> userRequests = getFilteredYeuCauList();
-        
-        for (YeuCau yc : userRequests) {
-            ThietBi thietBi = findThietBiById(yc.getThietBiId());
-            String thietBiInfo = thietBi != null ? thietBi.getSoSerial() : "N/A";
-            
-            Object[] row = {
-                yc.getId(),
-                thietBiInfo,
-                yc.getLyDo(),
-                yc.getTrangThai().getDisplayName(),
-                yc.getNgayTao() != null ? yc.getNgayTao().format(DATE_FORMATTER) : "",
-                yc.getNgayCapNhat() != null ? yc.getNgayCapNhat().format(DATE_FORMATTER) : ""
-            };
-            tableModelYeuCau.addRow(row);
-        }
-    }
-    
     /**
      * Load dữ liệu thiết bị từ service
      */
@@ -699,15 +689,8 @@ public class YeuCauPanel extends JPanel {
         
         for (ThietBi tb : thietBiList) {
             // Tìm tên loại thiết bị
-            String tenLoai = "";
-            if (tb.getLoaiId() != null) {
-                for (LoaiThietBi loai : loaiThietBiList) {
-                    if (loai.getId().equals(tb.getLoaiId())) {
-                        tenLoai = loai.getTenLoai();
-                        break;
-                    }
-                }
-            }
+            LoaiThietBi loai = findLoaiThietBiById(tb.getLoaiId());
+            String tenLoai = loai != null ? loai.getTenLoai() : "";
             
             Object[] row = {
                 tb.getSoSerial(),
@@ -720,25 +703,6 @@ public class YeuCauPanel extends JPanel {
         }
     }
     
-    /**
-     * Lấy danh sách yêu cầu được filter theo user hiện tại
-     */
-    private List<YeuCau> getFilteredYeuCauList() {
-        List<YeuCau> userRequests = new ArrayList<>();
-        NhanVien user = getCurrentUser();
-        
-        if (user != null && yeuCauList != null) {
-            String userNhanVienId = user.getMaNhanVien();
-            for (YeuCau yc : yeuCauList) {
-                if (userNhanVienId.equals(yc.getNhanVienId())) {
-                    userRequests.add(yc);
-                }
-            }
-        }
-        
-        return userRequests;
-    }
-    
     /**
      * Populate combo box với thiết bị có sẵn từ service
      */
@@ -779,19 +743,11 @@ public class YeuCauPanel extends JPanel {
     }
     
     private ThietBi findThietBiById(Long id) {
-        if (id == null || thietBiList == null) return null;
-        return thietBiList.stream()
-                .filter(tb -> id.equals(tb.getId()))
-                .findFirst()
-                .orElse(null);
+        return traCuu.timThietBi(id);
     }
     
     private LoaiThietBi findLoaiThietBiById(Long id) {
-        if (id == null || loaiThietBiList == null) return null;
-        return loaiThietBiList.stream()
-                .filter(loai -> id.equals(loai.getId()))
-                .findFirst()
-                .orElse(null);
+        return traCuu.timLoaiThietBi(id);
     }
     
     /**
@@ -815,7 +771,7 @@ public class YeuCauPanel extends JPanel {
         } else {
             lblNhanVien.setText("Chưa đăng nhập");
         }
-        loadYeuCauTableData(); // Reload to show user's requests
+        reloadYeuCauCuaToi(); // Reload to show user's requests
     }
     
     /**
@@ -853,8 +809,8 @@ public class YeuCauPanel extends JPanel {
             return "N/A";
         }
         // Tìm maNhanVien tương ứng bằng cách so sánh hash
-        if (yeuCauList != null) {
-            for (YeuCau yc : yeuCauList) {
+        if (yeuCauCuaToi != null) {
+            for (YeuCau yc : yeuCauCuaToi) {
                 if (nhanVienId.equals(yc.getNhanVienId())) {
                     // Tìm trong danh sách nhân viên để lấy maNhanVien
                     // Đây là workaround tạm thời
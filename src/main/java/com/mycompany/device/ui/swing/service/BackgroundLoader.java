@@ -0,0 +1,177 @@
+package com.mycompany.device.ui.swing.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.SwingUtilities;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Bộ tải dữ liệu nền dùng chung cho các panel.
+ * - Truy vấn database chạy trên virtual thread, không chặn Event Dispatch Thread
+ * - Mỗi key (thường là tên panel) chỉ có một lượt tải còn hiệu lực: lượt mới sẽ huỷ lượt cũ
+ * - Kết quả được trả về EDT một lần; bảng lớn tải theo trang (PagedLoader) thay vì cả danh sách
+ * - Tiến trình được báo qua status listener (MainFrame.statusLabel)
+ * @author Kim Ngan - UI Layer
+ */
+public final class BackgroundLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackgroundLoader.class);
+
+    private static BackgroundLoader instance;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // Lượt tải hiện hành theo key
+    private final Map<String, Generation> current = new ConcurrentHashMap<>();
+    private final AtomicLong generationCounter = new AtomicLong();
+    private volatile Consumer<String> statusListener;
+
+    private BackgroundLoader() {
+    }
+
+    public static synchronized BackgroundLoader getInstance() {
+        if (instance == null) {
+            instance = new BackgroundLoader();
+        }
+        return instance;
+    }
+
+    /**
+     * Đăng ký nơi hiển thị tiến trình (luôn được gọi trên EDT)
+     */
+    public void setStatusListener(Consumer<String> statusListener) {
+        this.statusListener = statusListener;
+    }
+
+    /**
+     * Tải một giá trị bất kỳ ở nền rồi trả về EDT một lần
+     */
+    public <T> void load(String key, String description, Callable<T> loader,
+                         Consumer<T> onSuccess, Consumer<Exception> onError) {
+        Generation generation = startGeneration(key);
+        long startNanos = System.nanoTime();
+        showStatus(generation, "Đang tải " + description + "...");
+
+        generation.future = executor.submit(() -> {
+            T result;
+            try {
+                result = loader.call();
+            } catch (Exception e) {
+                handleError(generation, description, e, onError);
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (generation.isStale()) {
+                    return;
+                }
+                onSuccess.accept(result);
+                finish(generation, "Đã tải " + description + " (" + elapsedMillis(startNanos) + " ms)");
+            });
+        });
+    }
+
+    /**
+     * Huỷ lượt tải đang chạy của key: kết quả của lượt đó bị bỏ qua, truy vấn đang chạy được để chạy hết
+     */
+    public void cancel(String key) {
+        Generation generation = current.remove(key);
+        if (generation != null) {
+            generation.cancel();
+        }
+    }
+
+    private Generation startGeneration(String key) {
+        Generation generation = new Generation(key, generationCounter.incrementAndGet());
+        Generation previous = current.put(key, generation);
+        if (previous != null) {
+            previous.cancel();
+            logger.debug("Huỷ lượt tải cũ của {} do có lượt làm mới mới hơn", key);
+        }
+        return generation;
+    }
+
+    private void handleError(Generation generation, String description, Exception e, Consumer<Exception> onError) {
+        if (generation.isStale()) {
+            return;
+        }
+        logger.error("Lỗi khi tải {}", description, e);
+        SwingUtilities.invokeLater(() -> {
+            if (generation.isStale()) {
+                return;
+            }
+            if (onError != null) {
+                onError.accept(e);
+            }
+            finish(generation, "Lỗi khi tải " + description + ": " + e.getMessage());
+        });
+    }
+
+    private void finish(Generation generation, String message) {
+        current.remove(generation.key, generation);
+        showStatus(generation, message);
+    }
+
+    private void showStatus(Generation generation, String message) {
+        Consumer<String> listener = statusListener;
+        if (listener == null) {
+            return;
+        }
+        Runnable update = () -> {
+            if (!generation.isStale()) {
+                listener.accept(message);
+            }
+        };
+        if (SwingUtilities.isEventDispatchThread()) {
+            update.run();
+        } else {
+            SwingUtilities.invokeLater(update);
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Một lượt tải; trở thành "cũ" khi bị huỷ hoặc có lượt mới cùng key
+     */
+    private static final class Generation {
+        private final String key;
+        private final long id;
+        private volatile boolean cancelled;
+        private volatile Future<?> future;
+
+        private Generation(String key, long id) {
+            this.key = key;
+            this.id = id;
+        }
+
+        private boolean isStale() {
+            return cancelled;
+        }
+
+        /**
+         * Đánh dấu cũ để bỏ kết quả về muộn; không interrupt luồng nền vì virtual thread bị interrupt
+         * khi đang đọc/ghi socket sẽ đóng socket, làm hỏng connection JDBC (pool phải huỷ và mở lại)
+         */
+        private void cancel() {
+            cancelled = true;
+            Future<?> f = future;
+            if (f != null) {
+                f.cancel(false);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return key + "#" + id;
+        }
+    }
+}
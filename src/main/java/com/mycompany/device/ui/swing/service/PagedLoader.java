@@ -0,0 +1,236 @@
+package com.mycompany.device.ui.swing.service;
+
+import com.mycompany.device.model.Page;
+import com.mycompany.device.model.PageRequest;
+import com.mycompany.device.util.ConfigLoader;
+
+import javax.swing.JComboBox;
+import javax.swing.JScrollBar;
+import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Tải bảng theo trang keyset (PageRequest/Page) thay vì cả bảng một lần.
+ * - reload() tải trang đầu; cuộn gần cuối bảng thì tải trang kế tiếp
+ * - search()/bindSearch() tìm trên database: đổi tiêu chí/từ khoá thì tải lại từ trang đầu của kết quả tìm,
+ *   các trang sau của kết quả vẫn tải khi cuộn (không tải toàn bộ bảng để lọc trong bộ nhớ)
+ * Mọi callback chạy trên EDT; reload() huỷ trang đang tải dở (cùng khoá BackgroundLoader).
+ * @author Kim Ngan - UI Layer
+ */
+public class PagedLoader<T> {
+
+    /** Số dòng mỗi trang của các bảng dùng PagedLoader */
+    public static final int PAGE_SIZE = ConfigLoader.getIntProperty("TABLE_PAGE_SIZE", 200);
+    private static final int PREFETCH_PIXELS = 200;
+    private static final int SEARCH_DEBOUNCE_MS = Math.max(0, ConfigLoader.getIntProperty("SEARCH_DEBOUNCE_MS", 200));
+
+    /**
+     * Lấy một trang, chạy trên luồng nền
+     */
+    public interface PageSource<T> {
+        Page<T> fetch(PageRequest request) throws Exception;
+    }
+
+    /**
+     * Lấy một trang theo tiêu chí và từ khoá tìm kiếm (từ khoá rỗng = không lọc), chạy trên luồng nền
+     */
+    public interface SearchSource<T> {
+        Page<T> fetch(String tieuChi, String tuKhoa, PageRequest request) throws Exception;
+    }
+
+    /**
+     * Nhận dữ liệu, mọi phương thức chạy trên EDT
+     */
+    public interface Listener<T> {
+        /** Trước trang đầu của một lượt reload (ví dụ: xoá bảng cũ) */
+        void onReset();
+
+        /** Các dòng mới, nối vào cuối bảng */
+        void onRows(List<T> rows);
+
+        /** Khi truy vấn lỗi */
+        default void onError(Exception e) { }
+    }
+
+    private final String key;
+    private final String description;
+    private final PageRequest firstPage;
+    private final SearchSource<T> source;
+    private final Listener<T> listener;
+
+    // Truy vấn của các dòng đang hiển thị, chỉ đổi qua search() (kèm reload)
+    private String tieuChi;
+    private String tuKhoa = "";
+    private Timer searchTimer;
+
+    // Trang kế tiếp cần tải, null = đã hết
+    private PageRequest nextPage;
+    private boolean loading;
+
+    /**
+     * @param key khoá BackgroundLoader của bảng
+     * @param firstPage trang đầu (kích thước, khoá sắp xếp)
+     */
+    public PagedLoader(String key, String description, PageRequest firstPage,
+                       PageSource<T> source, Listener<T> listener) {
+        this(key, description, firstPage, (tieuChi, tuKhoa, request) -> source.fetch(request), listener);
+    }
+
+    /**
+     * Bảng có tìm kiếm trên database (search/bindSearch)
+     */
+    public PagedLoader(String key, String description, PageRequest firstPage,
+                       SearchSource<T> source, Listener<T> listener) {
+        this.key = key;
+        this.description = description;
+        this.firstPage = firstPage;
+        this.source = source;
+        this.listener = listener;
+    }
+
+    /**
+     * Tải trang kế tiếp khi thanh cuộn dọc tới gần cuối
+     */
+    public void installOn(JScrollPane scrollPane) {
+        JScrollBar verticalBar = scrollPane.getVerticalScrollBar();
+        verticalBar.addAdjustmentListener(e -> {
+            if (hasMore() && !loading
+                    && verticalBar.getValue() + verticalBar.getVisibleAmount() >= verticalBar.getMaximum() - PREFETCH_PIXELS) {
+                SwingUtilities.invokeLater(this::loadNextPage);
+            }
+        });
+    }
+
+    /**
+     * Gắn vào ô tìm kiếm: gõ phím thì tìm sau khoảng debounce (các phím liên tiếp chỉ tạo một truy vấn),
+     * Enter/đổi tiêu chí thì tìm ngay
+     */
+    public void bindSearch(JTextField searchField, JComboBox<String> criteria) {
+        searchTimer = new Timer(SEARCH_DEBOUNCE_MS,
+            e -> searchIfChanged((String) criteria.getSelectedItem(), searchField.getText()));
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // Thay đổi thuộc tính, không đổi nội dung
+            }
+        });
+        searchField.addActionListener(e -> search((String) criteria.getSelectedItem(), searchField.getText()));
+        criteria.addActionListener(e -> searchIfChanged((String) criteria.getSelectedItem(), searchField.getText()));
+    }
+
+    /**
+     * Tìm ngay (nút Tìm kiếm, Enter): tải lại từ trang đầu với tiêu chí/từ khoá mới, từ khoá rỗng = bỏ lọc
+     */
+    public void search(String tieuChi, String tuKhoa) {
+        if (searchTimer != null) {
+            searchTimer.stop();
+        }
+        this.tieuChi = tieuChi;
+        this.tuKhoa = tuKhoa != null ? tuKhoa.trim() : "";
+        reload();
+    }
+
+    private void searchIfChanged(String tieuChi, String tuKhoa) {
+        String keyword = tuKhoa != null ? tuKhoa.trim() : "";
+        if (keyword.equals(this.tuKhoa) && Objects.equals(tieuChi, this.tieuChi)) {
+            return;
+        }
+        search(tieuChi, keyword);
+    }
+
+    /**
+     * Tiêu chí tìm kiếm của các dòng đang hiển thị
+     */
+    public String getTieuChi() {
+        return tieuChi;
+    }
+
+    /**
+     * Từ khoá (đã trim) của các dòng đang hiển thị, rỗng = không lọc
+     */
+    public String getTuKhoa() {
+        return tuKhoa;
+    }
+
+    /**
+     * Bỏ dữ liệu đã tải và tải lại từ trang đầu
+     */
+    public void reload() {
+        loading = true;
+        nextPage = null;
+        String c = tieuChi;
+        String k = tuKhoa;
+        BackgroundLoader.getInstance().load(key, description,
+            () -> source.fetch(c, k, firstPage),
+            page -> {
+                listener.onReset();
+                onPageLoaded(page);
+            },
+            this::onError);
+    }
+
+    /**
+     * Huỷ trang đang tải và ngừng tải thêm khi cuộn, cho tới lần reload() sau
+     */
+    public void cancel() {
+        BackgroundLoader.getInstance().cancel(key);
+        nextPage = null;
+        loading = false;
+    }
+
+    /**
+     * Tải trang kế tiếp nếu còn và không có trang nào đang tải
+     */
+    public void loadNextPage() {
+        if (loading || nextPage == null) {
+            return;
+        }
+        loading = true;
+        PageRequest request = nextPage;
+        String c = tieuChi;
+        String k = tuKhoa;
+        BackgroundLoader.getInstance().load(key, "trang " + description,
+            () -> source.fetch(c, k, request),
+            this::onPageLoaded,
+            this::onError);
+    }
+
+    /**
+     * Còn trang chưa tải
+     */
+    public boolean hasMore() {
+        return nextPage != null;
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    private void onPageLoaded(Page<T> page) {
+        nextPage = page.getNextPageRequest();
+        loading = false;
+        listener.onRows(page.getContent());
+    }
+
+    private void onError(Exception e) {
+        loading = false;
+        listener.onError(e);
+    }
+}
@@ -0,0 +1,150 @@
+package com.mycompany.device.ui.swing.table;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * TableModel chỉ đọc giữ trực tiếp danh sách entity thay vì một Object[] cho mỗi dòng.
+ * Giá trị ô được tính (định dạng) khi JTable render, nên chỉ các dòng đang hiển thị tốn chi phí;
+ * thêm dữ liệu theo trang/đợt bằng appendRows không phải dựng lại bảng.
+ * @author Kim Ngan - UI Layer
+ */
+public class EntityTableModel<T> extends AbstractTableModel {
+
+    /**
+     * Định nghĩa một cột: tên, cách lấy giá trị hiển thị và thứ tự khi sắp xếp
+     */
+    public static final class Column<T> {
+        private final String name;
+        private final Function<? super T, ?> value;
+        private final Comparator<? super T> comparator;
+
+        private Column(String name, Function<? super T, ?> value, Comparator<? super T> comparator) {
+            this.name = name;
+            this.value = value;
+            this.comparator = comparator;
+        }
+    }
+
+    /**
+     * Cột sắp xếp theo chính giá trị hiển thị (so sánh tự nhiên nếu Comparable, ngược lại theo chuỗi)
+     */
+    public static <T> Column<T> column(String name, Function<? super T, ?> value) {
+        return new Column<>(name, value, (a, b) -> compareValues(value.apply(a), value.apply(b)));
+    }
+
+    /**
+     * Cột hiển thị giá trị đã định dạng nhưng sắp xếp theo khoá gốc (ví dụ ngày, số), null đứng đầu
+     */
+    public static <T, U extends Comparable<? super U>> Column<T> column(String name, Function<? super T, ?> value,
+                                                                       Function<? super T, ? extends U> sortKey) {
+        return new Column<>(name, value, Comparator.comparing(sortKey, Comparator.nullsFirst(Comparator.naturalOrder())));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareValues(Object a, Object b) {
+        if (a == b) {
+            return 0;
+        }
+        if (a == null) {
+            return -1;
+        }
+        if (b == null) {
+            return 1;
+        }
+        if (a instanceof Comparable && a.getClass() == b.getClass()) {
+            return ((Comparable) a).compareTo(b);
+        }
+        return a.toString().compareToIgnoreCase(b.toString());
+    }
+
+    private final List<Column<T>> columns;
+    private final List<T> rows = new ArrayList<>();
+
+    @SafeVarargs
+    public EntityTableModel(Column<T>... columns) {
+        this.columns = List.of(columns);
+    }
+
+    /**
+     * Thay toàn bộ dữ liệu (chỉ chép tham chiếu, không dựng dòng)
+     */
+    public void setRows(List<? extends T> newRows) {
+        rows.clear();
+        if (newRows != null) {
+            rows.addAll(newRows);
+        }
+        fireTableDataChanged();
+    }
+
+    /**
+     * Thêm một trang/đợt vào cuối bảng
+     */
+    public void appendRows(List<? extends T> moreRows) {
+        if (moreRows == null || moreRows.isEmpty()) {
+            return;
+        }
+        int first = rows.size();
+        rows.addAll(moreRows);
+        fireTableRowsInserted(first, rows.size() - 1);
+    }
+
+    public void clear() {
+        if (rows.isEmpty()) {
+            return;
+        }
+        int last = rows.size() - 1;
+        rows.clear();
+        fireTableRowsDeleted(0, last);
+    }
+
+    /**
+     * Entity ở dòng model (dùng table.convertRowIndexToModel khi có RowSorter)
+     */
+    public T getRow(int modelRow) {
+        return rows.get(modelRow);
+    }
+
+    /**
+     * Danh sách entity theo thứ tự model (chỉ đọc)
+     */
+    public List<T> getRows() {
+        return Collections.unmodifiableList(rows);
+    }
+
+    /**
+     * Thứ tự sắp xếp của cột, dùng bởi IndexRowSorter
+     */
+    public Comparator<? super T> getComparator(int column) {
+        return columns.get(column).comparator;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns.get(column).name;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        return columns.get(columnIndex).value.apply(rows.get(rowIndex));
+    }
+
+    @Override
+    public boolean isCellEditable(int rowIndex, int columnIndex) {
+        return false;
+    }
+}
@@ -0,0 +1,289 @@
+package com.mycompany.device.ui.swing.table;
+
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+
+/**
+ * RowSorter cho EntityTableModel chỉ giữ mảng int chỉ số dòng model, không sao chép dòng
+ * và không chuyển giá trị ô sang chuỗi như TableRowSorter.
+ * Sắp xếp so sánh trực tiếp các entity theo Comparator của cột; lọc bằng IntPredicate trên chỉ số model.
+ * Khi model chỉ thêm dòng vào cuối (tải theo trang/đợt), các dòng mới được sắp riêng rồi trộn vào
+ * thứ tự hiện tại thay vì sắp xếp lại toàn bộ.
+ * @author Kim Ngan - UI Layer
+ */
+public class IndexRowSorter<T> extends RowSorter<EntityTableModel<T>> {
+
+    private final EntityTableModel<T> model;
+    private List<SortKey> sortKeys = Collections.emptyList();
+    private IntPredicate filter;
+    // null = không lọc/không sắp xếp (view trùng model)
+    private int[] viewToModel;
+    // Dựng lười từ viewToModel khi cần
+    private int[] modelToView;
+    private int modelRowCount;
+
+    public IndexRowSorter(EntityTableModel<T> model) {
+        this.model = model;
+        this.modelRowCount = model.getRowCount();
+    }
+
+    /**
+     * Đặt bộ lọc theo chỉ số dòng model, null = hiển thị tất cả
+     */
+    public void setFilter(IntPredicate filter) {
+        this.filter = filter;
+        sort();
+    }
+
+    @Override
+    public EntityTableModel<T> getModel() {
+        return model;
+    }
+
+    @Override
+    public void toggleSortOrder(int column) {
+        SortOrder order = SortOrder.ASCENDING;
+        if (!sortKeys.isEmpty() && sortKeys.get(0).getColumn() == column
+                && sortKeys.get(0).getSortOrder() == SortOrder.ASCENDING) {
+            order = SortOrder.DESCENDING;
+        }
+        setSortKeys(Collections.singletonList(new SortKey(column, order)));
+    }
+
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys) {
+        List<SortKey> moi = new ArrayList<>();
+        if (keys != null) {
+            for (SortKey key : keys) {
+                if (key.getSortOrder() != SortOrder.UNSORTED) {
+                    moi.add(key);
+                }
+            }
+        }
+        if (moi.equals(sortKeys)) {
+            return;
+        }
+        sortKeys = Collections.unmodifiableList(moi);
+        fireSortOrderChanged();
+        sort();
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    @Override
+    public int convertRowIndexToModel(int index) {
+        if (viewToModel == null) {
+            checkIndex(index, modelRowCount);
+            return index;
+        }
+        checkIndex(index, viewToModel.length);
+        return viewToModel[index];
+    }
+
+    @Override
+    public int convertRowIndexToView(int index) {
+        checkIndex(index, modelRowCount);
+        if (viewToModel == null) {
+            return index;
+        }
+        if (modelToView == null) {
+            modelToView = new int[modelRowCount];
+            Arrays.fill(modelToView, -1);
+            for (int view = 0; view < viewToModel.length; view++) {
+                modelToView[viewToModel[view]] = view;
+            }
+        }
+        return modelToView[index];
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return viewToModel == null ? modelRowCount : viewToModel.length;
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return modelRowCount;
+    }
+
+    @Override
+    public void modelStructureChanged() {
+        sort();
+    }
+
+    @Override
+    public void allRowsChanged() {
+        sort();
+    }
+
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {
+        int oldCount = modelRowCount;
+        modelRowCount = model.getRowCount();
+        if (viewToModel == null) {
+            return;
+        }
+        if (firstRow != oldCount) {
+            // Chèn giữa bảng làm dịch chỉ số model, dựng lại toàn bộ
+            sort();
+            return;
+        }
+
+        int[] last = viewToModel;
+        int[] moi = filtered(firstRow, Math.max(firstRow, endRow) + 1);
+        IntBinaryOperator cmp = comparator();
+        if (cmp != null) {
+            mergeSort(moi, cmp);
+            viewToModel = merge(last, moi, cmp);
+        } else {
+            int[] all = Arrays.copyOf(last, last.length + moi.length);
+            System.arraycopy(moi, 0, all, last.length, moi.length);
+            viewToModel = all;
+        }
+        modelToView = null;
+        fireRowSorterChanged(last);
+    }
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {
+        sort();
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+        if (viewToModel != null) {
+            sort();
+        }
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+        rowsUpdated(firstRow, endRow);
+    }
+
+    /**
+     * Dựng lại thứ tự view từ đầu
+     */
+    private void sort() {
+        int[] last = viewToModel;
+        int lastModelRowCount = modelRowCount;
+        modelRowCount = model.getRowCount();
+        IntBinaryOperator cmp = comparator();
+        if (filter == null && cmp == null) {
+            viewToModel = null;
+        } else {
+            int[] indexes = filtered(0, modelRowCount);
+            if (cmp != null) {
+                mergeSort(indexes, cmp);
+            }
+            viewToModel = indexes;
+        }
+        modelToView = null;
+        if (last == null && viewToModel == null) {
+            return; // Thứ tự không đổi, JTable tự xử lý sự kiện của model
+        }
+        fireRowSorterChanged(last != null ? last : identity(lastModelRowCount));
+    }
+
+    private static int[] identity(int size) {
+        int[] indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+        }
+        return indexes;
+    }
+
+    private int[] filtered(int from, int to) {
+        int[] indexes = new int[to - from];
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (filter == null || filter.test(i)) {
+                indexes[count++] = i;
+            }
+        }
+        return count == indexes.length ? indexes : Arrays.copyOf(indexes, count);
+    }
+
+    /**
+     * So sánh hai chỉ số model theo các sort key, null nếu không sắp xếp
+     */
+    private IntBinaryOperator comparator() {
+        if (sortKeys.isEmpty()) {
+            return null;
+        }
+        Comparator<T> combined = null;
+        for (SortKey key : sortKeys) {
+            @SuppressWarnings("unchecked")
+            Comparator<T> columnComparator = (Comparator<T>) model.getComparator(key.getColumn());
+            if (key.getSortOrder() == SortOrder.DESCENDING) {
+                columnComparator = columnComparator.reversed();
+            }
+            combined = combined == null ? columnComparator : combined.thenComparing(columnComparator);
+        }
+        Comparator<T> entityComparator = combined;
+        // Hoà thì giữ thứ tự model để kết quả ổn định
+        return (a, b) -> {
+            int c = entityComparator.compare(model.getRow(a), model.getRow(b));
+            return c != 0 ? c : Integer.compare(a, b);
+        };
+    }
+
+    /**
+     * Merge sort trên mảng int (không boxing sang Integer như Arrays.sort với Comparator)
+     */
+    private static void mergeSort(int[] a, IntBinaryOperator cmp) {
+        if (a.length < 2) {
+            return;
+        }
+        int[] tmp = new int[a.length];
+        for (int width = 1; width < a.length; width *= 2) {
+            for (int lo = 0; lo < a.length - width; lo += 2 * width) {
+                int mid = lo + width;
+                int hi = Math.min(lo + 2 * width, a.length);
+                if (cmp.applyAsInt(a[mid - 1], a[mid]) <= 0) {
+                    continue; // Hai nửa đã đúng thứ tự
+                }
+                mergeInto(a, lo, mid, a, mid, hi, tmp, lo, cmp);
+                System.arraycopy(tmp, lo, a, lo, hi - lo);
+            }
+        }
+    }
+
+    private static int[] merge(int[] left, int[] right, IntBinaryOperator cmp) {
+        int[] out = new int[left.length + right.length];
+        mergeInto(left, 0, left.length, right, 0, right.length, out, 0, cmp);
+        return out;
+    }
+
+    private static void mergeInto(int[] a, int aFrom, int aTo, int[] b, int bFrom, int bTo,
+                                  int[] out, int outFrom, IntBinaryOperator cmp) {
+        int i = aFrom;
+        int j = bFrom;
+        int k = outFrom;
+        while (i < aTo && j < bTo) {
+            out[k++] = cmp.applyAsInt(a[i], b[j]) <= 0 ? a[i++] : b[j++];
+        }
+        while (i < aTo) {
+            out[k++] = a[i++];
+        }
+        while (j < bTo) {
+            out[k++] = b[j++];
+        }
+    }
+
+    private static void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Invalid index: " + index + ", size: " + size);
+        }
+    }
+}
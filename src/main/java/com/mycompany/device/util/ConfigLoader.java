@@ -59,17 +59,64 @@ public class ConfigLoader {
     }
     
     /**
-     * Lấy giá trị cấu hình theo key
+     * Lấy giá trị cấu hình theo key.
+     * System property cùng tên (-DKEY=...) được ưu tiên hơn file config.env,
+     * dùng khi chạy benchmark/kiểm thử tải mà không sửa file cấu hình.
      */
     public static String getProperty(String key) {
-        return properties.getProperty(key);
+        String override = System.getProperty(key);
+        return override != null ? override : properties.getProperty(key);
     }
     
     /**
      * Lấy giá trị cấu hình theo key với giá trị mặc định
      */
     public static String getProperty(String key, String defaultValue) {
-        return properties.getProperty(key, defaultValue);
+        String value = getProperty(key);
+        return value != null ? value : defaultValue;
+    }
+    
+    /**
+     * Lấy giá trị cấu hình kiểu int, trả về giá trị mặc định nếu thiếu hoặc sai định dạng
+     */
+    public static int getIntProperty(String key, int defaultValue) {
+        String value = getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Giá trị cấu hình {}={} không hợp lệ, dùng mặc định {}", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+    
+    /**
+     * Lấy giá trị cấu hình kiểu long, trả về giá trị mặc định nếu thiếu hoặc sai định dạng
+     */
+    public static long getLongProperty(String key, long defaultValue) {
+        String value = getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Giá trị cấu hình {}={} không hợp lệ, dùng mặc định {}", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+    
+    /**
+     * Lấy giá trị cấu hình kiểu boolean (true/false)
+     */
+    public static boolean getBooleanProperty(String key, boolean defaultValue) {
+        String value = getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value.trim());
     }
     
     /**
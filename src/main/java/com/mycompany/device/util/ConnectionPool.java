@@ -0,0 +1,656 @@
+package com.mycompany.device.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Connection pool có giới hạn dùng chung cho toàn bộ DAO.
+ * Connection trả ra là proxy: gọi close() sẽ trả connection về pool thay vì đóng kết nối vật lý.
+ * Mỗi connection giữ một cache LRU các PreparedStatement theo câu SQL.
+ * @author Team Device Management
+ */
+public class ConnectionPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final Config config;
+
+    // Connection rảnh (LIFO để connection "nóng" được dùng lại trước)
+    private final LinkedBlockingDeque<PooledConnection> idleConnections = new LinkedBlockingDeque<>();
+    // Connection đang được mượn, dùng cho leak detection
+    private final Set<PooledConnection> borrowedConnections = ConcurrentHashMap.newKeySet();
+    // Giới hạn tổng số connection đang mượn <= maxSize
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    // Metrics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong destroyedCount = new AtomicLong();
+    private final AtomicLong validationFailureCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private final AtomicLong statementCacheEvictions = new AtomicLong();
+
+    public ConnectionPool(String url, String username, String password, Config config) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.config = config;
+        this.permits = new Semaphore(config.maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "db-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.housekeeper.scheduleWithFixedDelay(this::housekeep,
+                config.housekeepingMs, config.housekeepingMs, TimeUnit.MILLISECONDS);
+
+        fillToMinimum();
+        logger.info("Connection pool khởi tạo: min={}, max={}, idleTimeout={}ms, leakDetection={}ms",
+                config.minSize, config.maxSize, config.idleTimeoutMs, config.leakDetectionMs);
+    }
+
+    /**
+     * Mượn một connection từ pool, chờ tối đa maxWaitMs nếu pool đã đầy
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool đã bị đóng");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(config.maxWaitMs, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new SQLException("Hết thời gian chờ connection sau " + config.maxWaitMs
+                        + "ms (active=" + borrowedConnections.size() + ", max=" + config.maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Bị ngắt khi chờ connection", e);
+        }
+
+        try {
+            PooledConnection pooled = takeValidConnection();
+            recordWait(System.nanoTime() - start);
+            pooled.markBorrowed(config.leakDetectionMs > 0);
+            borrowedConnections.add(pooled);
+            return pooled.newProxy();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Lấy connection rảnh còn sống, hoặc tạo mới nếu không còn connection rảnh
+     */
+    private PooledConnection takeValidConnection() throws SQLException {
+        PooledConnection pooled;
+        while ((pooled = idleConnections.pollFirst()) != null) {
+            if (isAlive(pooled)) {
+                return pooled;
+            }
+            validationFailureCount.incrementAndGet();
+            destroy(pooled);
+        }
+        return create();
+    }
+
+    private boolean isAlive(PooledConnection pooled) {
+        // Connection vừa được trả về rất gần đây thì bỏ qua bước ping để tránh round-trip thừa
+        if (System.currentTimeMillis() - pooled.lastUsedAt < config.validationBypassMs) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(config.validationTimeoutSeconds);
+        } catch (SQLException e) {
+            logger.debug("Connection không hợp lệ khi kiểm tra", e);
+            return false;
+        }
+    }
+
+    private PooledConnection create() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, buildDriverProperties());
+        totalConnections.incrementAndGet();
+        createdCount.incrementAndGet();
+        logger.debug("Tạo connection vật lý mới (total={})", totalConnections.get());
+        return new PooledConnection(physical);
+    }
+
+    /**
+     * Thuộc tính truyền cho MySQL driver. Tham số khai báo trực tiếp trên DB_URL vẫn được ưu tiên.
+     * Driver khác (H2 nhúng) không nhận các tham số riêng của MySQL nên chỉ có user/password.
+     */
+    private Properties buildDriverProperties() {
+        Properties props = new Properties();
+        props.setProperty("user", username != null ? username : "");
+        props.setProperty("password", password != null ? password : "");
+        if (!url.startsWith("jdbc:mysql:")) {
+            return props;
+        }
+        if (config.useServerPrepStmts) {
+            // Server-side prepare: statement được parse một lần trên server và giữ handle
+            // suốt vòng đời PreparedStatement trong cache bên dưới
+            props.setProperty("useServerPrepStmts", "true");
+            props.setProperty("cachePrepStmts", "true");
+            props.setProperty("prepStmtCacheSize", String.valueOf(Math.max(config.statementCacheSize, 25)));
+            props.setProperty("prepStmtCacheSqlLimit", "2048");
+        }
+        if (config.rewriteBatchedStatements) {
+            // Gộp executeBatch() của INSERT thành INSERT nhiều dòng, giảm số lần round-trip
+            props.setProperty("rewriteBatchedStatements", "true");
+        }
+        return props;
+    }
+
+    private void destroy(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        destroyedCount.incrementAndGet();
+        pooled.clearStatementCache();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            logger.debug("Lỗi khi đóng connection vật lý", e);
+        }
+    }
+
+    /**
+     * Nhận lại connection khi proxy bị close()
+     */
+    private void giveBack(PooledConnection pooled) {
+        borrowedConnections.remove(pooled);
+        try {
+            boolean reusable = !closed && !pooled.broken && !pooled.physical.isClosed();
+            if (reusable && !pooled.physical.getAutoCommit()) {
+                // Giao dịch bị bỏ dở thì rollback trước khi cho người khác dùng
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            if (reusable) {
+                pooled.lastUsedAt = System.currentTimeMillis();
+                idleConnections.offerFirst(pooled);
+            } else {
+                destroy(pooled);
+            }
+        } catch (SQLException e) {
+            logger.warn("Không thể reset connection khi trả về pool, huỷ connection", e);
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    /**
+     * Tác vụ nền: loại connection rảnh quá lâu, báo leak, bù đủ số connection tối thiểu
+     */
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+
+            List<PooledConnection> expired = new ArrayList<>();
+            for (PooledConnection pooled : idleConnections) {
+                if (totalConnections.get() - expired.size() <= config.minSize) {
+                    break;
+                }
+                if (now - pooled.lastUsedAt > config.idleTimeoutMs) {
+                    expired.add(pooled);
+                }
+            }
+            for (PooledConnection pooled : expired) {
+                if (idleConnections.remove(pooled)) {
+                    destroy(pooled);
+                }
+            }
+            if (!expired.isEmpty()) {
+                logger.debug("Đã loại {} connection rảnh quá {}ms", expired.size(), config.idleTimeoutMs);
+            }
+
+            if (config.leakDetectionMs > 0) {
+                for (PooledConnection pooled : borrowedConnections) {
+                    if (!pooled.leakReported && now - pooled.borrowedAt > config.leakDetectionMs) {
+                        pooled.leakReported = true;
+                        leakCount.incrementAndGet();
+                        logger.warn("Phát hiện connection leak: connection được mượn {}ms mà chưa trả về",
+                                now - pooled.borrowedAt, pooled.borrowStack);
+                    }
+                }
+            }
+
+            fillToMinimum();
+        } catch (Exception e) {
+            logger.error("Lỗi trong tác vụ housekeeping của connection pool", e);
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && totalConnections.get() < config.minSize) {
+            try {
+                PooledConnection pooled = create();
+                pooled.lastUsedAt = System.currentTimeMillis();
+                idleConnections.offerLast(pooled);
+            } catch (SQLException e) {
+                logger.warn("Không thể tạo connection tối thiểu cho pool: {}", e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Đóng pool và toàn bộ connection rảnh; connection đang mượn sẽ bị đóng khi được trả về
+     */
+    public void shutdown() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idleConnections.pollFirst()) != null) {
+            destroy(pooled);
+        }
+        logger.info("Connection pool đã đóng. {}", getStats());
+    }
+
+    /**
+     * Lấy snapshot số liệu của pool
+     */
+    public PoolStats getStats() {
+        return new PoolStats(totalConnections.get(), idleConnections.size(), borrowedConnections.size(),
+                permits.getQueueLength(), borrowCount.get(), totalWaitNanos.get(), maxWaitNanos.get(),
+                timeoutCount.get(), createdCount.get(), destroyedCount.get(),
+                validationFailureCount.get(), leakCount.get(),
+                statementCacheHits.get(), statementCacheMisses.get(), statementCacheEvictions.get());
+    }
+
+    /**
+     * Connection vật lý cùng trạng thái quản lý của pool
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private volatile long lastUsedAt;
+        private volatile long borrowedAt;
+        private volatile Throwable borrowStack;
+        private volatile boolean leakReported;
+        private volatile boolean broken;
+        // Cache LRU các PreparedStatement theo SQL. Statement đang được dùng bị lấy ra khỏi cache
+        // nên không có hai chỗ dùng chung một statement.
+        private final Map<String, PreparedStatement> statementCache;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.lastUsedAt = System.currentTimeMillis();
+            this.statementCache = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() <= config.statementCacheSize) {
+                        return false;
+                    }
+                    statementCacheEvictions.incrementAndGet();
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+            };
+        }
+
+        /**
+         * Lấy statement từ cache hoặc prepare mới nếu chưa có
+         */
+        private PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+            String key = autoGeneratedKeys + ":" + sql;
+            PreparedStatement statement;
+            synchronized (statementCache) {
+                statement = statementCache.remove(key);
+            }
+            if (statement != null && !statement.isClosed()) {
+                statementCacheHits.incrementAndGet();
+            } else {
+                statementCacheMisses.incrementAndGet();
+                statement = physical.prepareStatement(sql, autoGeneratedKeys);
+            }
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new StatementHandler(this, key, statement));
+        }
+
+        /**
+         * Đưa statement về cache sau khi người dùng close()
+         */
+        private void release(String key, PreparedStatement statement) {
+            if (broken) {
+                closeQuietly(statement);
+                return;
+            }
+            try {
+                statement.clearParameters();
+                // Batch còn dở nếu executeBatch() ném lỗi giữa chừng
+                statement.clearBatch();
+                statement.clearWarnings();
+                // Người mượn sau không được thừa hưởng giới hạn của người mượn trước (0 = mặc định của driver)
+                statement.setMaxRows(0);
+                statement.setFetchSize(0);
+                statement.setQueryTimeout(0);
+            } catch (SQLException e) {
+                closeQuietly(statement);
+                return;
+            }
+            PreparedStatement previous;
+            synchronized (statementCache) {
+                previous = statementCache.put(key, statement);
+            }
+            if (previous != null && previous != statement) {
+                closeQuietly(previous);
+            }
+        }
+
+        private void clearStatementCache() {
+            synchronized (statementCache) {
+                for (PreparedStatement statement : statementCache.values()) {
+                    closeQuietly(statement);
+                }
+                statementCache.clear();
+            }
+        }
+
+        private void markBorrowed(boolean captureStack) {
+            borrowedAt = System.currentTimeMillis();
+            leakReported = false;
+            borrowStack = captureStack ? new Throwable("Vị trí mượn connection") : null;
+        }
+
+        private Connection newProxy() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new ConnectionHandler(this));
+        }
+    }
+
+    /**
+     * Proxy chặn close()/isClosed(), mọi lệnh khác chuyển thẳng xuống connection vật lý
+     */
+    private final class ConnectionHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned;
+
+        private ConnectionHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        giveBack(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection đã được trả về pool");
+            }
+            if (config.statementCacheSize > 0 && "prepareStatement".equals(method.getName())) {
+                Class<?>[] types = method.getParameterTypes();
+                if (types.length == 1) {
+                    return pooled.prepare((String) args[0], java.sql.Statement.NO_GENERATED_KEYS);
+                }
+                if (types.length == 2 && types[1] == int.class) {
+                    return pooled.prepare((String) args[0], (Integer) args[1]);
+                }
+            }
+            return invokePhysical(pooled, pooled.physical, method, args);
+        }
+    }
+
+    /**
+     * Proxy của PreparedStatement: close() trả statement về cache của connection
+     */
+    private final class StatementHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final String key;
+        private final PreparedStatement statement;
+        private boolean released;
+
+        private StatementHandler(PooledConnection pooled, String key, PreparedStatement statement) {
+            this.pooled = pooled;
+            this.key = key;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        pooled.release(key, statement);
+                    }
+                    return null;
+                case "isClosed":
+                    return released || statement.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + statement + "]";
+                default:
+                    break;
+            }
+            if (released) {
+                throw new SQLException("PreparedStatement đã bị đóng");
+            }
+            return invokePhysical(pooled, statement, method, args);
+        }
+    }
+
+    /**
+     * Gọi phương thức trên đối tượng JDBC thật, đánh dấu connection hỏng nếu gặp lỗi kết nối
+     */
+    private static Object invokePhysical(PooledConnection pooled, Object target, Method method, Object[] args)
+            throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException && isFatal((SQLException) cause)) {
+                pooled.broken = true;
+            }
+            throw cause;
+        }
+    }
+
+    // SQLState lớp 08 = lỗi kết nối, connection không dùng lại được
+    private static boolean isFatal(SQLException e) {
+        String sqlState = e.getSQLState();
+        return sqlState != null && sqlState.startsWith("08");
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            logger.debug("Lỗi khi đóng PreparedStatement", e);
+        }
+    }
+
+    /**
+     * Cấu hình pool, đọc từ ConfigLoader
+     */
+    public static final class Config {
+        private final int minSize;
+        private final int maxSize;
+        private final long maxWaitMs;
+        private final long idleTimeoutMs;
+        private final long leakDetectionMs;
+        private final int validationTimeoutSeconds;
+        private final long validationBypassMs;
+        private final long housekeepingMs;
+        private final int statementCacheSize;
+        private final boolean useServerPrepStmts;
+        private final boolean rewriteBatchedStatements;
+
+        public Config(int minSize, int maxSize, long maxWaitMs, long idleTimeoutMs, long leakDetectionMs,
+                      int validationTimeoutSeconds, long validationBypassMs, long housekeepingMs,
+                      int statementCacheSize, boolean useServerPrepStmts, boolean rewriteBatchedStatements) {
+            this.maxSize = Math.max(1, maxSize);
+            this.minSize = Math.max(0, Math.min(minSize, this.maxSize));
+            this.maxWaitMs = Math.max(0, maxWaitMs);
+            this.idleTimeoutMs = Math.max(1000, idleTimeoutMs);
+            this.leakDetectionMs = Math.max(0, leakDetectionMs);
+            this.validationTimeoutSeconds = Math.max(1, validationTimeoutSeconds);
+            this.validationBypassMs = Math.max(0, validationBypassMs);
+            this.housekeepingMs = Math.max(1000, housekeepingMs);
+            this.statementCacheSize = Math.max(0, statementCacheSize);
+            this.useServerPrepStmts = useServerPrepStmts;
+            this.rewriteBatchedStatements = rewriteBatchedStatements;
+        }
+
+        public static Config fromConfigLoader() {
+            return new Config(
+                    ConfigLoader.getIntProperty("DB_POOL_MIN_SIZE", 2),
+                    ConfigLoader.getIntProperty("DB_POOL_MAX_SIZE", 10),
+                    ConfigLoader.getLongProperty("DB_POOL_MAX_WAIT_MS", 5000),
+                    ConfigLoader.getLongProperty("DB_POOL_IDLE_TIMEOUT_MS", 300000),
+                    ConfigLoader.getLongProperty("DB_POOL_LEAK_DETECTION_MS", 60000),
+                    ConfigLoader.getIntProperty("DB_POOL_VALIDATION_TIMEOUT_S", 2),
+                    ConfigLoader.getLongProperty("DB_POOL_VALIDATION_BYPASS_MS", 500),
+                    ConfigLoader.getLongProperty("DB_POOL_HOUSEKEEPING_MS", 30000),
+                    ConfigLoader.getIntProperty("DB_STMT_CACHE_SIZE", 64),
+                    ConfigLoader.getBooleanProperty("DB_USE_SERVER_PREP_STMTS", true),
+                    ConfigLoader.getBooleanProperty("DB_REWRITE_BATCHED_STATEMENTS", true));
+        }
+
+        public int getMinSize() { return minSize; }
+        public int getMaxSize() { return maxSize; }
+        public int getStatementCacheSize() { return statementCacheSize; }
+    }
+
+    /**
+     * Snapshot số liệu của pool tại một thời điểm
+     */
+    public static final class PoolStats {
+        private final int total;
+        private final int idle;
+        private final int active;
+        private final int waiting;
+        private final long borrowCount;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+        private final long timeoutCount;
+        private final long createdCount;
+        private final long destroyedCount;
+        private final long validationFailureCount;
+        private final long leakCount;
+        private final long statementCacheHits;
+        private final long statementCacheMisses;
+        private final long statementCacheEvictions;
+
+        PoolStats(int total, int idle, int active, int waiting, long borrowCount, long totalWaitNanos,
+                  long maxWaitNanos, long timeoutCount, long createdCount, long destroyedCount,
+                  long validationFailureCount, long leakCount,
+                  long statementCacheHits, long statementCacheMisses, long statementCacheEvictions) {
+            this.total = total;
+            this.idle = idle;
+            this.active = active;
+            this.waiting = waiting;
+            this.borrowCount = borrowCount;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+            this.timeoutCount = timeoutCount;
+            this.createdCount = createdCount;
+            this.destroyedCount = destroyedCount;
+            this.validationFailureCount = validationFailureCount;
+            this.leakCount = leakCount;
+            this.statementCacheHits = statementCacheHits;
+            this.statementCacheMisses = statementCacheMisses;
+            this.statementCacheEvictions = statementCacheEvictions;
+        }
+
+        public int getTotal() { return total; }
+        public int getIdle() { return idle; }
+        public int getActive() { return active; }
+        public int getWaiting() { return waiting; }
+        public long getBorrowCount() { return borrowCount; }
+        public long getTimeoutCount() { return timeoutCount; }
+        public long getCreatedCount() { return createdCount; }
+        public long getDestroyedCount() { return destroyedCount; }
+        public long getValidationFailureCount() { return validationFailureCount; }
+        public long getLeakCount() { return leakCount; }
+        public long getStatementCacheHits() { return statementCacheHits; }
+        public long getStatementCacheMisses() { return statementCacheMisses; }
+        public long getStatementCacheEvictions() { return statementCacheEvictions; }
+
+        public double getStatementCacheHitRatio() {
+            long lookups = statementCacheHits + statementCacheMisses;
+            return lookups == 0 ? 0 : (double) statementCacheHits / lookups;
+        }
+
+        public double getAverageWaitMillis() {
+            return borrowCount == 0 ? 0 : totalWaitNanos / 1_000_000.0 / borrowCount;
+        }
+
+        public double getMaxWaitMillis() {
+            return maxWaitNanos / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("PoolStats{total=%d, idle=%d, active=%d, waiting=%d, borrows=%d, "
+                            + "avgWait=%.2fms, maxWait=%.2fms, timeouts=%d, created=%d, destroyed=%d, "
+                            + "validationFailures=%d, leaks=%d, stmtCacheHits=%d, stmtCacheMisses=%d, "
+                            + "stmtCacheEvictions=%d}",
+                    total, idle, active, waiting, borrowCount, getAverageWaitMillis(), getMaxWaitMillis(),
+                    timeoutCount, createdCount, destroyedCount, validationFailureCount, leakCount,
+                    statementCacheHits, statementCacheMisses, statementCacheEvictions);
+        }
+    }
+}
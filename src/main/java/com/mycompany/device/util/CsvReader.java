@@ -0,0 +1,164 @@
+package com.mycompany.device.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bộ đọc CSV dạng luồng: mỗi lần chỉ giữ một bản ghi trong bộ nhớ nên đọc được file rất lớn.
+ * Hỗ trợ trường trong ngoặc kép, "" để thoát dấu ngoặc kép, xuống dòng trong trường,
+ * CRLF/LF và ký tự BOM ở đầu file (file CSV do Excel xuất ra).
+ * @author Kim Ngan - Utility Layer
+ */
+public class CsvReader implements Closeable {
+
+    private static final char QUOTE = '"';
+    private static final char BOM = '\uFEFF';
+
+    private final Reader reader;
+    private final char delimiter;
+    private final char[] buffer = new char[8192];
+    private int bufferLength;
+    private int bufferPos;
+    private boolean eof;
+    private boolean firstChar = true;
+
+    // Số dòng vật lý đã đọc và dòng bắt đầu của bản ghi vừa trả về (đánh số từ 1)
+    private long lineNumber = 1;
+    private long recordLineNumber;
+
+    public CsvReader(Reader reader, char delimiter) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Đoán ký tự phân cách từ dòng đầu tiên: ',' mặc định, ';' hoặc tab nếu xuất hiện nhiều hơn
+     */
+    public static char detectDelimiter(String firstLine) {
+        if (firstLine == null) {
+            return ',';
+        }
+        int commas = 0;
+        int semicolons = 0;
+        int tabs = 0;
+        boolean inQuotes = false;
+        for (int i = 0; i < firstLine.length(); i++) {
+            char c = firstLine.charAt(i);
+            if (c == QUOTE) {
+                inQuotes = !inQuotes;
+            } else if (!inQuotes) {
+                if (c == ',') commas++;
+                else if (c == ';') semicolons++;
+                else if (c == '\t') tabs++;
+            }
+        }
+        if (semicolons > commas && semicolons >= tabs) {
+            return ';';
+        }
+        if (tabs > commas && tabs > semicolons) {
+            return '\t';
+        }
+        return ',';
+    }
+
+    /**
+     * Đọc bản ghi kế tiếp
+     * @return danh sách trường, hoặc null khi hết file
+     */
+    public List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        recordLineNumber = lineNumber;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+
+        while (true) {
+            if (c == -1) {
+                fields.add(field.toString());
+                return fields;
+            }
+            char ch = (char) c;
+            if (inQuotes) {
+                if (ch == QUOTE) {
+                    int next = peek();
+                    if (next == QUOTE) {
+                        read();
+                        field.append(QUOTE);
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    if (ch == '\n') {
+                        lineNumber++;
+                    }
+                    field.append(ch);
+                }
+            } else if (ch == QUOTE && field.length() == 0) {
+                inQuotes = true;
+            } else if (ch == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (ch == '\r' || ch == '\n') {
+                if (ch == '\r' && peek() == '\n') {
+                    read();
+                }
+                lineNumber++;
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append(ch);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * Dòng bắt đầu của bản ghi vừa đọc (đánh số từ 1), dùng cho báo lỗi
+     */
+    public long getRecordLineNumber() {
+        return recordLineNumber;
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c != -1) {
+            bufferPos++;
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (bufferPos >= bufferLength) {
+            if (eof) {
+                return -1;
+            }
+            bufferLength = reader.read(buffer, 0, buffer.length);
+            bufferPos = 0;
+            if (bufferLength <= 0) {
+                eof = true;
+                bufferLength = 0;
+                return -1;
+            }
+        }
+        if (firstChar) {
+            firstChar = false;
+            if (buffer[bufferPos] == BOM) {
+                bufferPos++;
+                return peek();
+            }
+        }
+        return buffer[bufferPos];
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -1,5 +1,9 @@
 package com.mycompany.device.util;
 
+import com.mycompany.device.metrics.Counter;
+import com.mycompany.device.metrics.Metrics;
+import com.mycompany.device.metrics.Timer;
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
@@ -15,6 +19,12 @@ public class DatabaseConnection {
     
     private static final Logger logger = LoggerFactory.getLogger(DatabaseConnection.class);
     
+    // Thời gian lấy kết nối (chờ pool hoặc mở mới); null khi metrics tắt
+    private static final Timer CONNECTION_TIMER =
+        Metrics.isEnabled() ? Metrics.timer("DatabaseConnection.getConnection") : null;
+    private static final Counter CONNECTION_ERRORS =
+        Metrics.isEnabled() ? Metrics.counter("DatabaseConnection.getConnection.errors") : null;
+    
     // Singleton instance
     private static DatabaseConnection instance;
     
@@ -23,6 +33,13 @@ public class DatabaseConnection {
     private String password;
     private String driver;
     
+    // Connection pool, khởi tạo lazy ở lần getConnection() đầu tiên
+    private ConnectionPool connectionPool;
+    private boolean poolEnabled;
+    
+    // Database nhúng (H2) được tạo bảng/dữ liệu ở lần kết nối đầu tiên
+    private volatile boolean embeddedReady;
+    
     // Private constructor để ngăn tạo instance từ bên ngoài
     private DatabaseConnection() {
         loadDatabaseConfig();
@@ -48,6 +65,7 @@ public class DatabaseConnection {
             username = ConfigLoader.getDatabaseUsername();
             password = ConfigLoader.getDatabasePassword();
             driver = ConfigLoader.getDatabaseDriver();
+            poolEnabled = ConfigLoader.getBooleanProperty("DB_POOL_ENABLED", true);
             
             logger.info("Database configuration loaded from ConfigLoader");
         } catch (Exception e) {
@@ -64,26 +82,89 @@ public class DatabaseConnection {
         username = "root";
         password = "";
         driver = "com.mysql.cj.jdbc.Driver";
+        poolEnabled = true;
     }
     
     /**
-     * Lấy kết nối database
+     * Lấy kết nối database từ connection pool.
+     * Gọi close() trên connection trả về sẽ trả nó lại pool.
      */
     public Connection getConnection() throws SQLException {
+        long start = CONNECTION_TIMER != null ? System.nanoTime() : 0L;
         try {
-            Class.forName(driver);
-            Connection connection = DriverManager.getConnection(url, username, password);
-            logger.debug("Database connection established");
-            return connection;
+            Connection connection;
+            if (!poolEnabled) {
+                Class.forName(driver);
+                connection = DriverManager.getConnection(url, username, password);
+                logger.debug("Database connection established");
+            } else {
+                connection = getConnectionPool().borrow();
+            }
+            if (CONNECTION_TIMER != null) {
+                CONNECTION_TIMER.record(System.nanoTime() - start);
+            }
+            return SqlTracer.wrap(ensureEmbeddedSchema(connection));
         } catch (ClassNotFoundException e) {
             logger.error("MySQL driver not found", e);
             throw new SQLException("MySQL driver not found", e);
         } catch (SQLException e) {
+            if (CONNECTION_ERRORS != null) {
+                CONNECTION_ERRORS.increment();
+            }
             logger.error("Failed to connect to database", e);
             throw e;
         }
     }
     
+    /**
+     * Với database nhúng, tạo bảng và dữ liệu trên kết nối đầu tiên trước khi trả cho DAO
+     */
+    private Connection ensureEmbeddedSchema(Connection connection) throws SQLException {
+        if (embeddedReady || !EmbeddedDatabase.isEmbedded(url)) {
+            return connection;
+        }
+        synchronized (this) {
+            if (!embeddedReady) {
+                try {
+                    EmbeddedDatabase.bootstrap(connection);
+                    embeddedReady = true;
+                } catch (SQLException | IOException | RuntimeException e) {
+                    connection.close();
+                    throw new SQLException("Không khởi tạo được database nhúng " + url, e);
+                }
+            }
+        }
+        return connection;
+    }
+    
+    /**
+     * Khởi tạo connection pool (chỉ một lần)
+     */
+    private synchronized ConnectionPool getConnectionPool() throws ClassNotFoundException {
+        if (connectionPool == null) {
+            Class.forName(driver);
+            connectionPool = new ConnectionPool(url, username, password, ConnectionPool.Config.fromConfigLoader());
+        }
+        return connectionPool;
+    }
+    
+    /**
+     * Lấy số liệu của connection pool (null nếu pool chưa khởi tạo hoặc bị tắt)
+     */
+    public synchronized ConnectionPool.PoolStats getPoolStats() {
+        return connectionPool != null ? connectionPool.getStats() : null;
+    }
+    
+    /**
+     * Đóng connection pool, gọi khi tắt ứng dụng
+     */
+    public synchronized void shutdown() {
+        if (connectionPool != null) {
+            connectionPool.shutdown();
+            connectionPool = null;
+        }
+    }
+    
     /**
      * Đóng kết nối database
      */
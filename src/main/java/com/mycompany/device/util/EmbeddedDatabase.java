@@ -0,0 +1,195 @@
+package com.mycompany.device.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Database nhúng trong tiến trình (H2 chế độ MySQL) thay cho MySQL server, chọn bằng DB_URL=jdbc:h2:...
+ * Lần kết nối đầu tiên tạo bảng từ các script trong thư mục database/ (chuyển cú pháp MySQL sang H2),
+ * sau đó sinh dữ liệu giả lập theo DB_SEED_THIETBI hoặc chạy dữ liệu mẫu của script khi DB_SEED_THIETBI=0.
+ * Các *DAOMySQLImpl chạy không đổi trên database này.
+ * @author Kim Ngan - Utility Layer
+ */
+public final class EmbeddedDatabase {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedDatabase.class);
+
+    private static final String SCHEMA_DIR = ConfigLoader.getProperty("DB_SCHEMA_DIR", "database");
+    // Thứ tự tạo bảng theo khoá ngoại
+    private static final String[] SCHEMA_FILES = {
+        "create_phongban_table.sql",
+        "create_nhanvien_table.sql",
+        "create_loaithietbi_table.sql",
+        "create_thietbi_table.sql",
+        "create_yeucau_table.sql",
+        "create_capphat_table.sql"
+    };
+
+    private static final Pattern CREATE_TABLE = Pattern.compile(
+        "(?is)^CREATE\\s+TABLE\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?(\\w+)\\s*\\((.*)\\)[^)]*$");
+    private static final Pattern INLINE_INDEX = Pattern.compile(
+        "(?is)^(?:INDEX|KEY)\\s+(\\w+)\\s*(\\(.*\\))$");
+    // CHARACTER SET utf8mb4 / COLLATE = utf8mb4_0900_ai_ci: H2 không có collation theo cột
+    private static final Pattern CHARSET_COLLATE = Pattern.compile(
+        "(?i)\\s+(?:CHARACTER\\s+SET|CHARSET|COLLATE)\\s*=?\\s*\\w+");
+
+    private EmbeddedDatabase() {
+    }
+
+    public static boolean isEmbedded(String url) {
+        return url != null && url.startsWith("jdbc:h2:");
+    }
+
+    /**
+     * Tạo bảng và dữ liệu nếu database còn trống. Gọi một lần với kết nối đầu tiên.
+     */
+    public static void bootstrap(Connection conn) throws SQLException, IOException {
+        long start = System.nanoTime();
+        int soThietBi = Math.max(0, ConfigLoader.getIntProperty("DB_SEED_THIETBI", 0));
+        boolean daCoDuLieu = tableExists(conn, "ThietBi") && countRows(conn, "ThietBi") > 0;
+
+        int soBang = 0;
+        try (Statement st = conn.createStatement()) {
+            for (String file : SCHEMA_FILES) {
+                for (String sql : readStatements(Paths.get(SCHEMA_DIR, file))) {
+                    String upper = sql.toUpperCase(Locale.ROOT);
+                    if (upper.startsWith("CREATE TABLE")) {
+                        for (String ddl : translateCreateTable(sql)) {
+                            st.execute(ddl);
+                        }
+                        soBang++;
+                    } else if (upper.startsWith("INSERT") && soThietBi == 0 && !daCoDuLieu) {
+                        // Dữ liệu mẫu của script, chỉ dùng khi không sinh dữ liệu giả lập
+                        st.execute(sql);
+                    }
+                    // USE, SELECT kiểm tra, DELETE, ALTER ... COMMENT: chỉ có ý nghĩa trên MySQL
+                }
+            }
+        }
+        logger.info("Đã tạo {} bảng trên database nhúng từ {}", soBang, SCHEMA_DIR);
+
+        if (soThietBi > 0 && !daCoDuLieu) {
+            SyntheticDataGenerator.fromConfig().generate(conn);
+        }
+        logger.info("Khởi tạo database nhúng xong sau {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Đọc script, bỏ comment "-- ..." và tách theo dấu chấm phẩy ngoài chuỗi
+     */
+    static List<String> readStatements(Path file) throws IOException {
+        String script = Files.readString(file, StandardCharsets.UTF_8);
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inString = false;
+        for (int i = 0; i < script.length(); i++) {
+            char c = script.charAt(i);
+            if (!inString && c == '-' && script.startsWith("--", i)) {
+                int eol = script.indexOf('\n', i);
+                i = eol < 0 ? script.length() : eol;
+                current.append('\n');
+                continue;
+            }
+            if (c == '\'') {
+                inString = !inString;
+            }
+            if (c == ';' && !inString) {
+                addStatement(statements, current);
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        addStatement(statements, current);
+        return statements;
+    }
+
+    private static void addStatement(List<String> statements, StringBuilder sql) {
+        String trimmed = sql.toString().trim();
+        if (!trimmed.isEmpty()) {
+            statements.add(trimmed);
+        }
+    }
+
+    /**
+     * Chuyển CREATE TABLE của MySQL sang H2: bỏ charset/collation và FULLTEXT,
+     * tách INDEX khai báo trong bảng thành CREATE INDEX riêng.
+     */
+    static List<String> translateCreateTable(String sql) {
+        Matcher m = CREATE_TABLE.matcher(sql);
+        if (!m.matches()) {
+            throw new IllegalArgumentException("Không đọc được CREATE TABLE: " + sql);
+        }
+        String table = m.group(1);
+        List<String> columns = new ArrayList<>();
+        List<String> indexes = new ArrayList<>();
+        for (String item : splitTopLevel(m.group(2))) {
+            String def = CHARSET_COLLATE.matcher(item).replaceAll("").trim();
+            String upper = def.toUpperCase(Locale.ROOT);
+            if (upper.startsWith("FULLTEXT")) {
+                continue;
+            }
+            Matcher index = INLINE_INDEX.matcher(def);
+            if (index.matches()) {
+                indexes.add("CREATE INDEX IF NOT EXISTS " + index.group(1) + " ON " + table + " " + index.group(2));
+            } else {
+                columns.add(def);
+            }
+        }
+        List<String> ddl = new ArrayList<>();
+        ddl.add("CREATE TABLE IF NOT EXISTS " + table + " (\n    " + String.join(",\n    ", columns) + "\n)");
+        ddl.addAll(indexes);
+        return ddl;
+    }
+
+    private static List<String> splitTopLevel(String body) {
+        List<String> items = new ArrayList<>();
+        int depth = 0;
+        boolean inString = false;
+        int from = 0;
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c == '\'') {
+                inString = !inString;
+            } else if (!inString && c == '(') {
+                depth++;
+            } else if (!inString && c == ')') {
+                depth--;
+            } else if (!inString && depth == 0 && c == ',') {
+                items.add(body.substring(from, i).trim());
+                from = i + 1;
+            }
+        }
+        items.add(body.substring(from).trim());
+        items.removeIf(String::isEmpty);
+        return items;
+    }
+
+    private static boolean tableExists(Connection conn, String table) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getTables(null, null, table.toUpperCase(Locale.ROOT), null)) {
+            return rs.next();
+        }
+    }
+
+    private static long countRows(Connection conn, String table) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+}
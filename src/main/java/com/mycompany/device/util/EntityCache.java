@@ -0,0 +1,330 @@
+package com.mycompany.device.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cache thực thể dùng chung cho các DAO decorator.
+ * - Mỗi khoá một entry, giới hạn theo số lượng (LRU) và thời gian sống (TTL)
+ * - Thêm một snapshot toàn bộ danh sách (findAll/getAll...) có cùng TTL
+ * - Mọi thao tác ghi qua decorator sẽ xoá entry tương ứng và snapshot danh sách
+ * - Giá trị null không được cache; danh sách trả ra luôn là bản sao để caller thêm/xoá thoải mái
+ * - Thực thể vào/ra cache đều qua copier: caller sửa thuộc tính của đối tượng nhận được
+ *   (kể cả khi ghi lại thất bại) không làm bẩn bản trong cache
+ *
+ * Cấu hình trong config.env:
+ * ENTITY_CACHE_ENABLED, ENTITY_CACHE_MAX_SIZE, ENTITY_CACHE_TTL_MS
+ * @author Kim Ngan - Utility Layer
+ */
+public class EntityCache<K, V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntityCache.class);
+
+    // Tất cả cache đã tạo, để xem số liệu tập trung
+    private static final Map<String, EntityCache<?, ?>> REGISTRY = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final boolean enabled;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final UnaryOperator<V> copier;
+
+    // access-order = true: phần tử ít dùng nhất nằm đầu để evict
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private Snapshot<V> snapshot;
+    // Tăng mỗi lần invalidate; kết quả load bắt đầu trước đó sẽ không được ghi vào cache
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong listHits = new AtomicLong();
+    private final AtomicLong listMisses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * @param copier tạo bản sao thực thể (thường là copy constructor)
+     */
+    public EntityCache(String name, boolean enabled, int maxSize, long ttlMillis, UnaryOperator<V> copier) {
+        this.name = name;
+        this.enabled = enabled && maxSize > 0 && ttlMillis > 0;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.copier = copier;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > EntityCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        REGISTRY.put(name, this);
+        logger.info("Entity cache '{}': enabled={}, maxSize={}, ttl={}ms", name, this.enabled, maxSize, ttlMillis);
+    }
+
+    /**
+     * Tạo cache theo cấu hình chung trong config.env
+     */
+    public static <K, V> EntityCache<K, V> fromConfig(String name, UnaryOperator<V> copier) {
+        return new EntityCache<>(name,
+            ConfigLoader.getBooleanProperty("ENTITY_CACHE_ENABLED", true),
+            ConfigLoader.getIntProperty("ENTITY_CACHE_MAX_SIZE", 1000),
+            ConfigLoader.getLongProperty("ENTITY_CACHE_TTL_MS", 60000L),
+            copier);
+    }
+
+    /**
+     * Lấy theo khoá, nếu chưa có hoặc đã hết hạn thì gọi loader (ngoài khoá đồng bộ)
+     */
+    public V get(K key, Function<K, V> loader) {
+        if (!enabled || key == null) {
+            return loader.apply(key);
+        }
+        long startGeneration;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (!entry.isExpired(ttlMillis)) {
+                    hits.incrementAndGet();
+                    return copier.apply(entry.value);
+                }
+                entries.remove(key);
+                expirations.incrementAndGet();
+            }
+            misses.incrementAndGet();
+            startGeneration = generation;
+        }
+
+        V value = loader.apply(key);
+        if (value != null) {
+            synchronized (this) {
+                if (generation == startGeneration) {
+                    entries.put(key, new Entry<>(copier.apply(value)));
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Lấy toàn bộ danh sách; khi tải mới sẽ nạp luôn từng entry theo keyFn
+     */
+    public List<V> getAll(Supplier<List<V>> loader, Function<V, K> keyFn) {
+        if (!enabled) {
+            return loader.get();
+        }
+        long startGeneration;
+        synchronized (this) {
+            if (snapshot != null) {
+                if (!snapshot.isExpired(ttlMillis)) {
+                    listHits.incrementAndGet();
+                    return copyOf(snapshot.values);
+                }
+                snapshot = null;
+                expirations.incrementAndGet();
+            }
+            listMisses.incrementAndGet();
+            startGeneration = generation;
+        }
+
+        List<V> values = loader.get();
+        if (values == null) {
+            return new ArrayList<>();
+        }
+        synchronized (this) {
+            if (generation == startGeneration) {
+                // Snapshot và entry theo khoá dùng chung một bản sao, tách khỏi danh sách trả cho caller
+                List<V> cached = copyOf(values);
+                snapshot = new Snapshot<>(Collections.unmodifiableList(cached));
+                for (V value : cached) {
+                    K key = keyFn.apply(value);
+                    if (key != null) {
+                        entries.put(key, new Entry<>(value));
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(values);
+    }
+
+    private List<V> copyOf(List<V> values) {
+        List<V> result = new ArrayList<>(values.size());
+        for (V value : values) {
+            result.add(value != null ? copier.apply(value) : null);
+        }
+        return result;
+    }
+
+    /**
+     * Xoá một entry và snapshot danh sách
+     */
+    public synchronized void invalidate(K key) {
+        if (!enabled) {
+            return;
+        }
+        generation++;
+        invalidations.incrementAndGet();
+        snapshot = null;
+        if (key != null) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Chỉ xoá snapshot danh sách (ví dụ khi thêm mới mà chưa biết khoá)
+     */
+    public synchronized void invalidateList() {
+        if (!enabled) {
+            return;
+        }
+        generation++;
+        invalidations.incrementAndGet();
+        snapshot = null;
+    }
+
+    /**
+     * Xoá toàn bộ cache
+     */
+    public synchronized void invalidateAll() {
+        if (!enabled) {
+            return;
+        }
+        generation++;
+        invalidations.incrementAndGet();
+        snapshot = null;
+        entries.clear();
+    }
+
+    /**
+     * Dọn các entry đã hết hạn
+     */
+    public synchronized void purgeExpired() {
+        Iterator<Entry<V>> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().isExpired(ttlMillis)) {
+                it.remove();
+                expirations.incrementAndGet();
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(name, entries.size(), snapshot != null,
+            hits.get(), misses.get(), listHits.get(), listMisses.get(),
+            evictions.get(), expirations.get(), invalidations.get());
+    }
+
+    /**
+     * Số liệu của tất cả cache thực thể
+     */
+    public static List<CacheStats> getAllStats() {
+        List<CacheStats> result = new ArrayList<>();
+        for (EntityCache<?, ?> cache : REGISTRY.values()) {
+            result.add(cache.getStats());
+        }
+        return result;
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long loadedAt = System.currentTimeMillis();
+
+        private Entry(V value) {
+            this.value = value;
+        }
+
+        private boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+    }
+
+    private static final class Snapshot<V> {
+        private final List<V> values;
+        private final long loadedAt = System.currentTimeMillis();
+
+        private Snapshot(List<V> values) {
+            this.values = values;
+        }
+
+        private boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+    }
+
+    /**
+     * Số liệu của một cache
+     */
+    public static final class CacheStats {
+        private final String name;
+        private final int size;
+        private final boolean listCached;
+        private final long hits;
+        private final long misses;
+        private final long listHits;
+        private final long listMisses;
+        private final long evictions;
+        private final long expirations;
+        private final long invalidations;
+
+        CacheStats(String name, int size, boolean listCached, long hits, long misses, long listHits,
+                   long listMisses, long evictions, long expirations, long invalidations) {
+            this.name = name;
+            this.size = size;
+            this.listCached = listCached;
+            this.hits = hits;
+            this.misses = misses;
+            this.listHits = listHits;
+            this.listMisses = listMisses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.invalidations = invalidations;
+        }
+
+        public String getName() { return name; }
+        public int getSize() { return size; }
+        public boolean isListCached() { return listCached; }
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getListHits() { return listHits; }
+        public long getListMisses() { return listMisses; }
+        public long getEvictions() { return evictions; }
+        public long getExpirations() { return expirations; }
+        public long getInvalidations() { return invalidations; }
+
+        /**
+         * Tỉ lệ trúng cache (tính cả tra cứu theo khoá và theo danh sách)
+         */
+        public double getHitRatio() {
+            long total = hits + misses + listHits + listMisses;
+            return total == 0 ? 0.0 : (double) (hits + listHits) / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("CacheStats{%s: size=%d, list=%s, hits=%d, misses=%d, listHits=%d, "
+                    + "listMisses=%d, hitRatio=%.2f, evictions=%d, expirations=%d, invalidations=%d}",
+                name, size, listCached, hits, misses, listHits, listMisses, getHitRatio(),
+                evictions, expirations, invalidations);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.mycompany.device.util;
+
+import com.mycompany.device.model.CapPhat;
+import com.mycompany.device.model.LichSuCapPhat;
+import com.mycompany.device.model.NhanVien;
+import com.mycompany.device.model.PhongBan;
+import com.mycompany.device.model.ThietBi;
+import com.mycompany.device.model.YeuCau;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bộ index dùng để join dữ liệu cấp phát trong bộ nhớ.
+ * Các HashMap theo id/maNhanVien/maPhongBan được dựng một lần cho mỗi lần tải dữ liệu,
+ * nên mỗi lần tra cứu là O(1) thay vì quét cả danh sách.
+ * @author Kim Ngan - Utility Layer
+ */
+public class LichSuCapPhatIndex {
+
+    // Sắp xếp mới nhất trước, ngayCap null xuống cuối, cùng ngày thì id lớn trước
+    private static final Comparator<CapPhat> NEWEST_FIRST = Comparator
+        .comparing(CapPhat::getNgayCap, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+        .thenComparing(CapPhat::getId, Comparator.nullsLast(Comparator.<Long>reverseOrder()));
+
+    private final List<CapPhat> capPhatList;
+    private final Map<Long, YeuCau> yeuCauById;
+    private final Map<Long, ThietBi> thietBiById;
+    private final Map<String, NhanVien> nhanVienByMa;
+    private final Map<String, PhongBan> phongBanByMa;
+    // Cấp phát theo thiết bị (qua YeuCau.thietBiId), đã sắp xếp mới nhất trước
+    private final Map<Long, List<CapPhat>> capPhatByThietBi;
+
+    public LichSuCapPhatIndex(List<CapPhat> capPhatList, List<YeuCau> yeuCauList, List<ThietBi> thietBiList,
+                              List<NhanVien> nhanVienList, List<PhongBan> phongBanList) {
+        this.yeuCauById = indexBy(yeuCauList, YeuCau::getId);
+        this.thietBiById = indexBy(thietBiList, ThietBi::getId);
+        this.nhanVienByMa = indexBy(nhanVienList, NhanVien::getMaNhanVien);
+        this.phongBanByMa = indexBy(phongBanList, PhongBan::getMaPhongBan);
+
+        List<CapPhat> sorted = new ArrayList<>(capPhatList != null ? capPhatList : Collections.emptyList());
+        sorted.sort(NEWEST_FIRST);
+        this.capPhatList = sorted;
+
+        this.capPhatByThietBi = new HashMap<>();
+        for (CapPhat capPhat : sorted) {
+            YeuCau yeuCau = yeuCauById.get(capPhat.getYeuCauId());
+            if (yeuCau != null && yeuCau.getThietBiId() != null) {
+                capPhatByThietBi.computeIfAbsent(yeuCau.getThietBiId(), k -> new ArrayList<>()).add(capPhat);
+            }
+        }
+    }
+
+    private static <K, V> Map<K, V> indexBy(List<V> list, Function<V, K> keyFn) {
+        if (list == null) {
+            return Collections.emptyMap();
+        }
+        Map<K, V> map = new HashMap<>(list.size() * 4 / 3 + 1);
+        for (V item : list) {
+            K key = keyFn.apply(item);
+            if (key != null) {
+                // Giữ bản ghi đầu tiên giống hành vi findFirst() trước đây
+                map.putIfAbsent(key, item);
+            }
+        }
+        return map;
+    }
+
+    // Tra cứu O(1)
+    public YeuCau findYeuCauById(Long id) {
+        return id != null ? yeuCauById.get(id) : null;
+    }
+
+    public ThietBi findThietBiById(Long id) {
+        return id != null ? thietBiById.get(id) : null;
+    }
+
+    public NhanVien findNhanVienByMa(String maNhanVien) {
+        return maNhanVien != null ? nhanVienByMa.get(maNhanVien) : null;
+    }
+
+    public PhongBan findPhongBanByMa(String maPhongBan) {
+        return maPhongBan != null ? phongBanByMa.get(maPhongBan) : null;
+    }
+
+    /**
+     * Lấy các dòng lịch sử đã join, mới nhất trước
+     * @param thietBiId lọc theo thiết bị, null = tất cả
+     */
+    public List<LichSuCapPhat> buildRows(Long thietBiId) {
+        List<CapPhat> source = thietBiId == null
+            ? capPhatList
+            : capPhatByThietBi.getOrDefault(thietBiId, Collections.emptyList());
+
+        List<LichSuCapPhat> rows = new ArrayList<>(source.size());
+        for (CapPhat capPhat : source) {
+            LichSuCapPhat row = toRow(capPhat);
+            if (row != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Join một cấp phát thành dòng lịch sử; null nếu không tìm thấy yêu cầu tương ứng
+     */
+    public LichSuCapPhat toRow(CapPhat capPhat) {
+        YeuCau yeuCau = findYeuCauById(capPhat.getYeuCauId());
+        if (yeuCau == null) {
+            return null;
+        }
+
+        ThietBi thietBi = findThietBiById(yeuCau.getThietBiId());
+        NhanVien nhanVien = findNhanVienByMa(yeuCau.getNhanVienId());
+        PhongBan phongBan = nhanVien != null ? findPhongBanByMa(nhanVien.getMaPhongBan()) : null;
+
+        LichSuCapPhat row = new LichSuCapPhat();
+        row.setCapPhatId(capPhat.getId());
+        row.setYeuCauId(yeuCau.getId());
+        row.setThietBiId(yeuCau.getThietBiId());
+        row.setSoSerial(thietBi != null ? thietBi.getSoSerial() : null);
+        row.setThietBiGhiChu(thietBi != null ? thietBi.getGhiChu() : null);
+        row.setMaNhanVien(yeuCau.getNhanVienId());
+        row.setTenNhanVien(nhanVien != null ? nhanVien.getTenNhanVien() : null);
+        row.setTenPhongBan(phongBan != null ? phongBan.getTenPhongBan() : null);
+        row.setNgayYeuCau(yeuCau.getNgayTao());
+        row.setNgayCap(capPhat.getNgayCap());
+        row.setNgayTra(capPhat.getNgayTra());
+        row.setTinhTrangTra(capPhat.getTinhTrangTra());
+        row.setGhiChu(capPhat.getGhiChu());
+        return row;
+    }
+
+    /**
+     * Các cấp phát chưa trả, nhóm theo thiết bị
+     */
+    public Map<Long, List<CapPhat>> getActiveCapPhatByThietBi() {
+        Map<Long, List<CapPhat>> result = new HashMap<>();
+        for (Map.Entry<Long, List<CapPhat>> entry : capPhatByThietBi.entrySet()) {
+            for (CapPhat capPhat : entry.getValue()) {
+                if (capPhat.getNgayTra() == null) {
+                    result.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).add(capPhat);
+                }
+            }
+        }
+        return result;
+    }
+
+    public int getCapPhatCount() {
+        return capPhatList.size();
+    }
+}
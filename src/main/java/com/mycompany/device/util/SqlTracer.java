@@ -0,0 +1,471 @@
+package com.mycompany.device.util;
+
+import com.mycompany.device.metrics.Counter;
+import com.mycompany.device.metrics.Metrics;
+import com.mycompany.device.metrics.Timer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lớp bọc JDBC đo thời gian mọi lệnh SQL của DAO (tắt mặc định, bật bằng SQL_TRACE_ENABLED=true).
+ * DatabaseConnection bọc connection trả ra; mọi Statement/PreparedStatement tạo từ đó
+ * được đo thời gian thực thi, đếm số tham số đã gán và số dòng trả về/bị ảnh hưởng.
+ * Với SELECT, thời gian tính tới khi ResultSet (hoặc statement) được đóng để gồm cả thời gian đọc dòng.
+ * Lệnh chậm hơn SQL_SLOW_QUERY_MS được ghi vào logger riêng "com.mycompany.device.slowquery"
+ * (logs/slow-query.log); SQL_SLOW_QUERY_EXPLAIN=true chạy thêm EXPLAIN cho SELECT chậm trên luồng nền
+ * với connection riêng, tối đa một lần mỗi phút cho mỗi câu SQL.
+ * @author Kim Ngan - Utility Layer
+ */
+public final class SqlTracer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlTracer.class);
+    private static final Logger slowLog = LoggerFactory.getLogger("com.mycompany.device.slowquery");
+
+    private static final boolean ENABLED = ConfigLoader.getBooleanProperty("SQL_TRACE_ENABLED", false);
+    private static final long SLOW_THRESHOLD_NANOS =
+        TimeUnit.MILLISECONDS.toNanos(ConfigLoader.getLongProperty("SQL_SLOW_QUERY_MS", 500));
+    private static final boolean EXPLAIN_SLOW = ConfigLoader.getBooleanProperty("SQL_SLOW_QUERY_EXPLAIN", false);
+    private static final long EXPLAIN_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+    // EXPLAIN chờ chạy tối đa; quá thì bỏ, không để lệnh chậm dồn thêm tải lên database
+    private static final int EXPLAIN_QUEUE_SIZE = 16;
+    private static final int MAX_LOGGED_SQL_LENGTH = 2000;
+
+    private static final String SELECT = "SELECT";
+    private static final String INSERT = "INSERT";
+    private static final String UPDATE = "UPDATE";
+    private static final String DELETE = "DELETE";
+    private static final String OTHER = "OTHER";
+
+    private static final Counter SLOW_COUNTER = Metrics.isEnabled() ? Metrics.counter("SQL.slow") : null;
+    private static final Counter ROWS_COUNTER = Metrics.isEnabled() ? Metrics.counter("SQL.rows") : null;
+    // Timer theo loại lệnh, lấy sẵn để không ghép tên và tra map ở mỗi lệnh
+    private static final Timer SELECT_TIMER = Metrics.isEnabled() ? Metrics.timer("SQL." + SELECT) : null;
+    private static final Timer INSERT_TIMER = Metrics.isEnabled() ? Metrics.timer("SQL." + INSERT) : null;
+    private static final Timer UPDATE_TIMER = Metrics.isEnabled() ? Metrics.timer("SQL." + UPDATE) : null;
+    private static final Timer DELETE_TIMER = Metrics.isEnabled() ? Metrics.timer("SQL." + DELETE) : null;
+    private static final Timer OTHER_TIMER = Metrics.isEnabled() ? Metrics.timer("SQL." + OTHER) : null;
+
+    // Lần EXPLAIN gần nhất theo câu SQL, tránh chạy EXPLAIN liên tục khi cùng một câu chậm lặp lại
+    private static final ConcurrentMap<String, Long> lastExplained = new ConcurrentHashMap<>();
+
+    private SqlTracer() {
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Bọc connection để đo các lệnh SQL; trả nguyên connection khi SQL_TRACE_ENABLED=false
+     */
+    public static Connection wrap(Connection connection) {
+        if (!ENABLED || connection == null) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    /**
+     * Proxy của connection: bọc statement được tạo ra, các lệnh khác chuyển thẳng xuống
+     */
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = invokeTarget(proxy, target, method, args);
+            String name = method.getName();
+            if (result instanceof Statement
+                    && ("prepareStatement".equals(name) || "prepareCall".equals(name) || "createStatement".equals(name))) {
+                String sql = "createStatement".equals(name) ? null : (String) args[0];
+                return Proxy.newProxyInstance(
+                        Statement.class.getClassLoader(),
+                        new Class<?>[]{method.getReturnType()},
+                        new StatementHandler((Statement) result, sql));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Proxy của statement: đo thời gian các lệnh execute*.
+     * Lệnh SELECT đang đọc dở được giữ ngay trong handler (một statement chỉ có một ResultSet mở),
+     * không tạo đối tượng riêng cho mỗi lần thực thi.
+     */
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        // Loại lệnh của preparedSql, chỉ tính khi cần ghi nhận
+        private String preparedKind;
+        private int paramCount;
+        private Object[] params;
+        private int batchSize;
+
+        // SELECT đang chờ ResultSet đóng; pendingId tăng mỗi lần để ResultSet cũ không ghi nhận nhầm
+        private boolean pending;
+        private int pendingId;
+        private String pendingSql;
+        private long pendingStart;
+        private long pendingExecute;
+        private long pendingRows;
+
+        private StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "executeQuery":
+                    return executeQuery(proxy, method, args);
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                case "execute":
+                case "executeBatch":
+                case "executeLargeBatch":
+                    return executeUpdate(proxy, method, args);
+                case "addBatch":
+                    batchSize++;
+                    break;
+                case "clearParameters":
+                    paramCount = 0;
+                    params = null;
+                    break;
+                case "close":
+                    finishPending();
+                    break;
+                default:
+                    if (name.startsWith("set") && args != null && args.length >= 2
+                            && method.getParameterTypes()[0] == int.class) {
+                        rememberParameter((Integer) args[0], name.equals("setNull") ? null : args[1]);
+                    }
+                    break;
+            }
+            return invokeTarget(proxy, target, method, args);
+        }
+
+        private Object executeQuery(Object proxy, Method method, Object[] args) throws Throwable {
+            finishPending();
+            String sql = sqlOf(args);
+            long start = System.nanoTime();
+            ResultSet resultSet = (ResultSet) invokeTarget(proxy, target, method, args);
+            pending = true;
+            pendingId++;
+            pendingSql = sql;
+            pendingStart = start;
+            pendingExecute = System.nanoTime() - start;
+            pendingRows = 0;
+            return Proxy.newProxyInstance(
+                    ResultSet.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class},
+                    new ResultSetHandler(resultSet, this, pendingId));
+        }
+
+        private Object executeUpdate(Object proxy, Method method, Object[] args) throws Throwable {
+            finishPending();
+            String sql = sqlOf(args);
+            int soLenh = batchSize;
+            long start = System.nanoTime();
+            Object result = invokeTarget(proxy, target, method, args);
+            long elapsed = System.nanoTime() - start;
+            if (method.getName().contains("Batch")) {
+                batchSize = 0;
+            }
+            record(sql, start, elapsed, affectedRows(result), soLenh);
+            return result;
+        }
+
+        private String sqlOf(Object[] args) {
+            return args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+        }
+
+        private void rememberParameter(int index, Object value) {
+            paramCount = Math.max(paramCount, index);
+            if (!EXPLAIN_SLOW) {
+                return;
+            }
+            if (params == null || params.length < index) {
+                params = Arrays.copyOf(params == null ? new Object[0] : params, Math.max(index, 8));
+            }
+            params[index - 1] = value;
+        }
+
+        private void rowRead(int id) {
+            if (pending && id == pendingId) {
+                pendingRows++;
+            }
+        }
+
+        private void resultSetClosed(int id) {
+            if (pending && id == pendingId) {
+                finishPending();
+            }
+        }
+
+        private void finishPending() {
+            if (pending) {
+                pending = false;
+                record(pendingSql, pendingStart, pendingExecute, pendingRows, 0);
+            }
+        }
+
+        /**
+         * Ghi nhận một lệnh đã xong; chỉ xác định loại lệnh khi metrics bật hoặc lệnh chậm
+         */
+        private void record(String sql, long startNanos, long executeNanos, long rows, int batch) {
+            long totalNanos = System.nanoTime() - startNanos;
+            boolean slow = totalNanos >= SLOW_THRESHOLD_NANOS;
+            if (!slow && !Metrics.isEnabled()) {
+                return;
+            }
+            String kind = kindOf(sql);
+            if (Metrics.isEnabled()) {
+                timerOf(kind).record(totalNanos);
+                if (rows > 0) {
+                    ROWS_COUNTER.add(rows);
+                }
+            }
+            if (slow) {
+                logSlow(sql, kind, totalNanos, executeNanos, rows, batch);
+            }
+        }
+
+        private String kindOf(String sql) {
+            if (sql != preparedSql) {
+                return SqlTracer.kindOf(sql);
+            }
+            if (preparedKind == null) {
+                preparedKind = SqlTracer.kindOf(sql);
+            }
+            return preparedKind;
+        }
+
+        private void logSlow(String sql, String kind, long totalNanos, long executeNanos, long rows, int batch) {
+            if (SLOW_COUNTER != null) {
+                SLOW_COUNTER.increment();
+            }
+            String template = normalize(sql);
+            String batchInfo = batch > 0 ? " batch=" + batch : "";
+            slowLog.warn(String.format(Locale.ROOT, "%.1f ms (thực thi %.1f ms) rows=%s params=%d%s | %s",
+                totalNanos / 1e6, executeNanos / 1e6,
+                rows < 0 ? "?" : String.valueOf(rows),
+                paramCount, batchInfo, truncate(template)));
+            if (EXPLAIN_SLOW && SELECT.equals(kind) && shouldExplain(template)) {
+                Object[] snapshot = params == null ? null : Arrays.copyOf(params, paramCount);
+                scheduleExplain(sql, snapshot);
+            }
+        }
+
+        private long affectedRows(Object result) throws SQLException {
+            if (result instanceof Number) {
+                return ((Number) result).longValue();
+            }
+            if (result instanceof int[]) {
+                long tong = 0;
+                for (int count : (int[]) result) {
+                    tong += Math.max(0, count);
+                }
+                return tong;
+            }
+            if (result instanceof long[]) {
+                long tong = 0;
+                for (long count : (long[]) result) {
+                    tong += Math.max(0, count);
+                }
+                return tong;
+            }
+            // execute(): true = có ResultSet, số dòng chưa biết
+            return Boolean.TRUE.equals(result) ? -1 : target.getUpdateCount();
+        }
+    }
+
+    /**
+     * Proxy của ResultSet: đếm số dòng đã đọc, ghi nhận lệnh khi đóng
+     */
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final StatementHandler statement;
+        private final int id;
+
+        private ResultSetHandler(ResultSet target, StatementHandler statement, int id) {
+            this.target = target;
+            this.statement = statement;
+            this.id = id;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = invokeTarget(proxy, target, method, args);
+            String name = method.getName();
+            if ("next".equals(name)) {
+                if (Boolean.TRUE.equals(result)) {
+                    statement.rowRead(id);
+                }
+            } else if ("close".equals(name)) {
+                statement.resultSetClosed(id);
+            }
+            return result;
+        }
+    }
+
+    private static boolean shouldExplain(String template) {
+        long now = System.nanoTime();
+        Long previous = lastExplained.get(template);
+        if (previous != null && now - previous < EXPLAIN_INTERVAL_NANOS) {
+            return false;
+        }
+        lastExplained.put(template, now);
+        return true;
+    }
+
+    /**
+     * Luồng nền chạy EXPLAIN, chỉ tạo khi SQL_SLOW_QUERY_EXPLAIN=true và có lệnh chậm đầu tiên
+     */
+    private static final class ExplainExecutor {
+        private static final ExecutorService EXECUTOR = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(EXPLAIN_QUEUE_SIZE),
+            r -> {
+                Thread thread = new Thread(r, "sql-explain");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * Đưa EXPLAIN sang luồng nền: luồng gọi (thường giữ transaction và connection của pool)
+     * không phải chờ thêm một lượt truy vấn
+     */
+    private static void scheduleExplain(String sql, Object[] params) {
+        ExplainExecutor.EXECUTOR.execute(() -> explain(sql, params));
+    }
+
+    /**
+     * Chạy EXPLAIN với cùng tham số trên một connection riêng và ghi kế hoạch vào slow-query log
+     */
+    private static void explain(String sql, Object[] params) {
+        try (Connection connection = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement ps = connection.prepareStatement("EXPLAIN " + sql)) {
+            if (params != null) {
+                for (int i = 0; i < params.length; i++) {
+                    ps.setObject(i + 1, params[i]);
+                }
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                StringBuilder plan = new StringBuilder();
+                while (rs.next()) {
+                    plan.append("\n  ");
+                    for (int col = 1; col <= meta.getColumnCount(); col++) {
+                        if (col > 1) {
+                            plan.append(" | ");
+                        }
+                        plan.append(meta.getColumnLabel(col)).append('=').append(rs.getObject(col));
+                    }
+                }
+                slowLog.warn("EXPLAIN {}{}", truncate(normalize(sql)), plan);
+            }
+        } catch (SQLException | RuntimeException e) {
+            logger.debug("Không chạy được EXPLAIN cho {}", sql, e);
+        }
+    }
+
+    /**
+     * Từ khoá đầu câu SQL, so sánh tại chỗ không tạo chuỗi mới
+     */
+    private static String kindOf(String sql) {
+        if (sql == null) {
+            return OTHER;
+        }
+        int start = 0;
+        while (start < sql.length() && Character.isWhitespace(sql.charAt(start))) {
+            start++;
+        }
+        if (startsWithKeyword(sql, start, SELECT)) {
+            return SELECT;
+        }
+        if (startsWithKeyword(sql, start, INSERT)) {
+            return INSERT;
+        }
+        if (startsWithKeyword(sql, start, UPDATE)) {
+            return UPDATE;
+        }
+        if (startsWithKeyword(sql, start, DELETE)) {
+            return DELETE;
+        }
+        return OTHER;
+    }
+
+    private static boolean startsWithKeyword(String sql, int start, String keyword) {
+        int end = start + keyword.length();
+        return sql.regionMatches(true, start, keyword, 0, keyword.length())
+            && (end == sql.length() || !Character.isLetter(sql.charAt(end)));
+    }
+
+    private static Timer timerOf(String kind) {
+        switch (kind) {
+            case SELECT:
+                return SELECT_TIMER;
+            case INSERT:
+                return INSERT_TIMER;
+            case UPDATE:
+                return UPDATE_TIMER;
+            case DELETE:
+                return DELETE_TIMER;
+            default:
+                return OTHER_TIMER;
+        }
+    }
+
+    private static String normalize(String sql) {
+        return sql == null ? "<batch>" : sql.replaceAll("\\s+", " ").trim();
+    }
+
+    private static String truncate(String sql) {
+        return sql.length() <= MAX_LOGGED_SQL_LENGTH ? sql : sql.substring(0, MAX_LOGGED_SQL_LENGTH) + "...";
+    }
+
+    /**
+     * Gọi phương thức trên đối tượng được bọc; equals/hashCode theo định danh của proxy
+     */
+    private static Object invokeTarget(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        if ("equals".equals(method.getName()) && args != null && args.length == 1) {
+            return proxy == args[0];
+        }
+        if ("hashCode".equals(method.getName()) && args == null) {
+            return System.identityHashCode(proxy);
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
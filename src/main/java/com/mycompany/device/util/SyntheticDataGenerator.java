@@ -0,0 +1,209 @@
+package com.mycompany.device.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Sinh dữ liệu giả lập cho database trống: phòng ban, loại thiết bị, nhân viên, thiết bị
+ * và (tuỳ chọn) lịch sử yêu cầu/cấp phát. Ghi bằng batch, commit theo từng lô
+ * nên sinh được cả triệu thiết bị mà không giữ một transaction khổng lồ.
+ * Dữ liệu có quy luật cố định để các lần chạy so sánh được với nhau:
+ * thiết bị thứ i có id = i khi bảng còn trống, yêu cầu thứ i là của thiết bị i,
+ * thiết bị id chẵn đã được cấp phát và một phần tư trong số đó đã trả.
+ * @author Kim Ngan - Utility Layer
+ */
+public class SyntheticDataGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    public static final String DEFAULT_PASSWORD = "123456";
+    private static final int BATCH_SIZE = 1000;
+    private static final String[] TEN_LOAI = {
+        "Laptop Dell Inspiron", "Laptop HP Pavilion", "Desktop Dell OptiPlex", "Monitor Samsung",
+        "Monitor LG", "Keyboard Logitech", "Mouse Logitech", "Printer Canon", "Scanner Epson", "Projector Epson"
+    };
+
+    private final int soPhongBan;
+    private final int soLoai;
+    private final int soNhanVien;
+    private final int soThietBi;
+    private final boolean taoLichSu;
+
+    public SyntheticDataGenerator(int soPhongBan, int soLoai, int soNhanVien, int soThietBi, boolean taoLichSu) {
+        this.soPhongBan = Math.max(1, soPhongBan);
+        this.soLoai = Math.max(1, soLoai);
+        this.soNhanVien = Math.max(1, soNhanVien);
+        this.soThietBi = Math.max(0, soThietBi);
+        this.taoLichSu = taoLichSu;
+    }
+
+    /**
+     * Quy mô theo cấu hình DB_SEED_*; số nhân viên mặc định tỉ lệ với số thiết bị
+     */
+    public static SyntheticDataGenerator fromConfig() {
+        int soThietBi = Math.max(0, ConfigLoader.getIntProperty("DB_SEED_THIETBI", 0));
+        return new SyntheticDataGenerator(
+            ConfigLoader.getIntProperty("DB_SEED_PHONGBAN", 10),
+            ConfigLoader.getIntProperty("DB_SEED_LOAITHIETBI", TEN_LOAI.length),
+            ConfigLoader.getIntProperty("DB_SEED_NHANVIEN", Math.max(20, soThietBi / 50)),
+            soThietBi,
+            ConfigLoader.getBooleanProperty("DB_SEED_LICH_SU", true));
+    }
+
+    public static String maPhongBan(int i) {
+        return "PB" + i;
+    }
+
+    public static String maNhanVien(int i) {
+        return String.format("NV%05d", i);
+    }
+
+    /**
+     * Ghi dữ liệu vào database; khôi phục auto-commit của kết nối khi xong
+     */
+    public void generate(Connection conn) throws SQLException {
+        long start = System.nanoTime();
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            sinhDanhMuc(conn);
+            sinhNhanVien(conn);
+            sinhThietBi(conn);
+            if (taoLichSu) {
+                sinhLichSu(conn);
+            }
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        logger.info("Đã sinh {} phòng ban, {} loại, {} nhân viên, {} thiết bị{} trong {} ms",
+            soPhongBan, soLoai, soNhanVien, soThietBi, taoLichSu ? " kèm lịch sử cấp phát" : "",
+            (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void sinhDanhMuc(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO PhongBan (maPhongBan, tenPhongBan, moTa) VALUES (?, ?, ?)")) {
+            for (int i = 1; i <= soPhongBan; i++) {
+                ps.setString(1, maPhongBan(i));
+                ps.setString(2, "Phòng ban " + i);
+                ps.setString(3, null);
+                themVaoBatch(conn, ps, i);
+            }
+            ps.executeBatch();
+        }
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO LoaiThietBi (maLoai, tenLoai, moTa) VALUES (?, ?, ?)")) {
+            for (int i = 1; i <= soLoai; i++) {
+                ps.setString(1, "L" + i);
+                ps.setString(2, tenLoai(i));
+                ps.setString(3, "Loại thiết bị " + i);
+                themVaoBatch(conn, ps, i);
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void sinhNhanVien(Connection conn) throws SQLException {
+        // Cùng một mật khẩu cho mọi nhân viên: hash một lần thay vì mỗi dòng
+        String password = PasswordUtil.hashPassword(DEFAULT_PASSWORD);
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO NhanVien (maNhanVien, tenNhanVien, email, password, soDienThoai, role, maPhongBan) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= soNhanVien; i++) {
+                ps.setString(1, maNhanVien(i));
+                ps.setString(2, "Nhân viên " + i);
+                ps.setString(3, "nv" + i + "@example.local");
+                ps.setString(4, password);
+                ps.setString(5, String.format("09%08d", i));
+                ps.setString(6, i == 1 ? "ADMIN" : "STAFF");
+                ps.setString(7, maPhongBan(i % soPhongBan + 1));
+                themVaoBatch(conn, ps, i);
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void sinhThietBi(Connection conn) throws SQLException {
+        LocalDate ngayMuaDau = LocalDate.of(2020, 1, 1);
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO ThietBi (soSerial, loaiId, trangThai, ngayMua, giaMua, ghiChu) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= soThietBi; i++) {
+                String tenLoai = tenLoai(i % soLoai + 1);
+                ps.setString(1, String.format("TB%07d-%s", i, tenLoai.split(" ")[0].toUpperCase()));
+                ps.setLong(2, i % soLoai + 1);
+                ps.setString(3, taoLichSu && dangCapPhat(i) ? "DANG_CAP_PHAT" : "TON_KHO");
+                ps.setDate(4, Date.valueOf(ngayMuaDau.plusDays(i % 1500)));
+                ps.setBigDecimal(5, BigDecimal.valueOf(200_000L + (i % 100) * 150_000L));
+                ps.setString(6, tenLoai + " lô " + (i % 97));
+                themVaoBatch(conn, ps, i);
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void sinhLichSu(Connection conn) throws SQLException {
+        LocalDateTime batDau = LocalDateTime.of(2024, 1, 1, 8, 0);
+        try (PreparedStatement yc = conn.prepareStatement(
+                "INSERT INTO YeuCau (thietBiId, nhanVienId, trangThai, lyDo, ngayTao, ngayCapNhat) VALUES (?, ?, ?, ?, ?, ?)");
+             PreparedStatement cp = conn.prepareStatement(
+                "INSERT INTO CapPhat (yeuCauId, ngayCap, ngayTra, tinhTrangTra, ghiChu) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= soThietBi; i++) {
+                boolean daCapPhat = i % 2 == 0;
+                Timestamp ngayTao = Timestamp.valueOf(batDau.plusMinutes(i));
+                yc.setLong(1, i);
+                yc.setString(2, maNhanVien(i % soNhanVien + 1));
+                yc.setString(3, daCapPhat ? "DA_CAP_PHAT" : "CHO_DUYET");
+                yc.setString(4, "Cần thiết bị cho công việc " + i);
+                yc.setTimestamp(5, ngayTao);
+                yc.setTimestamp(6, ngayTao);
+                yc.addBatch();
+                if (daCapPhat) {
+                    boolean daTra = !dangCapPhat(i);
+                    cp.setLong(1, i);
+                    cp.setTimestamp(2, Timestamp.valueOf(batDau.plusMinutes(i + 30)));
+                    cp.setTimestamp(3, daTra ? Timestamp.valueOf(batDau.plusDays(30).plusMinutes(i)) : null);
+                    cp.setString(4, daTra ? "TOT" : null);
+                    cp.setString(5, "Cấp phát tự động " + i);
+                    cp.addBatch();
+                }
+                // YeuCau phải được ghi trước CapPhat tham chiếu tới nó
+                if (i % BATCH_SIZE == 0) {
+                    yc.executeBatch();
+                    cp.executeBatch();
+                    conn.commit();
+                }
+            }
+            yc.executeBatch();
+            cp.executeBatch();
+        }
+    }
+
+    private static boolean dangCapPhat(int i) {
+        return i % 2 == 0 && i % 8 != 0;
+    }
+
+    private static String tenLoai(int i) {
+        return TEN_LOAI[(i - 1) % TEN_LOAI.length];
+    }
+
+    private static void themVaoBatch(Connection conn, PreparedStatement ps, int i) throws SQLException {
+        ps.addBatch();
+        if (i % BATCH_SIZE == 0) {
+            ps.executeBatch();
+            conn.commit();
+        }
+    }
+}
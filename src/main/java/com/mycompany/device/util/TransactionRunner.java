@@ -0,0 +1,122 @@
+package com.mycompany.device.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Chạy một đơn vị công việc trong transaction trên một kết nối: commit khi xong, rollback khi có lỗi.
+ * Deadlock (1213) hoặc hết thời gian chờ khoá (1205) làm MySQL huỷ cả transaction nên công việc
+ * được chạy lại từ đầu, tối đa DB_DEADLOCK_RETRIES lần, chờ tăng dần theo DB_DEADLOCK_BACKOFF_MS.
+ * @author Kim Ngan - Utility Layer
+ */
+public final class TransactionRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionRunner.class);
+
+    // MySQL: ER_LOCK_DEADLOCK, ER_LOCK_WAIT_TIMEOUT
+    private static final int MYSQL_DEADLOCK = 1213;
+    private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+    private static final int DEADLOCK_RETRIES = Math.max(0, ConfigLoader.getIntProperty("DB_DEADLOCK_RETRIES", 3));
+    private static final long DEADLOCK_BACKOFF_MS = Math.max(1, ConfigLoader.getLongProperty("DB_DEADLOCK_BACKOFF_MS", 50));
+
+    /**
+     * Công việc chạy trên kết nối đã tắt auto-commit; không tự commit/rollback.
+     * Có thể bị gọi lại nhiều lần nên không được giữ trạng thái từ lần chạy trước.
+     */
+    public interface Work<T> {
+        T execute(Connection conn) throws SQLException;
+    }
+
+    private TransactionRunner() {
+    }
+
+    /**
+     * @param moTa mô tả công việc, dùng cho log khi thử lại
+     * @return kết quả của lần chạy đã commit
+     * @throws SQLException lỗi không thể thử lại, hoặc vẫn xung đột khoá sau khi hết số lần thử
+     */
+    public static <T> T execute(String moTa, Work<T> work) throws SQLException {
+        for (int lan = 1; ; lan++) {
+            try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+                boolean autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+                Exception loi = null;
+                try {
+                    T result = work.execute(conn);
+                    conn.commit();
+                    return result;
+                } catch (SQLException | RuntimeException e) {
+                    loi = e;
+                    rollback(conn, e);
+                    throw e;
+                } finally {
+                    khoiPhucAutoCommit(conn, autoCommit, loi);
+                }
+            } catch (SQLException e) {
+                if (!isLockConflict(e) || lan > DEADLOCK_RETRIES) {
+                    throw e;
+                }
+                logger.warn("Xung đột khoá khi {} (lần {}), thử lại: {}", moTa, lan, e.getMessage());
+                choTruocKhiThuLai(lan, e);
+            }
+        }
+    }
+
+    /**
+     * Rollback lỗi (thường do kết nối đã hỏng) không được che lỗi gốc: gắn vào lỗi gốc dưới dạng suppressed.
+     * Dùng chung cho các DAO tự quản lý transaction.
+     */
+    public static void rollback(Connection conn, Exception loi) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            loi.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Khôi phục auto-commit mà không che lỗi gốc (nếu có). Sau khi đã commit thì chỉ ghi log:
+     * dữ liệu đã lưu, ConnectionPool đặt lại auto-commit (hoặc huỷ kết nối) khi nhận lại kết nối.
+     */
+    public static void khoiPhucAutoCommit(Connection conn, boolean autoCommit, Exception loi) {
+        try {
+            conn.setAutoCommit(autoCommit);
+        } catch (SQLException e) {
+            if (loi != null) {
+                loi.addSuppressed(e);
+            } else {
+                logger.warn("Không khôi phục được auto-commit sau khi commit", e);
+            }
+        }
+    }
+
+    /**
+     * Deadlock hoặc hết thời gian chờ khoá: transaction đã bị huỷ, có thể chạy lại
+     */
+    public static boolean isLockConflict(SQLException e) {
+        for (SQLException current = e; current != null; current = current.getNextException()) {
+            if (current.getErrorCode() == MYSQL_DEADLOCK || current.getErrorCode() == MYSQL_LOCK_WAIT_TIMEOUT
+                    || "40001".equals(current.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Chờ tăng dần kèm ngẫu nhiên để các transaction xung đột không thử lại cùng lúc
+     */
+    private static void choTruocKhiThuLai(int lan, SQLException cause) throws SQLException {
+        long delay = DEADLOCK_BACKOFF_MS * lan + ThreadLocalRandom.current().nextLong(DEADLOCK_BACKOFF_MS + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Bị ngắt khi chờ thử lại transaction", cause);
+        }
+    }
+}